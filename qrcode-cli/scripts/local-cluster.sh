@@ -0,0 +1,60 @@
+#!/usr/bin/env sh
+# Local test of distributed batches: splits a generated input into a queue, runs several worker
+# processes against it, kills one of them mid-run so its chunk must be reclaimed after the lease
+# expires, and checks that every line ended up in exactly one manifest.
+# Usage: scripts/local-cluster.sh [workers] [lines] [chunk size]   (after `mvn package`)
+DIR=$(CDPATH= cd -- "$(dirname -- "$0")" && pwd)
+QRGEN_HOME=${QRGEN_HOME:-"$DIR/../target"}
+JAVA=${JAVA_HOME:+"$JAVA_HOME/bin/"}java
+WORKERS=${1:-3}
+LINES=${2:-3000}
+CHUNK=${3:-250}
+WORK=$(mktemp -d)
+trap 'rm -rf "$WORK"' EXIT
+
+i=1
+while [ "$i" -le "$LINES" ]; do
+  printf 'https://example.com/item/%d\titem-%d\n' "$i" "$i"
+  i=$((i + 1))
+done > "$WORK/input.txt"
+
+"$JAVA" -jar "$QRGEN_HOME/qrgen.jar" coordinate "$WORK/input.txt" "$WORK/queue" --chunk-size "$CHUNK" > "$WORK/coordinator.log" 2>&1 &
+COORDINATOR=$!
+sleep 1
+
+pids=""
+w=1
+while [ "$w" -le "$WORKERS" ]; do
+  "$JAVA" -jar "$QRGEN_HOME/qrgen.jar" work "$WORK/queue" -o "$WORK/out" --workers 2 --lease 5 --id "local-$w" -w 120 -h 120 > "$WORK/worker-$w.log" 2>&1 &
+  pids="$pids $!"
+  w=$((w + 1))
+done
+
+# simulate a crashed node: once local-1 holds a lease, kill it so the chunk must be reclaimed
+victim=${pids# }; victim=${victim%% *}
+tries=0
+until ls "$WORK/queue/leased" 2>/dev/null | grep -q '~local-1~' || [ "$tries" -ge 300 ]; do
+  sleep 0.1
+  tries=$((tries + 1))
+done
+kill -9 "$victim" 2>/dev/null && echo "killed worker local-1 (pid $victim) holding $(ls "$WORK/queue/leased" | grep '~local-1~' | cut -d'~' -f1)"
+
+wait "$COORDINATOR"
+status=$?
+for pid in $pids; do wait "$pid" 2>/dev/null; done
+
+tail -n 1 "$WORK/coordinator.log"
+grep -h "expired" "$WORK/coordinator.log" "$WORK"/worker-*.log | head -n 5
+for w in $(seq 1 "$WORKERS"); do
+  printf 'local-%d: %s chunk(s)\n' "$w" "$(grep -c ' done in ' "$WORK/worker-$w.log")"
+done
+
+written=$(cat "$WORK"/queue/manifests/*.manifest | grep -vc '^#')
+distinct=$(cat "$WORK"/queue/manifests/*.manifest | grep -v '^#' | cut -f1 | sort -u | wc -l)
+files=$(find "$WORK/out" -name '*.png' | wc -l)
+echo "lines: $LINES, manifest entries: $written, distinct payloads: $distinct, png files: $files"
+if [ "$status" -ne 0 ] || [ "$written" -ne "$LINES" ] || [ "$distinct" -ne "$LINES" ] || [ "$files" -ne "$LINES" ]; then
+  echo "FAILED"
+  exit 1
+fi
+echo "OK"
@@ -0,0 +1,44 @@
+#!/usr/bin/env sh
+# Cold-start benchmark: runs `qrgen verify --help` and one small generate with and without the
+# AppCDS archive and prints the mean wall time per variant in milliseconds.
+# Usage: scripts/startup-bench.sh [runs]   (after `mvn -Pappcds package`)
+DIR=$(CDPATH= cd -- "$(dirname -- "$0")" && pwd)
+QRGEN_HOME=${QRGEN_HOME:-"$DIR/../target"}
+JAVA=${JAVA_HOME:+"$JAVA_HOME/bin/"}java
+RUNS=${1:-10}
+OUT=$(mktemp -d)
+trap 'rm -rf "$OUT"' EXIT
+
+if [ ! -f "$QRGEN_HOME/qrgen.jsa" ]; then
+  echo "No archive at $QRGEN_HOME/qrgen.jsa, run 'mvn -Pappcds package' first." >&2
+  exit 1
+fi
+
+now_ms() {
+  date +%s%3N
+}
+
+# bench <label> <jvm flags...> -- <qrgen args...>
+bench() {
+  label=$1; shift
+  flags=""
+  while [ "$1" != "--" ]; do flags="$flags $1"; shift; done
+  shift
+  total=0
+  i=0
+  while [ "$i" -lt "$RUNS" ]; do
+    start=$(now_ms)
+    "$JAVA" $flags -jar "$QRGEN_HOME/qrgen.jar" "$@" > /dev/null 2>&1
+    end=$(now_ms)
+    total=$((total + end - start))
+    i=$((i + 1))
+  done
+  printf '%-28s %6d ms\n' "$label" $((total / RUNS))
+}
+
+echo "mean of $RUNS runs"
+# the root command has no --help (-h is the height), so time the help of a subcommand
+bench "help (no CDS)"      -Xshare:off -- verify --help
+bench "help (AppCDS)"      -XX:SharedArchiveFile="$QRGEN_HOME/qrgen.jsa" -- verify --help
+bench "generate (no CDS)"  -Xshare:off -- "https://example.com" -o "$OUT"
+bench "generate (AppCDS)"  -XX:SharedArchiveFile="$QRGEN_HOME/qrgen.jsa" -- "https://example.com" -o "$OUT"
@@ -17,7 +17,9 @@ public class CliMain {
      */
     public static void main(String[] args) {
         // Executes the command and exits with appropriate status code
-        int exitCode = new CommandLine(new GenerateCommand()).execute(args);
+        int exitCode = new CommandLine(new GenerateCommand())
+                .setCaseInsensitiveEnumValuesAllowed(true)
+                .execute(args);
         System.exit(exitCode);
     }
 }
@@ -0,0 +1,50 @@
+package gr.omaro.qr_generator_cli.commands;
+
+import lombok.Getter;
+import picocli.CommandLine;
+
+/**
+ * Command-line options for batch QR code generation.
+ * <p>
+ * Uses Picocli to parse the input file, image size, output directory and worker count.
+ */
+@SuppressWarnings({"FieldMayBeFinal","FieldCanBeLocal", "unused"})
+@Getter
+public class BatchOptions {
+
+    /**
+     * File with one URL or text per line.
+     */
+    @CommandLine.Parameters(index = "0", description = "File with one URL or text per line.")
+    private String inputFile;
+    /**
+     * Width of the QR code images in pixels.
+     */
+    @CommandLine.Option(names = {"-w", "--width"}, description = "QR code width in pixels. Default: ${DEFAULT-VALUE}")
+    private int width = 300;
+    /**
+     * Height of the QR code images in pixels.
+     */
+    @CommandLine.Option(names = {"-h", "--height"}, description = "QR code height in pixels. Default: ${DEFAULT-VALUE}")
+    private int height = 300;
+    /**
+     * Optional output directory to save the QR code images.
+     */
+    @CommandLine.Option(names = {"-o", "--output"}, description = "Override output directory.")
+    private String outputDir;
+    /**
+     * Number of worker threads encoding in parallel.
+     */
+    @CommandLine.Option(names = {"--workers"}, description = "Number of parallel workers. Default: number of CPUs")
+    private int workers = Runtime.getRuntime().availableProcessors();
+    /**
+     * Whether to decode every generated image to check it is readable.
+     */
+    @CommandLine.Option(names = {"--verify"}, description = "Decode every generated image in the background and report unreadable codes.")
+    private boolean verify;
+    /**
+     * Whether to stream PNGs through pooled off-heap buffers instead of rendering them in memory.
+     */
+    @CommandLine.Option(names = {"--off-heap"}, description = "Stream plain and colored QR codes to PNG through off-heap buffers; keeps heap usage flat for very large images.")
+    private boolean offHeap;
+}
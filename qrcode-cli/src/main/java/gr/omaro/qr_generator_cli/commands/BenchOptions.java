@@ -0,0 +1,75 @@
+package gr.omaro.qr_generator_cli.commands;
+
+import gr.omaro.qr_generator_cli.enums.BenchSink;
+import gr.omaro.qr_generator_cli.enums.LengthDistribution;
+import lombok.Getter;
+import picocli.CommandLine;
+
+/**
+ * Command-line options for the load and soak test.
+ */
+@SuppressWarnings({"FieldMayBeFinal","FieldCanBeLocal", "unused"})
+@Getter
+public class BenchOptions {
+
+    /**
+     * Measured run time in seconds, after the warm-up.
+     */
+    @CommandLine.Option(names = {"-d", "--duration"}, description = "Measured run time in seconds. Default: ${DEFAULT-VALUE}")
+    private int durationSeconds = 30;
+    /**
+     * Warm-up time in seconds; its codes are generated but not measured.
+     */
+    @CommandLine.Option(names = {"--warmup"}, description = "Warm-up time in seconds, not measured. Default: ${DEFAULT-VALUE}")
+    private int warmupSeconds = 5;
+    /**
+     * Number of threads generating codes.
+     */
+    @CommandLine.Option(names = {"-c", "--concurrency"}, description = "Number of threads generating codes. Default: number of CPUs")
+    private int concurrency = Runtime.getRuntime().availableProcessors();
+    /**
+     * Target rate in codes per second over all threads; 0 generates as fast as possible.
+     */
+    @CommandLine.Option(names = {"--rate"}, description = "Target codes per second over all threads; latency is then measured from the scheduled start. Default: as fast as possible")
+    private int rate;
+    /**
+     * Input length or range of lengths in characters.
+     */
+    @CommandLine.Option(names = {"--lengths"}, description = "Input length in characters, N or MIN-MAX. Default: ${DEFAULT-VALUE}")
+    private String lengths = "20-120";
+    /**
+     * How the input lengths are spread over the range.
+     */
+    @CommandLine.Option(names = {"--distribution"}, description = "Spread of input lengths: ${COMPLETION-CANDIDATES}. Default: ${DEFAULT-VALUE}")
+    private LengthDistribution distribution = LengthDistribution.UNIFORM;
+    /**
+     * Where the generated images go.
+     */
+    @CommandLine.Option(names = {"--sink"}, description = "Where images go: ${COMPLETION-CANDIDATES}. Default: ${DEFAULT-VALUE}")
+    private BenchSink sink = BenchSink.FILE;
+    /**
+     * Optional output directory for the file sink.
+     */
+    @CommandLine.Option(names = {"-o", "--output"}, description = "Override output directory of the file sink.")
+    private String outputDir;
+    /**
+     * Width of the QR code images in pixels.
+     */
+    @CommandLine.Option(names = {"-w", "--width"}, description = "QR code width in pixels. Default: ${DEFAULT-VALUE}")
+    private int width = 300;
+    /**
+     * Height of the QR code images in pixels.
+     */
+    @CommandLine.Option(names = {"-h", "--height"}, description = "QR code height in pixels. Default: ${DEFAULT-VALUE}")
+    private int height = 300;
+    /**
+     * Whether to stream PNGs through pooled off-heap buffers instead of rendering them in memory.
+     */
+    @CommandLine.Option(names = {"--off-heap"}, description = "Stream plain and colored QR codes to PNG through off-heap buffers (file sink).")
+    private boolean offHeap;
+    /**
+     * Seconds between two progress lines.
+     */
+    @CommandLine.Option(names = {"--report-interval"}, description = "Seconds between progress lines. Default: ${DEFAULT-VALUE}")
+    private int reportSeconds = 5;
+}
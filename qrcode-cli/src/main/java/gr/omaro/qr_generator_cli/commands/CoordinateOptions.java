@@ -0,0 +1,34 @@
+package gr.omaro.qr_generator_cli.commands;
+
+import lombok.Getter;
+import picocli.CommandLine;
+
+/**
+ * Command-line options for splitting a batch into a shared work queue.
+ */
+@SuppressWarnings({"FieldMayBeFinal","FieldCanBeLocal", "unused"})
+@Getter
+public class CoordinateOptions {
+
+    /**
+     * File with one URL or text per line.
+     */
+    @CommandLine.Parameters(index = "0", description = "File with one URL or text per line (.txt or .csv).")
+    private String inputFile;
+    /**
+     * Shared queue directory.
+     */
+    @CommandLine.Parameters(index = "1", description = "Shared queue directory, reachable by every worker.")
+    private String queueDir;
+    /**
+     * Lines per chunk.
+     */
+    @CommandLine.Option(names = {"--chunk-size"}, description = "Lines per chunk. Default: ${DEFAULT-VALUE}")
+    private int chunkSize = 10_000;
+    /**
+     * Whether to wait for the workers and report the totals.
+     */
+    @CommandLine.Option(names = {"--wait"}, negatable = true, defaultValue = "true", fallbackValue = "true",
+            description = "Wait until every chunk is done, reclaiming expired leases, and report the totals. Default: ${DEFAULT-VALUE}")
+    private boolean await = true;
+}
@@ -0,0 +1,101 @@
+package gr.omaro.qr_generator_cli.commands;
+
+import gr.omaro.qr_generator.enums.ImageFormat;
+import lombok.Getter;
+import picocli.CommandLine;
+
+import java.awt.Dimension;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Command-line options for the QR code generator.
+ * <p>
+ * Uses Picocli to parse arguments like input text, width, height, and output directory.
+ */
+@SuppressWarnings({"FieldMayBeFinal","FieldCanBeLocal", "unused"})
+@Getter
+public class QROptions {
+
+    /**
+     * The input text or URL to encode into a QR code.
+     */
+    @CommandLine.Parameters(index = "0", arity = "0..1", description = "The URL or text to encode as QR code.")
+    private String input;
+    /**
+     * Width of the QR code image in pixels.
+     */
+    @CommandLine.Option(names = {"-w", "--width"}, description = "QR code width in pixels. Default: ${DEFAULT-VALUE}")
+    private int width = 300;
+    /**
+     * Height of the QR code image in pixels.
+     */
+    @CommandLine.Option(names = {"-h", "--height"}, description = "QR code height in pixels. Default: ${DEFAULT-VALUE}")
+    private int height = 300;
+    /**
+     * Optional output directory to save the QR code image.
+     */
+    @CommandLine.Option(names = {"-o", "--output"}, description = "Override output directory.")
+    private String outputDir;
+    /**
+     * Whether to split the input over a Structured Append sequence of symbols.
+     */
+    @CommandLine.Option(names = {"--structured-append"}, description = "Split large input over up to 16 linked QR codes.")
+    private boolean structuredAppend;
+    /**
+     * Largest symbol version used for Structured Append.
+     */
+    @CommandLine.Option(names = {"--max-version"}, description = "Largest QR version per symbol with --structured-append. Default: ${DEFAULT-VALUE}")
+    private int maxVersion = 20;
+    /**
+     * Whether to write Structured Append symbols as one contact sheet.
+     */
+    @CommandLine.Option(names = {"--contact-sheet"}, description = "Write Structured Append symbols on a single image.")
+    private boolean contactSheet;
+    /**
+     * Whether to decode the generated image to check it is readable.
+     */
+    @CommandLine.Option(names = {"--verify"}, description = "Decode the generated image to check that it scans.")
+    private boolean verify;
+    /**
+     * Sizes to render the same code at, from a single encode.
+     */
+    @CommandLine.Option(names = {"--sizes"}, split = ",", converter = SizeConverter.class,
+            description = "Comma separated sizes (e.g. 150,300,1200 or 300x200) rendered from one encode; overrides -w/-h.")
+    private List<Dimension> sizes = new ArrayList<>();
+    /**
+     * File formats every size is written in.
+     */
+    @CommandLine.Option(names = {"--image-format"}, split = ",",
+            description = "Comma separated file formats with --sizes: ${COMPLETION-CANDIDATES}. Default: png")
+    private Set<ImageFormat> imageFormats = EnumSet.of(ImageFormat.PNG);
+
+    /**
+     * Converts {@code N} or {@code WxH} to an image size.
+     */
+    public static class SizeConverter implements CommandLine.ITypeConverter<Dimension> {
+
+        /**
+         * Parses the option value.
+         *
+         * @param value the size text.
+         * @return the size.
+         */
+        @Override
+        public Dimension convert(String value) {
+            String[] parts = value.trim().toLowerCase().split("x", 2);
+            try {
+                int width = Integer.parseInt(parts[0].trim());
+                int height = parts.length == 2 ? Integer.parseInt(parts[1].trim()) : width;
+                if (width <= 0 || height <= 0) {
+                    throw new CommandLine.TypeConversionException("Size must be positive: " + value);
+                }
+                return new Dimension(width, height);
+            } catch (NumberFormatException e) {
+                throw new CommandLine.TypeConversionException("Invalid size '" + value + "', expected N or WxH");
+            }
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package gr.omaro.qr_generator_cli.commands;
+
+import lombok.Getter;
+import picocli.CommandLine;
+
+/**
+ * Command-line options for the short link redirect server.
+ */
+@SuppressWarnings({"FieldMayBeFinal","FieldCanBeLocal", "unused"})
+@Getter
+public class RedirectOptions {
+
+    /**
+     * Optional store file; the configured one is used otherwise.
+     */
+    @CommandLine.Option(names = {"--store"}, description = "Short link store file. Default: shortlink.store.path from the configuration")
+    private String storePath;
+    /**
+     * Address to listen on.
+     */
+    @CommandLine.Option(names = {"--bind"}, description = "Address to listen on. Default: ${DEFAULT-VALUE}")
+    private String bindAddress = "0.0.0.0";
+    /**
+     * Port to listen on.
+     */
+    @CommandLine.Option(names = {"-p", "--port"}, description = "Port to listen on. Default: ${DEFAULT-VALUE}")
+    private int port = 8080;
+    /**
+     * Number of threads answering requests.
+     */
+    @CommandLine.Option(names = {"--threads"}, description = "Threads answering requests. Default: ${DEFAULT-VALUE}")
+    private int threads = 4;
+}
@@ -0,0 +1,37 @@
+package gr.omaro.qr_generator_cli.commands;
+
+import gr.omaro.qr_generator_cli.enums.ServeProtocol;
+import lombok.Getter;
+import picocli.CommandLine;
+
+/**
+ * Command-line options for the long-lived co-process mode.
+ * <p>
+ * In this mode requests are read from stdin and responses are written to stdout
+ * until stdin is closed, so a single JVM serves many requests.
+ */
+@SuppressWarnings({"FieldMayBeFinal","FieldCanBeLocal", "unused"})
+@Getter
+public class ServeOptions {
+
+    /**
+     * Whether to run as a co-process instead of generating a single code.
+     */
+    @CommandLine.Option(names = {"--serve"}, description = "Read requests from stdin and write responses to stdout until EOF.")
+    private boolean serve;
+    /**
+     * Wire format of requests and responses.
+     */
+    @CommandLine.Option(names = {"--protocol"}, description = "Wire format with --serve: ${COMPLETION-CANDIDATES}. Default: ${DEFAULT-VALUE}")
+    private ServeProtocol protocol = ServeProtocol.JSON;
+    /**
+     * Maximum number of requests read ahead and not yet answered.
+     */
+    @CommandLine.Option(names = {"--in-flight"}, description = "Maximum unanswered requests with --serve. Default: ${DEFAULT-VALUE}")
+    private int inFlight = 64;
+    /**
+     * Number of worker threads encoding in parallel.
+     */
+    @CommandLine.Option(names = {"--workers"}, description = "Number of parallel workers with --serve. Default: number of CPUs")
+    private int workers = Runtime.getRuntime().availableProcessors();
+}
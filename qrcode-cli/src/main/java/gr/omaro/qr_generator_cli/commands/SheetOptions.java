@@ -0,0 +1,95 @@
+package gr.omaro.qr_generator_cli.commands;
+
+import gr.omaro.qr_generator.enums.SheetFormat;
+import gr.omaro.qr_generator.model.SheetLayout;
+import lombok.Getter;
+import picocli.CommandLine;
+
+/**
+ * Command-line options for label sheets.
+ * <p>
+ * Uses Picocli to parse the input file, output format, page size and grid.
+ */
+@SuppressWarnings({"FieldMayBeFinal","FieldCanBeLocal", "unused"})
+@Getter
+public class SheetOptions {
+
+    /**
+     * File with one URL or text per line, optionally followed by a tab and a caption.
+     */
+    @CommandLine.Parameters(index = "0", description = "File with one URL or text per line, optionally followed by a tab and a caption.")
+    private String inputFile;
+    /**
+     * Optional output directory.
+     */
+    @CommandLine.Option(names = {"-o", "--output"}, description = "Override output directory.")
+    private String outputDir;
+    /**
+     * Output format of the sheet.
+     */
+    @CommandLine.Option(names = {"--sheet-format"}, description = "Sheet format: ${COMPLETION-CANDIDATES}. Default: ${DEFAULT-VALUE}")
+    private SheetFormat sheetFormat = SheetFormat.PDF;
+    /**
+     * Number of labels per row.
+     */
+    @CommandLine.Option(names = {"--columns"}, description = "Labels per row. Default: ${DEFAULT-VALUE}")
+    private int columns = 5;
+    /**
+     * Number of rows per page.
+     */
+    @CommandLine.Option(names = {"--rows"}, description = "Rows per page. Default: ${DEFAULT-VALUE}")
+    private int rows = 10;
+    /**
+     * Page width in millimetres.
+     */
+    @CommandLine.Option(names = {"--page-width"}, description = "Page width in mm. Default: ${DEFAULT-VALUE} (A4)")
+    private double pageWidth = 210;
+    /**
+     * Page height in millimetres.
+     */
+    @CommandLine.Option(names = {"--page-height"}, description = "Page height in mm. Default: ${DEFAULT-VALUE} (A4)")
+    private double pageHeight = 297;
+    /**
+     * Blank border around the grid in millimetres.
+     */
+    @CommandLine.Option(names = {"--margin"}, description = "Page margin in mm. Default: ${DEFAULT-VALUE}")
+    private double margin = 10;
+    /**
+     * Space between cells in millimetres.
+     */
+    @CommandLine.Option(names = {"--gap"}, description = "Space between labels in mm. Default: ${DEFAULT-VALUE}")
+    private double gap = 2;
+    /**
+     * Caption font size in points.
+     */
+    @CommandLine.Option(names = {"--caption-size"}, description = "Caption font size in points, 0 for no captions. Default: ${DEFAULT-VALUE}")
+    private double captionSize = 6;
+    /**
+     * Resolution of PNG pages.
+     */
+    @CommandLine.Option(names = {"--dpi"}, description = "Resolution of PNG pages. Default: ${DEFAULT-VALUE}")
+    private int dpi = 300;
+    /**
+     * Number of worker threads encoding in parallel.
+     */
+    @CommandLine.Option(names = {"--workers"}, description = "Number of parallel workers. Default: number of CPUs")
+    private int workers = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Builds the page layout from the parsed options.
+     *
+     * @return the layout.
+     */
+    public SheetLayout toLayout() {
+        return SheetLayout.builder()
+                .pageWidth(pageWidth)
+                .pageHeight(pageHeight)
+                .columns(columns)
+                .rows(rows)
+                .margin(margin)
+                .gap(gap)
+                .captionSize(captionSize)
+                .dpi(dpi)
+                .build();
+    }
+}
@@ -0,0 +1,128 @@
+package gr.omaro.qr_generator_cli.commands;
+
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import gr.omaro.qr_generator.enums.CodeFormat;
+import gr.omaro.qr_generator.enums.ModuleShape;
+import gr.omaro.qr_generator.model.QRSpec;
+import gr.omaro.qr_generator.model.QRStyle;
+import lombok.Getter;
+import picocli.CommandLine;
+
+/**
+ * Command-line options for format, error correction and styling of QR code images.
+ * <p>
+ * Shared by the single and batch commands; without any style option the plain
+ * black-on-white output is produced.
+ */
+@SuppressWarnings({"FieldMayBeFinal","FieldCanBeLocal", "unused"})
+@Getter
+public class StyleOptions {
+
+    /**
+     * Barcode format to produce.
+     */
+    @CommandLine.Option(names = {"-f", "--format"}, description = "Barcode format: ${COMPLETION-CANDIDATES}. Default: ${DEFAULT-VALUE}")
+    private CodeFormat format = CodeFormat.QR_CODE;
+    /**
+     * Error correction level.
+     */
+    @CommandLine.Option(names = {"-e", "--ecc"}, description = "Error correction level (L, M, Q, H). Default: ${DEFAULT-VALUE}")
+    private ErrorCorrectionLevel errorCorrection = ErrorCorrectionLevel.L;
+    /**
+     * Whether the error correction level is chosen per code.
+     */
+    @CommandLine.Option(names = {"--auto-ecc"}, description = "Use the highest error correction level that fits --version-budget (--ecc is the minimum) "
+            + "and snap the image to whole pixels per module.")
+    private boolean autoErrorCorrection;
+    /**
+     * Largest QR version allowed with automatic error correction.
+     */
+    @CommandLine.Option(names = {"--version-budget"}, description = "Largest QR version with --auto-ecc. Default: ${DEFAULT-VALUE}")
+    private int versionBudget = 40;
+    /**
+     * Whether QR content is split into segments of the cheapest mode.
+     */
+    @CommandLine.Option(names = {"--optimize-segments"}, negatable = true, defaultValue = "true", fallbackValue = "true",
+            description = "Mix numeric, alphanumeric, byte and Kanji segments for the smallest QR version. Default: ${DEFAULT-VALUE}")
+    private boolean optimizeSegments = true;
+    /**
+     * Color of the dark modules.
+     */
+    @CommandLine.Option(names = {"--fg"}, converter = ColorConverter.class, description = "Module color as #RRGGBB or #AARRGGBB.")
+    private Integer foreground;
+    /**
+     * Color of the background.
+     */
+    @CommandLine.Option(names = {"--bg"}, converter = ColorConverter.class, description = "Background color as #RRGGBB or #AARRGGBB.")
+    private Integer background;
+    /**
+     * Shape of the dark modules.
+     */
+    @CommandLine.Option(names = {"--shape"}, description = "Module shape: ${COMPLETION-CANDIDATES}.")
+    private ModuleShape shape;
+    /**
+     * Logo drawn over the center of the code.
+     */
+    @CommandLine.Option(names = {"--logo"}, description = "Logo image drawn over the center (raises error correction to H).")
+    private String logoPath;
+    /**
+     * Logo width relative to the code width.
+     */
+    @CommandLine.Option(names = {"--logo-scale"}, description = "Logo width as a fraction of the code width. Default: ${DEFAULT-VALUE}")
+    private double logoScale = 0.2;
+
+    /**
+     * Builds the rendering spec for the given image size.
+     *
+     * @param width  image width in pixels.
+     * @param height image height in pixels.
+     * @return the spec, styled only if a style option was given.
+     */
+    public QRSpec toSpec(int width, int height) {
+        QRSpec.QRSpecBuilder builder = QRSpec.builder()
+                .width(width)
+                .height(height)
+                .format(format)
+                .optimizeSegments(optimizeSegments)
+                .errorCorrection(errorCorrection)
+                .autoErrorCorrection(autoErrorCorrection)
+                .maxVersion(versionBudget);
+        if (foreground != null || background != null || shape != null || logoPath != null) {
+            QRStyle.QRStyleBuilder style = QRStyle.builder()
+                    .logoPath(logoPath)
+                    .logoScale(logoScale);
+            if (foreground != null) {
+                style.foreground(foreground);
+            }
+            if (background != null) {
+                style.background(background);
+            }
+            if (shape != null) {
+                style.shape(shape);
+            }
+            builder.style(style.build());
+        }
+        return builder.build();
+    }
+
+    /**
+     * Converts {@code #RRGGBB} or {@code #AARRGGBB} text to an ARGB value.
+     */
+    public static class ColorConverter implements CommandLine.ITypeConverter<Integer> {
+
+        /**
+         * Parses the option value.
+         *
+         * @param value the color text.
+         * @return the ARGB value.
+         */
+        @Override
+        public Integer convert(String value) {
+            try {
+                return QRStyle.parseColor(value);
+            } catch (IllegalArgumentException e) {
+                throw new CommandLine.TypeConversionException(e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package gr.omaro.qr_generator_cli.commands;
+
+import lombok.Getter;
+import picocli.CommandLine;
+
+import java.util.List;
+
+/**
+ * Command-line options for bulk uploads to Google Drive.
+ */
+@SuppressWarnings({"FieldMayBeFinal","FieldCanBeLocal", "unused"})
+@Getter
+public class UploadOptions {
+
+    /**
+     * Files, directories or glob patterns to upload.
+     */
+    @CommandLine.Parameters(arity = "1..*", description = "Files, directories or glob patterns (e.g. 'docs/**/*.pdf') to upload.")
+    private List<String> targets;
+    /**
+     * Upload starts per second, overriding the configuration.
+     */
+    @CommandLine.Option(names = {"--rate"}, description = "Uploads started per second. Default: upload.rate.per.second")
+    private Double rate;
+    /**
+     * Maximum concurrent uploads, overriding the configuration.
+     */
+    @CommandLine.Option(names = {"--concurrency"}, description = "Maximum concurrent uploads. Default: upload.max.concurrency")
+    private Integer concurrency;
+    /**
+     * Whether to generate a QR code for every uploaded file's link.
+     */
+    @CommandLine.Option(names = {"--qr"}, description = "Generate a QR code for the link of every uploaded file.")
+    private boolean qr;
+    /**
+     * Width of the QR code images in pixels.
+     */
+    @CommandLine.Option(names = {"-w", "--width"}, description = "QR code width in pixels. Default: ${DEFAULT-VALUE}")
+    private int width = 300;
+    /**
+     * Height of the QR code images in pixels.
+     */
+    @CommandLine.Option(names = {"-h", "--height"}, description = "QR code height in pixels. Default: ${DEFAULT-VALUE}")
+    private int height = 300;
+    /**
+     * Optional output directory for the QR code images.
+     */
+    @CommandLine.Option(names = {"-o", "--output"}, description = "Override output directory for --qr.")
+    private String outputDir;
+}
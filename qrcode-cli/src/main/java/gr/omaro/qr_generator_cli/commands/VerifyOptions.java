@@ -0,0 +1,23 @@
+package gr.omaro.qr_generator_cli.commands;
+
+import lombok.Getter;
+import picocli.CommandLine;
+
+/**
+ * Command-line options for verifying existing QR code images.
+ */
+@SuppressWarnings({"FieldMayBeFinal","FieldCanBeLocal", "unused"})
+@Getter
+public class VerifyOptions {
+
+    /**
+     * Directory with the PNG images to verify.
+     */
+    @CommandLine.Parameters(index = "0", description = "Directory with PNG images to verify.")
+    private String directory;
+    /**
+     * Number of worker threads decoding in parallel.
+     */
+    @CommandLine.Option(names = {"--workers"}, description = "Number of parallel workers. Default: number of CPUs")
+    private int workers = Runtime.getRuntime().availableProcessors();
+}
@@ -0,0 +1,54 @@
+package gr.omaro.qr_generator_cli.commands;
+
+import lombok.Getter;
+import picocli.CommandLine;
+
+/**
+ * Command-line options for watching a hot folder.
+ */
+@SuppressWarnings({"FieldMayBeFinal","FieldCanBeLocal", "unused"})
+@Getter
+public class WatchOptions {
+
+    /**
+     * Folder to watch.
+     */
+    @CommandLine.Parameters(index = "0", description = "Folder to watch for .csv/.txt lists and PDF files.")
+    private String directory;
+    /**
+     * Width of the QR code images in pixels.
+     */
+    @CommandLine.Option(names = {"-w", "--width"}, description = "QR code width in pixels. Default: ${DEFAULT-VALUE}")
+    private int width = 300;
+    /**
+     * Height of the QR code images in pixels.
+     */
+    @CommandLine.Option(names = {"-h", "--height"}, description = "QR code height in pixels. Default: ${DEFAULT-VALUE}")
+    private int height = 300;
+    /**
+     * Optional output directory to save the QR code images.
+     */
+    @CommandLine.Option(names = {"-o", "--output"}, description = "Override output directory.")
+    private String outputDir;
+    /**
+     * Time a file must stay unchanged before it is processed.
+     */
+    @CommandLine.Option(names = {"--debounce"}, description = "Milliseconds a file must stay unchanged before it is processed. Default: ${DEFAULT-VALUE}")
+    private long debounceMillis = 300;
+    /**
+     * Number of worker threads encoding the rows of a list in parallel.
+     */
+    @CommandLine.Option(names = {"--workers"}, description = "Number of parallel workers per list. Default: number of CPUs")
+    private int workers = Runtime.getRuntime().availableProcessors();
+    /**
+     * Number of files processed at once.
+     */
+    @CommandLine.Option(names = {"--files"}, description = "Number of files processed at once. Default: ${DEFAULT-VALUE}")
+    private int files = 2;
+    /**
+     * Whether to upload PDF files to Google Drive and generate a QR code for their link.
+     */
+    @CommandLine.Option(names = {"--upload"}, negatable = true, defaultValue = "true", fallbackValue = "true",
+            description = "Upload PDF files to Google Drive and generate a QR code for their link. Default: ${DEFAULT-VALUE}")
+    private boolean upload = true;
+}
@@ -0,0 +1,48 @@
+package gr.omaro.qr_generator_cli.commands;
+
+import lombok.Getter;
+import picocli.CommandLine;
+
+/**
+ * Command-line options for a worker of a shared work queue.
+ */
+@SuppressWarnings({"FieldMayBeFinal","FieldCanBeLocal", "unused"})
+@Getter
+public class WorkOptions {
+
+    /**
+     * Shared queue directory.
+     */
+    @CommandLine.Parameters(index = "0", description = "Shared queue directory created by 'coordinate'.")
+    private String queueDir;
+    /**
+     * Width of the QR code images in pixels.
+     */
+    @CommandLine.Option(names = {"-w", "--width"}, description = "QR code width in pixels. Default: ${DEFAULT-VALUE}")
+    private int width = 300;
+    /**
+     * Height of the QR code images in pixels.
+     */
+    @CommandLine.Option(names = {"-h", "--height"}, description = "QR code height in pixels. Default: ${DEFAULT-VALUE}")
+    private int height = 300;
+    /**
+     * Optional output directory; every chunk gets a sub-folder.
+     */
+    @CommandLine.Option(names = {"-o", "--output"}, description = "Override output directory; every chunk gets a sub-folder.")
+    private String outputDir;
+    /**
+     * Number of worker threads encoding in parallel.
+     */
+    @CommandLine.Option(names = {"--workers"}, description = "Number of parallel workers. Default: number of CPUs")
+    private int workers = Runtime.getRuntime().availableProcessors();
+    /**
+     * Lease duration in seconds.
+     */
+    @CommandLine.Option(names = {"--lease"}, description = "Lease duration in seconds; a chunk of a worker that stops renewing is taken over after it. Default: ${DEFAULT-VALUE}")
+    private int leaseSeconds = 60;
+    /**
+     * Worker identifier shown in lease names.
+     */
+    @CommandLine.Option(names = {"--id"}, description = "Worker identifier in lease names. Default: host name and process id")
+    private String workerId;
+}
@@ -0,0 +1,17 @@
+package gr.omaro.qr_generator_cli.enums;
+
+/**
+ * Where {@code qrgen bench} puts the generated images.
+ */
+public enum BenchSink {
+
+    /**
+     * PNG files in the output directory, so disk and file system are part of the measurement.
+     */
+    FILE,
+
+    /**
+     * PNG bytes in memory that are dropped right away; measures encoding and compression only.
+     */
+    MEMORY
+}
@@ -0,0 +1,40 @@
+package gr.omaro.qr_generator_cli.enums;
+
+import java.util.Random;
+
+/**
+ * How {@code qrgen bench} picks the length of each synthetic input within the configured range.
+ */
+public enum LengthDistribution {
+
+    /**
+     * Every length in the range is equally likely.
+     */
+    UNIFORM {
+        @Override
+        public int next(Random random, int min, int max) {
+            return min + random.nextInt(max - min + 1);
+        }
+    },
+
+    /**
+     * Mostly short inputs with a long tail up to the maximum, like real URL lists.
+     */
+    SKEWED {
+        @Override
+        public int next(Random random, int min, int max) {
+            double u = random.nextDouble();
+            return min + (int) Math.round((max - min) * u * u * u);
+        }
+    };
+
+    /**
+     * Picks the next length.
+     *
+     * @param random the random source of the calling thread.
+     * @param min    shortest length, inclusive.
+     * @param max    longest length, inclusive; not below {@code min}.
+     * @return the length.
+     */
+    public abstract int next(Random random, int min, int max);
+}
@@ -0,0 +1,17 @@
+package gr.omaro.qr_generator_cli.enums;
+
+/**
+ * Wire formats understood by the co-process mode ({@code qrgen --serve}).
+ */
+public enum ServeProtocol {
+
+    /**
+     * One JSON object per line in both directions; images are returned as paths or base64 PNG.
+     */
+    JSON,
+
+    /**
+     * Length-prefixed binary frames; images are returned as raw PNG bytes or paths.
+     */
+    FRAMED
+}
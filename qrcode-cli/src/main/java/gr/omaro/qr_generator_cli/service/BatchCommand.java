@@ -0,0 +1,87 @@
+package gr.omaro.qr_generator_cli.service;
+
+import gr.omaro.qr_generator.exception.ConfigExeption;
+import gr.omaro.qr_generator.exception.QRException;
+import gr.omaro.qr_generator.model.BatchReport;
+import gr.omaro.qr_generator.service.BatchPlanner;
+import gr.omaro.qr_generator.service.QRService;
+import gr.omaro.qr_generator.service.VerificationService;
+import gr.omaro.qr_generator.util.ConfigUtil;
+import gr.omaro.qr_generator_cli.commands.BatchOptions;
+import gr.omaro.qr_generator_cli.commands.StyleOptions;
+import lombok.extern.slf4j.Slf4j;
+import picocli.CommandLine;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.Callable;
+
+/**
+ * Picocli command that generates QR codes for every line of an input file.
+ * <p>
+ * Duplicate lines are encoded only once, see {@link BatchPlanner}.
+ */
+@Slf4j
+@CommandLine.Command(
+        name = "batch",
+        mixinStandardHelpOptions = true,
+        description = "Generates QR codes for every line of a file, encoding duplicates once."
+)
+public class BatchCommand implements Callable<Integer> {
+
+    /**
+     * Injected CLI options like input file, width, height, output directory.
+     */
+    @SuppressWarnings("unused")
+    @CommandLine.Mixin
+    private BatchOptions options;
+
+    /**
+     * Injected styling options like error correction, colors and logo.
+     */
+    @SuppressWarnings("unused")
+    @CommandLine.Mixin
+    private StyleOptions styleOptions;
+
+    /**
+     * Executes the batch job.
+     *
+     * @return exit code: 0 = success, 1 = known error or failed entries, 2 = unexpected error
+     */
+    @Override
+    public Integer call() {
+        VerificationService verifier = null;
+        try {
+            Path inputFile = Paths.get(options.getInputFile());
+            if (!Files.isRegularFile(inputFile)) {
+                log.error("Input file does not exist: {}", inputFile);
+                return 1;
+            }
+
+            // long batches pick up configuration changes without a restart
+            ConfigUtil.watchForChanges();
+            verifier = options.isVerify() ? new VerificationService(options.getWorkers()) : null;
+            BatchPlanner planner = new BatchPlanner(new QRService(verifier, options.isOffHeap()), options.getWorkers());
+            BatchReport report = planner.run(
+                    inputFile,
+                    styleOptions.toSpec(options.getWidth(), options.getHeight()),
+                    options.getOutputDir()
+            );
+            report.getFailures().forEach(failure -> log.error("Failed: {}", failure));
+            log.info("Batch completed: {}", report);
+            boolean readable = verifier == null || VerificationLog.log(verifier.awaitReport());
+            return report.getFailed() == 0 && readable ? 0 : 1;
+        } catch (ConfigExeption | QRException e) {
+            log.error("Error: {}", e.getMessage());
+            return 1;
+        } catch (Exception e) {
+            log.error("Unexpected error: {}", e.getMessage());
+            return 2;
+        } finally {
+            if (verifier != null) {
+                verifier.close();
+            }
+        }
+    }
+}
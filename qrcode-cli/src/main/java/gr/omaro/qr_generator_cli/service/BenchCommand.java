@@ -0,0 +1,404 @@
+package gr.omaro.qr_generator_cli.service;
+
+import gr.omaro.qr_generator.exception.ConfigExeption;
+import gr.omaro.qr_generator.exception.QRException;
+import gr.omaro.qr_generator.model.QRSpec;
+import gr.omaro.qr_generator.service.QRService;
+import gr.omaro.qr_generator.util.LatencyHistogram;
+import gr.omaro.qr_generator_cli.commands.BenchOptions;
+import gr.omaro.qr_generator_cli.commands.StyleOptions;
+import gr.omaro.qr_generator_cli.enums.BenchSink;
+import lombok.extern.slf4j.Slf4j;
+import picocli.CommandLine;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+/**
+ * Picocli command that runs synthetic load through the real {@link QRService} path for a fixed
+ * time and reports throughput, latency percentiles, GC and heap usage.
+ * <p>
+ * Unlike the microbenchmarks in the {@code bench} package this measures a deployment as a whole:
+ * configuration, output disk, thread count and heap settings. Every thread generates codes for
+ * random inputs back to back, or on a fixed schedule with {@code --rate}; in that case latency is
+ * counted from the scheduled start, so stalls are not hidden by the threads falling behind.
+ * Latencies go into an interval {@link LatencyHistogram} that is printed and folded into the total
+ * every {@code --report-interval} seconds; the warm-up interval is dropped.
+ */
+@Slf4j
+@CommandLine.Command(
+        name = "bench",
+        mixinStandardHelpOptions = true,
+        description = "Runs a load or soak test through the real generation path and reports throughput, latency percentiles, GC and heap usage."
+)
+public class BenchCommand implements Callable<Integer> {
+
+    /**
+     * Files each thread of the file sink cycles through, so a long soak does not fill the disk.
+     */
+    private static final int FILES_PER_THREAD = 256;
+    /**
+     * Percentiles of the final latency table.
+     */
+    private static final double[] PERCENTILES = {50, 75, 90, 95, 99, 99.9, 99.99};
+    /**
+     * Characters of the random input tails.
+     */
+    private static final String ALPHABET = "abcdefghijklmnopqrstuvwxyz0123456789-_/";
+    /**
+     * Prefix of the synthetic inputs.
+     */
+    private static final String URL_PREFIX = "https://example.com/";
+
+    /**
+     * Injected CLI options like duration, concurrency, input lengths and sink.
+     */
+    @SuppressWarnings("unused")
+    @CommandLine.Mixin
+    private BenchOptions options;
+
+    /**
+     * Injected styling options like error correction, colors and logo.
+     */
+    @SuppressWarnings("unused")
+    @CommandLine.Mixin
+    private StyleOptions styleOptions;
+
+    /**
+     * Histogram the threads record into until the next interval starts.
+     */
+    private final AtomicReference<LatencyHistogram> interval = new AtomicReference<>(new LatencyHistogram());
+    /**
+     * Codes that could not be generated.
+     */
+    private final LongAdder failures = new LongAdder();
+    /**
+     * Size of the generated images.
+     */
+    private final LongAdder bytes = new LongAdder();
+    /**
+     * Set once the run is over.
+     */
+    private volatile boolean stopped;
+
+    /**
+     * Executes the load test.
+     *
+     * @return exit code: 0 = success, 1 = known error or failed codes, 2 = unexpected error
+     */
+    @Override
+    public Integer call() {
+        Path benchDir = null;
+        try {
+            int[] lengths = parseLengths(options.getLengths());
+            if (options.getDurationSeconds() <= 0 || options.getWarmupSeconds() < 0 || options.getConcurrency() <= 0
+                    || options.getRate() < 0 || options.getReportSeconds() <= 0) {
+                log.error("Duration, concurrency and report interval must be positive; warm-up and rate must not be negative.");
+                return 1;
+            }
+            QRService qrService = new QRService(null, options.isOffHeap());
+            QRSpec spec = styleOptions.toSpec(options.getWidth(), options.getHeight());
+            if (options.getSink() == BenchSink.FILE) {
+                benchDir = Paths.get(qrService.resolveOutputDir(options.getOutputDir()), "qrgen-bench");
+                Files.createDirectories(benchDir);
+            }
+            log.info("Bench: {} s after {} s warm-up, {} thread(s), {}, lengths {} {}, {}x{}, sink {}{}",
+                    options.getDurationSeconds(), options.getWarmupSeconds(), options.getConcurrency(),
+                    options.getRate() > 0 ? options.getRate() + " codes/s" : "unthrottled",
+                    options.getLengths(), options.getDistribution(), options.getWidth(), options.getHeight(),
+                    options.getSink(), benchDir != null ? " (" + benchDir + ")" : "");
+
+            long start = System.nanoTime();
+            List<Thread> threads = new ArrayList<>();
+            for (int t = 0; t < options.getConcurrency(); t++) {
+                int index = t;
+                Path dir = benchDir;
+                Thread thread = new Thread(() -> generateLoop(qrService, spec, lengths, dir, index, start), "bench-" + t);
+                thread.setDaemon(true);
+                threads.add(thread);
+                thread.start();
+            }
+
+            long measureStart = start + TimeUnit.SECONDS.toNanos(options.getWarmupSeconds());
+            long end = measureStart + TimeUnit.SECONDS.toNanos(options.getDurationSeconds());
+            sleepUntil(measureStart);
+            interval.set(new LatencyHistogram());
+            failures.reset();
+            bytes.reset();
+            Map<String, long[]> gcBefore = gcSnapshot();
+            ManagementFactory.getMemoryPoolMXBeans().forEach(MemoryPoolMXBean::resetPeakUsage);
+
+            LatencyHistogram total = new LatencyHistogram();
+            LatencyHistogram previous = null;
+            long step = TimeUnit.SECONDS.toNanos(options.getReportSeconds());
+            for (long next = measureStart + step; next < end; next += step) {
+                sleepUntil(next);
+                LatencyHistogram finished = interval.getAndSet(new LatencyHistogram());
+                logInterval(next - measureStart, finished);
+                // folded in one interval late, when no thread can still be recording into it
+                if (previous != null) {
+                    total.add(previous);
+                }
+                previous = finished;
+            }
+            sleepUntil(end);
+            stopped = true;
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            long measuredNanos = System.nanoTime() - measureStart;
+            if (previous != null) {
+                total.add(previous);
+            }
+            total.add(interval.get());
+
+            report(total, measuredNanos, gcBefore);
+            return failures.sum() == 0 ? 0 : 1;
+        } catch (ConfigExeption | QRException e) {
+            log.error("Error: {}", e.getMessage());
+            return 1;
+        } catch (IOException e) {
+            log.error("Error: cannot create output directory: {}", e.getMessage());
+            return 1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 1;
+        } catch (Exception e) {
+            log.error("Unexpected error: {}", e.getMessage());
+            return 2;
+        } finally {
+            stopped = true;
+            deleteBenchFiles(benchDir);
+        }
+    }
+
+    /**
+     * Generates codes on one thread until the run is stopped.
+     *
+     * @param qrService the service under test.
+     * @param spec      the rendering options.
+     * @param lengths   shortest and longest input length.
+     * @param dir       output folder of the file sink, or null for the memory sink.
+     * @param index     number of this thread.
+     * @param start     start of the run, from {@link System#nanoTime()}.
+     */
+    private void generateLoop(QRService qrService, QRSpec spec, int[] lengths, Path dir, int index, long start) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        StringBuilder input = new StringBuilder(lengths[1]);
+        long period = options.getRate() > 0 ? TimeUnit.SECONDS.toNanos(1) / options.getRate() : 0;
+        boolean failureLogged = false;
+        for (long k = 0; !stopped; k++) {
+            randomInput(input, options.getDistribution().next(random, lengths[0], lengths[1]), random);
+            long from;
+            if (period > 0) {
+                // thread t takes every concurrency-th slot of the shared schedule
+                from = start + (k * options.getConcurrency() + index) * period;
+                long wait;
+                while (!stopped && (wait = from - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                if (stopped) {
+                    return;
+                }
+            } else {
+                from = System.nanoTime();
+            }
+            long size = 0;
+            try {
+                if (dir != null) {
+                    String path = dir.resolve("bench-" + index + "-" + (k % FILES_PER_THREAD) + ".png").toString();
+                    qrService.generateToFile(input.toString(), spec, path);
+                    interval.get().record(System.nanoTime() - from);
+                    size = Files.size(Paths.get(path));
+                } else {
+                    size = qrService.generatePng(input.toString(), spec).length;
+                    interval.get().record(System.nanoTime() - from);
+                }
+            } catch (QRException | IOException e) {
+                failures.increment();
+                if (!failureLogged) {
+                    failureLogged = true;
+                    log.error("Generation failed on {}: {}", Thread.currentThread().getName(), e.getMessage());
+                }
+            }
+            bytes.add(size);
+        }
+    }
+
+    /**
+     * Fills the buffer with a URL-like input of the given length.
+     *
+     * @param input  buffer to fill.
+     * @param length number of characters.
+     * @param random the random source of the calling thread.
+     */
+    private static void randomInput(StringBuilder input, int length, ThreadLocalRandom random) {
+        input.setLength(0);
+        input.append(URL_PREFIX, 0, Math.min(length, URL_PREFIX.length()));
+        while (input.length() < length) {
+            input.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+    }
+
+    /**
+     * Logs one progress line.
+     *
+     * @param elapsedNanos measured time so far.
+     * @param histogram    latencies of the interval.
+     */
+    private void logInterval(long elapsedNanos, LatencyHistogram histogram) {
+        log.info("[{} s] {} codes/s, p50 {} ms, p99 {} ms, max {} ms, heap used {} MB",
+                TimeUnit.NANOSECONDS.toSeconds(elapsedNanos),
+                String.format("%.0f", histogram.getCount() / (histogram.getElapsedNanos() / 1e9)),
+                millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(99)),
+                millis(histogram.getMax()), megabytes(ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed()));
+    }
+
+    /**
+     * Logs the final report.
+     *
+     * @param total         latencies of the whole measured run.
+     * @param measuredNanos length of the measured run.
+     * @param gcBefore      collector counters at the start of the measured run.
+     */
+    private void report(LatencyHistogram total, long measuredNanos, Map<String, long[]> gcBefore) {
+        double seconds = measuredNanos / 1e9;
+        log.info("Throughput: {} codes/s ({} codes, {} failed in {} s), {} MB/s of images",
+                String.format("%.1f", total.getCount() / seconds), total.getCount(), failures.sum(),
+                String.format("%.1f", seconds), String.format("%.2f", bytes.sum() / seconds / (1024 * 1024)));
+
+        StringBuilder table = new StringBuilder("Latency (ms):");
+        table.append(String.format("%n  %-8s %10s", "min", millis(total.getMin())));
+        table.append(String.format("%n  %-8s %10s", "mean", millis(Math.round(total.getMean()))));
+        for (double percentile : PERCENTILES) {
+            String label = "p" + Double.toString(percentile).replaceAll("\\.0$", "");
+            table.append(String.format("%n  %-8s %10s", label, millis(total.getValueAtPercentile(percentile))));
+        }
+        table.append(String.format("%n  %-8s %10s", "max", millis(total.getMax())));
+        log.info("{}", table);
+
+        long gcMillis = 0;
+        for (Map.Entry<String, long[]> gc : gcSnapshot().entrySet()) {
+            long[] before = gcBefore.getOrDefault(gc.getKey(), new long[2]);
+            long count = gc.getValue()[0] - before[0];
+            long time = gc.getValue()[1] - before[1];
+            gcMillis += time;
+            log.info("GC {}: {} collection(s), {} ms", gc.getKey(), count, time);
+        }
+        log.info("GC time: {}% of the run", String.format("%.2f", gcMillis / (seconds * 10)));
+
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.getPeakUsage() != null) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        log.info("Heap: {} MB used, {} MB peak, {} MB committed, {} MB max",
+                megabytes(heap.getUsed()), megabytes(peak), megabytes(heap.getCommitted()), megabytes(heap.getMax()));
+    }
+
+    /**
+     * Reads the collection counts and times of all garbage collectors.
+     *
+     * @return collector name to count and time in milliseconds.
+     */
+    private static Map<String, long[]> gcSnapshot() {
+        Map<String, long[]> snapshot = new LinkedHashMap<>();
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            snapshot.put(gc.getName(), new long[]{gc.getCollectionCount(), gc.getCollectionTime()});
+        }
+        return snapshot;
+    }
+
+    /**
+     * Parses {@code N} or {@code MIN-MAX}.
+     *
+     * @param lengths the option value.
+     * @return shortest and longest length.
+     * @throws QRException if the value is not a valid range.
+     */
+    private static int[] parseLengths(String lengths) throws QRException {
+        try {
+            String[] parts = lengths.trim().split("-", 2);
+            int min = Integer.parseInt(parts[0].trim());
+            int max = parts.length > 1 ? Integer.parseInt(parts[1].trim()) : min;
+            if (min > 0 && max >= min) {
+                return new int[]{min, max};
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new QRException("Invalid input lengths, expected N or MIN-MAX with 0 < MIN <= MAX: " + lengths);
+    }
+
+    /**
+     * Waits until a point in time.
+     *
+     * @param deadline the time from {@link System#nanoTime()}.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    private static void sleepUntil(long deadline) throws InterruptedException {
+        long wait;
+        while ((wait = deadline - System.nanoTime()) > 0) {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        }
+    }
+
+    /**
+     * Removes the files written by the file sink.
+     *
+     * @param benchDir the folder of the file sink, or null.
+     */
+    private static void deleteBenchFiles(Path benchDir) {
+        if (benchDir == null || !Files.isDirectory(benchDir)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(benchDir)) {
+            for (Path file : files.filter(f -> f.getFileName().toString().startsWith("bench-")).toList()) {
+                Files.deleteIfExists(file);
+            }
+            Files.deleteIfExists(benchDir);
+        } catch (IOException e) {
+            log.warn("Could not remove bench files in {}: {}", benchDir, e.getMessage());
+        }
+    }
+
+    /**
+     * Formats nanoseconds as milliseconds.
+     *
+     * @param nanos the duration.
+     * @return e.g. {@code 1.234}.
+     */
+    private static String millis(long nanos) {
+        return String.format("%.3f", nanos / 1e6);
+    }
+
+    /**
+     * Formats a byte count in megabytes.
+     *
+     * @param bytes the byte count.
+     * @return whole megabytes.
+     */
+    private static long megabytes(long bytes) {
+        return bytes / (1024 * 1024);
+    }
+}
@@ -0,0 +1,165 @@
+package gr.omaro.qr_generator_cli.service;
+
+import gr.omaro.qr_generator.exception.QRException;
+import gr.omaro.qr_generator.model.QRSpec;
+import gr.omaro.qr_generator.service.QRService;
+import gr.omaro.qr_generator_drive.enums.UploadState;
+import gr.omaro.qr_generator_drive.exception.DriveUploadException;
+import gr.omaro.qr_generator_drive.model.UploadPolicy;
+import gr.omaro.qr_generator_drive.model.UploadStatus;
+import gr.omaro.qr_generator_drive.service.UploadService;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One run of {@link UploadCommand}: uploads the files through {@link UploadService} and logs
+ * progress and throughput as files finish.
+ * <p>
+ * Kept out of {@link UploadCommand}, which picocli creates for every command line, so that the
+ * Drive classes are only loaded when {@code upload} runs.
+ */
+@Slf4j
+class BulkUpload {
+
+    /**
+     * Generator of the QR codes of {@code --qr}, or null without.
+     */
+    private final QRService qrService;
+    /**
+     * QR code settings.
+     */
+    private final QRSpec spec;
+    /**
+     * Target directory of the QR codes, or null without {@code --qr}.
+     */
+    private final String outputDir;
+    /**
+     * Number of files to upload.
+     */
+    private int total;
+    /**
+     * Number of finished files.
+     */
+    private final AtomicInteger finished = new AtomicInteger();
+    /**
+     * Bytes of successfully uploaded files.
+     */
+    private final AtomicLong uploadedBytes = new AtomicLong();
+    /**
+     * Number of QR codes that could not be generated.
+     */
+    private final AtomicInteger qrFailures = new AtomicInteger();
+    /**
+     * Start of the upload in {@link System#nanoTime()} units.
+     */
+    private long start;
+
+    /**
+     * Creates a run.
+     *
+     * @param qrService generator of a QR code per link, or null for none.
+     * @param spec      QR code settings.
+     * @param outputDir target directory of the QR codes, or null for none.
+     */
+    BulkUpload(QRService qrService, QRSpec spec, String outputDir) {
+        this.qrService = qrService;
+        this.spec = spec;
+        this.outputDir = outputDir;
+    }
+
+    /**
+     * Uploads the files and waits until every one has finished.
+     *
+     * @param files       the files to upload.
+     * @param rate        uploads started per second, or null for the configured rate.
+     * @param concurrency uploads at once, or null for the configured limit.
+     * @return exit code: 0 = success, 1 = Drive error or failed files.
+     */
+    int run(List<File> files, Double rate, Integer concurrency) {
+        try {
+            UploadPolicy policy = UploadService.configuredPolicy();
+            UploadPolicy.UploadPolicyBuilder limits = policy.toBuilder();
+            if (rate != null) {
+                limits.permitsPerSecond(rate);
+            }
+            if (concurrency != null) {
+                limits.maxConcurrency(concurrency);
+            }
+            policy = limits.build();
+
+            // authorizes once; the Drive client is shared by all uploads
+            UploadService uploadService = new UploadService();
+            log.info("Uploading {} file(s), at most {}/s and {} at once", files.size(), policy.getPermitsPerSecond(), policy.getMaxConcurrency());
+            total = files.size();
+            start = System.nanoTime();
+            List<UploadStatus> results = uploadService.uploadAll(files, policy, status -> {
+                onStatus(status);
+                if (qrService != null && status.getState() == UploadState.DONE) {
+                    writeQr(status);
+                }
+            });
+
+            long failed = results.stream().filter(status -> status.getState() != UploadState.DONE).count();
+            double seconds = elapsedSeconds();
+            log.info("Uploaded {} of {} file(s) in {} s ({} failed): {} files/s, {} MB/s",
+                    total - failed, total, String.format("%.1f", seconds), failed,
+                    String.format("%.2f", (total - failed) / seconds),
+                    String.format("%.2f", uploadedBytes.get() / 1e6 / seconds));
+            return failed == 0 && qrFailures.get() == 0 ? 0 : 1;
+        } catch (DriveUploadException e) {
+            log.error("Error: {}", e.getMessage());
+            return 1;
+        }
+    }
+
+    /**
+     * Logs a status change with running totals.
+     *
+     * @param status the new status.
+     */
+    private void onStatus(UploadStatus status) {
+        switch (status.getState()) {
+            case RETRYING -> log.warn("Retrying {} after attempt {}: {}", status.getFile().getName(), status.getAttempts(), status.getError());
+            case DONE -> {
+                int done = finished.incrementAndGet();
+                long bytes = uploadedBytes.addAndGet(status.getFile().length());
+                double seconds = elapsedSeconds();
+                log.info("[{}/{}] {} -> {} ({} files/s, {} MB/s)", done, total, status.getFile().getName(), status.getUrl(),
+                        String.format("%.2f", done / seconds), String.format("%.2f", bytes / 1e6 / seconds));
+            }
+            case FAILED -> log.error("[{}/{}] {} failed: {}", finished.incrementAndGet(), total,
+                    status.getFile().getName(), status.getError());
+            default -> log.debug("{} {}", status.getState(), status.getFile().getName());
+        }
+    }
+
+    /**
+     * Generates the QR code for an uploaded file's link, named after the file.
+     *
+     * @param status the finished upload.
+     */
+    private void writeQr(UploadStatus status) {
+        String name = status.getFile().getName();
+        int dot = name.lastIndexOf('.');
+        String path = qrService.buildFullPath(outputDir, (dot > 0 ? name.substring(0, dot) : name) + ".png");
+        try {
+            qrService.generateToFile(status.getUrl(), spec, path);
+        } catch (QRException e) {
+            qrFailures.incrementAndGet();
+            log.error("QR code for {} failed: {}", name, e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the seconds since the upload started, never zero.
+     *
+     * @return elapsed seconds.
+     */
+    private double elapsedSeconds() {
+        return Math.max(1e-3, (System.nanoTime() - start) / 1e9);
+    }
+}
@@ -0,0 +1,212 @@
+package gr.omaro.qr_generator_cli.service;
+
+import gr.omaro.qr_generator.exception.ConfigExeption;
+import gr.omaro.qr_generator.exception.QRException;
+import gr.omaro.qr_generator.model.QRSpec;
+import gr.omaro.qr_generator.service.QRService;
+import gr.omaro.qr_generator_cli.enums.ServeProtocol;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Serves QR code requests over a pair of streams until the input is closed.
+ * <p>
+ * One reader thread parses requests and hands them to a fixed worker pool, so up to
+ * {@code maxInFlight} requests are encoded concurrently while the client keeps writing.
+ * Responses are written as jobs complete, which may be out of request order; every
+ * response carries the id of its request. The same {@link QRService} and JIT-compiled
+ * code are reused for the whole session.
+ * <p>
+ * Path responses name the file after the input and a hash of the input and spec
+ * ({@code example-3f9a0c1d2e4b.png}), so different requests never share a file and identical
+ * ones get the same file. Each image is written to a temporary file and moved into place,
+ * so a path handed to a caller never points at a half-written image.
+ */
+@Slf4j
+class CoProcessServer {
+
+    /**
+     * Number of hex digits of the content hash in file names.
+     */
+    private static final int HASH_LENGTH = 12;
+
+    /**
+     * Service shared by all requests.
+     */
+    private final QRService qrService;
+    /**
+     * Number of worker threads.
+     */
+    private final int workers;
+    /**
+     * Maximum number of requests read but not yet answered.
+     */
+    private final int maxInFlight;
+
+    /**
+     * Creates a server.
+     *
+     * @param qrService   service shared by all requests.
+     * @param workers     number of worker threads.
+     * @param maxInFlight maximum number of requests read but not yet answered.
+     */
+    CoProcessServer(QRService qrService, int workers, int maxInFlight) {
+        this.qrService = qrService;
+        this.workers = Math.max(1, workers);
+        this.maxInFlight = Math.max(1, maxInFlight);
+    }
+
+    /**
+     * Creates the codec for a wire format.
+     *
+     * @param protocol  the wire format.
+     * @param in        request stream.
+     * @param out       response stream.
+     * @param defaults  spec used for fields a request leaves out.
+     * @param outputDir output directory used for path responses, null for the configured one.
+     * @return the codec.
+     */
+    static ServeCodec codecFor(ServeProtocol protocol, InputStream in, OutputStream out,
+                               QRSpec defaults, String outputDir) {
+        return switch (protocol) {
+            case JSON -> new JsonLinesCodec(in, out, defaults, outputDir);
+            case FRAMED -> new FramedCodec(in, out, defaults, outputDir);
+        };
+    }
+
+    /**
+     * Reads and answers requests until the input is closed, then waits for outstanding responses.
+     *
+     * @param codec the request/response codec.
+     * @return the number of requests read.
+     * @throws IOException          if reading requests or writing responses fails.
+     * @throws InterruptedException if interrupted while waiting for a free slot.
+     */
+    int serve(ServeCodec codec) throws IOException, InterruptedException {
+        AtomicInteger threadIndex = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "qr-serve-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Semaphore slots = new Semaphore(maxInFlight);
+        AtomicReference<IOException> writeFailure = new AtomicReference<>();
+        int requests = 0;
+        try {
+            ServeRequest request;
+            while (writeFailure.get() == null && (request = codec.read()) != null) {
+                slots.acquire();
+                requests++;
+                ServeRequest job = request;
+                pool.execute(() -> {
+                    try {
+                        answer(codec, job);
+                    } catch (IOException e) {
+                        writeFailure.compareAndSet(null, e);
+                    } finally {
+                        slots.release();
+                    }
+                });
+            }
+            // all slots free again means every response has been written
+            slots.acquire(maxInFlight);
+        } finally {
+            pool.shutdownNow();
+        }
+        if (writeFailure.get() != null) {
+            throw writeFailure.get();
+        }
+        return requests;
+    }
+
+    /**
+     * Encodes one request and writes its response.
+     *
+     * @param codec   the request/response codec.
+     * @param request the request.
+     * @throws IOException if the response cannot be written.
+     */
+    private void answer(ServeCodec codec, ServeRequest request) throws IOException {
+        try {
+            if (request.isReplyPng()) {
+                codec.writePng(request.getId(), qrService.generatePng(request.getInput(), request.getSpec()));
+            } else {
+                codec.writePath(request.getId(), generateFile(request));
+            }
+        } catch (ConfigExeption | QRException e) {
+            codec.writeError(request.getId(), e.getMessage());
+        } catch (RuntimeException e) {
+            log.error("Unexpected error for request {}: {}", request.getId(), e.getMessage());
+            codec.writeError(request.getId(), "Unexpected error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the image of a path request to its content-addressed file.
+     *
+     * @param request the request.
+     * @return full path of the image.
+     * @throws QRException    if QR code generation or moving the image into place fails.
+     * @throws ConfigExeption if configuration fails or output directory can't be created.
+     */
+    private String generateFile(ServeRequest request) throws QRException, ConfigExeption {
+        String outputDir = qrService.resolveOutputDir(request.getOutputDir());
+        String fullPath = qrService.buildFullPath(outputDir, fileNameFor(request.getInput(), request.getSpec()));
+        Path target = Paths.get(fullPath);
+        Path temp = null;
+        try {
+            temp = Files.createTempFile(target.getParent(), ".qrgen-", ".tmp");
+            qrService.generateToFile(request.getInput(), request.getSpec(), temp.toString());
+            // an identical request may have written the same image meanwhile; either copy is complete
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return fullPath;
+        } catch (IOException e) {
+            throw new QRException("Failed to write " + fullPath + ": " + e.getMessage(), e);
+        } finally {
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException e) {
+                    log.warn("Could not delete {}: {}", temp, e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the file name of a request: the name derived from the input and a hash of the
+     * input and spec.
+     *
+     * @param input the text or URL to encode.
+     * @param spec  rendering options.
+     * @return file name ending with .png.
+     */
+    private String fileNameFor(String input, QRSpec spec) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(input.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(spec.cacheKey().getBytes(StandardCharsets.UTF_8));
+            String hash = HexFormat.of().formatHex(digest.digest()).substring(0, HASH_LENGTH);
+            return qrService.fileNameFor(input).replaceFirst("\\.png$", "-" + hash + ".png");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
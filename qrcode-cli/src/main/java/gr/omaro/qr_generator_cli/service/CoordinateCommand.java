@@ -0,0 +1,134 @@
+package gr.omaro.qr_generator_cli.service;
+
+import gr.omaro.qr_generator.exception.QRException;
+import gr.omaro.qr_generator.model.QueueStatus;
+import gr.omaro.qr_generator.service.ChunkQueue;
+import gr.omaro.qr_generator_cli.commands.CoordinateOptions;
+import lombok.extern.slf4j.Slf4j;
+import picocli.CommandLine;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.stream.Stream;
+
+/**
+ * Picocli command that splits a batch into a shared work queue and follows it until it is done.
+ * <p>
+ * Workers on any host take the chunks with {@link WorkCommand}; see {@link ChunkQueue} for the
+ * queue layout and leases.
+ */
+@Slf4j
+@CommandLine.Command(
+        name = "coordinate",
+        mixinStandardHelpOptions = true,
+        description = "Splits a batch file into chunks on a shared directory for 'work' processes on several hosts."
+)
+public class CoordinateCommand implements Callable<Integer> {
+
+    /**
+     * Time between two looks at the queue, in milliseconds.
+     */
+    private static final long POLL_MILLIS = 1000;
+
+    /**
+     * Injected CLI options like input file, queue directory and chunk size.
+     */
+    @SuppressWarnings("unused")
+    @CommandLine.Mixin
+    private CoordinateOptions options;
+
+    /**
+     * Executes the split and waits for the workers.
+     *
+     * @return exit code: 0 = success, 1 = known error or failed entries, 2 = unexpected error
+     */
+    @Override
+    public Integer call() {
+        try {
+            ChunkQueue queue = new ChunkQueue(Paths.get(options.getQueueDir()));
+            if (queue.status().isSealed()) {
+                log.info("Queue is already split, following it: {}", queue.status());
+            } else {
+                Path inputFile = Paths.get(options.getInputFile());
+                if (!Files.isRegularFile(inputFile)) {
+                    log.error("Input file does not exist: {}", inputFile);
+                    return 1;
+                }
+                queue.split(inputFile, options.getChunkSize());
+            }
+            if (!options.isAwait()) {
+                return 0;
+            }
+
+            long start = System.nanoTime();
+            String last = "";
+            QueueStatus status;
+            while (true) {
+                // workers reclaim too, but only while they are idle
+                queue.reclaimExpired();
+                status = queue.status();
+                if (!status.toString().equals(last)) {
+                    last = status.toString();
+                    log.info("Queue: {}", last);
+                }
+                if (status.isFinished()) {
+                    break;
+                }
+                Thread.sleep(POLL_MILLIS);
+            }
+
+            long[] totals = manifestTotals(queue.getManifestDirectory());
+            log.info("All {} chunk(s) done in {} s: {} code file(s) written, {} failed; manifests in {}",
+                    status.getDone(), String.format("%.1f", (System.nanoTime() - start) / 1e9),
+                    totals[0], totals[1], queue.getManifestDirectory());
+            return totals[1] == 0 ? 0 : 1;
+        } catch (QRException e) {
+            log.error("Error: {}", e.getMessage());
+            return 1;
+        } catch (IOException e) {
+            log.error("Error: cannot read queue: {}", e.getMessage());
+            return 1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 1;
+        } catch (Exception e) {
+            log.error("Unexpected error: {}", e.getMessage());
+            return 2;
+        }
+    }
+
+    /**
+     * Adds up the written and failed codes of all manifests.
+     *
+     * @param directory the manifests folder.
+     * @return written files and failed codes.
+     * @throws IOException if a manifest cannot be read.
+     */
+    private static long[] manifestTotals(Path directory) throws IOException {
+        long written = 0;
+        long failed = 0;
+        List<Path> manifests;
+        try (Stream<Path> files = Files.list(directory)) {
+            manifests = files.toList();
+        }
+        for (Path manifest : manifests) {
+            try (BufferedReader reader = Files.newBufferedReader(manifest, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.startsWith("# failed: ")) {
+                        failed++;
+                    } else if (!line.startsWith("#")) {
+                        written++;
+                    }
+                }
+            }
+        }
+        return new long[]{written, failed};
+    }
+}
@@ -0,0 +1,155 @@
+package gr.omaro.qr_generator_cli.service;
+
+import gr.omaro.qr_generator.model.QRSpec;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Length-prefixed binary codec. All integers are big-endian.
+ * <pre>
+ * request:  int id | byte flags | int width | int height | int length | length bytes of UTF-8 input
+ * response: int id | byte status | int length | length bytes of payload
+ * </pre>
+ * Request flag {@code 0x01} asks for the file path instead of the PNG bytes; a width or height
+ * of 0 uses the command-line size. A negative size or an empty input is answered with
+ * {@link #STATUS_ERROR} and the session goes on. Response status is {@link #STATUS_PNG}, {@link #STATUS_PATH}
+ * (UTF-8 path) or {@link #STATUS_ERROR} (UTF-8 message). A truncated frame ends the session,
+ * since the stream cannot be resynchronized.
+ */
+class FramedCodec implements ServeCodec {
+
+    /**
+     * Request flag: answer with the file path instead of the PNG bytes.
+     */
+    static final int FLAG_REPLY_PATH = 0x01;
+    /**
+     * Response status: payload is a PNG image.
+     */
+    static final int STATUS_PNG = 0;
+    /**
+     * Response status: payload is the UTF-8 path of the written image.
+     */
+    static final int STATUS_PATH = 1;
+    /**
+     * Response status: payload is a UTF-8 error message.
+     */
+    static final int STATUS_ERROR = 2;
+    /**
+     * Largest accepted input, well above the capacity of a version 40 symbol.
+     */
+    private static final int MAX_INPUT_BYTES = 1 << 20;
+
+    /**
+     * Request frames.
+     */
+    private final DataInputStream in;
+    /**
+     * Response frames.
+     */
+    private final DataOutputStream out;
+    /**
+     * Spec used when a request leaves the size at 0.
+     */
+    private final QRSpec defaults;
+    /**
+     * Output directory used for path responses.
+     */
+    private final String outputDir;
+
+    /**
+     * Creates a codec over the given streams.
+     *
+     * @param in        request stream.
+     * @param out       response stream.
+     * @param defaults  spec used when a request leaves the size at 0.
+     * @param outputDir output directory used for path responses.
+     */
+    FramedCodec(InputStream in, OutputStream out, QRSpec defaults, String outputDir) {
+        this.in = new DataInputStream(new BufferedInputStream(in, 64 * 1024));
+        this.out = new DataOutputStream(new BufferedOutputStream(out, 64 * 1024));
+        this.defaults = defaults;
+        this.outputDir = outputDir;
+    }
+
+    @Override
+    public ServeRequest read() throws IOException {
+        while (true) {
+            int id;
+            try {
+                id = in.readInt();
+            } catch (EOFException e) {
+                return null;
+            }
+            int flags = in.readUnsignedByte();
+            int width = in.readInt();
+            int height = in.readInt();
+            int length = in.readInt();
+            if (length < 0 || length > MAX_INPUT_BYTES) {
+                throw new IOException("Invalid input length " + length + " in request " + id);
+            }
+            byte[] input = new byte[length];
+            in.readFully(input);
+            if (width < 0 || height < 0) {
+                // the frame was read whole, so the session can go on
+                writeError(Integer.toString(id), "Width and height must not be negative.");
+                continue;
+            }
+
+            QRSpec.QRSpecBuilder spec = defaults.toBuilder();
+            if (width > 0) {
+                spec.width(width);
+            }
+            if (height > 0) {
+                spec.height(height);
+            }
+            ServeRequest request = new ServeRequest(Integer.toString(id), new String(input, StandardCharsets.UTF_8),
+                    spec.build(), outputDir, (flags & FLAG_REPLY_PATH) == 0);
+            String error = request.validationError();
+            if (error == null) {
+                return request;
+            }
+            writeError(request.getId(), error);
+        }
+    }
+
+    @Override
+    public void writePath(String id, String path) throws IOException {
+        write(id, STATUS_PATH, path.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void writePng(String id, byte[] png) throws IOException {
+        write(id, STATUS_PNG, png);
+    }
+
+    @Override
+    public void writeError(String id, String message) throws IOException {
+        write(id, STATUS_ERROR, String.valueOf(message).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Writes one response frame and flushes it.
+     *
+     * @param id      the request id; null is written as -1.
+     * @param status  the response status.
+     * @param payload the payload bytes.
+     * @throws IOException if the response cannot be written.
+     */
+    private void write(String id, int status, byte[] payload) throws IOException {
+        synchronized (out) {
+            out.writeInt(id == null ? -1 : Integer.parseInt(id));
+            out.writeByte(status);
+            out.writeInt(payload.length);
+            out.write(payload);
+            out.flush();
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package gr.omaro.qr_generator_cli.service;
+
+import gr.omaro.qr_generator.enums.ImageFormat;
+import gr.omaro.qr_generator.exception.ConfigExeption;
+import gr.omaro.qr_generator.exception.QRException;
+import gr.omaro.qr_generator.model.RenderedFile;
+import gr.omaro.qr_generator.service.QRService;
+import gr.omaro.qr_generator.service.VerificationService;
+import gr.omaro.qr_generator.util.ConfigUtil;
+import gr.omaro.qr_generator_cli.commands.QROptions;
+import gr.omaro.qr_generator_cli.commands.ServeOptions;
+import gr.omaro.qr_generator_cli.commands.StyleOptions;
+import lombok.extern.slf4j.Slf4j;
+import picocli.CommandLine;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Picocli command implementation for generating QR codes.
+ * <p>
+ * Uses the provided options to create and save a QR code image.
+ */
+@Slf4j
+@CommandLine.Command(
+        name = "qrgen",
+        version = "qrgen 1.0.0",
+        mixinStandardHelpOptions = true,
+        description = "Generates QR codes from URLs or text input.",
+        subcommands = {BatchCommand.class, VerifyCommand.class, UploadCommand.class, SheetCommand.class, WatchCommand.class,
+                CoordinateCommand.class, WorkCommand.class, BenchCommand.class, RedirectCommand.class}
+)
+public class GenerateCommand implements Callable<Integer> {
+
+    /**
+     * Injected CLI options like input, width, height, output directory.
+     */
+    @SuppressWarnings("unused")
+    @CommandLine.Mixin
+    private QROptions options;
+
+    /**
+     * Injected styling options like error correction, colors and logo.
+     */
+    @SuppressWarnings("unused")
+    @CommandLine.Mixin
+    private StyleOptions styleOptions;
+
+    /**
+     * Injected co-process options like protocol and number of in-flight requests.
+     */
+    @SuppressWarnings("unused")
+    @CommandLine.Mixin
+    private ServeOptions serveOptions;
+
+    /**
+     * Executes the QR generation logic.
+     *
+     * @return exit code: 0 = success, 1 = known error, 2 = unexpected error
+     */
+    @Override
+    public Integer call() {
+        VerificationService verifier = null;
+        try {
+            if (serveOptions.isServe()) {
+                return serve();
+            }
+            if (options.getInput() == null || options.getInput().isBlank()) {
+                log.error("Input cannot be empty.");
+                return 1;
+            }
+
+            verifier = options.isVerify() ? new VerificationService(1) : null;
+            QRService qrService = new QRService(verifier);
+            if (options.isStructuredAppend()) {
+                if (!options.getSizes().isEmpty() || !options.getImageFormats().equals(EnumSet.of(ImageFormat.PNG))) {
+                    log.error("--sizes and --image-format are not supported with --structured-append.");
+                    return 1;
+                }
+                List<String> filePaths = qrService.generateStructuredAppend(
+                        options.getInput(),
+                        styleOptions.toSpec(options.getWidth(), options.getHeight()),
+                        options.getOutputDir(),
+                        options.getMaxVersion(),
+                        options.isContactSheet()
+                );
+                filePaths.forEach(filePath -> log.info("QR Code generated at: {}", filePath));
+                return verifier != null && !VerificationLog.log(verifier.awaitReport()) ? 1 : 0;
+            }
+            if (!options.getSizes().isEmpty()) {
+                List<RenderedFile> files = qrService.generateSizes(
+                        options.getInput(),
+                        styleOptions.toSpec(options.getWidth(), options.getHeight()),
+                        options.getSizes(),
+                        options.getImageFormats(),
+                        options.getOutputDir()
+                );
+                files.forEach(file -> log.info("QR Code generated at: {}", file.getPath()));
+                return verifier != null && !VerificationLog.log(verifier.awaitReport()) ? 1 : 0;
+            }
+            // Call service with size/style/output if provided
+            String filePath = qrService.generate(
+                    options.getInput(),
+                    styleOptions.toSpec(options.getWidth(), options.getHeight()),
+                    options.getOutputDir()
+            );
+            log.info("QR Code generated at: {}", filePath);
+            if (verifier != null && !VerificationLog.log(verifier.awaitReport())) {
+                return 1;
+            }
+            return 0;
+        } catch (ConfigExeption | QRException e) {
+            log.error("Error: {}", e.getMessage());
+            return 1;
+        } catch (Exception e) {
+            log.error("Unexpected error: {}", e.getMessage());
+            return 2;
+        } finally {
+            if (verifier != null) {
+                verifier.close();
+            }
+        }
+    }
+
+    /**
+     * Runs the co-process mode until stdin is closed.
+     * <p>
+     * stdout carries only responses, so log output is redirected to stderr for the session.
+     * Changes to the external configuration file apply to the following requests.
+     *
+     * @return exit code: 0 = input closed normally
+     * @throws IOException          if reading requests or writing responses fails.
+     * @throws InterruptedException if interrupted while waiting for outstanding requests.
+     * @throws ConfigExeption       if the configuration cannot be loaded or watched.
+     */
+    private int serve() throws IOException, InterruptedException, ConfigExeption {
+        OutputStream stdout = new FileOutputStream(FileDescriptor.out);
+        System.setOut(System.err);
+        ConfigUtil.watchForChanges();
+
+        CoProcessServer server = new CoProcessServer(
+                new QRService(),
+                serveOptions.getWorkers(),
+                serveOptions.getInFlight()
+        );
+        int requests = server.serve(CoProcessServer.codecFor(
+                serveOptions.getProtocol(),
+                System.in,
+                stdout,
+                styleOptions.toSpec(options.getWidth(), options.getHeight()),
+                options.getOutputDir()
+        ));
+        log.info("Co-process session closed after {} requests.", requests);
+        return 0;
+    }
+}
@@ -0,0 +1,177 @@
+package gr.omaro.qr_generator_cli.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import gr.omaro.qr_generator.enums.CodeFormat;
+import gr.omaro.qr_generator.model.QRSpec;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Locale;
+
+/**
+ * JSON-lines codec: one request object per input line, one response object per output line.
+ * <p>
+ * Request fields are {@code id}, {@code input} and the optional {@code width}, {@code height},
+ * {@code format}, {@code ecc}, {@code output} and {@code reply} ({@code "path"} or {@code "png"}). Responses are
+ * {@code {"id":..,"ok":true,"path":..}}, {@code {"id":..,"ok":true,"png":"<base64>"}} or
+ * {@code {"id":..,"ok":false,"error":..}}. Ids are echoed back as strings. A line that cannot be
+ * parsed, or has an empty input or a size that is not positive, is answered with an error and
+ * does not stop the session.
+ */
+class JsonLinesCodec implements ServeCodec {
+
+    /**
+     * Shared, thread-safe factory for parsers and generators.
+     */
+    private static final JsonFactory JSON = new JsonFactory();
+
+    /**
+     * Request lines.
+     */
+    private final BufferedReader in;
+    /**
+     * Response lines.
+     */
+    private final Writer out;
+    /**
+     * Spec used for fields a request leaves out.
+     */
+    private final QRSpec defaults;
+    /**
+     * Output directory used when a request does not set one.
+     */
+    private final String defaultOutputDir;
+
+    /**
+     * Creates a codec over the given streams.
+     *
+     * @param in               request stream.
+     * @param out              response stream.
+     * @param defaults         spec used for fields a request leaves out.
+     * @param defaultOutputDir output directory used when a request does not set one.
+     */
+    JsonLinesCodec(InputStream in, OutputStream out, QRSpec defaults, String defaultOutputDir) {
+        this.in = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        this.defaults = defaults;
+        this.defaultOutputDir = defaultOutputDir;
+    }
+
+    @Override
+    public ServeRequest read() throws IOException {
+        String line;
+        while ((line = in.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                ServeRequest request = parse(line);
+                String error = request.validationError();
+                if (error == null) {
+                    return request;
+                }
+                writeError(request.getId(), error);
+            } catch (JsonProcessingException e) {
+                writeError(null, "Invalid request: " + e.getOriginalMessage());
+            } catch (IllegalArgumentException e) {
+                writeError(null, "Invalid request: " + e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Parses one request line.
+     *
+     * @param line the JSON object text.
+     * @return the request, with a null input if the line does not set one.
+     * @throws IOException              if the line is not a JSON object ({@link JsonProcessingException}).
+     * @throws IllegalArgumentException if a field has an invalid value.
+     */
+    private ServeRequest parse(String line) throws IOException {
+        String id = null;
+        String input = null;
+        String outputDir = defaultOutputDir;
+        boolean replyPng = false;
+        QRSpec.QRSpecBuilder spec = defaults.toBuilder();
+
+        try (JsonParser parser = JSON.createParser(line)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "expected a JSON object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "id" -> id = parser.getValueAsString();
+                    case "input" -> input = parser.getValueAsString();
+                    case "width" -> spec.width(parser.getIntValue());
+                    case "height" -> spec.height(parser.getIntValue());
+                    case "format" -> spec.format(
+                            CodeFormat.valueOf(String.valueOf(parser.getValueAsString()).toUpperCase(Locale.ROOT)));
+                    case "ecc" -> spec.errorCorrection(
+                            ErrorCorrectionLevel.valueOf(String.valueOf(parser.getValueAsString()).toUpperCase(Locale.ROOT)));
+                    case "output" -> outputDir = parser.getValueAsString();
+                    case "reply" -> replyPng = "png".equalsIgnoreCase(parser.getValueAsString());
+                    default -> parser.skipChildren();
+                }
+            }
+        }
+        return new ServeRequest(id, input, spec.build(), outputDir, replyPng);
+    }
+
+    @Override
+    public void writePath(String id, String path) throws IOException {
+        write(id, true, "path", path);
+    }
+
+    @Override
+    public void writePng(String id, byte[] png) throws IOException {
+        write(id, true, "png", Base64.getEncoder().encodeToString(png));
+    }
+
+    @Override
+    public void writeError(String id, String message) throws IOException {
+        write(id, false, "error", message);
+    }
+
+    /**
+     * Writes one response line and flushes it.
+     *
+     * @param id    the request id, may be null.
+     * @param ok    whether the request succeeded.
+     * @param field name of the payload field.
+     * @param value payload value.
+     * @throws IOException if the response cannot be written.
+     */
+    private void write(String id, boolean ok, String field, String value) throws IOException {
+        StringWriter line = new StringWriter(value == null ? 64 : value.length() + 64);
+        try (JsonGenerator generator = JSON.createGenerator(line)) {
+            generator.writeStartObject();
+            generator.writeStringField("id", id);
+            generator.writeBooleanField("ok", ok);
+            generator.writeStringField(field, value);
+            generator.writeEndObject();
+        }
+        synchronized (out) {
+            out.write(line.toString());
+            out.write('\n');
+            out.flush();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package gr.omaro.qr_generator_cli.service;
+
+import gr.omaro.qr_generator.exception.ConfigExeption;
+import gr.omaro.qr_generator.service.ShortLinkServer;
+import gr.omaro.qr_generator.service.ShortLinkStore;
+import gr.omaro.qr_generator.util.ConfigUtil;
+import gr.omaro.qr_generator_cli.commands.RedirectOptions;
+import lombok.extern.slf4j.Slf4j;
+import picocli.CommandLine;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Picocli command that serves the redirects of the short link store.
+ * <p>
+ * Short links are created while generating codes when {@code shortlink.base.url} is configured;
+ * see {@link ShortLinkServer} for the requests it answers.
+ */
+@Slf4j
+@CommandLine.Command(
+        name = "redirect",
+        mixinStandardHelpOptions = true,
+        description = "Serves HTTP redirects from short links to the long URLs they stand for."
+)
+public class RedirectCommand implements Callable<Integer> {
+
+    /**
+     * Injected CLI options like store file, address and port.
+     */
+    @SuppressWarnings("unused")
+    @CommandLine.Mixin
+    private RedirectOptions options;
+
+    /**
+     * Serves until the process is stopped.
+     *
+     * @return exit code: 1 = known error, 2 = unexpected error; a running server only ends on a signal.
+     */
+    @Override
+    public Integer call() {
+        try {
+            ConfigUtil.initialize();
+            Path storePath = Paths.get(options.getStorePath() != null ? options.getStorePath() : ConfigUtil.getShortLinkStorePath());
+            ShortLinkStore store = ShortLinkStore.open(storePath);
+            ShortLinkServer server = new ShortLinkServer(store,
+                    new InetSocketAddress(options.getBindAddress(), options.getPort()), options.getThreads());
+
+            CountDownLatch stopped = new CountDownLatch(1);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                server.close();
+                log.info("Stopped after {} redirect(s), {} unknown link(s)", server.getRedirects(), server.getMisses());
+                try {
+                    store.close();
+                } catch (IOException e) {
+                    log.warn("Could not close short link store: {}", e.getMessage());
+                }
+                stopped.countDown();
+            }, "redirect-shutdown"));
+            log.info("Serving {} short link(s) from {} on {}:{}; press Ctrl+C to stop.",
+                    store.size(), storePath, options.getBindAddress(), server.getPort());
+            stopped.await();
+            return 0;
+        } catch (ConfigExeption e) {
+            log.error("Error: {}", e.getMessage());
+            return 1;
+        } catch (IOException e) {
+            log.error("Error: cannot serve short links: {}", e.getMessage());
+            return 1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        } catch (Exception e) {
+            log.error("Unexpected error: {}", e.getMessage());
+            return 2;
+        }
+    }
+}
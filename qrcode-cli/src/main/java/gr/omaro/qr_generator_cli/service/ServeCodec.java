@@ -0,0 +1,47 @@
+package gr.omaro.qr_generator_cli.service;
+
+import java.io.IOException;
+
+/**
+ * Reads requests from and writes responses to the co-process streams.
+ * <p>
+ * {@link #read()} is only called by the reader thread; the write methods are called
+ * by workers as jobs complete and must be safe to call concurrently.
+ */
+interface ServeCodec {
+
+    /**
+     * Reads the next request.
+     *
+     * @return the request, or null once the input is closed.
+     * @throws IOException if the input cannot be read or is not a valid frame.
+     */
+    ServeRequest read() throws IOException;
+
+    /**
+     * Answers a request with the path of the written image.
+     *
+     * @param id   the request id.
+     * @param path full path of the generated image.
+     * @throws IOException if the response cannot be written.
+     */
+    void writePath(String id, String path) throws IOException;
+
+    /**
+     * Answers a request with the image itself.
+     *
+     * @param id  the request id.
+     * @param png the PNG file contents.
+     * @throws IOException if the response cannot be written.
+     */
+    void writePng(String id, byte[] png) throws IOException;
+
+    /**
+     * Answers a request with an error.
+     *
+     * @param id      the request id, or null if the request could not be parsed.
+     * @param message the error message.
+     * @throws IOException if the response cannot be written.
+     */
+    void writeError(String id, String message) throws IOException;
+}
@@ -0,0 +1,47 @@
+package gr.omaro.qr_generator_cli.service;
+
+import gr.omaro.qr_generator.model.QRSpec;
+import lombok.Value;
+
+/**
+ * One request read by the co-process mode.
+ */
+@Value
+class ServeRequest {
+
+    /**
+     * Caller-chosen id echoed back with the response.
+     */
+    String id;
+    /**
+     * The text or URL to encode.
+     */
+    String input;
+    /**
+     * Rendering options for this request.
+     */
+    QRSpec spec;
+    /**
+     * Output directory used when the response is a path; null for the configured one.
+     */
+    String outputDir;
+    /**
+     * Whether the response carries the PNG bytes instead of a file path.
+     */
+    boolean replyPng;
+
+    /**
+     * Returns why the request cannot be answered, so that it is rejected before it is queued.
+     *
+     * @return the error message, or null if the input is set and the size is positive.
+     */
+    String validationError() {
+        if (input == null || input.isBlank()) {
+            return "Input cannot be empty.";
+        }
+        if (spec.getWidth() <= 0 || spec.getHeight() <= 0) {
+            return "Width and height must be positive.";
+        }
+        return null;
+    }
+}
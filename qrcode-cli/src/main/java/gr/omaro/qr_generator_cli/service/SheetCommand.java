@@ -0,0 +1,81 @@
+package gr.omaro.qr_generator_cli.service;
+
+import gr.omaro.qr_generator.enums.ModuleShape;
+import gr.omaro.qr_generator.exception.ConfigExeption;
+import gr.omaro.qr_generator.exception.QRException;
+import gr.omaro.qr_generator.model.QRSpec;
+import gr.omaro.qr_generator.model.SheetReport;
+import gr.omaro.qr_generator.service.QRService;
+import gr.omaro.qr_generator.service.SheetRenderer;
+import gr.omaro.qr_generator_cli.commands.SheetOptions;
+import gr.omaro.qr_generator_cli.commands.StyleOptions;
+import lombok.extern.slf4j.Slf4j;
+import picocli.CommandLine;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.Callable;
+
+/**
+ * Picocli command that lays out QR codes for every line of an input file on printable label sheets.
+ */
+@Slf4j
+@CommandLine.Command(
+        name = "sheet",
+        mixinStandardHelpOptions = true,
+        description = "Lays out QR codes with captions on printable pages (PDF or PNG)."
+)
+public class SheetCommand implements Callable<Integer> {
+
+    /**
+     * Injected CLI options like input file, sheet format and grid.
+     */
+    @SuppressWarnings("unused")
+    @CommandLine.Mixin
+    private SheetOptions options;
+
+    /**
+     * Injected styling options; error correction and colors are used.
+     */
+    @SuppressWarnings("unused")
+    @CommandLine.Mixin
+    private StyleOptions styleOptions;
+
+    /**
+     * Executes the sheet job.
+     *
+     * @return exit code: 0 = success, 1 = known error or failed entries, 2 = unexpected error
+     */
+    @Override
+    public Integer call() {
+        try {
+            Path inputFile = Paths.get(options.getInputFile());
+            if (!Files.isRegularFile(inputFile)) {
+                log.error("Input file does not exist: {}", inputFile);
+                return 1;
+            }
+
+            // size is decided by the layout, not in pixels
+            QRSpec spec = styleOptions.toSpec(QRSpec.DEFAULT_WIDTH, QRSpec.DEFAULT_HEIGHT);
+            if (spec.getStyle() != null && (spec.getStyle().hasLogo() || spec.getStyle().getShape() != ModuleShape.SQUARE)) {
+                log.warn("Label sheets draw square modules without logos; --shape and --logo are ignored.");
+                // without a logo there is no reason to raise error correction to H
+                spec = spec.toBuilder().style(spec.getStyle().toBuilder().logoPath(null).build()).build();
+            }
+            SheetRenderer renderer = new SheetRenderer(new QRService(), options.getWorkers());
+            SheetReport report = renderer.render(
+                    inputFile, spec, options.toLayout(), options.getSheetFormat(), options.getOutputDir());
+            report.getFailures().forEach(failure -> log.error("Failed: {}", failure));
+            report.getFiles().forEach(file -> log.info("Written: {}", file));
+            log.info("Sheet completed: {}", report);
+            return report.getFailures().isEmpty() ? 0 : 1;
+        } catch (ConfigExeption | QRException e) {
+            log.error("Error: {}", e.getMessage());
+            return 1;
+        } catch (Exception e) {
+            log.error("Unexpected error: {}", e.getMessage());
+            return 2;
+        }
+    }
+}
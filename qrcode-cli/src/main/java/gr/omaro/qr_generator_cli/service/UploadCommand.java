@@ -0,0 +1,161 @@
+package gr.omaro.qr_generator_cli.service;
+
+import gr.omaro.qr_generator.enums.SupportedFileType;
+import gr.omaro.qr_generator.exception.ConfigExeption;
+import gr.omaro.qr_generator.model.QRSpec;
+import gr.omaro.qr_generator.service.QRService;
+import gr.omaro.qr_generator.util.ConfigUtil;
+import gr.omaro.qr_generator_cli.commands.StyleOptions;
+import gr.omaro.qr_generator_cli.commands.UploadOptions;
+import lombok.extern.slf4j.Slf4j;
+import picocli.CommandLine;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.stream.Stream;
+
+/**
+ * Picocli command that uploads many files to Google Drive without a display.
+ * <p>
+ * The targets are expanded here; the upload itself is a {@link BulkUpload}, which shares one
+ * authorized Drive client between all files and logs progress and throughput as files finish.
+ */
+@Slf4j
+@CommandLine.Command(
+        name = "upload",
+        mixinStandardHelpOptions = true,
+        description = "Validates and uploads files to Google Drive concurrently, optionally generating a QR code per link."
+)
+public class UploadCommand implements Callable<Integer> {
+
+    /**
+     * Injected CLI options like targets, limits and QR output.
+     */
+    @SuppressWarnings("unused")
+    @CommandLine.Mixin
+    private UploadOptions options;
+
+    /**
+     * Injected styling options for the QR codes of {@code --qr}.
+     */
+    @SuppressWarnings("unused")
+    @CommandLine.Mixin
+    private StyleOptions styleOptions;
+
+    /**
+     * Executes the upload.
+     *
+     * @return exit code: 0 = success, 1 = known error or failed files, 2 = unexpected error
+     */
+    @Override
+    public Integer call() {
+        try {
+            ConfigUtil.initialize();
+            List<File> files = resolveTargets(options.getTargets(), ConfigUtil.getAcceptedFileTypes());
+            if (files.isEmpty()) {
+                log.error("No files to upload in: {}", String.join(" ", options.getTargets()));
+                return 1;
+            }
+
+            QRService qrService = options.isQr() ? new QRService() : null;
+            QRSpec spec = styleOptions.toSpec(options.getWidth(), options.getHeight());
+            String outputDir = qrService != null ? qrService.resolveOutputDir(options.getOutputDir()) : null;
+            return new BulkUpload(qrService, spec, outputDir).run(files, options.getRate(), options.getConcurrency());
+        } catch (ConfigExeption e) {
+            log.error("Error: {}", e.getMessage());
+            return 1;
+        } catch (Exception e) {
+            log.error("Unexpected error: {}", e.getMessage());
+            return 2;
+        }
+    }
+
+    /**
+     * Expands the targets into files.
+     * <p>
+     * A directory contributes its files of an accepted type, a glob pattern the files below its
+     * fixed leading directories that match it. Plain paths are kept as given so that missing or
+     * unsupported files are reported by validation.
+     *
+     * @param targets  files, directories or glob patterns.
+     * @param accepted accepted file types.
+     * @return the files, without duplicates, in target order.
+     * @throws IOException if a directory cannot be listed.
+     */
+    private static List<File> resolveTargets(List<String> targets, Set<SupportedFileType> accepted) throws IOException {
+        Set<Path> files = new LinkedHashSet<>();
+        for (String target : targets) {
+            int wildcard = indexOfGlob(target);
+            if (wildcard >= 0) {
+                int separator = Math.max(target.lastIndexOf('/', wildcard), target.lastIndexOf(File.separatorChar, wildcard));
+                Path base = separator < 0 ? Paths.get(".") : Paths.get(target.substring(0, separator + 1));
+                String pattern = target.substring(separator + 1);
+                PathMatcher nested = FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+                // "**/" also matches no directory at all, as in most shells
+                PathMatcher top = pattern.startsWith("**/")
+                        ? FileSystems.getDefault().getPathMatcher("glob:" + pattern.substring(3))
+                        : nested;
+                if (Files.isDirectory(base)) {
+                    try (Stream<Path> walk = Files.walk(base)) {
+                        walk.filter(Files::isRegularFile)
+                                .filter(path -> nested.matches(base.relativize(path)) || top.matches(base.relativize(path)))
+                                .sorted()
+                                .forEach(path -> files.add(path.toAbsolutePath().normalize()));
+                    }
+                }
+            } else {
+                Path path = Paths.get(target);
+                if (Files.isDirectory(path)) {
+                    try (Stream<Path> list = Files.list(path)) {
+                        list.filter(Files::isRegularFile)
+                                .filter(file -> isAccepted(file, accepted))
+                                .sorted()
+                                .forEach(file -> files.add(file.toAbsolutePath().normalize()));
+                    }
+                } else {
+                    files.add(path.toAbsolutePath().normalize());
+                }
+            }
+        }
+        List<File> result = new ArrayList<>(files.size());
+        files.forEach(path -> result.add(path.toFile()));
+        return result;
+    }
+
+    /**
+     * Checks whether a file has one of the accepted types.
+     *
+     * @param file     the file.
+     * @param accepted accepted file types.
+     * @return true if its extension is accepted.
+     */
+    private static boolean isAccepted(Path file, Set<SupportedFileType> accepted) {
+        SupportedFileType type = SupportedFileType.fromFileName(file.getFileName().toString());
+        return type != null && accepted.contains(type);
+    }
+
+    /**
+     * Finds the first glob special character.
+     *
+     * @param target the target.
+     * @return its index, or -1 for a plain path.
+     */
+    private static int indexOfGlob(String target) {
+        for (int i = 0; i < target.length(); i++) {
+            if ("*?[{".indexOf(target.charAt(i)) >= 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,26 @@
+package gr.omaro.qr_generator_cli.service;
+
+import gr.omaro.qr_generator.model.VerificationReport;
+import lombok.experimental.UtilityClass;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Utility class that prints a verification report to the CLI log.
+ */
+@Slf4j
+@UtilityClass
+class VerificationLog {
+
+    /**
+     * Logs every failure and a summary.
+     *
+     * @param report the report to print.
+     * @return true if every image was readable.
+     */
+    static boolean log(VerificationReport report) {
+        report.getFailures().forEach(failure ->
+                log.error("Verification failed: {} - {}", failure.getPath(), failure.getError()));
+        log.info("Verification completed: {}", report);
+        return report.getFailures().isEmpty();
+    }
+}
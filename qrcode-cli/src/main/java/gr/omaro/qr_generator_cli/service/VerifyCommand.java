@@ -0,0 +1,58 @@
+package gr.omaro.qr_generator_cli.service;
+
+import gr.omaro.qr_generator.exception.QRException;
+import gr.omaro.qr_generator.model.VerificationReport;
+import gr.omaro.qr_generator.service.VerificationService;
+import gr.omaro.qr_generator_cli.commands.VerifyOptions;
+import lombok.extern.slf4j.Slf4j;
+import picocli.CommandLine;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.Callable;
+
+/**
+ * Picocli command that checks that every PNG in a directory contains a readable QR code.
+ */
+@Slf4j
+@CommandLine.Command(
+        name = "verify",
+        mixinStandardHelpOptions = true,
+        description = "Decodes every PNG image in a directory in parallel and reports unreadable codes."
+)
+public class VerifyCommand implements Callable<Integer> {
+
+    /**
+     * Injected CLI options like directory and worker count.
+     */
+    @SuppressWarnings("unused")
+    @CommandLine.Mixin
+    private VerifyOptions options;
+
+    /**
+     * Executes the verification.
+     *
+     * @return exit code: 0 = all readable, 1 = known error or unreadable images, 2 = unexpected error
+     */
+    @Override
+    public Integer call() {
+        Path directory = Paths.get(options.getDirectory());
+        if (!Files.isDirectory(directory)) {
+            log.error("Directory does not exist: {}", directory);
+            return 1;
+        }
+
+        try (VerificationService verifier = new VerificationService(options.getWorkers())) {
+            verifier.submitDirectory(directory);
+            VerificationReport report = verifier.awaitReport();
+            return VerificationLog.log(report) ? 0 : 1;
+        } catch (QRException e) {
+            log.error("Error: {}", e.getMessage());
+            return 1;
+        } catch (Exception e) {
+            log.error("Unexpected error: {}", e.getMessage());
+            return 2;
+        }
+    }
+}
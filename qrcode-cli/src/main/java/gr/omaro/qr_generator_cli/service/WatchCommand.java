@@ -0,0 +1,168 @@
+package gr.omaro.qr_generator_cli.service;
+
+import gr.omaro.qr_generator.enums.SupportedFileType;
+import gr.omaro.qr_generator.exception.ConfigExeption;
+import gr.omaro.qr_generator.exception.QRException;
+import gr.omaro.qr_generator.model.BatchReport;
+import gr.omaro.qr_generator.model.QRSpec;
+import gr.omaro.qr_generator.service.BatchPlanner;
+import gr.omaro.qr_generator.service.ChunkQueue;
+import gr.omaro.qr_generator.service.HotFolderWatcher;
+import gr.omaro.qr_generator.service.QRService;
+import gr.omaro.qr_generator.util.ConfigUtil;
+import gr.omaro.qr_generator_cli.commands.StyleOptions;
+import gr.omaro.qr_generator_cli.commands.WatchOptions;
+import lombok.extern.slf4j.Slf4j;
+import picocli.CommandLine;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Picocli command that keeps watching a folder and processes files as they arrive.
+ * <p>
+ * Lists ({@code .csv} or {@code .txt}) are run through {@link BatchPlanner}, one QR code per
+ * row, into a sub-folder of the output directory named after the list. PDF files are uploaded
+ * to Google Drive by a {@link WatchUploader} and get a QR code for their link, named after the
+ * file. Which files are new or changed is decided by {@link HotFolderWatcher}.
+ */
+@Slf4j
+@CommandLine.Command(
+        name = "watch",
+        mixinStandardHelpOptions = true,
+        description = "Watches a folder and generates QR codes for every list or PDF file dropped into it."
+)
+public class WatchCommand implements Callable<Integer> {
+
+    /**
+     * Injected CLI options like folder, debounce and output directory.
+     */
+    @SuppressWarnings("unused")
+    @CommandLine.Mixin
+    private WatchOptions options;
+
+    /**
+     * Injected styling options like error correction, colors and logo.
+     */
+    @SuppressWarnings("unused")
+    @CommandLine.Mixin
+    private StyleOptions styleOptions;
+
+    /**
+     * Watches until the process is stopped.
+     *
+     * @return exit code: 1 = known error, 2 = unexpected error; a running watch only ends on a signal.
+     */
+    @Override
+    public Integer call() {
+        try {
+            Path directory = Paths.get(options.getDirectory());
+            if (!Files.isDirectory(directory)) {
+                log.error("Folder does not exist: {}", directory);
+                return 1;
+            }
+
+            ConfigUtil.watchForChanges();
+            Set<SupportedFileType> accepted = ConfigUtil.getAcceptedFileTypes();
+            QRService qrService = new QRService();
+            BatchPlanner planner = new BatchPlanner(qrService, options.getWorkers());
+            QRSpec spec = styleOptions.toSpec(options.getWidth(), options.getHeight());
+            String outputDir = qrService.resolveOutputDir(options.getOutputDir());
+            // created only with uploads on, so a watch of lists never loads the Drive classes
+            WatchUploader uploader = options.isUpload() ? new WatchUploader() : null;
+
+            HotFolderWatcher watcher = new HotFolderWatcher(directory, options.getDebounceMillis(), options.getFiles(),
+                    file -> isList(file) || options.isUpload() && isAccepted(file, accepted),
+                    file -> {
+                        if (isList(file)) {
+                            processList(planner, spec, outputDir, file);
+                        } else {
+                            uploader.upload(qrService, spec, outputDir, file);
+                        }
+                    });
+            if (uploader != null) {
+                // saves the authorization delay on the first PDF when a token is stored
+                uploader.warmUpIfAuthorized();
+            }
+
+            CountDownLatch stopped = new CountDownLatch(1);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                log.info("Stopping watch, finishing files in progress...");
+                watcher.close();
+                if (uploader != null) {
+                    uploader.close();
+                }
+                stopped.countDown();
+            }, "watch-shutdown"));
+            watcher.start();
+            log.info("Writing QR codes to {}; press Ctrl+C to stop.", outputDir);
+            stopped.await();
+            return 0;
+        } catch (ConfigExeption e) {
+            log.error("Error: {}", e.getMessage());
+            return 1;
+        } catch (IOException e) {
+            log.error("Error: cannot watch folder: {}", e.getMessage());
+            return 1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        } catch (Exception e) {
+            log.error("Unexpected error: {}", e.getMessage());
+            return 2;
+        }
+    }
+
+    /**
+     * Generates the QR codes of a list file into a sub-folder named after the list.
+     * <p>
+     * Lists often repeat row names, so sharing one folder would let a later list overwrite
+     * the codes of an earlier one.
+     *
+     * @param planner   the batch planner.
+     * @param spec      QR code settings.
+     * @param outputDir target directory.
+     * @param file      the list.
+     * @throws QRException    if the list cannot be read or rows failed.
+     * @throws ConfigExeption if the output directory cannot be used.
+     */
+    private void processList(BatchPlanner planner, QRSpec spec, String outputDir, Path file) throws QRException, ConfigExeption {
+        Path listDir = Paths.get(outputDir).resolve(ChunkQueue.baseName(file.getFileName().toString()));
+        BatchReport report = planner.run(file, spec, listDir.toString());
+        report.getFailures().forEach(failure -> log.error("{}: failed: {}", file.getFileName(), failure));
+        if (report.getFailed() > 0) {
+            // not marked as processed, so fixing the list runs it again
+            throw new QRException(report.getFailed() + " row(s) failed");
+        }
+        log.info("{}: {} in {}", file.getFileName(), report, listDir);
+    }
+
+    /**
+     * Checks whether a file is a list of payloads.
+     *
+     * @param file the file.
+     * @return true for {@code .csv} and {@code .txt} files.
+     */
+    private static boolean isList(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        return name.endsWith(".csv") || name.endsWith(".txt");
+    }
+
+    /**
+     * Checks whether a file has one of the accepted upload types.
+     *
+     * @param file     the file.
+     * @param accepted accepted file types.
+     * @return true if its extension is accepted.
+     */
+    private static boolean isAccepted(Path file, Set<SupportedFileType> accepted) {
+        SupportedFileType type = SupportedFileType.fromFileName(file.getFileName().toString());
+        return type != null && accepted.contains(type);
+    }
+}
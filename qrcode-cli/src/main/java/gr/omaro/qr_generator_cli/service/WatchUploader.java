@@ -0,0 +1,85 @@
+package gr.omaro.qr_generator_cli.service;
+
+import gr.omaro.qr_generator.model.QRSpec;
+import gr.omaro.qr_generator.service.QRService;
+import gr.omaro.qr_generator_drive.enums.UploadState;
+import gr.omaro.qr_generator_drive.exception.DriveUploadException;
+import gr.omaro.qr_generator_drive.model.UploadStatus;
+import gr.omaro.qr_generator_drive.service.DriveConnection;
+import gr.omaro.qr_generator_drive.service.UploadScheduler;
+import gr.omaro.qr_generator_drive.service.UploadService;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.file.Path;
+
+/**
+ * Uploads the PDF files of a watched folder to Google Drive and generates the QR code of their links.
+ * <p>
+ * Kept out of {@link WatchCommand}, which picocli creates for every command line, so that the
+ * Drive classes are only loaded when {@code watch} runs with uploads enabled.
+ */
+@Slf4j
+class WatchUploader implements AutoCloseable {
+
+    /**
+     * Google Drive connection, authorized on the first PDF.
+     */
+    private final DriveConnection driveConnection = new DriveConnection();
+    /**
+     * Scheduler shared by all PDF uploads, opened on the first PDF.
+     */
+    private UploadScheduler scheduler;
+
+    /**
+     * Connects in the background if a stored token makes it possible without a browser.
+     */
+    void warmUpIfAuthorized() {
+        driveConnection.warmUpIfAuthorized();
+    }
+
+    /**
+     * Uploads a PDF file and generates the QR code of its link, named after the file.
+     *
+     * @param qrService the generator.
+     * @param spec      QR code settings.
+     * @param outputDir target directory.
+     * @param file      the PDF file.
+     * @throws Exception if the upload or the QR code fails.
+     */
+    void upload(QRService qrService, QRSpec spec, String outputDir, Path file) throws Exception {
+        UploadService uploadService = driveConnection.connect().join();
+        UploadStatus status = uploadService.submit(file.toFile(), scheduler(uploadService), null).join();
+        if (status.getState() != UploadState.DONE) {
+            throw new DriveUploadException("Upload failed: " + status.getError());
+        }
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String path = qrService.buildFullPath(outputDir, (dot > 0 ? name.substring(0, dot) : name) + ".png");
+        qrService.generateToFile(status.getUrl(), spec, path);
+        log.info("{} -> {}", name, status.getUrl());
+    }
+
+    /**
+     * Returns the scheduler shared by all uploads, opening it on first use.
+     *
+     * @param uploadService the upload service.
+     * @return the scheduler.
+     * @throws DriveUploadException if the upload settings cannot be read.
+     */
+    private synchronized UploadScheduler scheduler(UploadService uploadService) throws DriveUploadException {
+        if (scheduler == null) {
+            scheduler = uploadService.openScheduler(UploadService.configuredPolicy());
+        }
+        return scheduler;
+    }
+
+    /**
+     * Closes the upload scheduler, if one was opened.
+     */
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.close();
+        }
+    }
+}
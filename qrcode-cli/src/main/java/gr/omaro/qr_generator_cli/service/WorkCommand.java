@@ -0,0 +1,104 @@
+package gr.omaro.qr_generator_cli.service;
+
+import gr.omaro.qr_generator.exception.ConfigExeption;
+import gr.omaro.qr_generator.service.BatchPlanner;
+import gr.omaro.qr_generator.service.ChunkQueue;
+import gr.omaro.qr_generator.service.ChunkWorker;
+import gr.omaro.qr_generator.service.QRService;
+import gr.omaro.qr_generator_cli.commands.StyleOptions;
+import gr.omaro.qr_generator_cli.commands.WorkOptions;
+import lombok.extern.slf4j.Slf4j;
+import picocli.CommandLine;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.Callable;
+
+/**
+ * Picocli command that processes chunks of a shared work queue until the whole batch is done.
+ * <p>
+ * Start one per host (or several on one host for a local test); see {@link ChunkWorker}.
+ */
+@Slf4j
+@CommandLine.Command(
+        name = "work",
+        mixinStandardHelpOptions = true,
+        description = "Processes chunks of a queue created by 'coordinate' until every chunk is done."
+)
+public class WorkCommand implements Callable<Integer> {
+
+    /**
+     * Injected CLI options like queue directory, lease and output directory.
+     */
+    @SuppressWarnings("unused")
+    @CommandLine.Mixin
+    private WorkOptions options;
+
+    /**
+     * Injected styling options like error correction, colors and logo.
+     */
+    @SuppressWarnings("unused")
+    @CommandLine.Mixin
+    private StyleOptions styleOptions;
+
+    /**
+     * Executes the worker.
+     *
+     * @return exit code: 0 = success, 1 = known error or failed entries, 2 = unexpected error
+     */
+    @Override
+    public Integer call() {
+        try {
+            Path queueDir = Paths.get(options.getQueueDir());
+            if (!Files.isDirectory(queueDir)) {
+                log.error("Queue directory does not exist: {}", queueDir);
+                return 1;
+            }
+            QRService qrService = new QRService();
+            String outputDir = qrService.resolveOutputDir(options.getOutputDir());
+            String workerId = options.getWorkerId() != null ? options.getWorkerId() : defaultWorkerId();
+            ChunkWorker worker = new ChunkWorker(
+                    new ChunkQueue(queueDir),
+                    new BatchPlanner(qrService, options.getWorkers()),
+                    styleOptions.toSpec(options.getWidth(), options.getHeight()),
+                    Paths.get(outputDir),
+                    workerId,
+                    options.getLeaseSeconds() * 1000L
+            );
+            log.info("Worker {} taking chunks from {}", workerId, queueDir);
+            worker.run();
+            log.info("Worker {} finished: {} chunk(s), {} failed code(s)", workerId, worker.getChunks(), worker.getFailures());
+            return worker.getFailures() == 0 ? 0 : 1;
+        } catch (ConfigExeption e) {
+            log.error("Error: {}", e.getMessage());
+            return 1;
+        } catch (IOException e) {
+            log.error("Error: cannot use queue: {}", e.getMessage());
+            return 1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 1;
+        } catch (Exception e) {
+            log.error("Unexpected error: {}", e.getMessage());
+            return 2;
+        }
+    }
+
+    /**
+     * Builds a worker identifier from the host name and process id.
+     *
+     * @return e.g. {@code node-7-12345}.
+     */
+    private static String defaultWorkerId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (IOException e) {
+            host = "worker";
+        }
+        return host + "-" + ProcessHandle.current().pid();
+    }
+}
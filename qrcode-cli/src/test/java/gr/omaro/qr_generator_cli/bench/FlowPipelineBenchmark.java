@@ -0,0 +1,224 @@
+package gr.omaro.qr_generator_cli.bench;
+
+import gr.omaro.qr_generator.model.GenerationRequest;
+import gr.omaro.qr_generator.model.GenerationResult;
+import gr.omaro.qr_generator.model.QRSpec;
+import gr.omaro.qr_generator.service.QRService;
+
+import java.util.BitSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pushes requests through {@link QRService#generateAll(Flow.Publisher, int)} and shows that a slow
+ * consumer slows the producer down instead of letting requests pile up.
+ * <p>
+ * A producer submits requests to a {@link SubmissionPublisher} with a small buffer, which blocks
+ * when the buffer is full; every 50th request is invalid and must come back as a failed result.
+ * The subscriber keeps a fixed window of outstanding demand and optionally sleeps per result. The
+ * run reports throughput, latency and the largest number of requests submitted but not yet
+ * delivered, and exits with code 1 if a result is missing, duplicated or wrong. Run with
+ * {@code java -cp qrcode-cli/target/qrgen.jar:qrcode-cli/target/test-classes gr.omaro.qr_generator_cli.bench.FlowPipelineBenchmark [count] [parallelism] [consumer delay us]}.
+ */
+public class FlowPipelineBenchmark {
+
+    /**
+     * Buffer of the request publisher.
+     */
+    private static final int PUBLISHER_BUFFER = 32;
+    /**
+     * Results the subscriber asks for ahead.
+     */
+    private static final int WINDOW = 16;
+
+    /**
+     * Entry point.
+     *
+     * @param args optional request count (default 20000), parallelism (default number of CPUs) and
+     *             consumer delay per result in microseconds (default 0).
+     * @throws InterruptedException if interrupted while waiting for the results.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int parallelism = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        long delayMicros = args.length > 2 ? Long.parseLong(args[2]) : 0;
+        QRSpec spec = QRSpec.of(200, 200);
+
+        ExecutorService publisherPool = Executors.newSingleThreadExecutor();
+        SubmissionPublisher<GenerationRequest> requests = new SubmissionPublisher<>(publisherPool, PUBLISHER_BUFFER);
+        Flow.Publisher<GenerationResult> results = new QRService().generateAll(requests, parallelism);
+
+        AtomicLong submitted = new AtomicLong();
+        AtomicLong maxPending = new AtomicLong();
+        ResultCounter counter = new ResultCounter(count, delayMicros, submitted, maxPending);
+        results.subscribe(counter);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            String input = i % 50 == 49 ? "file:/etc/passwd" : "https://example.com/item/" + i;
+            requests.submit(GenerationRequest.builder().id(Integer.toString(i)).input(input).spec(spec).build());
+            long pending = submitted.incrementAndGet() - counter.delivered.get();
+            maxPending.accumulateAndGet(pending, Math::max);
+        }
+        requests.close();
+        boolean finished = counter.done.await(10, TimeUnit.MINUTES);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        publisherPool.shutdown();
+
+        int expectedFailures = count / 50;
+        System.out.printf("%d requests, parallelism %d, consumer delay %d us%n", count, parallelism, delayMicros);
+        System.out.printf("delivered %d (%d failed, expected %d) in %.2f s: %.0f codes/s%n",
+                counter.delivered.get(), counter.failed.get(), expectedFailures, seconds, counter.delivered.get() / seconds);
+        System.out.printf("mean generation time %.1f us%n", counter.generationNanos.get() / 1e3 / Math.max(1, counter.delivered.get()));
+        System.out.printf("max submitted but not delivered: %d (bound %d = buffer %d + window %d)%n",
+                maxPending.get(), PUBLISHER_BUFFER + WINDOW, PUBLISHER_BUFFER, WINDOW);
+
+        boolean ok = finished && counter.completed && counter.delivered.get() == count
+                && counter.duplicates.get() == 0 && counter.wrong.get() == 0 && counter.failed.get() == expectedFailures;
+        if (!ok) {
+            System.out.printf("FAILED: finished=%s completed=%s duplicates=%d wrong=%d%n",
+                    finished, counter.completed, counter.duplicates.get(), counter.wrong.get());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Subscriber that checks every result and keeps {@value #WINDOW} results requested.
+     */
+    private static final class ResultCounter implements Flow.Subscriber<GenerationResult> {
+
+        /**
+         * Ids seen so far.
+         */
+        private final BitSet seen;
+        /**
+         * Time to sleep per result in microseconds.
+         */
+        private final long delayMicros;
+        /**
+         * Number of submitted requests, to track the pending count.
+         */
+        private final AtomicLong submitted;
+        /**
+         * Largest pending count seen.
+         */
+        private final AtomicLong maxPending;
+        /**
+         * Number of delivered results.
+         */
+        final AtomicLong delivered = new AtomicLong();
+        /**
+         * Number of failed results.
+         */
+        final AtomicInteger failed = new AtomicInteger();
+        /**
+         * Number of results delivered twice.
+         */
+        final AtomicInteger duplicates = new AtomicInteger();
+        /**
+         * Number of results with a missing image or an unexpected failure.
+         */
+        final AtomicInteger wrong = new AtomicInteger();
+        /**
+         * Sum of the generation times.
+         */
+        final AtomicLong generationNanos = new AtomicLong();
+        /**
+         * Released on completion or error.
+         */
+        final CountDownLatch done = new CountDownLatch(1);
+        /**
+         * Whether the stream completed normally.
+         */
+        volatile boolean completed;
+        /**
+         * The subscription.
+         */
+        private Flow.Subscription subscription;
+
+        /**
+         * Creates the subscriber.
+         *
+         * @param count       number of requests.
+         * @param delayMicros time to sleep per result in microseconds.
+         * @param submitted   number of submitted requests.
+         * @param maxPending  largest pending count seen.
+         */
+        ResultCounter(int count, long delayMicros, AtomicLong submitted, AtomicLong maxPending) {
+            this.seen = new BitSet(count);
+            this.delayMicros = delayMicros;
+            this.submitted = submitted;
+            this.maxPending = maxPending;
+        }
+
+        /**
+         * Requests the first window of results.
+         *
+         * @param subscription the subscription.
+         */
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(WINDOW);
+        }
+
+        /**
+         * Checks a result and requests the next one.
+         *
+         * @param result the result.
+         */
+        @Override
+        public void onNext(GenerationResult result) {
+            int id = Integer.parseInt(result.getRequest().getId());
+            synchronized (seen) {
+                if (seen.get(id)) {
+                    duplicates.incrementAndGet();
+                }
+                seen.set(id);
+            }
+            boolean invalid = result.getRequest().getInput().startsWith("file:");
+            if (!result.isSuccess()) {
+                failed.incrementAndGet();
+            }
+            if (invalid == result.isSuccess() || result.isSuccess() && (result.getBytes() == null || result.getBytes().length == 0)) {
+                wrong.incrementAndGet();
+            }
+            generationNanos.addAndGet(result.getDurationNanos());
+            maxPending.accumulateAndGet(submitted.get() - delivered.incrementAndGet(), Math::max);
+            if (delayMicros > 0) {
+                try {
+                    TimeUnit.MICROSECONDS.sleep(delayMicros);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            subscription.request(1);
+        }
+
+        /**
+         * Reports a failed stream.
+         *
+         * @param throwable the failure.
+         */
+        @Override
+        public void onError(Throwable throwable) {
+            System.out.println("stream failed: " + throwable);
+            done.countDown();
+        }
+
+        /**
+         * Records the end of the stream.
+         */
+        @Override
+        public void onComplete() {
+            completed = true;
+            done.countDown();
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package gr.omaro.qr_generator_cli.bench;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.MultiFormatWriter;
+import com.google.zxing.WriterException;
+import com.google.zxing.common.BitMatrix;
+import gr.omaro.qr_generator.enums.CodeFormat;
+import gr.omaro.qr_generator.model.QRSpec;
+import gr.omaro.qr_generator.util.QRCodeGenerator;
+import lombok.Value;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Compares the supported barcode formats for typical label contents and sizes.
+ * <p>
+ * For every format, payload and label size it reports the mean time to render and PNG-encode
+ * one image, the PNG size, the symbol width in modules and the resulting pixels per module
+ * (below 2 most scanners struggle). Run with
+ * {@code java -cp qrcode-cli/target/qrgen.jar:qrcode-cli/target/test-classes gr.omaro.qr_generator_cli.bench.FormatBenchmark [iterations]}.
+ */
+public class FormatBenchmark {
+
+    /**
+     * Label sizes in pixels (square, Code 128 and PDF417 use it as width).
+     */
+    private static final int[] SIZES = {64, 128, 256, 512};
+
+    /**
+     * Sample payloads, from a short product id to a long tracking URL.
+     */
+    private static final Map<String, String> PAYLOADS = Map.of(
+            "sku", "SKU-00012345",
+            "url", "https://example.com/p/4711",
+            "tracking", "https://track.example.com/shipments/00340434161094298765?lang=en&ref=label"
+    );
+
+    /**
+     * Entry point.
+     *
+     * @param args optional number of measured iterations per case (default 200).
+     * @throws IOException if PNG encoding fails.
+     */
+    public static void main(String[] args) throws IOException {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        System.out.printf("%-9s %-12s %5s %10s %9s %8s %8s%n",
+                "payload", "format", "size", "us/image", "png bytes", "modules", "px/mod");
+        for (Map.Entry<String, String> payload : PAYLOADS.entrySet().stream().sorted(Map.Entry.comparingByKey()).toList()) {
+            for (CodeFormat format : CodeFormat.values()) {
+                int modules = symbolWidth(payload.getValue(), format.getBarcodeFormat());
+                if (modules < 0) {
+                    System.out.printf("%-9s %-12s %5s %10s%n", payload.getKey(), format, "-", "unsupported");
+                    continue;
+                }
+                for (int size : SIZES) {
+                    QRSpec spec = QRSpec.builder().format(format).width(size).height(size).build();
+                    Result result = measure(payload.getValue(), spec, iterations);
+                    System.out.printf("%-9s %-12s %5d %10.1f %9d %8d %8.2f%n",
+                            payload.getKey(), format, size, result.getMicros(), result.getPngBytes(),
+                            modules, (double) size / modules);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the natural width of a symbol in modules, including its quiet zone.
+     *
+     * @param text   the content.
+     * @param format the format.
+     * @return the width in modules, or -1 if the content cannot be encoded in the format.
+     */
+    private static int symbolWidth(String text, BarcodeFormat format) {
+        try {
+            BitMatrix matrix = new MultiFormatWriter().encode(text, format, 0, 0);
+            return matrix.getWidth();
+        } catch (WriterException | IllegalArgumentException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Warms up and then times rendering plus PNG encoding of one case.
+     *
+     * @param text       the content.
+     * @param spec       format and size.
+     * @param iterations number of measured iterations.
+     * @return mean time and PNG size.
+     * @throws IOException if PNG encoding fails.
+     */
+    private static Result measure(String text, QRSpec spec, int iterations) throws IOException {
+        int pngBytes = 0;
+        try {
+            for (int i = 0; i < iterations; i++) {
+                pngBytes = render(text, spec);
+            }
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                pngBytes = render(text, spec);
+            }
+            return new Result((System.nanoTime() - start) / 1_000.0 / iterations, pngBytes);
+        } catch (WriterException e) {
+            return new Result(Double.NaN, -1);
+        }
+    }
+
+    /**
+     * Renders and encodes one image.
+     *
+     * @param text the content.
+     * @param spec format and size.
+     * @return the PNG size in bytes.
+     * @throws WriterException if the content cannot be encoded.
+     * @throws IOException     if PNG encoding fails.
+     */
+    private static int render(String text, QRSpec spec) throws WriterException, IOException {
+        BufferedImage image = QRCodeGenerator.renderQRCodeImage(text, spec);
+        return QRCodeGenerator.toPng(image).length;
+    }
+
+    /**
+     * Measurement of one case.
+     */
+    @Value
+    private static class Result {
+
+        /**
+         * Mean microseconds per image.
+         */
+        double micros;
+        /**
+         * Size of the PNG file.
+         */
+        int pngBytes;
+    }
+}
@@ -0,0 +1,110 @@
+package gr.omaro.qr_generator_cli.bench;
+
+import gr.omaro.qr_generator.exception.QRException;
+import gr.omaro.qr_generator.model.QRSpec;
+import gr.omaro.qr_generator.service.QRService;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Compares heap allocation and time of in-memory and streamed (off-heap) PNG generation.
+ * <p>
+ * Writes the same large codes with both modes on several threads and prints the heap bytes
+ * allocated per image, measured with {@code com.sun.management.ThreadMXBean}. Run with
+ * {@code java -cp qrcode-cli/target/qrgen.jar:qrcode-cli/target/test-classes gr.omaro.qr_generator_cli.bench.OffHeapRenderBenchmark [size] [images] [threads]}.
+ */
+public class OffHeapRenderBenchmark {
+
+    /**
+     * Entry point.
+     *
+     * @param args optional image size (default 4000), image count (default 40) and thread count (default CPUs).
+     * @throws Exception if generation fails.
+     */
+    public static void main(String[] args) throws Exception {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 4000;
+        int images = args.length > 1 ? Integer.parseInt(args[1]) : 40;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        Path dir = Files.createTempDirectory("offheap-bench");
+        try {
+            QRSpec spec = QRSpec.of(size, size);
+            // warm up both paths
+            run(new QRService(null, false), spec, 4, 1, dir);
+            run(new QRService(null, true), spec, 4, 1, dir);
+
+            System.out.printf("%d images of %dx%d on %d threads%n", images, size, size, threads);
+            System.out.printf("%-10s %12s %14s %12s%n", "mode", "ms total", "heap MB/image", "png bytes");
+            for (boolean offHeap : new boolean[]{false, true}) {
+                long start = System.nanoTime();
+                long allocated = run(new QRService(null, offHeap), spec, images, threads, dir);
+                long millis = (System.nanoTime() - start) / 1_000_000;
+                System.out.printf("%-10s %12d %14.2f %12d%n", offHeap ? "off-heap" : "in-memory",
+                        millis, allocated / 1e6 / images, Files.size(dir.resolve("code-0.png")));
+            }
+        } finally {
+            try (var files = Files.list(dir)) {
+                for (Path file : files.toList()) {
+                    Files.deleteIfExists(file);
+                }
+            }
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    /**
+     * Generates images on a pool and returns the heap bytes the workers allocated.
+     *
+     * @param service the service to generate with.
+     * @param spec    image spec.
+     * @param images  number of images.
+     * @param threads number of worker threads.
+     * @param dir     output directory.
+     * @return heap bytes allocated by all workers.
+     * @throws Exception if generation fails.
+     */
+    private static long run(QRService service, QRSpec spec, int images, int threads, Path dir) throws Exception {
+        com.sun.management.ThreadMXBean mx = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Long>> futures = new ArrayList<>();
+            for (int i = 0; i < images; i++) {
+                int index = i;
+                futures.add(pool.submit(() -> {
+                    long before = mx.getCurrentThreadAllocatedBytes();
+                    generate(service, spec, index, dir);
+                    return mx.getCurrentThreadAllocatedBytes() - before;
+                }));
+            }
+            long total = 0;
+            for (Future<Long> future : futures) {
+                total += future.get();
+            }
+            return total;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Generates one image.
+     *
+     * @param service the service.
+     * @param spec    image spec.
+     * @param index   image number, part of the payload and file name.
+     * @param dir     output directory.
+     * @throws QRException if generation fails.
+     */
+    private static void generate(QRService service, QRSpec spec, int index, Path dir) throws QRException {
+        service.generateToFile("https://example.com/labels/" + (1_000_000 + index) + "?batch=print-run",
+                spec, dir.resolve("code-" + (index % 8) + ".png").toString());
+    }
+}
@@ -0,0 +1,130 @@
+package gr.omaro.qr_generator_cli.bench;
+
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.WriterException;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import com.google.zxing.qrcode.encoder.Encoder;
+import gr.omaro.qr_generator.model.QRSpec;
+import gr.omaro.qr_generator.util.QRCodeGenerator;
+import gr.omaro.qr_generator.util.SegmentEncoder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reports how much smaller symbols get with {@link SegmentEncoder} than with single-mode encoding.
+ * <p>
+ * For every payload of a corpus (one per line) it prints the version and PNG size of both
+ * encodings, followed by totals. Run with
+ * {@code java -cp qrcode-cli/target/qrgen.jar:qrcode-cli/target/test-classes gr.omaro.qr_generator_cli.bench.SegmentSavingsReport [corpus.txt] [L|M|Q|H]};
+ * without a corpus a small built-in sample is used.
+ */
+public class SegmentSavingsReport {
+
+    /**
+     * Payloads used when no corpus file is given.
+     */
+    private static final List<String> SAMPLE = List.of(
+            "https://example.com/orders/1234567890123456",
+            "HTTPS://EXAMPLE.COM/P/00340434161094298765",
+            "https://shop.example.com/item?id=9780306406157&ref=QR",
+            "https://track.example.com/s/003404341610942987650034043416109429876500340434161094298765",
+            "https://example.com/i/12345678901234567890123456789012345678901234567890?lang=en",
+            "WIFI:S:Office;T:WPA;P:correct horse battery staple;;",
+            "BEGIN:VCARD\nVERSION:3.0\nFN:Jane Doe\nTEL:+302101234567\nEND:VCARD",
+            "TEL:+302101234567",
+            "00340434161094298765",
+            "東京都千代田区1-1-1 TEL 03-1234-5678"
+    );
+
+    /**
+     * Entry point.
+     *
+     * @param args optional corpus file and error correction level (default L).
+     * @throws IOException if the corpus cannot be read or an image cannot be encoded.
+     */
+    public static void main(String[] args) throws IOException {
+        List<String> corpus = args.length > 0 ? Files.readAllLines(Path.of(args[0]), StandardCharsets.UTF_8) : SAMPLE;
+        ErrorCorrectionLevel ecLevel = args.length > 1 ? ErrorCorrectionLevel.valueOf(args[1]) : ErrorCorrectionLevel.L;
+        QRSpec optimized = QRSpec.builder().errorCorrection(ecLevel).optimizeSegments(true).build();
+        QRSpec singleMode = optimized.toBuilder().optimizeSegments(false).build();
+
+        int payloads = 0;
+        int smaller = 0;
+        long singleModules = 0;
+        long optimizedModules = 0;
+        long singlePng = 0;
+        long optimizedPng = 0;
+        System.out.printf("%7s %7s %9s %9s  %s%n", "single", "segment", "png bytes", "png bytes", "payload");
+        for (String payload : corpus) {
+            if (payload.isBlank()) {
+                continue;
+            }
+            try {
+                int before = Encoder.encode(payload, ecLevel, hints(payload)).getVersion().getVersionNumber();
+                int after = (SegmentEncoder.encode(payload, ecLevel).getWidth() - 17) / 4;
+                int pngBefore = QRCodeGenerator.toPng(QRCodeGenerator.renderQRCodeImage(payload, singleMode)).length;
+                int pngAfter = QRCodeGenerator.toPng(QRCodeGenerator.renderQRCodeImage(payload, optimized)).length;
+                payloads++;
+                smaller += after < before ? 1 : 0;
+                singleModules += modules(before);
+                optimizedModules += modules(after);
+                singlePng += pngBefore;
+                optimizedPng += pngAfter;
+                System.out.printf("%7d %7d %9d %9d  %s%n", before, after, pngBefore, pngAfter, abbreviate(payload));
+            } catch (WriterException e) {
+                System.out.printf("%7s %7s %9s %9s  %s (%s)%n", "-", "-", "-", "-", abbreviate(payload), e.getMessage());
+            }
+        }
+        if (payloads == 0) {
+            System.out.println("No payloads.");
+            return;
+        }
+        System.out.printf("%npayloads: %d, smaller symbol: %d (%.1f%%)%n", payloads, smaller, 100.0 * smaller / payloads);
+        System.out.printf("modules: %d -> %d (%.1f%% saved)%n", singleModules, optimizedModules,
+                100.0 * (singleModules - optimizedModules) / singleModules);
+        System.out.printf("png bytes at %dx%d: %d -> %d (%.1f%% saved)%n", optimized.getWidth(), optimized.getHeight(),
+                singlePng, optimizedPng, 100.0 * (singlePng - optimizedPng) / singlePng);
+    }
+
+    /**
+     * Returns the hints {@code QRCodeWriter} users need for a payload: UTF-8 when Latin-1 does not fit.
+     *
+     * @param payload the payload.
+     * @return encoder hints.
+     */
+    private static Map<EncodeHintType, Object> hints(String payload) {
+        Map<EncodeHintType, Object> hints = new EnumMap<>(EncodeHintType.class);
+        if (!StandardCharsets.ISO_8859_1.newEncoder().canEncode(payload)) {
+            hints.put(EncodeHintType.CHARACTER_SET, StandardCharsets.UTF_8.name());
+        }
+        return hints;
+    }
+
+    /**
+     * Returns the number of modules of a version.
+     *
+     * @param version the version number.
+     * @return modules of the square symbol.
+     */
+    private static int modules(int version) {
+        int dimension = 17 + 4 * version;
+        return dimension * dimension;
+    }
+
+    /**
+     * Shortens a payload to one table cell.
+     *
+     * @param payload the payload.
+     * @return the payload on one line, at most 60 characters.
+     */
+    private static String abbreviate(String payload) {
+        String line = payload.replace('\n', ' ');
+        return line.length() <= 60 ? line : line.substring(0, 57) + "...";
+    }
+}
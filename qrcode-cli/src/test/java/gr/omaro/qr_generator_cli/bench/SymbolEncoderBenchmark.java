@@ -0,0 +1,125 @@
+package gr.omaro.qr_generator_cli.bench;
+
+import com.google.zxing.WriterException;
+import com.google.zxing.common.BitArray;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import com.google.zxing.qrcode.decoder.Version;
+import com.google.zxing.qrcode.encoder.Encoder;
+import gr.omaro.qr_generator.util.QRSymbolEncoder;
+
+import java.util.Random;
+
+/**
+ * Times the bit-packed symbol builder against the byte based reference and ZXing's {@link Encoder}.
+ * <p>
+ * That all three give the same symbols is checked by {@code QRSymbolEncoderTest} in qrcode-core. Run with
+ * {@code java -cp qrcode-cli/target/qrgen.jar:qrcode-cli/target/test-classes gr.omaro.qr_generator_cli.bench.SymbolEncoderBenchmark [iterations]}.
+ */
+public class SymbolEncoderBenchmark {
+
+    /**
+     * Versions timed in the benchmark.
+     */
+    private static final int[] TIMED_VERSIONS = {2, 5, 10, 20, 40};
+
+    /**
+     * Entry point.
+     *
+     * @param args optional timed iterations (default 2000).
+     * @throws WriterException if a generated bit stream does not fit its version.
+     */
+    public static void main(String[] args) throws WriterException {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        Random random = new Random(41);
+
+        System.out.printf("level M, %d iterations%n", iterations);
+        System.out.printf("%7s %14s %14s %8s %16s%n", "version", "reference us", "packed us", "speedup", "ZXing encode us");
+        for (int number : TIMED_VERSIONS) {
+            Version version = Version.getVersionForNumber(number);
+            BitArray bits = randomBits(random, version, ErrorCorrectionLevel.M);
+            String content = byteContent(random, QRSymbolEncoder.dataCapacityBits(version, ErrorCorrectionLevel.M) / 8 - 3);
+            double reference = measure(() -> QRSymbolEncoder.buildSymbol(bits, ErrorCorrectionLevel.M, version, false), iterations);
+            double packed = measure(() -> QRSymbolEncoder.buildSymbol(bits, ErrorCorrectionLevel.M, version, true), iterations);
+            double zxing = measure(() -> Encoder.encode(content, ErrorCorrectionLevel.M), iterations);
+            System.out.printf("%7d %14.1f %14.1f %7.1fx %16.1f%n", number, reference, packed, reference / packed, zxing);
+        }
+    }
+
+    /**
+     * Builds a random header and data bit stream that fits a version.
+     *
+     * @param random  the random source.
+     * @param version the symbol version.
+     * @param ecLevel the error correction level.
+     * @return between one bit and the full capacity of random bits.
+     */
+    private static BitArray randomBits(Random random, Version version, ErrorCorrectionLevel ecLevel) {
+        int capacity = QRSymbolEncoder.dataCapacityBits(version, ecLevel);
+        int length = 1 + random.nextInt(capacity);
+        BitArray bits = new BitArray();
+        for (int i = 0; i < length; i++) {
+            bits.appendBit(random.nextBoolean());
+        }
+        return bits;
+    }
+
+    /**
+     * Builds a random lower case string, which ZXing puts in byte mode.
+     *
+     * @param random the random source.
+     * @param length number of characters.
+     * @return the string.
+     */
+    private static String byteContent(Random random, int length) {
+        return randomString(random, "abcdefghijklmnopqrstuvwxyz", length);
+    }
+
+    /**
+     * Builds a random string from an alphabet.
+     *
+     * @param random   the random source.
+     * @param alphabet allowed characters.
+     * @param length   number of characters.
+     * @return the string.
+     */
+    private static String randomString(Random random, String alphabet, int length) {
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            builder.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Measures the mean time of a task after a warm-up.
+     *
+     * @param task       the task.
+     * @param iterations number of measured runs.
+     * @return mean time per run in microseconds.
+     * @throws WriterException if the task fails.
+     */
+    private static double measure(Task task, int iterations) throws WriterException {
+        for (int i = 0; i < Math.max(200, iterations / 4); i++) {
+            task.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            task.run();
+        }
+        return (System.nanoTime() - start) / 1000.0 / iterations;
+    }
+
+    /**
+     * A timed encode.
+     */
+    @FunctionalInterface
+    private interface Task {
+
+        /**
+         * Runs the encode once.
+         *
+         * @throws WriterException if encoding fails.
+         */
+        void run() throws WriterException;
+    }
+}
@@ -0,0 +1,176 @@
+package gr.omaro.qr_generator_cli.bench;
+
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.WriterException;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import com.google.zxing.qrcode.encoder.Encoder;
+import gr.omaro.qr_generator.model.QRSpec;
+import gr.omaro.qr_generator.model.SymbolPlan;
+import gr.omaro.qr_generator.util.SegmentEncoder;
+import gr.omaro.qr_generator.util.SymbolOptimizer;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Checks {@link SymbolOptimizer} plans against real encodes and compares their cost.
+ * <p>
+ * Random payloads (URLs with long ids, digits, upper case text, Latin-1 and non-Latin text) are
+ * planned under a version budget, with and without segment optimization. Every plan is checked by
+ * encoding the payload at the planned level, which must give the planned version, and one level
+ * higher, which must not fit the budget; any difference ends the run with exit code 1. Then the
+ * time of a plan is compared with the trial encodes it replaces (one per level). Run with
+ * {@code java -cp qrcode-cli/target/qrgen.jar:qrcode-cli/target/test-classes gr.omaro.qr_generator_cli.bench.SymbolOptimizerBenchmark [payloads] [version budget] [size px]}.
+ */
+public class SymbolOptimizerBenchmark {
+
+    /**
+     * Entry point.
+     *
+     * @param args optional payload count (default 2000), version budget (default 10) and image side (default 300).
+     * @throws WriterException if a payload cannot be encoded at all.
+     */
+    public static void main(String[] args) throws WriterException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int budget = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int side = args.length > 2 ? Integer.parseInt(args[2]) : 300;
+        Random random = new Random(50);
+        List<String> payloads = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            payloads.add(randomPayload(random));
+        }
+
+        int checked = 0;
+        int tooBig = 0;
+        int mismatches = 0;
+        int[] levels = new int[ErrorCorrectionLevel.values().length];
+        for (boolean segments : new boolean[]{true, false}) {
+            QRSpec spec = QRSpec.builder().width(side).height(side).optimizeSegments(segments).build();
+            for (String payload : payloads) {
+                SymbolPlan plan;
+                try {
+                    plan = SymbolOptimizer.plan(payload, spec, budget);
+                } catch (WriterException e) {
+                    tooBig++;
+                    if (encodedVersion(payload, ErrorCorrectionLevel.L, segments) <= Math.min(budget, SymbolOptimizer.largestVersionFor(side))) {
+                        mismatches++;
+                        System.out.printf("MISMATCH (segments %s): rejected but fits at L: %s%n", segments, payload);
+                    }
+                    continue;
+                }
+                checked++;
+                levels[plan.getErrorCorrection().ordinal()]++;
+                int actual = encodedVersion(payload, plan.getErrorCorrection(), segments);
+                boolean higherFits = plan.getErrorCorrection() != ErrorCorrectionLevel.H
+                        && encodedVersion(payload, ErrorCorrectionLevel.values()[plan.getErrorCorrection().ordinal() + 1], segments)
+                        <= Math.min(budget, SymbolOptimizer.largestVersionFor(side));
+                if (actual != plan.getVersion() || higherFits) {
+                    mismatches++;
+                    System.out.printf("MISMATCH (segments %s): planned version %d at %s, encoded %d%s: %s%n", segments,
+                            plan.getVersion(), plan.getErrorCorrection(), actual, higherFits ? ", higher level fits" : "", payload);
+                }
+            }
+        }
+        System.out.printf("%d plans checked against encodes (budget version %d, %d px), %d over budget, %d mismatches%n",
+                checked, budget, side, tooBig, mismatches);
+        System.out.printf("levels chosen: L %d, M %d, Q %d, H %d%n", levels[ErrorCorrectionLevel.L.ordinal()],
+                levels[ErrorCorrectionLevel.M.ordinal()], levels[ErrorCorrectionLevel.Q.ordinal()], levels[ErrorCorrectionLevel.H.ordinal()]);
+
+        QRSpec spec = QRSpec.builder().width(side).height(side).optimizeSegments(true).build();
+        long sink = 0;
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            for (String payload : payloads) {
+                try {
+                    sink += SymbolOptimizer.plan(payload, spec, budget).getVersion();
+                } catch (WriterException e) {
+                    sink--;
+                }
+            }
+            double planMicros = (System.nanoTime() - start) / 1e3 / payloads.size();
+            start = System.nanoTime();
+            for (String payload : payloads) {
+                // what a trial search costs: one encode per level until one fits
+                for (ErrorCorrectionLevel level : new ErrorCorrectionLevel[]{ErrorCorrectionLevel.H, ErrorCorrectionLevel.Q,
+                        ErrorCorrectionLevel.M, ErrorCorrectionLevel.L}) {
+                    int version = encodedVersion(payload, level, true);
+                    sink += version;
+                    if (version <= budget) {
+                        break;
+                    }
+                }
+            }
+            double trialMicros = (System.nanoTime() - start) / 1e3 / payloads.size();
+            System.out.printf("round %d: plan %.2f us, trial encodes %.1f us per payload (%.0fx)%n",
+                    round + 1, planMicros, trialMicros, trialMicros / planMicros);
+        }
+        System.out.printf("checksum %d%n", sink);
+        if (mismatches > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Encodes a payload and returns the version of the symbol.
+     *
+     * @param payload  the text.
+     * @param level    the error correction level.
+     * @param segments whether to use the segment encoder instead of ZXing's single mode encoder.
+     * @return the version, or 41 if the payload fits no version.
+     */
+    private static int encodedVersion(String payload, ErrorCorrectionLevel level, boolean segments) {
+        try {
+            if (segments) {
+                return (SegmentEncoder.encode(payload, level).getWidth() - 17) / 4;
+            }
+            Map<EncodeHintType, Object> hints = new EnumMap<>(EncodeHintType.class);
+            hints.put(EncodeHintType.ERROR_CORRECTION, level);
+            return Encoder.encode(payload, level, hints).getVersion().getVersionNumber();
+        } catch (WriterException e) {
+            return 41;
+        }
+    }
+
+    /**
+     * Builds a random payload of one of several kinds.
+     *
+     * @param random the random source.
+     * @return the payload.
+     */
+    private static String randomPayload(Random random) {
+        int length = 5 + random.nextInt(random.nextBoolean() ? 60 : 250);
+        StringBuilder text = new StringBuilder(length);
+        switch (random.nextInt(5)) {
+            case 0 -> {
+                text.append("https://example.com/item/");
+                while (text.length() < length) {
+                    text.append((char) ('0' + random.nextInt(10)));
+                }
+            }
+            case 1 -> {
+                for (int i = 0; i < length; i++) {
+                    text.append((char) ('0' + random.nextInt(10)));
+                }
+            }
+            case 2 -> {
+                for (int i = 0; i < length; i++) {
+                    text.append("ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789 $%*+-./:".charAt(random.nextInt(45)));
+                }
+            }
+            case 3 -> {
+                for (int i = 0; i < length; i++) {
+                    text.append("abcdéfghijklmnöpqrstüvwxyz?&=_".charAt(random.nextInt(30)));
+                }
+            }
+            default -> {
+                for (int i = 0; i < length; i++) {
+                    text.append("αβγδεζηθ日本語テキスト abc123".charAt(random.nextInt(22)));
+                }
+            }
+        }
+        return text.toString();
+    }
+}
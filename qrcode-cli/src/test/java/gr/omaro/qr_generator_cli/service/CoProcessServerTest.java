@@ -0,0 +1,224 @@
+package gr.omaro.qr_generator_cli.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import gr.omaro.qr_generator.model.QRSpec;
+import gr.omaro.qr_generator.service.QRService;
+import gr.omaro.qr_generator.util.QRVerifier;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CoProcessServerTest {
+
+    @TempDir
+    Path outputDir;
+
+    @Test
+    void concurrentRequestsForOneHostGetTheirOwnFiles() throws Exception {
+        StringBuilder requests = new StringBuilder();
+        Map<String, String> inputs = new HashMap<>();
+        for (int copy = 0; copy < 2; copy++) {
+            for (int i = 1; i <= 20; i++) {
+                String id = copy + "-" + i;
+                String input = "https://example.com/item/" + i;
+                inputs.put(id, input);
+                requests.append("{\"id\":\"").append(id).append("\",\"input\":\"").append(input).append("\"}\n");
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CoProcessServer server = new CoProcessServer(new QRService(), 8, 16);
+        int read = server.serve(new JsonLinesCodec(
+                new ByteArrayInputStream(requests.toString().getBytes(StandardCharsets.UTF_8)), out,
+                QRSpec.of(QRSpec.DEFAULT_WIDTH, QRSpec.DEFAULT_HEIGHT), outputDir.toString()));
+
+        assertEquals(40, read);
+        Map<String, String> paths = paths(out.toString(StandardCharsets.UTF_8));
+        assertEquals(inputs.keySet(), paths.keySet());
+        Set<String> distinct = new HashSet<>(paths.values());
+        assertEquals(20, distinct.size(), "one file per distinct input");
+        for (Map.Entry<String, String> response : paths.entrySet()) {
+            String input = inputs.get(response.getKey());
+            String twin = response.getKey().startsWith("0-") ? "1-" + response.getKey().substring(2) : "0-" + response.getKey().substring(2);
+            assertEquals(response.getValue(), paths.get(twin), "identical requests share a file");
+            assertEquals(input, QRVerifier.decode(ImageIO.read(Path.of(response.getValue()).toFile())));
+        }
+        try (Stream<Path> files = Files.list(outputDir)) {
+            assertEquals(20, files.count(), "no temporary files left behind");
+        }
+    }
+
+    @Test
+    void invalidJsonRequestsGetAnErrorAndNoFile() throws Exception {
+        String requests = """
+                {"id":"1","input":"hello","width":-3}
+                {"id":"2","input":"hello","height":0}
+                {"id":"3","input":""}
+                {"id":"4","input":"hello","width":-3,"reply":"png"}
+                {"id":"5","input":"hello"}
+                """;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int read = new CoProcessServer(new QRService(), 2, 4).serve(new JsonLinesCodec(
+                new ByteArrayInputStream(requests.getBytes(StandardCharsets.UTF_8)), out,
+                QRSpec.of(QRSpec.DEFAULT_WIDTH, QRSpec.DEFAULT_HEIGHT), outputDir.toString()));
+
+        assertEquals(1, read);
+        Map<String, Map<String, String>> responses = responses(out.toString(StandardCharsets.UTF_8));
+        for (String id : List.of("1", "2", "3", "4")) {
+            assertEquals("false", responses.get(id).get("ok"), id);
+            assertTrue(responses.get(id).containsKey("error"), id);
+        }
+        assertEquals("true", responses.get("5").get("ok"));
+        try (Stream<Path> files = Files.list(outputDir)) {
+            assertEquals(List.of(Path.of(responses.get("5").get("path"))), files.toList());
+        }
+    }
+
+    @Test
+    void negativeFramedSizesGetAnErrorAndTheSessionGoesOn() throws Exception {
+        ByteArrayOutputStream requests = new ByteArrayOutputStream();
+        try (DataOutputStream frames = new DataOutputStream(requests)) {
+            writeFrame(frames, 1, -3, 0, "hello");
+            writeFrame(frames, 2, 0, 0, "");
+            writeFrame(frames, 3, 0, 0, "hello");
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int read = new CoProcessServer(new QRService(), 2, 4).serve(new FramedCodec(
+                new ByteArrayInputStream(requests.toByteArray()), out,
+                QRSpec.of(QRSpec.DEFAULT_WIDTH, QRSpec.DEFAULT_HEIGHT), outputDir.toString()));
+
+        assertEquals(1, read);
+        Map<Integer, Integer> statuses = new HashMap<>();
+        try (DataInputStream frames = new DataInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            for (int i = 0; i < 3; i++) {
+                int id = frames.readInt();
+                statuses.put(id, frames.readUnsignedByte());
+                frames.skipNBytes(frames.readInt());
+            }
+        }
+        assertEquals(Map.of(1, FramedCodec.STATUS_ERROR, 2, FramedCodec.STATUS_ERROR, 3, FramedCodec.STATUS_PATH), statuses);
+    }
+
+    @Test
+    void pathRequestThatRendersNothingIsAnError() throws Exception {
+        // bypasses codec validation to check the server itself
+        ServeRequest invalid = new ServeRequest("1", "hello", QRSpec.of(-3, 300), outputDir.toString(), false);
+        List<String> responses = new ArrayList<>();
+        ServeCodec codec = new ServeCodec() {
+            private boolean sent;
+
+            @Override
+            public ServeRequest read() {
+                if (sent) {
+                    return null;
+                }
+                sent = true;
+                return invalid;
+            }
+
+            @Override
+            public synchronized void writePath(String id, String path) {
+                responses.add("path " + path);
+            }
+
+            @Override
+            public synchronized void writePng(String id, byte[] png) {
+                responses.add("png");
+            }
+
+            @Override
+            public synchronized void writeError(String id, String message) {
+                responses.add("error");
+            }
+        };
+        new CoProcessServer(new QRService(), 1, 1).serve(codec);
+
+        assertEquals(List.of("error"), responses);
+        try (Stream<Path> files = Files.list(outputDir)) {
+            assertEquals(0, files.count(), "no empty file left behind");
+        }
+    }
+
+    /**
+     * Writes one framed request asking for a path reply.
+     *
+     * @param frames the request stream.
+     * @param id     request id.
+     * @param width  width, 0 for the default.
+     * @param height height, 0 for the default.
+     * @param input  the text to encode.
+     * @throws IOException if writing fails.
+     */
+    private static void writeFrame(DataOutputStream frames, int id, int width, int height, String input) throws IOException {
+        byte[] bytes = input.getBytes(StandardCharsets.UTF_8);
+        frames.writeInt(id);
+        frames.writeByte(FramedCodec.FLAG_REPLY_PATH);
+        frames.writeInt(width);
+        frames.writeInt(height);
+        frames.writeInt(bytes.length);
+        frames.write(bytes);
+    }
+
+    /**
+     * Parses path responses.
+     *
+     * @param responses response lines.
+     * @return paths by request id.
+     * @throws IOException if a line is not JSON.
+     */
+    private static Map<String, String> paths(String responses) throws IOException {
+        Map<String, String> paths = new HashMap<>();
+        for (Map.Entry<String, Map<String, String>> response : responses(responses).entrySet()) {
+            Map<String, String> fields = response.getValue();
+            assertEquals("true", fields.get("ok"), fields.toString());
+            assertTrue(fields.containsKey("path"), fields.toString());
+            paths.put(response.getKey(), fields.get("path"));
+        }
+        return paths;
+    }
+
+    /**
+     * Parses JSON responses.
+     *
+     * @param responses response lines.
+     * @return the fields of every response by request id.
+     * @throws IOException if a line is not JSON.
+     */
+    private static Map<String, Map<String, String>> responses(String responses) throws IOException {
+        Map<String, Map<String, String>> byId = new HashMap<>();
+        JsonFactory json = new JsonFactory();
+        for (String line : responses.split("\n")) {
+            Map<String, String> fields = new HashMap<>();
+            try (JsonParser parser = json.createParser(line)) {
+                parser.nextToken();
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String name = parser.currentName();
+                    parser.nextToken();
+                    fields.put(name, parser.getText());
+                }
+            }
+            byId.put(fields.get("id"), fields);
+        }
+        return byId;
+    }
+}
@@ -0,0 +1,39 @@
+package gr.omaro.qr_generator.enums;
+
+import com.google.zxing.BarcodeFormat;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Enum representing the barcode symbologies the generator can produce.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum CodeFormat {
+
+    /**
+     * QR Code, the default. The only format that supports styling and Structured Append.
+     */
+    QR_CODE(BarcodeFormat.QR_CODE),
+    /**
+     * Data Matrix (ECC 200), denser than QR for small labels.
+     */
+    DATA_MATRIX(BarcodeFormat.DATA_MATRIX),
+    /**
+     * Aztec, needs no quiet zone.
+     */
+    AZTEC(BarcodeFormat.AZTEC),
+    /**
+     * PDF417 stacked linear code.
+     */
+    PDF_417(BarcodeFormat.PDF_417),
+    /**
+     * Code 128 linear barcode, common in logistics. Only suited for short ASCII content.
+     */
+    CODE_128(BarcodeFormat.CODE_128);
+
+    /**
+     * The matching ZXing format.
+     */
+    private final BarcodeFormat barcodeFormat;
+}
@@ -0,0 +1,34 @@
+package gr.omaro.qr_generator.enums;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Enum representing the image file formats generated codes can be written in.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum ImageFormat {
+
+    /**
+     * PNG, lossless with transparency. The default.
+     */
+    PNG("png", true),
+    /**
+     * JPEG, for systems that only accept photos. Transparency is flattened onto white.
+     */
+    JPEG("jpg", false),
+    /**
+     * Windows bitmap. Transparency is flattened onto white.
+     */
+    BMP("bmp", false);
+
+    /**
+     * File extension and ImageIO format name.
+     */
+    private final String extension;
+    /**
+     * Whether the format keeps an alpha channel.
+     */
+    private final boolean alpha;
+}
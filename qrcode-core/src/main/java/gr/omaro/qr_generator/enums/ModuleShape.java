@@ -0,0 +1,20 @@
+package gr.omaro.qr_generator.enums;
+
+/**
+ * Enum representing how a single dark module of a QR code is drawn.
+ */
+public enum ModuleShape {
+
+    /**
+     * Plain square modules, like the default black-on-white output.
+     */
+    SQUARE,
+    /**
+     * Squares with rounded corners.
+     */
+    ROUNDED,
+    /**
+     * Circular dots.
+     */
+    DOT
+}
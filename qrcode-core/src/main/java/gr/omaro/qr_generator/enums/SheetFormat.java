@@ -0,0 +1,26 @@
+package gr.omaro.qr_generator.enums;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Enum representing the output formats of label sheets.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum SheetFormat {
+
+    /**
+     * One multi-page PDF with vector codes. The default.
+     */
+    PDF("pdf"),
+    /**
+     * One PNG image per page, rendered at the layout's resolution.
+     */
+    PNG("png");
+
+    /**
+     * File extension.
+     */
+    private final String extension;
+}
@@ -1,4 +1,4 @@
-package gr.omaro.qr_generator_gui.enums;
+package gr.omaro.qr_generator.enums;
 
 import lombok.Getter;
 
@@ -0,0 +1,30 @@
+package gr.omaro.qr_generator.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for resolving the output directory from the options or the configuration.
+ */
+@Name("gr.omaro.qr.Config")
+@Label("QR Config")
+@Category({"QR Generator"})
+@Description("Resolving and creating the output directory")
+@StackTrace(false)
+public class ConfigEvent extends Event {
+
+    /**
+     * The resolved output directory.
+     */
+    @Label("Output Directory")
+    public String outputDir;
+    /**
+     * Whether the directory came from the configuration rather than the caller.
+     */
+    @Label("From Configuration")
+    public boolean fromConfiguration;
+}
@@ -0,0 +1,40 @@
+package gr.omaro.qr_generator.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for encoding text into a QR module matrix.
+ */
+@Name("gr.omaro.qr.Encode")
+@Label("QR Encode")
+@Category({"QR Generator"})
+@Description("Encoding text into a QR module matrix")
+@StackTrace(false)
+public class EncodeEvent extends Event {
+
+    /**
+     * Length of the input in characters.
+     */
+    @Label("Input Length")
+    public int inputLength;
+    /**
+     * Symbol version, 1 to 40.
+     */
+    @Label("Version")
+    public int version;
+    /**
+     * Error correction level used.
+     */
+    @Label("Error Correction")
+    public String errorCorrection;
+    /**
+     * Whether the content was split into segments of the cheapest mode.
+     */
+    @Label("Segments Optimized")
+    public boolean segmentsOptimized;
+}
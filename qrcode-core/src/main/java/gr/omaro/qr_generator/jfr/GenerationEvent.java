@@ -0,0 +1,70 @@
+package gr.omaro.qr_generator.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event spanning the generation of one code, from input to written image.
+ * <p>
+ * The {@link ConfigEvent}, {@link EncodeEvent}, {@link RenderEvent} and {@link WriteEvent} of the
+ * same code are recorded on the same thread inside its time span.
+ */
+@Name("gr.omaro.qr.Generation")
+@Label("QR Generation")
+@Category({"QR Generator"})
+@Description("Generation of one code, from input to written image")
+@StackTrace(false)
+public class GenerationEvent extends Event {
+
+    /**
+     * Length of the input in characters.
+     */
+    @Label("Input Length")
+    public int inputLength;
+    /**
+     * Barcode format, e.g. {@code QR_CODE}.
+     */
+    @Label("Format")
+    public String format;
+    /**
+     * Requested image width in pixels.
+     */
+    @Label("Width")
+    public int width;
+    /**
+     * Requested image height in pixels.
+     */
+    @Label("Height")
+    public int height;
+    /**
+     * Whether the code has a style (colors, shapes or logo).
+     */
+    @Label("Styled")
+    public boolean styled;
+    /**
+     * Whether the image was streamed through off-heap buffers.
+     */
+    @Label("Off-Heap")
+    public boolean offHeap;
+    /**
+     * Written file, or null when the image was returned as bytes.
+     */
+    @Label("Path")
+    public String path;
+    /**
+     * Size of the written image.
+     */
+    @Label("Bytes Written")
+    @DataAmount
+    public long bytesWritten;
+    /**
+     * Whether the code was generated.
+     */
+    @Label("Success")
+    public boolean success;
+}
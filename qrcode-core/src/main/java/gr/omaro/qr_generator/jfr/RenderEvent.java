@@ -0,0 +1,48 @@
+package gr.omaro.qr_generator.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for rendering a code into an image in memory.
+ * <p>
+ * Formats other than QR, and plain QR codes without segment optimization, are encoded and rendered
+ * in one step by ZXing; their render event includes the encode and has no module count.
+ */
+@Name("gr.omaro.qr.Render")
+@Label("QR Render")
+@Category({"QR Generator"})
+@Description("Rendering a code into an image in memory")
+@StackTrace(false)
+public class RenderEvent extends Event {
+
+    /**
+     * Barcode format, e.g. {@code QR_CODE}.
+     */
+    @Label("Format")
+    public String format;
+    /**
+     * Width of the rendered image in pixels.
+     */
+    @Label("Width")
+    public int width;
+    /**
+     * Height of the rendered image in pixels.
+     */
+    @Label("Height")
+    public int height;
+    /**
+     * Modules per side of the symbol, or 0 if encoded in the same step.
+     */
+    @Label("Modules")
+    public int modules;
+    /**
+     * Whether the code was drawn with a style.
+     */
+    @Label("Styled")
+    public boolean styled;
+}
@@ -0,0 +1,47 @@
+package gr.omaro.qr_generator.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for compressing an image and writing it to a file or a byte array.
+ */
+@Name("gr.omaro.qr.Write")
+@Label("QR Write")
+@Category({"QR Generator"})
+@Description("Compressing an image and writing it to a file or a byte array")
+@StackTrace(false)
+public class WriteEvent extends Event {
+
+    /**
+     * Written file, or null for an in-memory image.
+     */
+    @Label("Path")
+    public String path;
+    /**
+     * Image file format, e.g. {@code png}.
+     */
+    @Label("Image Format")
+    public String imageFormat;
+    /**
+     * Width of the image in pixels.
+     */
+    @Label("Width")
+    public int width;
+    /**
+     * Height of the image in pixels.
+     */
+    @Label("Height")
+    public int height;
+    /**
+     * Size of the written image.
+     */
+    @Label("Bytes Written")
+    @DataAmount
+    public long bytesWritten;
+}
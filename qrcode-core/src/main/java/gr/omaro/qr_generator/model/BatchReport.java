@@ -0,0 +1,135 @@
+package gr.omaro.qr_generator.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Summary of a batch run produced by the batch planner.
+ * <p>
+ * Counters are updated concurrently by the worker threads. Only the first
+ * {@value #MAX_FAILURE_MESSAGES} failure messages are kept; {@link #getFailed()} counts all of them.
+ */
+public class BatchReport {
+
+    /**
+     * Number of failure messages kept, so a batch of failing rows does not fill the heap.
+     */
+    public static final int MAX_FAILURE_MESSAGES = 1000;
+
+    /**
+     * Number of non-empty input lines.
+     */
+    private final AtomicInteger requested = new AtomicInteger();
+    /**
+     * Number of distinct codes that were actually encoded.
+     */
+    private final AtomicInteger encoded = new AtomicInteger();
+    /**
+     * Number of duplicate requests served by linking or copying an encoded file.
+     */
+    private final AtomicInteger linked = new AtomicInteger();
+    /**
+     * Number of duplicate requests that resolved to an already written file.
+     */
+    private final AtomicInteger skipped = new AtomicInteger();
+    /**
+     * Number of failed requests.
+     */
+    private final AtomicInteger failed = new AtomicInteger();
+    /**
+     * The first failure messages in the form {@code input: reason}.
+     */
+    private final List<String> failures = Collections.synchronizedList(new ArrayList<>());
+
+    /**
+     * Records a non-empty input line.
+     */
+    public void recordRequested() {
+        requested.incrementAndGet();
+    }
+
+    /**
+     * Records a distinct code that was encoded.
+     */
+    public void recordEncoded() {
+        encoded.incrementAndGet();
+    }
+
+    /**
+     * Records a duplicate served from an already encoded file.
+     */
+    public void recordLinked() {
+        linked.incrementAndGet();
+    }
+
+    /**
+     * Records a duplicate that needed no additional file.
+     */
+    public void recordSkipped() {
+        skipped.incrementAndGet();
+    }
+
+    /**
+     * Records a failed request.
+     *
+     * @param input  the input that failed.
+     * @param reason short description of the failure.
+     */
+    public void recordFailure(String input, String reason) {
+        if (failed.incrementAndGet() <= MAX_FAILURE_MESSAGES) {
+            failures.add(input + ": " + reason);
+        }
+    }
+
+    /**
+     * @return number of non-empty input lines.
+     */
+    public int getRequested() {
+        return requested.get();
+    }
+
+    /**
+     * @return number of distinct codes encoded.
+     */
+    public int getEncoded() {
+        return encoded.get();
+    }
+
+    /**
+     * @return number of duplicates served by link or copy.
+     */
+    public int getLinked() {
+        return linked.get();
+    }
+
+    /**
+     * @return number of duplicates that needed no additional file.
+     */
+    public int getSkipped() {
+        return skipped.get();
+    }
+
+    /**
+     * @return number of failed requests, including those whose message was not kept.
+     */
+    public int getFailed() {
+        return failed.get();
+    }
+
+    /**
+     * @return snapshot of the first {@value #MAX_FAILURE_MESSAGES} failure messages.
+     */
+    public List<String> getFailures() {
+        synchronized (failures) {
+            return List.copyOf(failures);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("requested=%d, encoded=%d, linked=%d, skipped=%d, failed=%d",
+                getRequested(), getEncoded(), getLinked(), getSkipped(), getFailed());
+    }
+}
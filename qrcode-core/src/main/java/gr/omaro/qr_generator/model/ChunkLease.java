@@ -0,0 +1,33 @@
+package gr.omaro.qr_generator.model;
+
+import lombok.Value;
+
+import java.nio.file.Path;
+
+/**
+ * A chunk of a distributed batch claimed by one worker until its lease expires.
+ * <p>
+ * The lease is the chunk file itself, renamed into the queue's {@code leased} folder under
+ * {@code chunk~worker~expiry}; renewing it renames the file again, so a lease object is
+ * replaced by a new one on every renewal.
+ */
+@Value
+public class ChunkLease {
+
+    /**
+     * Name of the chunk file, e.g. {@code chunk-000042.txt}.
+     */
+    String chunk;
+    /**
+     * Identifier of the worker holding the lease.
+     */
+    String workerId;
+    /**
+     * End of the lease in epoch milliseconds.
+     */
+    long expiresAt;
+    /**
+     * Current path of the leased chunk file.
+     */
+    Path path;
+}
@@ -0,0 +1,43 @@
+package gr.omaro.qr_generator.model;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * One code to generate through {@link gr.omaro.qr_generator.service.QRGenerationProcessor}.
+ * <p>
+ * With a path the image is written to that file; without one it is returned as PNG bytes.
+ */
+@Value
+@Builder(toBuilder = true)
+public class GenerationRequest {
+
+    /**
+     * Caller's identifier, copied to the result so results can be matched to requests.
+     */
+    String id;
+    /**
+     * Text or URL to encode.
+     */
+    String input;
+    /**
+     * Rendering options.
+     */
+    @Builder.Default
+    QRSpec spec = QRSpec.builder().build();
+    /**
+     * File to write the image to, or null to return it as PNG bytes.
+     */
+    String path;
+
+    /**
+     * Creates a request for PNG bytes with default settings.
+     *
+     * @param id    caller's identifier, may be null.
+     * @param input text or URL to encode.
+     * @return a new request.
+     */
+    public static GenerationRequest of(String id, String input) {
+        return GenerationRequest.builder().id(id).input(input).build();
+    }
+}
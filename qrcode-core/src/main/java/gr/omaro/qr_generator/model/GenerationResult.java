@@ -0,0 +1,40 @@
+package gr.omaro.qr_generator.model;
+
+import lombok.Value;
+
+/**
+ * Outcome of one {@link GenerationRequest}.
+ */
+@Value
+public class GenerationResult {
+
+    /**
+     * The request.
+     */
+    GenerationRequest request;
+    /**
+     * PNG bytes when the request had no path, otherwise null.
+     */
+    byte[] bytes;
+    /**
+     * Path of the written file when the request had one, otherwise null.
+     */
+    String path;
+    /**
+     * Time spent generating, in nanoseconds.
+     */
+    long durationNanos;
+    /**
+     * Reason of the failure, or null on success.
+     */
+    String error;
+
+    /**
+     * Checks whether the code was generated.
+     *
+     * @return true on success.
+     */
+    public boolean isSuccess() {
+        return error == null;
+    }
+}
@@ -0,0 +1,114 @@
+package gr.omaro.qr_generator.model;
+
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import gr.omaro.qr_generator.enums.CodeFormat;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Immutable description of how a QR code (or another supported barcode) should be rendered.
+ * <p>
+ * Two jobs with the same payload and an equal {@code QRSpec} produce identical images,
+ * which is what the batch planner relies on to encode each distinct code only once.
+ */
+@Value
+@Builder(toBuilder = true)
+public class QRSpec {
+
+    /**
+     * Default width of the QR code image.
+     */
+    public static final int DEFAULT_WIDTH = 300;
+    /**
+     * Default height of the QR code image.
+     */
+    public static final int DEFAULT_HEIGHT = 300;
+
+    /**
+     * Barcode symbology to produce.
+     */
+    @Builder.Default
+    CodeFormat format = CodeFormat.QR_CODE;
+    /**
+     * Width of the QR code image in pixels.
+     */
+    @Builder.Default
+    int width = DEFAULT_WIDTH;
+    /**
+     * Height of the QR code image in pixels.
+     */
+    @Builder.Default
+    int height = DEFAULT_HEIGHT;
+    /**
+     * Requested error correction level.
+     */
+    @Builder.Default
+    ErrorCorrectionLevel errorCorrection = ErrorCorrectionLevel.L;
+    /**
+     * Whether QR content is split into numeric, alphanumeric, byte and Kanji segments to get the
+     * smallest symbol; false (the default) encodes the whole content in one mode like
+     * {@code QRCodeWriter}. The CLI turns it on unless {@code --no-optimize-segments} is given.
+     */
+    @Builder.Default
+    boolean optimizeSegments = false;
+    /**
+     * Whether the error correction level is raised as far as the version budget allows and the image
+     * size is snapped to a whole number of pixels per module; {@link #errorCorrection} is then the
+     * lowest level accepted. QR only; see {@code SymbolOptimizer}.
+     */
+    @Builder.Default
+    boolean autoErrorCorrection = false;
+    /**
+     * Largest symbol version allowed when {@link #autoErrorCorrection} is on.
+     */
+    @Builder.Default
+    int maxVersion = 40;
+    /**
+     * Optional styling; null renders plain black-on-white squares.
+     * Formats other than QR only use the colors.
+     */
+    QRStyle style;
+
+    /**
+     * Creates a spec with the given dimensions and default settings otherwise.
+     *
+     * @param width  image width in pixels.
+     * @param height image height in pixels.
+     * @return a new spec.
+     */
+    public static QRSpec of(int width, int height) {
+        return QRSpec.builder().width(width).height(height).build();
+    }
+
+    /**
+     * Returns the error correction level to encode with.
+     * <p>
+     * A logo hides the center modules, so the level is raised to H when one is drawn.
+     *
+     * @return the effective error correction level.
+     */
+    public ErrorCorrectionLevel effectiveErrorCorrection() {
+        return style != null && style.hasLogo() ? ErrorCorrectionLevel.H : errorCorrection;
+    }
+
+    /**
+     * Returns whether the spec produces a QR code.
+     *
+     * @return true for {@link CodeFormat#QR_CODE}.
+     */
+    public boolean isQRCode() {
+        return format == CodeFormat.QR_CODE;
+    }
+
+    /**
+     * Returns a stable textual key of all rendering options.
+     * <p>
+     * Used together with the payload to detect duplicate jobs.
+     *
+     * @return key describing this spec.
+     */
+    public String cacheKey() {
+        return format + "/" + width + "x" + height + "/" + errorCorrection + (optimizeSegments ? "/seg/" : "/")
+                + (autoErrorCorrection ? "auto" + maxVersion + "/" : "") + (style == null ? "plain" : style.cacheKey());
+    }
+}
@@ -0,0 +1,79 @@
+package gr.omaro.qr_generator.model;
+
+import gr.omaro.qr_generator.enums.ModuleShape;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Immutable styling options for a QR code image.
+ * <p>
+ * Colors are ARGB values. A logo, if set, is drawn over the center of the code;
+ * the error correction level is raised to H so the covered modules can be recovered.
+ */
+@Value
+@Builder(toBuilder = true)
+public class QRStyle {
+
+    /**
+     * Color of the dark modules.
+     */
+    @Builder.Default
+    int foreground = 0xFF000000;
+    /**
+     * Color of the light modules and the quiet zone.
+     */
+    @Builder.Default
+    int background = 0xFFFFFFFF;
+    /**
+     * Shape of each dark module.
+     */
+    @Builder.Default
+    ModuleShape shape = ModuleShape.SQUARE;
+    /**
+     * Path of a logo image drawn over the center, or null for no logo.
+     */
+    String logoPath;
+    /**
+     * Logo width as a fraction of the symbol width.
+     */
+    @Builder.Default
+    double logoScale = 0.2;
+
+    /**
+     * Checks whether a logo should be drawn.
+     *
+     * @return true if a logo path is set.
+     */
+    public boolean hasLogo() {
+        return logoPath != null && !logoPath.isBlank();
+    }
+
+    /**
+     * Parses a color in {@code #RRGGBB} or {@code #AARRGGBB} form.
+     *
+     * @param value the color text, with or without the leading {@code #}.
+     * @return the ARGB value.
+     * @throws IllegalArgumentException if the value is not a valid color.
+     */
+    public static int parseColor(String value) {
+        String hex = value.startsWith("#") ? value.substring(1) : value;
+        if (hex.length() != 6 && hex.length() != 8) {
+            throw new IllegalArgumentException("Color must be #RRGGBB or #AARRGGBB: " + value);
+        }
+        try {
+            long argb = Long.parseLong(hex, 16);
+            return (int) (hex.length() == 6 ? 0xFF000000L | argb : argb);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Color must be #RRGGBB or #AARRGGBB: " + value, e);
+        }
+    }
+
+    /**
+     * Returns a stable textual key of all styling options.
+     *
+     * @return key describing this style.
+     */
+    public String cacheKey() {
+        return String.format("%08x/%08x/%s/%s/%s", foreground, background, shape, logoPath, logoScale);
+    }
+}
@@ -0,0 +1,41 @@
+package gr.omaro.qr_generator.model;
+
+import lombok.Value;
+
+/**
+ * Snapshot of a distributed batch queue.
+ */
+@Value
+public class QueueStatus {
+
+    /**
+     * Chunks waiting for a worker.
+     */
+    int pending;
+    /**
+     * Chunks claimed by a worker.
+     */
+    int leased;
+    /**
+     * Chunks finished.
+     */
+    int done;
+    /**
+     * Whether the input has been split completely, so no more chunks will appear.
+     */
+    boolean sealed;
+
+    /**
+     * Checks whether every chunk has been processed.
+     *
+     * @return true once the queue is sealed and no chunk is pending or leased.
+     */
+    public boolean isFinished() {
+        return sealed && pending == 0 && leased == 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("pending=%d, leased=%d, done=%d%s", pending, leased, done, sealed ? "" : " (splitting)");
+    }
+}
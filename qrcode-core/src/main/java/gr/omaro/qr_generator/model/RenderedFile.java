@@ -0,0 +1,28 @@
+package gr.omaro.qr_generator.model;
+
+import gr.omaro.qr_generator.enums.ImageFormat;
+import lombok.Value;
+
+/**
+ * One image written for a multi-size job.
+ */
+@Value
+public class RenderedFile {
+
+    /**
+     * Image width in pixels.
+     */
+    int width;
+    /**
+     * Image height in pixels.
+     */
+    int height;
+    /**
+     * File format of the image.
+     */
+    ImageFormat format;
+    /**
+     * Full path of the written file.
+     */
+    String path;
+}
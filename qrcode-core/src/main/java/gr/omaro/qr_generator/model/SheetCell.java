@@ -0,0 +1,20 @@
+package gr.omaro.qr_generator.model;
+
+import com.google.zxing.qrcode.encoder.ByteMatrix;
+import lombok.Value;
+
+/**
+ * One encoded label of a sheet.
+ */
+@Value
+public class SheetCell {
+
+    /**
+     * Module matrix of the code (1 = dark), or null if the payload could not be encoded.
+     */
+    ByteMatrix modules;
+    /**
+     * Text printed under the code.
+     */
+    String caption;
+}
@@ -0,0 +1,145 @@
+package gr.omaro.qr_generator.model;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Immutable page grid of a label sheet.
+ * <p>
+ * Lengths are in millimetres and measured from the top left corner of the page. Every cell
+ * holds one code with its caption underneath; the code is as large as the cell allows.
+ */
+@Value
+@Builder(toBuilder = true)
+public class SheetLayout {
+
+    /**
+     * Millimetres per PostScript point.
+     */
+    private static final double MM_PER_POINT = 25.4 / 72;
+    /**
+     * Caption line height as a multiple of the font size.
+     */
+    private static final double LINE_HEIGHT = 1.4;
+
+    /**
+     * Page width; A4 by default.
+     */
+    @Builder.Default
+    double pageWidth = 210;
+    /**
+     * Page height; A4 by default.
+     */
+    @Builder.Default
+    double pageHeight = 297;
+    /**
+     * Number of label columns.
+     */
+    @Builder.Default
+    int columns = 5;
+    /**
+     * Number of label rows.
+     */
+    @Builder.Default
+    int rows = 10;
+    /**
+     * Page margin on every side.
+     */
+    @Builder.Default
+    double margin = 10;
+    /**
+     * Space between neighbouring cells.
+     */
+    @Builder.Default
+    double gap = 2;
+    /**
+     * Caption font size in points; 0 hides captions.
+     */
+    @Builder.Default
+    double captionSize = 6;
+    /**
+     * Resolution of PNG pages in dots per inch.
+     */
+    @Builder.Default
+    int dpi = 300;
+
+    /**
+     * Returns the number of labels on a full page.
+     *
+     * @return columns times rows.
+     */
+    public int labelsPerPage() {
+        return columns * rows;
+    }
+
+    /**
+     * Returns the width of one cell.
+     *
+     * @return cell width in millimetres.
+     */
+    public double cellWidth() {
+        return (pageWidth - 2 * margin - (columns - 1) * gap) / columns;
+    }
+
+    /**
+     * Returns the height of one cell.
+     *
+     * @return cell height in millimetres.
+     */
+    public double cellHeight() {
+        return (pageHeight - 2 * margin - (rows - 1) * gap) / rows;
+    }
+
+    /**
+     * Returns the left edge of a cell.
+     *
+     * @param index position of the label on its page, row by row.
+     * @return distance from the left page edge in millimetres.
+     */
+    public double cellX(int index) {
+        return margin + (index % columns) * (cellWidth() + gap);
+    }
+
+    /**
+     * Returns the top edge of a cell.
+     *
+     * @param index position of the label on its page, row by row.
+     * @return distance from the top page edge in millimetres.
+     */
+    public double cellY(int index) {
+        return margin + (index / columns) * (cellHeight() + gap);
+    }
+
+    /**
+     * Returns the height reserved for the caption at the bottom of every cell.
+     *
+     * @return caption height in millimetres, 0 without captions.
+     */
+    public double captionHeight() {
+        return captionSize * LINE_HEIGHT * MM_PER_POINT;
+    }
+
+    /**
+     * Returns the side of the square code area of every cell, quiet zone included.
+     *
+     * @return code side in millimetres.
+     */
+    public double codeSide() {
+        return Math.min(cellWidth(), cellHeight() - captionHeight());
+    }
+
+    /**
+     * Checks that the grid fits on the page.
+     *
+     * @throws IllegalArgumentException if a dimension is not positive or the cells are too small.
+     */
+    public void validate() {
+        if (columns < 1 || rows < 1 || dpi < 1 || captionSize < 0) {
+            throw new IllegalArgumentException("Columns, rows and dpi must be positive");
+        }
+        if (codeSide() <= 0) {
+            throw new IllegalArgumentException(String.format(
+                    "A %dx%d grid does not fit on a %.0fx%.0f mm page", columns, rows, pageWidth, pageHeight));
+        }
+    }
+}
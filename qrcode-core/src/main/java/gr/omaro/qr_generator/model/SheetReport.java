@@ -0,0 +1,34 @@
+package gr.omaro.qr_generator.model;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Summary of a label sheet run.
+ */
+@Value
+public class SheetReport {
+
+    /**
+     * Number of labels laid out, including failed ones.
+     */
+    int labels;
+    /**
+     * Number of pages written.
+     */
+    int pages;
+    /**
+     * Written files: the PDF, or one PNG per page.
+     */
+    List<String> files;
+    /**
+     * Failure messages in the form {@code input: reason}.
+     */
+    List<String> failures;
+
+    @Override
+    public String toString() {
+        return String.format("labels=%d, pages=%d, files=%d, failed=%d", labels, pages, files.size(), failures.size());
+    }
+}
@@ -0,0 +1,52 @@
+package gr.omaro.qr_generator.model;
+
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import lombok.Value;
+
+/**
+ * Symbol settings chosen for a payload: version, error correction level and a whole number of
+ * pixels per module.
+ */
+@Value
+public class SymbolPlan {
+
+    /**
+     * Symbol version (1..40).
+     */
+    int version;
+    /**
+     * Highest error correction level that fits within the version budget.
+     */
+    ErrorCorrectionLevel errorCorrection;
+    /**
+     * Pixels per module.
+     */
+    int moduleScale;
+    /**
+     * Side of the image in pixels: the symbol and its quiet zone times {@link #moduleScale}.
+     */
+    int size;
+    /**
+     * Header and data bits of the payload.
+     */
+    int dataBits;
+    /**
+     * Data bits the version holds at the chosen level.
+     */
+    int capacityBits;
+
+    /**
+     * Returns a copy of a spec with this plan's error correction level and image size.
+     *
+     * @param spec the requested spec.
+     * @return the spec to render with; automatic selection is off in the copy.
+     */
+    public QRSpec applyTo(QRSpec spec) {
+        return spec.toBuilder()
+                .errorCorrection(errorCorrection)
+                .width(size)
+                .height(size)
+                .autoErrorCorrection(false)
+                .build();
+    }
+}
@@ -0,0 +1,56 @@
+package gr.omaro.qr_generator.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Summary of verified QR code images.
+ * <p>
+ * Results are added concurrently by the verification workers.
+ */
+public class VerificationReport {
+
+    /**
+     * Number of verified images.
+     */
+    private final AtomicInteger checked = new AtomicInteger();
+    /**
+     * Results of images that failed verification.
+     */
+    private final List<VerificationResult> failures = Collections.synchronizedList(new ArrayList<>());
+
+    /**
+     * Adds a verification result.
+     *
+     * @param result the result to add.
+     */
+    public void add(VerificationResult result) {
+        checked.incrementAndGet();
+        if (!result.isValid()) {
+            failures.add(result);
+        }
+    }
+
+    /**
+     * @return number of verified images.
+     */
+    public int getChecked() {
+        return checked.get();
+    }
+
+    /**
+     * @return snapshot of the failed results.
+     */
+    public List<VerificationResult> getFailures() {
+        synchronized (failures) {
+            return List.copyOf(failures);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("checked=%d, failed=%d", getChecked(), failures.size());
+    }
+}
@@ -0,0 +1,36 @@
+package gr.omaro.qr_generator.model;
+
+import lombok.Value;
+
+/**
+ * Outcome of decoding a single generated QR code image.
+ */
+@Value
+public class VerificationResult {
+
+    /**
+     * Path of the verified image.
+     */
+    String path;
+    /**
+     * Text the code should contain, or null if unknown.
+     */
+    String expected;
+    /**
+     * Text actually decoded, or null if decoding failed.
+     */
+    String decoded;
+    /**
+     * Reason of the failure, or null on success.
+     */
+    String error;
+
+    /**
+     * Checks whether the image decoded to the expected text.
+     *
+     * @return true if the image is readable and matches.
+     */
+    public boolean isValid() {
+        return error == null;
+    }
+}
@@ -0,0 +1,343 @@
+package gr.omaro.qr_generator.service;
+
+import gr.omaro.qr_generator.exception.ConfigExeption;
+import gr.omaro.qr_generator.exception.QRException;
+import gr.omaro.qr_generator.model.BatchReport;
+import gr.omaro.qr_generator.model.QRSpec;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.BiConsumer;
+
+/**
+ * Plans and runs batch jobs so that each distinct code is encoded only once.
+ * <p>
+ * The input file is read line by line. Every line is hashed together with the
+ * {@link QRSpec}; the first occurrence of a hash is encoded, later occurrences are
+ * hard-linked (or copied, where links are not supported) from the encoded file.
+ * Payloads are not kept in memory: per distinct code only its hash and file are remembered,
+ * a pending encode only while it runs, and at most {@link BatchReport#MAX_FAILURE_MESSAGES}
+ * failure messages.
+ */
+@Slf4j
+public class BatchPlanner {
+
+    /**
+     * Number of queued jobs allowed per worker before reading of the input pauses.
+     */
+    private static final int IN_FLIGHT_PER_WORKER = 4;
+
+    /**
+     * Service used to encode and write each distinct code.
+     */
+    private final QRService qrService;
+    /**
+     * Number of worker threads encoding codes in parallel.
+     */
+    private final int workers;
+
+    /**
+     * Creates a planner.
+     *
+     * @param qrService service used to encode codes.
+     * @param workers   number of worker threads (must be > 0).
+     */
+    public BatchPlanner(QRService qrService, int workers) {
+        if (workers <= 0) {
+            throw new IllegalArgumentException("Workers must be > 0");
+        }
+        this.qrService = qrService;
+        this.workers = workers;
+    }
+
+    /**
+     * Runs a batch job over an input file with one payload per line.
+     * <p>
+     * A line may name its output file after a tab ({@code payload<TAB>name.png});
+     * otherwise the name is derived from the payload. In a {@code .csv} file the payload
+     * is the first column and the name the optional second one, and either may be quoted.
+     * Blank lines and lines starting with {@code #} are ignored.
+     *
+     * @param inputFile  file with one text or URL per line.
+     * @param spec       rendering options applied to every code.
+     * @param outputPath optional output path; if null/blank, config path is used.
+     * @return a report with counts and failures.
+     * @throws QRException    if the input file cannot be read.
+     * @throws ConfigExeption if configuration fails or output directory can't be created.
+     */
+    public BatchReport run(Path inputFile, QRSpec spec, String outputPath) throws QRException, ConfigExeption {
+        return run(inputFile, spec, outputPath, null);
+    }
+
+    /**
+     * Runs a batch job and reports every file written, see {@link #run(Path, QRSpec, String)}.
+     *
+     * @param inputFile  file with one text or URL per line.
+     * @param spec       rendering options applied to every code.
+     * @param outputPath optional output path; if null/blank, config path is used.
+     * @param onWritten  called with the payload and file of every encoded or linked code, from
+     *                   worker threads; may be null.
+     * @return a report with counts and failures.
+     * @throws QRException    if the input file cannot be read.
+     * @throws ConfigExeption if configuration fails or output directory can't be created.
+     */
+    public BatchReport run(Path inputFile, QRSpec spec, String outputPath, BiConsumer<String, Path> onWritten)
+            throws QRException, ConfigExeption {
+        String outputDir = qrService.resolveOutputDir(outputPath);
+
+        BatchReport report = new BatchReport();
+        // Hash of (payload, spec) -> encode of its first occurrence, while it runs
+        Map<String, CompletableFuture<Path>> pending = new ConcurrentHashMap<>();
+        // Hash of (payload, spec) -> file written by its first occurrence
+        Map<String, Path> encoded = new ConcurrentHashMap<>();
+        // File name -> hash of the job that owns it, to keep distinct payloads apart
+        Map<String, String> names = new HashMap<>();
+        int maxInFlight = workers * IN_FLIGHT_PER_WORKER;
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+
+        boolean csv = inputFile.getFileName().toString().toLowerCase().endsWith(".csv");
+        try (BufferedReader reader = Files.newBufferedReader(inputFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] columns = csv ? csvColumns(line) : line.split("\t", 2);
+                String input = columns[0].strip();
+                if (input.isEmpty() || input.startsWith("#")) {
+                    continue;
+                }
+                report.recordRequested();
+                String key = hash(input, spec);
+                String requestedName = columns.length > 1 && !columns[1].isBlank()
+                        ? toPngName(columns[1].strip())
+                        : qrService.fileNameFor(input);
+                String fileName = claimFileName(names, requestedName, key);
+                if (fileName == null) {
+                    // Same payload under the same name: the file is already planned
+                    report.recordSkipped();
+                    continue;
+                }
+                Path target = Paths.get(qrService.buildFullPath(outputDir, fileName));
+
+                inFlight.acquire();
+                // pending first: a finished encode is added to encoded before it leaves pending
+                CompletableFuture<Path> original = pending.get(key);
+                Path source = original == null ? encoded.get(key) : null;
+                CompletableFuture<?> job;
+                if (original != null) {
+                    job = original.thenAcceptAsync(file -> linkOrCopy(file, target), pool)
+                            .thenRun(report::recordLinked);
+                } else if (source != null) {
+                    job = CompletableFuture.runAsync(() -> linkOrCopy(source, target), pool)
+                            .thenRun(report::recordLinked);
+                } else {
+                    CompletableFuture<Path> encode = new CompletableFuture<>();
+                    pending.put(key, encode);
+                    CompletableFuture.supplyAsync(() -> encode(input, spec, target), pool)
+                            .whenComplete((file, error) -> {
+                                if (file != null) {
+                                    encoded.put(key, file);
+                                }
+                                // a failed encode is retried by the next duplicate
+                                pending.remove(key);
+                                if (error != null) {
+                                    encode.completeExceptionally(error);
+                                } else {
+                                    encode.complete(file);
+                                }
+                            });
+                    job = encode.thenRun(report::recordEncoded);
+                }
+                if (onWritten != null) {
+                    job = job.thenRun(() -> onWritten.accept(input, target));
+                }
+                job.whenComplete((ignored, error) -> {
+                    if (error != null) {
+                        report.recordFailure(input, rootMessage(error));
+                    }
+                    inFlight.release();
+                });
+            }
+            // Wait until every queued job has finished
+            inFlight.acquire(maxInFlight);
+        } catch (IOException e) {
+            throw new QRException("Failed to read batch input: " + inputFile, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new QRException("Batch job was interrupted.", e);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        log.info("Batch finished: {}", report);
+        return report;
+    }
+
+    /**
+     * Reserves a file name for a job.
+     *
+     * @param names    names reserved so far, mapped to the hash of their job.
+     * @param fileName the preferred file name.
+     * @param key      hash of the job.
+     * @return the name to use, or null if the same job already owns the preferred name.
+     */
+    private String claimFileName(Map<String, String> names, String fileName, String key) {
+        String candidate = fileName;
+        int suffix = 2;
+        while (true) {
+            String owner = names.putIfAbsent(candidate, key);
+            if (owner == null) {
+                return candidate;
+            }
+            if (owner.equals(key)) {
+                return null;
+            }
+            // A different payload sanitizes to the same name, so pick "name-2.png", "name-3.png", ...
+            candidate = fileName.replaceFirst("(\\.png)?$", "-" + suffix++ + "$1");
+        }
+    }
+
+    /**
+     * Splits a CSV line into its first column and the second one, if any.
+     * <p>
+     * Quoted columns may contain commas and doubled quotes; columns after the second are ignored.
+     *
+     * @param line the line.
+     * @return one or two columns.
+     */
+    private static String[] csvColumns(String line) {
+        String[] columns = new String[2];
+        int count = 0;
+        int i = 0;
+        while (count < 2 && i <= line.length()) {
+            StringBuilder column = new StringBuilder();
+            if (i < line.length() && line.charAt(i) == '"') {
+                i++;
+                while (i < line.length()) {
+                    char c = line.charAt(i++);
+                    if (c != '"') {
+                        column.append(c);
+                    } else if (i < line.length() && line.charAt(i) == '"') {
+                        column.append('"');
+                        i++;
+                    } else {
+                        break;
+                    }
+                }
+                // skip anything between the closing quote and the next comma
+                int comma = line.indexOf(',', i);
+                i = comma < 0 ? line.length() : comma;
+            } else {
+                int comma = line.indexOf(',', i);
+                int end = comma < 0 ? line.length() : comma;
+                column.append(line, i, end);
+                i = end;
+            }
+            columns[count++] = column.toString();
+            if (i >= line.length()) {
+                break;
+            }
+            i++;
+        }
+        return count == 1 ? new String[]{columns[0]} : columns;
+    }
+
+    /**
+     * Turns a requested output name into a safe PNG file name.
+     *
+     * @param name the name given in the input file.
+     * @return file name without directories, ending with .png.
+     */
+    private static String toPngName(String name) {
+        String fileName = Paths.get(name).getFileName().toString();
+        return fileName.toLowerCase().endsWith(".png") ? fileName : fileName + ".png";
+    }
+
+    /**
+     * Encodes one distinct code.
+     *
+     * @param input  the text or URL to encode.
+     * @param spec   rendering options.
+     * @param target file to write.
+     * @return the written file.
+     */
+    private Path encode(String input, QRSpec spec, Path target) {
+        try {
+            qrService.generateToFile(input, spec, target.toString());
+            return target;
+        } catch (QRException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    /**
+     * Makes an encoded file available under another name.
+     * <p>
+     * Tries a hard link first and falls back to a copy, e.g. across file systems.
+     *
+     * @param source the encoded file.
+     * @param target the requested file.
+     */
+    private void linkOrCopy(Path source, Path target) {
+        try {
+            Files.deleteIfExists(target);
+            try {
+                Files.createLink(target, source);
+            } catch (UnsupportedOperationException | IOException e) {
+                Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to copy " + source + " to " + target, e);
+        }
+    }
+
+    /**
+     * Hashes a payload together with its rendering options.
+     *
+     * @param input the text or URL to encode.
+     * @param spec  rendering options.
+     * @return hex encoded SHA-256 hash.
+     */
+    private static String hash(String input, QRSpec spec) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(input.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(spec.cacheKey().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Extracts the most useful message from a failed job.
+     *
+     * @param error the failure.
+     * @return message of the underlying cause.
+     */
+    private static String rootMessage(Throwable error) {
+        Throwable cause = error;
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause.getMessage();
+    }
+}
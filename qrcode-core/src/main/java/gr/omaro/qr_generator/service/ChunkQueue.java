@@ -0,0 +1,357 @@
+package gr.omaro.qr_generator.service;
+
+import gr.omaro.qr_generator.exception.QRException;
+import gr.omaro.qr_generator.model.ChunkLease;
+import gr.omaro.qr_generator.model.QueueStatus;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Stream;
+
+/**
+ * Work queue of batch chunks on a shared directory, used to spread one batch over several hosts.
+ * <p>
+ * The coordinator {@link #split(Path, int) splits} the input into chunk files in {@code pending/}.
+ * A worker claims a chunk by renaming it into {@code leased/} under {@code chunk~worker~expiry};
+ * the rename is atomic, so of several workers racing for a chunk exactly one succeeds. The worker
+ * renews the lease by renaming the file to a later expiry, and when the chunk is done it publishes
+ * the chunk's manifest in {@code manifests/} and renames the chunk into {@code done/}. A lease that
+ * was not renewed in time is moved back to {@code pending/} by {@link #reclaimExpired()}, so the
+ * chunk of a crashed worker is processed again elsewhere. Output files are named the same on every
+ * attempt, so processing a chunk twice only overwrites them.
+ * <p>
+ * Only renames within one directory tree are needed, which NFS and SMB shares perform atomically.
+ * Expiry times come from the clock of the host holding the lease, so hosts should keep their clocks
+ * in sync to well within the lease duration.
+ */
+@Slf4j
+public class ChunkQueue {
+
+    /**
+     * Separator between chunk name, worker and expiry in a lease file name.
+     */
+    private static final char LEASE_SEPARATOR = '~';
+    /**
+     * Marker written once the input has been split completely.
+     */
+    private static final String SEALED_MARKER = "sealed";
+
+    /**
+     * Root of the queue.
+     */
+    private final Path root;
+    /**
+     * Chunks waiting for a worker.
+     */
+    private final Path pending;
+    /**
+     * Chunks claimed by a worker.
+     */
+    private final Path leased;
+    /**
+     * Finished chunks.
+     */
+    private final Path done;
+    /**
+     * Per-chunk manifests.
+     */
+    private final Path manifests;
+    /**
+     * Files being written, moved into place when complete.
+     */
+    private final Path temporary;
+
+    /**
+     * Creates a queue on a directory; nothing is created until {@link #split(Path, int)}.
+     *
+     * @param root the shared queue directory.
+     */
+    public ChunkQueue(Path root) {
+        this.root = root.toAbsolutePath().normalize();
+        this.pending = this.root.resolve("pending");
+        this.leased = this.root.resolve("leased");
+        this.done = this.root.resolve("done");
+        this.manifests = this.root.resolve("manifests");
+        this.temporary = this.root.resolve("tmp");
+    }
+
+    /**
+     * Splits an input file into chunks of at most {@code chunkSize} lines.
+     * <p>
+     * Blank lines and comments are dropped. Chunks are published one by one as they are written,
+     * so workers can start while a large input is still being split. Chunks keep the extension of
+     * the input, so a CSV input is read as CSV by the workers.
+     *
+     * @param inputFile file with one text or URL per line.
+     * @param chunkSize lines per chunk (must be > 0).
+     * @return number of chunks.
+     * @throws QRException if the queue already holds chunks or the files cannot be read or written.
+     */
+    public int split(Path inputFile, int chunkSize) throws QRException {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be > 0");
+        }
+        String extension = inputFile.getFileName().toString().toLowerCase().endsWith(".csv") ? ".csv" : ".txt";
+        try {
+            createDirectories();
+            if (count(pending) + count(leased) + count(done) > 0) {
+                throw new QRException("Queue already holds chunks: " + root);
+            }
+            int chunks = 0;
+            try (BufferedReader reader = Files.newBufferedReader(inputFile, StandardCharsets.UTF_8)) {
+                String line = reader.readLine();
+                while (line != null) {
+                    String name = String.format("chunk-%06d%s", chunks + 1, extension);
+                    Path part = temporary.resolve(name);
+                    int lines = 0;
+                    try (BufferedWriter writer = Files.newBufferedWriter(part, StandardCharsets.UTF_8)) {
+                        for (; line != null && lines < chunkSize; line = reader.readLine()) {
+                            if (line.isBlank() || line.startsWith("#")) {
+                                continue;
+                            }
+                            writer.write(line);
+                            writer.newLine();
+                            lines++;
+                        }
+                    }
+                    if (lines == 0) {
+                        Files.delete(part);
+                    } else {
+                        Files.move(part, pending.resolve(name), StandardCopyOption.ATOMIC_MOVE);
+                        chunks++;
+                    }
+                }
+            }
+            Files.writeString(root.resolve(SEALED_MARKER), Integer.toString(chunks), StandardCharsets.UTF_8);
+            log.info("Split {} into {} chunk(s) of up to {} lines in {}", inputFile.getFileName(), chunks, chunkSize, root);
+            return chunks;
+        } catch (IOException e) {
+            throw new QRException("Failed to split " + inputFile + " into " + root, e);
+        }
+    }
+
+    /**
+     * Claims a pending chunk.
+     * <p>
+     * Candidates are tried from a random position, so workers starting together rarely race for
+     * the same chunk.
+     *
+     * @param workerId    identifier of the claiming worker.
+     * @param leaseMillis lease duration in milliseconds.
+     * @return the lease, or null if no chunk is pending.
+     * @throws IOException if the queue cannot be read.
+     */
+    public ChunkLease claim(String workerId, long leaseMillis) throws IOException {
+        List<Path> candidates = list(pending);
+        if (candidates.isEmpty()) {
+            return null;
+        }
+        int start = ThreadLocalRandom.current().nextInt(candidates.size());
+        for (int i = 0; i < candidates.size(); i++) {
+            Path candidate = candidates.get((start + i) % candidates.size());
+            ChunkLease lease = newLease(candidate.getFileName().toString(), workerId, leaseMillis);
+            if (rename(candidate, lease.getPath())) {
+                return lease;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Extends a lease.
+     *
+     * @param lease       the current lease.
+     * @param leaseMillis new lease duration from now, in milliseconds.
+     * @return the renewed lease, or null if the lease was lost to expiry.
+     * @throws IOException if the chunk cannot be renamed.
+     */
+    public ChunkLease renew(ChunkLease lease, long leaseMillis) throws IOException {
+        ChunkLease renewed = newLease(lease.getChunk(), lease.getWorkerId(), leaseMillis);
+        return rename(lease.getPath(), renewed.getPath()) ? renewed : null;
+    }
+
+    /**
+     * Publishes a chunk's manifest and marks the chunk as done.
+     * <p>
+     * The manifest is written first; if the lease turns out to be lost, another worker will
+     * process the chunk again and replace the manifest with the same content.
+     *
+     * @param lease    the lease.
+     * @param manifest lines of the manifest.
+     * @return true if the chunk was marked as done, false if the lease was lost.
+     * @throws IOException if the manifest cannot be written.
+     */
+    public boolean complete(ChunkLease lease, List<String> manifest) throws IOException {
+        String manifestName = baseName(lease.getChunk()) + ".manifest";
+        Path part = temporary.resolve(manifestName + LEASE_SEPARATOR + lease.getWorkerId());
+        Files.write(part, manifest, StandardCharsets.UTF_8);
+        Files.move(part, manifests.resolve(manifestName), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return rename(lease.getPath(), done.resolve(lease.getChunk()));
+    }
+
+    /**
+     * Gives a chunk back without processing it, e.g. after an error.
+     *
+     * @param lease the lease.
+     * @return true if the chunk is pending again, false if the lease was already lost.
+     * @throws IOException if the chunk cannot be renamed.
+     */
+    public boolean release(ChunkLease lease) throws IOException {
+        return rename(lease.getPath(), pending.resolve(lease.getChunk()));
+    }
+
+    /**
+     * Moves chunks whose lease has expired back to pending.
+     *
+     * @return number of reclaimed chunks.
+     * @throws IOException if the queue cannot be read.
+     */
+    public int reclaimExpired() throws IOException {
+        long now = System.currentTimeMillis();
+        int reclaimed = 0;
+        for (Path file : list(leased)) {
+            String name = file.getFileName().toString();
+            int last = name.lastIndexOf(LEASE_SEPARATOR);
+            int first = name.indexOf(LEASE_SEPARATOR);
+            if (first < 0 || last == first) {
+                continue;
+            }
+            long expiresAt;
+            try {
+                expiresAt = Long.parseLong(name.substring(last + 1));
+            } catch (NumberFormatException e) {
+                continue;
+            }
+            if (expiresAt < now && rename(file, pending.resolve(name.substring(0, first)))) {
+                log.warn("Lease of {} by {} expired, chunk is pending again", name.substring(0, first), name.substring(first + 1, last));
+                reclaimed++;
+            }
+        }
+        return reclaimed;
+    }
+
+    /**
+     * Counts the chunks in each state.
+     *
+     * @return the status.
+     * @throws IOException if the queue cannot be read.
+     */
+    public QueueStatus status() throws IOException {
+        return new QueueStatus(count(pending), count(leased), count(done), Files.exists(root.resolve(SEALED_MARKER)));
+    }
+
+    /**
+     * Returns the folder of the per-chunk manifests.
+     *
+     * @return the manifests folder.
+     */
+    public Path getManifestDirectory() {
+        return manifests;
+    }
+
+    /**
+     * Returns a chunk name without its extension, used for its manifest and output folder.
+     *
+     * @param chunk the chunk name.
+     * @return e.g. {@code chunk-000042}.
+     */
+    public static String baseName(String chunk) {
+        int dot = chunk.lastIndexOf('.');
+        return dot > 0 ? chunk.substring(0, dot) : chunk;
+    }
+
+    /**
+     * Turns any text into an identifier usable in lease file names.
+     *
+     * @param workerId the proposed identifier, e.g. a host name.
+     * @return the identifier with unsafe characters replaced.
+     */
+    public static String sanitizeWorkerId(String workerId) {
+        return workerId.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+
+    /**
+     * Creates the queue folders.
+     *
+     * @throws IOException if they cannot be created.
+     */
+    private void createDirectories() throws IOException {
+        for (Path directory : List.of(pending, leased, done, manifests, temporary)) {
+            Files.createDirectories(directory);
+        }
+    }
+
+    /**
+     * Builds a lease for a chunk, expiring {@code leaseMillis} from now.
+     *
+     * @param chunk       the chunk name.
+     * @param workerId    the worker.
+     * @param leaseMillis lease duration.
+     * @return the lease.
+     */
+    private ChunkLease newLease(String chunk, String workerId, long leaseMillis) {
+        long expiresAt = System.currentTimeMillis() + leaseMillis;
+        Path path = leased.resolve(chunk + LEASE_SEPARATOR + workerId + LEASE_SEPARATOR + expiresAt);
+        return new ChunkLease(chunk, workerId, expiresAt, path);
+    }
+
+    /**
+     * Renames a file atomically.
+     *
+     * @param source the file.
+     * @param target the new path; must not exist.
+     * @return true if this call moved the file, false if it was gone (taken by someone else).
+     * @throws IOException if the rename fails for another reason.
+     */
+    private static boolean rename(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (NoSuchFileException | FileAlreadyExistsException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Lists the files of a queue folder in name order.
+     *
+     * @param directory the folder.
+     * @return the files, or an empty list if the folder does not exist yet.
+     * @throws IOException if the folder cannot be read.
+     */
+    private static List<Path> list(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return Collections.emptyList();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+    /**
+     * Counts the files of a queue folder.
+     *
+     * @param directory the folder.
+     * @return the number of files.
+     * @throws IOException if the folder cannot be read.
+     */
+    private static int count(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return 0;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return (int) files.count();
+        }
+    }
+}
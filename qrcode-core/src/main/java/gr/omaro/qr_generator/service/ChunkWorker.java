@@ -0,0 +1,259 @@
+package gr.omaro.qr_generator.service;
+
+import gr.omaro.qr_generator.exception.ConfigExeption;
+import gr.omaro.qr_generator.exception.QRException;
+import gr.omaro.qr_generator.model.BatchReport;
+import gr.omaro.qr_generator.model.ChunkLease;
+import gr.omaro.qr_generator.model.QRSpec;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Takes chunks from a {@link ChunkQueue} and runs them through a {@link BatchPlanner} until the
+ * queue is finished.
+ * <p>
+ * The lease of the running chunk is renewed every third of its duration. Each chunk writes its
+ * codes to a folder named after the chunk, so names never collide between chunks, and publishes a
+ * manifest with a summary, the failures and one {@code payload<TAB>file} line per written code.
+ */
+@Slf4j
+public class ChunkWorker {
+
+    /**
+     * Time to wait before looking for work again when no chunk is pending, in milliseconds.
+     */
+    private static final long IDLE_MILLIS = 500;
+
+    /**
+     * The queue.
+     */
+    private final ChunkQueue queue;
+    /**
+     * Planner running each chunk.
+     */
+    private final BatchPlanner planner;
+    /**
+     * Rendering options applied to every code.
+     */
+    private final QRSpec spec;
+    /**
+     * Folder receiving one sub-folder per chunk.
+     */
+    private final Path outputDir;
+    /**
+     * Identifier of this worker in lease names.
+     */
+    private final String workerId;
+    /**
+     * Lease duration in milliseconds.
+     */
+    private final long leaseMillis;
+    /**
+     * Number of chunks completed by this worker.
+     */
+    private final AtomicInteger chunks = new AtomicInteger();
+    /**
+     * Number of codes that failed in the completed chunks.
+     */
+    private final AtomicInteger failures = new AtomicInteger();
+
+    /**
+     * Creates a worker.
+     *
+     * @param queue       the queue.
+     * @param planner     planner running each chunk.
+     * @param spec        rendering options applied to every code.
+     * @param outputDir   folder receiving one sub-folder per chunk.
+     * @param workerId    identifier of this worker; made safe with {@link ChunkQueue#sanitizeWorkerId(String)}.
+     * @param leaseMillis lease duration in milliseconds; should be well above the time a chunk takes to start.
+     */
+    public ChunkWorker(ChunkQueue queue, BatchPlanner planner, QRSpec spec, Path outputDir, String workerId, long leaseMillis) {
+        if (leaseMillis < 1000) {
+            throw new IllegalArgumentException("Lease must be at least 1000 ms");
+        }
+        this.queue = queue;
+        this.planner = planner;
+        this.spec = spec;
+        this.outputDir = outputDir;
+        this.workerId = ChunkQueue.sanitizeWorkerId(workerId);
+        this.leaseMillis = leaseMillis;
+    }
+
+    /**
+     * Processes chunks until the queue is sealed and has no pending or leased chunk left.
+     * <p>
+     * While other workers hold the last leases, this worker keeps polling so that it can take
+     * over a chunk whose lease expires.
+     *
+     * @throws IOException          if the queue cannot be read.
+     * @throws InterruptedException if interrupted while waiting for work.
+     */
+    public void run() throws IOException, InterruptedException {
+        ScheduledExecutorService renewer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "chunk-lease-renewer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            while (true) {
+                ChunkLease lease = queue.claim(workerId, leaseMillis);
+                if (lease != null) {
+                    process(lease, renewer);
+                    continue;
+                }
+                if (queue.reclaimExpired() > 0) {
+                    continue;
+                }
+                if (queue.status().isFinished()) {
+                    log.info("Queue finished; {} chunk(s) processed by {}", chunks.get(), workerId);
+                    return;
+                }
+                Thread.sleep(IDLE_MILLIS);
+            }
+        } finally {
+            renewer.shutdownNow();
+        }
+    }
+
+    /**
+     * Returns the number of chunks completed by this worker.
+     *
+     * @return completed chunks.
+     */
+    public int getChunks() {
+        return chunks.get();
+    }
+
+    /**
+     * Returns the number of codes that failed in the chunks completed by this worker.
+     *
+     * @return failed codes.
+     */
+    public int getFailures() {
+        return failures.get();
+    }
+
+    /**
+     * Runs one chunk while keeping its lease alive, then publishes the manifest.
+     * <p>
+     * A chunk that cannot be read or written is released so another attempt can take it.
+     *
+     * @param claimed the fresh lease.
+     * @param renewer executor of the renewals.
+     * @throws IOException if the queue cannot be updated.
+     */
+    private void process(ChunkLease claimed, ScheduledExecutorService renewer) throws IOException {
+        String chunk = claimed.getChunk();
+        LeaseKeeper keeper = new LeaseKeeper(claimed);
+        long period = leaseMillis / 3;
+        ScheduledFuture<?> renewal = renewer.scheduleWithFixedDelay(keeper::renew, period, period, TimeUnit.MILLISECONDS);
+        Path local = null;
+        long start = System.nanoTime();
+        try {
+            // a local copy, since the leased file is renamed on every renewal
+            local = Files.createTempFile("qrgen-" + ChunkQueue.baseName(chunk) + "-", chunk.substring(chunk.lastIndexOf('.')));
+            Files.copy(claimed.getPath(), local, StandardCopyOption.REPLACE_EXISTING);
+            List<String> written = Collections.synchronizedList(new ArrayList<>());
+            Path chunkDir = outputDir.resolve(ChunkQueue.baseName(chunk));
+            BatchReport report = planner.run(local, spec, chunkDir.toString(),
+                    (payload, file) -> written.add(payload + "\t" + file.getFileName()));
+
+            renewal.cancel(false);
+            ChunkLease lease = keeper.stop();
+            if (lease == null) {
+                log.warn("Lease of {} was lost while it was processed; it will be processed again", chunk);
+                return;
+            }
+            List<String> manifest = new ArrayList<>(written.size() + report.getFailures().size() + 3);
+            manifest.add("# chunk=" + chunk + ", worker=" + workerId + ", output=" + chunkDir);
+            manifest.add("# " + report);
+            report.getFailures().forEach(failure -> manifest.add("# failed: " + failure));
+            synchronized (written) {
+                written.stream().sorted().forEach(manifest::add);
+            }
+            if (queue.complete(lease, manifest)) {
+                chunks.incrementAndGet();
+                failures.addAndGet(report.getFailed());
+                log.info("{} done in {} ms: {}", chunk, (System.nanoTime() - start) / 1_000_000, report);
+            } else {
+                log.warn("Lease of {} expired before it was completed; it will be processed again", chunk);
+            }
+        } catch (QRException | ConfigExeption | IOException e) {
+            renewal.cancel(false);
+            ChunkLease lease = keeper.stop();
+            log.error("{} failed: {}", chunk, e.getMessage());
+            if (lease != null) {
+                queue.release(lease);
+            }
+        } finally {
+            if (local != null) {
+                Files.deleteIfExists(local);
+            }
+        }
+    }
+
+    /**
+     * Holds the current lease of a chunk and renews it; renewals stop once the chunk is finished.
+     */
+    private final class LeaseKeeper {
+
+        /**
+         * The current lease, or null once it was lost.
+         */
+        private ChunkLease lease;
+        /**
+         * Whether the chunk is finished, so no more renewals may happen.
+         */
+        private boolean stopped;
+
+        /**
+         * Creates a keeper.
+         *
+         * @param lease the fresh lease.
+         */
+        LeaseKeeper(ChunkLease lease) {
+            this.lease = lease;
+        }
+
+        /**
+         * Extends the lease; runs on the renewer thread.
+         */
+        synchronized void renew() {
+            if (stopped || lease == null) {
+                return;
+            }
+            try {
+                ChunkLease renewed = queue.renew(lease, leaseMillis);
+                if (renewed == null) {
+                    log.warn("Lost lease of {}", lease.getChunk());
+                }
+                lease = renewed;
+            } catch (IOException e) {
+                // try again at the next period; the lease stays valid until it expires
+                log.warn("Failed to renew lease of {}: {}", lease.getChunk(), e.getMessage());
+            }
+        }
+
+        /**
+         * Stops renewing.
+         *
+         * @return the current lease, or null if it was lost.
+         */
+        synchronized ChunkLease stop() {
+            stopped = true;
+            return lease;
+        }
+    }
+}
@@ -0,0 +1,426 @@
+package gr.omaro.qr_generator.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Watches a folder and hands every new or changed file to a processor once it has been written.
+ * <p>
+ * Changes are reported by a {@link WatchService}. A file is processed after its size and
+ * modification time have stayed the same for the debounce interval, so files that are still
+ * being copied in are not read half written. Each processed file gets a marker in
+ * {@value #MARKER_DIRECTORY} holding the size and modification time it had; files whose marker
+ * matches are skipped, also after a restart, and files that arrived while nothing was watching
+ * are picked up by the scan at {@link #start()}. Sub-folders are not watched.
+ */
+@Slf4j
+public class HotFolderWatcher implements AutoCloseable {
+
+    /**
+     * Folder inside the watched folder that holds the processed markers.
+     */
+    public static final String MARKER_DIRECTORY = ".qrgen-processed";
+
+    /**
+     * The watched folder.
+     */
+    private final Path directory;
+    /**
+     * Folder of the processed markers.
+     */
+    private final Path markerDirectory;
+    /**
+     * Time a file must stay unchanged before it is processed, in milliseconds.
+     */
+    private final long debounceMillis;
+    /**
+     * Selects the files to process.
+     */
+    private final Predicate<Path> filter;
+    /**
+     * Handles a settled file.
+     */
+    private final FileProcessor processor;
+    /**
+     * Runs the settle checks.
+     */
+    private final ScheduledExecutorService timer;
+    /**
+     * Runs the processor.
+     */
+    private final ExecutorService workers;
+    /**
+     * Files waiting to settle, with the attributes seen at their last change.
+     */
+    private final Map<Path, Pending> pending = new HashMap<>();
+    /**
+     * Files being processed.
+     */
+    private final Set<Path> running = new HashSet<>();
+    /**
+     * The watch service, null until started.
+     */
+    private WatchService watchService;
+
+    /**
+     * Creates a watcher; nothing happens until {@link #start()}.
+     *
+     * @param directory      folder to watch.
+     * @param debounceMillis time a file must stay unchanged before it is processed (must be >= 0).
+     * @param workers        number of files processed at once (must be > 0).
+     * @param filter         selects the files to process, given their path.
+     * @param processor      handles each settled file.
+     */
+    public HotFolderWatcher(Path directory, long debounceMillis, int workers, Predicate<Path> filter, FileProcessor processor) {
+        if (debounceMillis < 0) {
+            throw new IllegalArgumentException("Debounce must be >= 0");
+        }
+        if (workers <= 0) {
+            throw new IllegalArgumentException("Workers must be > 0");
+        }
+        this.directory = directory.toAbsolutePath().normalize();
+        this.markerDirectory = this.directory.resolve(MARKER_DIRECTORY);
+        this.debounceMillis = debounceMillis;
+        this.filter = filter;
+        this.processor = processor;
+        this.timer = Executors.newSingleThreadScheduledExecutor(runnable -> daemon(runnable, "hot-folder-debounce"));
+        this.workers = Executors.newFixedThreadPool(workers, runnable -> daemon(runnable, "hot-folder-worker"));
+    }
+
+    /**
+     * Starts watching and queues the files that are not processed yet.
+     *
+     * @throws IOException if the folder cannot be watched.
+     */
+    public synchronized void start() throws IOException {
+        if (watchService != null) {
+            return;
+        }
+        Files.createDirectories(markerDirectory);
+        WatchService service = directory.getFileSystem().newWatchService();
+        directory.register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        watchService = service;
+        // register before scanning so that nothing written in between is missed
+        scan();
+        Thread thread = daemon(() -> watch(service), "hot-folder-watch");
+        thread.start();
+        log.info("Watching {} for new files.", directory);
+    }
+
+    /**
+     * Stops watching and waits for the files being processed to finish.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (watchService != null) {
+                try {
+                    watchService.close();
+                } catch (IOException e) {
+                    log.debug("Failed to close folder watch service", e);
+                }
+                watchService = null;
+            }
+        }
+        timer.shutdownNow();
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(1, TimeUnit.MINUTES)) {
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Watcher loop: turns change events into settle checks.
+     *
+     * @param service the watch service.
+     */
+    private void watch(WatchService service) {
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                boolean overflow = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        overflow = true;
+                    } else {
+                        changed(directory.resolve((Path) event.context()));
+                    }
+                }
+                if (!key.reset()) {
+                    log.warn("Watched folder {} is no longer accessible, stopped watching.", directory);
+                    return;
+                }
+                if (overflow) {
+                    // events were lost, so look at every file again
+                    scan();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // close was called
+        }
+    }
+
+    /**
+     * Queues every file of the folder that has not been processed in its current state.
+     */
+    private void scan() {
+        try (Stream<Path> files = Files.list(directory)) {
+            files.sorted().forEach(this::changed);
+        } catch (IOException e) {
+            log.warn("Failed to list {}: {}", directory, e.getMessage());
+        }
+    }
+
+    /**
+     * Records a change of a file and (re)starts its settle timer.
+     *
+     * @param file the changed file.
+     */
+    private void changed(Path file) {
+        String name = file.getFileName().toString();
+        // hidden files include the marker folder and the temporary files of many copy tools
+        if (name.startsWith(".") || name.endsWith(".tmp") || name.endsWith(".part") || name.endsWith("~")
+                || !filter.test(file)) {
+            return;
+        }
+        BasicFileAttributes attributes = attributes(file);
+        if (attributes == null || !attributes.isRegularFile()) {
+            return;
+        }
+        synchronized (pending) {
+            Pending previous = pending.get(file);
+            if (previous != null) {
+                previous.check.cancel(false);
+            } else if (!running.contains(file) && isProcessed(file, attributes)) {
+                return;
+            }
+            pending.put(file, new Pending(attributes, schedule(file)));
+        }
+    }
+
+    /**
+     * Schedules the settle check of a file.
+     *
+     * @param file the file.
+     * @return the scheduled check.
+     */
+    private ScheduledFuture<?> schedule(Path file) {
+        return timer.schedule(() -> settle(file), debounceMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Processes a file if it has not changed since its last event, otherwise waits again.
+     *
+     * @param file the file.
+     */
+    private void settle(Path file) {
+        BasicFileAttributes attributes = attributes(file);
+        synchronized (pending) {
+            Pending entry = pending.get(file);
+            if (entry == null) {
+                return;
+            }
+            if (attributes == null) {
+                // deleted or renamed before it settled
+                pending.remove(file);
+                return;
+            }
+            if (running.contains(file) || !sameState(entry.attributes, attributes)) {
+                // still being written, or an older version is still being processed
+                pending.put(file, new Pending(attributes, schedule(file)));
+                return;
+            }
+            pending.remove(file);
+            if (isProcessed(file, attributes)) {
+                return;
+            }
+            running.add(file);
+        }
+        workers.execute(() -> process(file, attributes));
+    }
+
+    /**
+     * Runs the processor on a settled file and marks it as processed if it succeeds.
+     * <p>
+     * A failed file is not marked, so it is tried again when it changes or on the next start.
+     *
+     * @param file       the file.
+     * @param attributes its attributes when it settled.
+     */
+    private void process(Path file, BasicFileAttributes attributes) {
+        long start = System.nanoTime();
+        try {
+            processor.process(file);
+            writeMarker(file, attributes);
+            log.info("Processed {} in {} ms", file.getFileName(), (System.nanoTime() - start) / 1_000_000);
+        } catch (Exception e) {
+            log.error("Failed to process {}: {}", file.getFileName(), e.getMessage());
+        } finally {
+            synchronized (pending) {
+                running.remove(file);
+            }
+        }
+    }
+
+    /**
+     * Tells whether a file was already processed in its current state.
+     *
+     * @param file       the file.
+     * @param attributes its current attributes.
+     * @return true if its marker records the same size and modification time.
+     */
+    private boolean isProcessed(Path file, BasicFileAttributes attributes) {
+        try {
+            String marker = Files.readString(markerFor(file), StandardCharsets.UTF_8).strip();
+            return marker.equals(markerText(attributes));
+        } catch (NoSuchFileException e) {
+            return false;
+        } catch (IOException e) {
+            log.debug("Failed to read marker of {}", file, e);
+            return false;
+        }
+    }
+
+    /**
+     * Records that a file was processed in the given state.
+     *
+     * @param file       the file.
+     * @param attributes its attributes when it was processed.
+     * @throws IOException if the marker cannot be written.
+     */
+    private void writeMarker(Path file, BasicFileAttributes attributes) throws IOException {
+        Path marker = markerFor(file);
+        Path temporary = markerDirectory.resolve(marker.getFileName() + ".tmp");
+        Files.writeString(temporary, markerText(attributes), StandardCharsets.UTF_8);
+        Files.move(temporary, marker, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Returns the marker path of a file.
+     *
+     * @param file the file.
+     * @return path inside the marker folder.
+     */
+    private Path markerFor(Path file) {
+        return markerDirectory.resolve(file.getFileName().toString());
+    }
+
+    /**
+     * Formats the state recorded in a marker.
+     *
+     * @param attributes the file attributes.
+     * @return size and modification time in milliseconds.
+     */
+    private static String markerText(BasicFileAttributes attributes) {
+        return attributes.size() + " " + attributes.lastModifiedTime().toMillis();
+    }
+
+    /**
+     * Compares the size and modification time of two snapshots of a file.
+     *
+     * @param a first snapshot.
+     * @param b second snapshot.
+     * @return true if both are the same.
+     */
+    private static boolean sameState(BasicFileAttributes a, BasicFileAttributes b) {
+        return a.size() == b.size() && a.lastModifiedTime().equals(b.lastModifiedTime());
+    }
+
+    /**
+     * Reads the attributes of a file.
+     *
+     * @param file the file.
+     * @return the attributes, or null if the file is gone.
+     */
+    private static BasicFileAttributes attributes(Path file) {
+        try {
+            return Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Creates a daemon thread.
+     *
+     * @param runnable the task.
+     * @param name     thread name.
+     * @return the unstarted thread.
+     */
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    /**
+     * A file waiting to settle.
+     */
+    private static final class Pending {
+
+        /**
+         * Attributes seen at the last change.
+         */
+        final BasicFileAttributes attributes;
+        /**
+         * The scheduled settle check.
+         */
+        final ScheduledFuture<?> check;
+
+        /**
+         * Creates an entry.
+         *
+         * @param attributes attributes seen at the last change.
+         * @param check      the scheduled settle check.
+         */
+        Pending(BasicFileAttributes attributes, ScheduledFuture<?> check) {
+            this.attributes = attributes;
+            this.check = check;
+        }
+    }
+
+    /**
+     * Handles a file that has finished arriving in the watched folder.
+     */
+    @FunctionalInterface
+    public interface FileProcessor {
+
+        /**
+         * Processes the file.
+         *
+         * @param file the file.
+         * @throws Exception if processing fails; the file is then not marked as processed.
+         */
+        void process(Path file) throws Exception;
+    }
+}
@@ -0,0 +1,371 @@
+package gr.omaro.qr_generator.service;
+
+import gr.omaro.qr_generator.exception.QRException;
+import gr.omaro.qr_generator.model.GenerationRequest;
+import gr.omaro.qr_generator.model.GenerationResult;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * {@link Flow.Processor} that generates a code for every request it receives.
+ * <p>
+ * Requests are pulled from the upstream publisher only as fast as the subscriber asks for
+ * results: at any time at most {@code min(demand, parallelism)} requests are taken and not yet
+ * delivered, so nothing queues up when the subscriber is slow. Each request runs on the executor;
+ * results are delivered in the order they finish, so callers match them to requests by
+ * {@link GenerationRequest#getId()}. A failed code is reported in its result and does not end
+ * the stream. Completion or an error of the upstream is passed on once every taken request has
+ * been delivered.
+ * <p>
+ * A processor serves one upstream and one subscriber; see
+ * {@link QRService#generateAll(Flow.Publisher, int)} for the usual way to connect it.
+ */
+@Slf4j
+public class QRGenerationProcessor implements Flow.Processor<GenerationRequest, GenerationResult> {
+
+    /**
+     * Service generating each code.
+     */
+    private final QRService qrService;
+    /**
+     * Runs the generation of each request.
+     */
+    private final Executor executor;
+    /**
+     * Pool created by this processor, shut down when the stream ends; null for a caller's executor.
+     */
+    private final ExecutorService ownPool;
+    /**
+     * Largest number of requests taken from the upstream and not yet delivered.
+     */
+    private final int parallelism;
+
+    /**
+     * Subscription to the request publisher.
+     */
+    private final AtomicReference<Flow.Subscription> upstream = new AtomicReference<>();
+    /**
+     * The result subscriber.
+     */
+    private final AtomicReference<Flow.Subscriber<? super GenerationResult>> downstream = new AtomicReference<>();
+    /**
+     * Finished results waiting to be delivered.
+     */
+    private final ConcurrentLinkedQueue<GenerationResult> ready = new ConcurrentLinkedQueue<>();
+    /**
+     * Results requested by the subscriber and not yet delivered; {@link Long#MAX_VALUE} means unbounded.
+     */
+    private final AtomicLong demand = new AtomicLong();
+    /**
+     * Number of requests received from the upstream.
+     */
+    private final AtomicLong received = new AtomicLong();
+    /**
+     * Number of drain requests; the thread that raises it from zero runs the drain loop.
+     */
+    private final AtomicInteger drainRequests = new AtomicInteger();
+    /**
+     * Set when the upstream has completed or failed.
+     */
+    private volatile boolean upstreamDone;
+    /**
+     * Error of the upstream; null if none.
+     */
+    private volatile Throwable failure;
+    /**
+     * Error for an invalid {@code request(n)} of the subscriber; null if none.
+     */
+    private volatile Throwable invalidRequest;
+    /**
+     * Set when the subscriber has cancelled.
+     */
+    private volatile boolean cancelled;
+
+    /**
+     * Number of requests asked from the upstream; only touched by the drain loop.
+     */
+    private long requested;
+    /**
+     * Number of results delivered; only touched by the drain loop.
+     */
+    private long delivered;
+    /**
+     * Set once the subscriber got its final signal; only touched by the drain loop.
+     */
+    private boolean terminated;
+
+    /**
+     * Creates a processor running on its own pool of {@code parallelism} threads.
+     *
+     * @param qrService   service generating each code.
+     * @param parallelism number of codes generated at once (must be > 0).
+     */
+    public QRGenerationProcessor(QRService qrService, int parallelism) {
+        this(qrService, null, parallelism);
+    }
+
+    /**
+     * Creates a processor running on a caller's executor.
+     *
+     * @param qrService   service generating each code.
+     * @param executor    runs the generation; null for an own pool of {@code parallelism} threads.
+     * @param parallelism largest number of requests in progress (must be > 0).
+     */
+    public QRGenerationProcessor(QRService qrService, Executor executor, int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be > 0");
+        }
+        this.qrService = qrService;
+        this.parallelism = parallelism;
+        if (executor == null) {
+            ownPool = Executors.newFixedThreadPool(parallelism, runnable -> {
+                Thread thread = new Thread(runnable, "qr-flow-worker");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.executor = ownPool;
+        } else {
+            ownPool = null;
+            this.executor = executor;
+        }
+    }
+
+    /**
+     * Connects the result subscriber; a second subscriber is rejected with an error.
+     *
+     * @param subscriber the subscriber.
+     */
+    @Override
+    public void subscribe(Flow.Subscriber<? super GenerationResult> subscriber) {
+        Objects.requireNonNull(subscriber, "subscriber");
+        if (!downstream.compareAndSet(null, subscriber)) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+            subscriber.onError(new IllegalStateException("QRGenerationProcessor supports a single subscriber"));
+            return;
+        }
+        subscriber.onSubscribe(new ResultSubscription());
+        drain();
+    }
+
+    /**
+     * Receives the subscription of the request publisher; a second one is cancelled.
+     *
+     * @param subscription the subscription.
+     */
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        Objects.requireNonNull(subscription, "subscription");
+        if (!upstream.compareAndSet(null, subscription)) {
+            subscription.cancel();
+            return;
+        }
+        drain();
+    }
+
+    /**
+     * Starts generating a request.
+     *
+     * @param request the request.
+     */
+    @Override
+    public void onNext(GenerationRequest request) {
+        Objects.requireNonNull(request, "request");
+        received.incrementAndGet();
+        if (cancelled) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                ready.offer(generate(request));
+                drain();
+            });
+        } catch (RejectedExecutionException e) {
+            ready.offer(new GenerationResult(request, null, null, 0, "Generation was rejected: " + e.getMessage()));
+            drain();
+        }
+    }
+
+    /**
+     * Records a failure of the request publisher; it is passed on after the pending results.
+     *
+     * @param throwable the failure.
+     */
+    @Override
+    public void onError(Throwable throwable) {
+        failure = Objects.requireNonNull(throwable, "throwable");
+        upstreamDone = true;
+        drain();
+    }
+
+    /**
+     * Records the end of the requests; completion is passed on after the pending results.
+     */
+    @Override
+    public void onComplete() {
+        upstreamDone = true;
+        drain();
+    }
+
+    /**
+     * Generates one code.
+     *
+     * @param request the request.
+     * @return the result, carrying the error message if generation failed.
+     */
+    private GenerationResult generate(GenerationRequest request) {
+        long start = System.nanoTime();
+        try {
+            if (request.getInput() == null || request.getSpec() == null) {
+                throw new QRException("Input and spec must not be null.");
+            }
+            if (request.getPath() != null) {
+                qrService.generateToFile(request.getInput(), request.getSpec(), request.getPath());
+                return new GenerationResult(request, null, request.getPath(), System.nanoTime() - start, null);
+            }
+            byte[] png = qrService.generatePng(request.getInput(), request.getSpec());
+            return new GenerationResult(request, png, null, System.nanoTime() - start, null);
+        } catch (QRException | RuntimeException e) {
+            String message = e.getCause() != null && e.getCause().getMessage() != null
+                    ? e.getMessage() + ": " + e.getCause().getMessage()
+                    : e.getMessage();
+            return new GenerationResult(request, null, null, System.nanoTime() - start, message);
+        }
+    }
+
+    /**
+     * Delivers ready results, asks the upstream for more and passes on the final signal.
+     * <p>
+     * Only one thread runs the loop at a time, so all signals to the subscriber and all calls on
+     * the upstream subscription are serialized; calls made meanwhile make the running thread loop again.
+     */
+    private void drain() {
+        if (drainRequests.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            Flow.Subscriber<? super GenerationResult> subscriber = downstream.get();
+            if (subscriber != null && !terminated) {
+                if (cancelled) {
+                    terminate();
+                    ready.clear();
+                } else {
+                    deliver(subscriber);
+                }
+            }
+            missed = drainRequests.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    /**
+     * One pass of the drain loop for a subscriber that has not cancelled.
+     *
+     * @param subscriber the subscriber.
+     */
+    private void deliver(Flow.Subscriber<? super GenerationResult> subscriber) {
+        GenerationResult result;
+        while (!cancelled && demand.get() > 0 && (result = ready.poll()) != null) {
+            delivered++;
+            if (demand.get() != Long.MAX_VALUE) {
+                demand.decrementAndGet();
+            }
+            try {
+                subscriber.onNext(result);
+            } catch (RuntimeException e) {
+                log.warn("Result subscriber failed, cancelling: {}", e.getMessage());
+                cancelled = true;
+            }
+        }
+        if (cancelled) {
+            terminate();
+            return;
+        }
+        if (invalidRequest != null) {
+            terminate();
+            subscriber.onError(invalidRequest);
+            return;
+        }
+        if (upstreamDone) {
+            if (delivered == received.get()) {
+                terminate();
+                if (failure != null) {
+                    subscriber.onError(failure);
+                } else {
+                    subscriber.onComplete();
+                }
+            }
+            return;
+        }
+        Flow.Subscription subscription = upstream.get();
+        if (subscription != null) {
+            long inProgress = requested - delivered;
+            long more = Math.min(demand.get(), parallelism) - inProgress;
+            if (more > 0) {
+                requested += more;
+                subscription.request(more);
+            }
+        }
+    }
+
+    /**
+     * Ends the stream: cancels the upstream unless it already finished and releases the own pool.
+     */
+    private void terminate() {
+        terminated = true;
+        Flow.Subscription subscription = upstream.get();
+        if (subscription != null && !upstreamDone) {
+            subscription.cancel();
+        }
+        if (ownPool != null) {
+            ownPool.shutdown();
+        }
+    }
+
+    /**
+     * Subscription handed to the result subscriber.
+     */
+    private final class ResultSubscription implements Flow.Subscription {
+
+        /**
+         * Adds to the demand for results.
+         *
+         * @param n number of results (must be > 0).
+         */
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                invalidRequest = new IllegalArgumentException("request must be > 0, was " + n);
+            } else {
+                demand.getAndUpdate(current -> current + n < 0 ? Long.MAX_VALUE : current + n);
+            }
+            drain();
+        }
+
+        /**
+         * Stops the stream; requests in progress are dropped.
+         */
+        @Override
+        public void cancel() {
+            cancelled = true;
+            drain();
+        }
+    }
+}
@@ -0,0 +1,591 @@
+package gr.omaro.qr_generator.service;
+
+import com.google.zxing.WriterException;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.encoder.ByteMatrix;
+import gr.omaro.qr_generator.enums.ImageFormat;
+import gr.omaro.qr_generator.exception.ConfigExeption;
+import gr.omaro.qr_generator.exception.QRException;
+import gr.omaro.qr_generator.jfr.ConfigEvent;
+import gr.omaro.qr_generator.jfr.GenerationEvent;
+import gr.omaro.qr_generator.model.GenerationRequest;
+import gr.omaro.qr_generator.model.GenerationResult;
+import gr.omaro.qr_generator.model.QRSpec;
+import gr.omaro.qr_generator.model.RenderedFile;
+import gr.omaro.qr_generator.util.ConfigUtil;
+import gr.omaro.qr_generator.util.QRCodeGenerator;
+import gr.omaro.qr_generator.util.StreamingPngWriter;
+import gr.omaro.qr_generator.util.StructuredAppendEncoder;
+import gr.omaro.qr_generator.util.SymbolOptimizer;
+
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Flow;
+import java.util.regex.Pattern;
+
+/**
+ * Service class for generating QR code images.
+ * <p>
+ * This class uses {@link ConfigUtil} for configuration and {@link QRCodeGenerator}
+ * to generate QR code images.
+ */
+public class QRService {
+
+    /**
+     * Id characters a short link is assumed to add to its base; 6 base-62 digits cover 56 billion URLs.
+     */
+    private static final int SHORT_ID_LENGTH = 6;
+    /**
+     * Inputs that may be replaced by a short link: single-line http(s) URLs.
+     */
+    private static final Pattern SHORTENABLE = Pattern.compile("(?i)https?://\\S+");
+
+    /**
+     * Optional verifier that decodes every generated image in the background.
+     */
+    private final VerificationService verifier;
+    /**
+     * Whether {@link #generateToFile} streams PNGs through off-heap buffers when the spec allows it.
+     */
+    private final boolean offHeap;
+
+    /**
+     * Creates a service without verification.
+     */
+    public QRService() {
+        this(null);
+    }
+
+    /**
+     * Creates a service that hands every generated image to a verifier.
+     *
+     * @param verifier the verifier, or null to skip verification.
+     */
+    public QRService(VerificationService verifier) {
+        this(verifier, false);
+    }
+
+    /**
+     * Creates a service that optionally writes PNGs with {@link StreamingPngWriter}.
+     * <p>
+     * Streaming keeps heap usage flat for very large images; specs it does not support
+     * (other formats, shaped modules, logos) are rendered in memory as usual.
+     *
+     * @param verifier the verifier, or null to skip verification.
+     * @param offHeap  whether to stream supported specs through off-heap buffers.
+     */
+    public QRService(VerificationService verifier, boolean offHeap) {
+        this.verifier = verifier;
+        this.offHeap = offHeap;
+    }
+
+    /**
+     * Initializes the configuration and ensures the output directory exists.
+     *
+     * @return the configured output directory path.
+     * @throws ConfigExeption if configuration fails or output directory can't be created.
+     */
+    private String checkConfigOutputPath() throws ConfigExeption {
+        ConfigUtil.initialize();
+        String outputDir = ConfigUtil.getOutputPath();
+
+        try {
+            Files.createDirectories(Paths.get(outputDir));
+        } catch (IOException e) {
+            throw new ConfigExeption("Failed to create output directory: " + outputDir, e);
+        }
+
+        return outputDir;
+    }
+
+    /**
+     * Generates a QR code image with default size and config output path.
+     * <p>
+     * If the file name should use UUID (based on config), a random name will be used.
+     *
+     * @param input the text or URL to encode in the QR code.
+     * @return the full path of the generated QR image file.
+     * @throws QRException      if QR code generation fails.
+     * @throws ConfigExeption   if configuration loading fails.
+     */
+    public String generate(String input) throws QRException, ConfigExeption {
+        String outputDir = resolveOutputDir(null);
+        // if uuid is enabled on properties
+        String fileName = ConfigUtil.useUuidFileName()
+                ? UUID.randomUUID() + ".png"
+                : sanitizeFileName(input);
+        String fullPath = buildFullPath(outputDir, fileName);
+        generateToFile(input, QRSpec.builder().build(), fullPath);
+        return fullPath;
+    }
+
+    /**
+     * Generates a QR code image with custom dimensions and output path.
+     *
+     * @param input      the text or URL to encode.
+     * @param width      desired width of the QR image.
+     * @param height     desired height of the QR image.
+     * @param outputPath optional output path; if null/blank, config path is used.
+     * @return full path of the generated QR code image.
+     * @throws QRException     if QR code generation fails.
+     * @throws ConfigExeption  if configuration fails or output directory can't be created.
+     */
+    public String generate(String input, int width, int height, String outputPath)
+            throws QRException, ConfigExeption {
+        return generate(input, QRSpec.of(width, height), outputPath);
+    }
+
+    /**
+     * Generates a QR code image with custom rendering options and output path.
+     *
+     * @param input      the text or URL to encode.
+     * @param spec       size, error correction and optional style.
+     * @param outputPath optional output path; if null/blank, config path is used.
+     * @return full path of the generated QR code image.
+     * @throws QRException     if QR code generation fails.
+     * @throws ConfigExeption  if configuration fails or output directory can't be created.
+     */
+    public String generate(String input, QRSpec spec, String outputPath) throws QRException, ConfigExeption {
+        String outputDir = resolveOutputDir(outputPath);
+        String fullPath = buildFullPath(outputDir, sanitizeFileName(input));
+        generateToFile(input, spec, fullPath);
+        return fullPath;
+    }
+
+    /**
+     * Generates a QR code image for the given spec and writes it to an exact file path.
+     * <p>
+     * This is the building block used by batch jobs, which decide file names themselves.
+     * If a verifier is set, the in-memory image is queued for decoding after it is written.
+     *
+     * @param input    the text or URL to encode.
+     * @param spec     rendering options such as size and style.
+     * @param fullPath the file the image is written to.
+     * @throws QRException if the input is not supported or blank, the size is not positive, or
+     *                     QR code generation fails; no file is written then.
+     */
+    public void generateToFile(String input, QRSpec spec, String fullPath) throws QRException {
+        if (input.startsWith("file:")) {
+            throw new QRException("Local file paths are not supported. Please use a public URL.");
+        }
+        if (input.isBlank() || spec.getWidth() <= 0 || spec.getHeight() <= 0) {
+            throw new QRException("Input must not be blank and the size must be positive.");
+        }
+        String content = content(input);
+        spec = planned(content, spec);
+        GenerationEvent event = new GenerationEvent();
+        event.begin();
+        boolean streamed = offHeap && StreamingPngWriter.supports(spec);
+        boolean written = false;
+        try {
+            if (streamed) {
+                streamToFile(content, spec, fullPath);
+                written = true;
+                return;
+            }
+            BufferedImage image = QRCodeGenerator.renderQRCodeImage(content, spec);
+            if (image == null) {
+                throw new QRException("Input must not be blank and the size must be positive.");
+            }
+            QRCodeGenerator.writeImage(image, fullPath);
+            written = true;
+            if (verifier != null) {
+                verifier.submit(image, content, fullPath, spec.getFormat());
+            }
+        } catch (IOException | WriterException e) {
+            throw new QRException("Error during generating QR Code.", e);
+        } finally {
+            commitGeneration(event, content, spec, fullPath, -1, streamed, written);
+        }
+    }
+
+    /**
+     * Returns the text to encode for an input: a short link for long http(s) URLs when
+     * {@code shortlink.base.url} is configured, otherwise the input itself.
+     * <p>
+     * The long URL is stored in the {@link ShortLinkStore} at {@code shortlink.store.path}; the
+     * same URL always maps to the same link. A URL that is not longer than a short link would
+     * be, or that already points at the base, is encoded as is.
+     *
+     * @param input the text or URL to encode.
+     * @return the text to put in the symbol.
+     * @throws QRException if the configuration or the store cannot be read or written.
+     */
+    private String content(String input) throws QRException {
+        try {
+            ConfigUtil.initialize();
+        } catch (ConfigExeption e) {
+            throw new QRException("Failed to load configuration: " + e.getMessage(), e);
+        }
+        String base = ConfigUtil.getShortLinkBaseUrl();
+        if (base == null || input.startsWith(base) || input.length() <= base.length() + SHORT_ID_LENGTH
+                || !SHORTENABLE.matcher(input).matches()) {
+            return input;
+        }
+        try {
+            return base + ShortLinkStore.shared(Paths.get(ConfigUtil.getShortLinkStorePath())).shorten(input);
+        } catch (IOException e) {
+            throw new QRException("Failed to store short link: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Applies the {@link SymbolOptimizer} to a spec that asks for automatic error correction.
+     *
+     * @param content the text to encode.
+     * @param spec    the requested spec.
+     * @return the spec with the chosen level and snapped size, or the spec itself.
+     * @throws QRException if the content does not fit the version budget.
+     */
+    private static QRSpec planned(String content, QRSpec spec) throws QRException {
+        if (!spec.isAutoErrorCorrection() || !spec.isQRCode() || content.isBlank()) {
+            return spec;
+        }
+        try {
+            return SymbolOptimizer.plan(content, spec, spec.getMaxVersion()).applyTo(spec);
+        } catch (WriterException e) {
+            throw new QRException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Ends and records a generation event if the recording wants it.
+     *
+     * @param event    the started event.
+     * @param input    the encoded text.
+     * @param spec     the rendering options.
+     * @param fullPath the written file, or null for an in-memory image.
+     * @param bytes    size of the image, or -1 to read it from the file.
+     * @param offHeap  whether the image was streamed through off-heap buffers.
+     * @param success  whether the code was generated.
+     */
+    private static void commitGeneration(GenerationEvent event, String input, QRSpec spec, String fullPath,
+                                         long bytes, boolean offHeap, boolean success) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.inputLength = input.length();
+            event.format = spec.getFormat().name();
+            event.width = spec.getWidth();
+            event.height = spec.getHeight();
+            event.styled = spec.getStyle() != null;
+            event.offHeap = offHeap;
+            event.path = fullPath;
+            event.success = success;
+            if (success) {
+                try {
+                    event.bytesWritten = bytes >= 0 ? bytes : Files.size(Paths.get(fullPath));
+                } catch (IOException e) {
+                    // the file is gone already; keep the event without a size
+                }
+            }
+            event.commit();
+        }
+    }
+
+    /**
+     * Encodes a QR code and streams it to a PNG file without rendering it in memory.
+     * <p>
+     * The file is not read back for verification; a compact rendering of the same modules
+     * (4 pixels per module) is verified instead.
+     *
+     * @param input    the text or URL to encode.
+     * @param spec     a spec supported by {@link StreamingPngWriter}.
+     * @param fullPath the file the image is written to.
+     * @throws WriterException if the QR code cannot be created.
+     * @throws IOException     if the file cannot be written.
+     */
+    private void streamToFile(String input, QRSpec spec, String fullPath) throws WriterException, IOException {
+        if (input.isBlank() || spec.getWidth() <= 0 || spec.getHeight() <= 0) {
+            return;
+        }
+        ByteMatrix modules = QRCodeGenerator.encodeModules(input, spec);
+        StreamingPngWriter.write(modules, spec, Paths.get(fullPath));
+        if (verifier != null) {
+            int compact = (modules.getWidth() + 8) * 4;
+            QRSpec preview = spec.toBuilder().width(compact).height(compact).build();
+            verifier.submit(QRCodeGenerator.renderModules(modules, preview), input, fullPath, spec.getFormat());
+        }
+    }
+
+    /**
+     * Generates the same code at several sizes and in several file formats from a single encode.
+     * <p>
+     * The QR module matrix is computed once and rendered for every size in parallel; each rendered
+     * size is then written in every requested format as {@code name-WxH.ext}. Other barcode
+     * formats are encoded by their writer once per size, since ZXing scales them while encoding.
+     *
+     * @param input      the text or URL to encode.
+     * @param spec       format, error correction and optional style; its size is ignored.
+     * @param sizes      image sizes to render; a repeated size is rendered once.
+     * @param formats    file formats to write every size in.
+     * @param outputPath optional output path; if null/blank, config path is used.
+     * @return the written files, grouped by size in the order requested.
+     * @throws QRException     if QR code generation fails.
+     * @throws ConfigExeption  if configuration fails or output directory can't be created.
+     */
+    public List<RenderedFile> generateSizes(String input, QRSpec spec, List<Dimension> sizes,
+                                            Set<ImageFormat> formats, String outputPath)
+            throws QRException, ConfigExeption {
+        String outputDir = resolveOutputDir(outputPath);
+        if (input.startsWith("file:")) {
+            throw new QRException("Local file paths are not supported. Please use a public URL.");
+        }
+        if (input.isBlank() || sizes.isEmpty() || formats.isEmpty()) {
+            throw new QRException("Input, sizes and formats must not be empty.");
+        }
+        // two jobs of the same size would write the same files concurrently
+        sizes = new ArrayList<>(new LinkedHashSet<>(sizes));
+        String baseName = sanitizeFileName(input).replaceFirst("\\.png$", "");
+        String content = content(input);
+        if (spec.isAutoErrorCorrection() && spec.isQRCode()) {
+            // the level has to fit the smallest size; the requested sizes are kept
+            Dimension smallest = sizes.stream().min(Comparator.comparingInt(d -> Math.min(d.width, d.height))).orElseThrow();
+            QRSpec planned = planned(content, spec.toBuilder().width(smallest.width).height(smallest.height).build());
+            spec = spec.toBuilder().errorCorrection(planned.getErrorCorrection()).autoErrorCorrection(false).build();
+        }
+        try {
+            ByteMatrix modules = spec.isQRCode() ? QRCodeGenerator.encodeModules(content, spec) : null;
+            List<CompletableFuture<List<RenderedFile>>> jobs = new ArrayList<>(sizes.size());
+            for (Dimension size : sizes) {
+                QRSpec sized = spec.toBuilder().width(size.width).height(size.height).build();
+                jobs.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return writeSize(content, modules, sized, formats, outputDir, baseName);
+                    } catch (IOException | WriterException e) {
+                        throw new CompletionException(e);
+                    }
+                }));
+            }
+            List<RenderedFile> files = new ArrayList<>();
+            for (CompletableFuture<List<RenderedFile>> job : jobs) {
+                files.addAll(job.join());
+            }
+            return files;
+        } catch (WriterException e) {
+            throw new QRException("Error during generating QR Code: " + e.getMessage(), e);
+        } catch (CompletionException e) {
+            throw new QRException("Error during generating QR Code: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * Renders one size and writes it in every format.
+     *
+     * @param input     the text or URL to encode.
+     * @param modules   the encoded QR modules, or null for other barcode formats.
+     * @param spec      the spec of this size.
+     * @param formats   file formats to write.
+     * @param outputDir the output directory.
+     * @param baseName  file name without extension.
+     * @return the written files.
+     * @throws IOException     if a file or the logo cannot be read or written.
+     * @throws WriterException if a non-QR code cannot be encoded.
+     */
+    private List<RenderedFile> writeSize(String input, ByteMatrix modules, QRSpec spec, Set<ImageFormat> formats,
+                                         String outputDir, String baseName) throws IOException, WriterException {
+        BufferedImage image = modules != null
+                ? QRCodeGenerator.renderModules(modules, spec)
+                : QRCodeGenerator.renderQRCodeImage(input, spec);
+        List<RenderedFile> files = new ArrayList<>(formats.size());
+        for (ImageFormat format : formats) {
+            String fileName = String.format("%s-%dx%d.%s", baseName, spec.getWidth(), spec.getHeight(), format.getExtension());
+            String fullPath = buildFullPath(outputDir, fileName);
+            QRCodeGenerator.writeImage(image, fullPath, format);
+            files.add(new RenderedFile(spec.getWidth(), spec.getHeight(), format, fullPath));
+        }
+        if (verifier != null) {
+            verifier.submit(image, input, files.get(0).getPath(), spec.getFormat());
+        }
+        return files;
+    }
+
+    /**
+     * Generates a QR code image for the given spec and returns it as PNG bytes.
+     * <p>
+     * Used by callers that stream images instead of saving them, such as the CLI co-process mode.
+     *
+     * @param input the text or URL to encode.
+     * @param spec  rendering options such as size and style.
+     * @return the PNG file contents.
+     * @throws QRException if the input is not supported or QR code generation fails.
+     */
+    public byte[] generatePng(String input, QRSpec spec) throws QRException {
+        if (input.startsWith("file:")) {
+            throw new QRException("Local file paths are not supported. Please use a public URL.");
+        }
+        GenerationEvent event = new GenerationEvent();
+        event.begin();
+        String content = content(input);
+        spec = planned(content, spec);
+        byte[] png = null;
+        try {
+            BufferedImage image = QRCodeGenerator.renderQRCodeImage(content, spec);
+            if (image == null) {
+                throw new QRException("Input must not be blank and the size must be positive.");
+            }
+            png = QRCodeGenerator.toPng(image);
+            return png;
+        } catch (IOException | WriterException e) {
+            throw new QRException("Error during generating QR Code.", e);
+        } finally {
+            commitGeneration(event, content, spec, null, png != null ? png.length : 0, false, png != null);
+        }
+    }
+
+    /**
+     * Generates a code for every request of a publisher, as fast as the returned publisher's
+     * subscriber asks for results.
+     * <p>
+     * Requests are taken from {@code requests} only when a result is wanted, at most
+     * {@code parallelism} at a time, and run on a pool of that size. Failures are reported in the
+     * results instead of as exceptions. See {@link QRGenerationProcessor}.
+     *
+     * @param requests    publisher of the codes to generate.
+     * @param parallelism number of codes generated at once (must be > 0).
+     * @return publisher of the results, in the order they finish; supports one subscriber.
+     */
+    public Flow.Publisher<GenerationResult> generateAll(Flow.Publisher<GenerationRequest> requests, int parallelism) {
+        QRGenerationProcessor processor = new QRGenerationProcessor(this, parallelism);
+        requests.subscribe(processor);
+        return processor;
+    }
+
+    /**
+     * Generates a Structured Append sequence for input that is too large for one QR code.
+     * <p>
+     * The input is split over up to 16 symbols no larger than {@code maxVersion}, which scanners
+     * supporting Structured Append join back together. Every symbol uses the spec's size, error
+     * correction level and style. The symbols are written either as a numbered set
+     * ({@code name-01-of-03.png}, ...) or as a single contact sheet image. If a verifier is set,
+     * each symbol is checked against the part of the input it carries.
+     *
+     * @param input        the text or URL to encode.
+     * @param spec         size, error correction and style of each symbol; only QR codes are supported.
+     * @param outputPath   optional output path; if null/blank, config path is used.
+     * @param maxVersion   largest symbol version to use (1..40).
+     * @param contactSheet whether to write one sheet instead of one file per symbol.
+     * @return full paths of the generated images.
+     * @throws QRException     if the spec is not supported or QR code generation fails.
+     * @throws ConfigExeption  if configuration fails or output directory can't be created.
+     */
+    public List<String> generateStructuredAppend(String input, QRSpec spec, String outputPath,
+                                                 int maxVersion, boolean contactSheet)
+            throws QRException, ConfigExeption {
+        if (!spec.isQRCode()) {
+            throw new QRException("Structured Append is only supported for QR codes, not " + spec.getFormat() + ".");
+        }
+        if (spec.isAutoErrorCorrection()) {
+            throw new QRException("Automatic error correction is not supported with Structured Append; use --ecc.");
+        }
+        String outputDir = resolveOutputDir(outputPath);
+
+        if (input.startsWith("file:")) {
+            throw new QRException("Local file paths are not supported. Please use a public URL.");
+        }
+
+        String baseName = sanitizeFileName(input).replaceFirst("\\.png$", "");
+        List<String> paths = new ArrayList<>();
+        try {
+            List<BufferedImage> symbols = QRCodeGenerator.generateStructuredAppend(input, spec, maxVersion);
+            if (contactSheet) {
+                String fullPath = buildFullPath(outputDir, baseName + "-sheet.png");
+                QRCodeGenerator.writeContactSheet(symbols, fullPath);
+                paths.add(fullPath);
+            } else {
+                for (int i = 0; i < symbols.size(); i++) {
+                    String fileName = String.format("%s-%02d-of-%02d.png", baseName, i + 1, symbols.size());
+                    String fullPath = buildFullPath(outputDir, fileName);
+                    QRCodeGenerator.writeImage(symbols.get(i), fullPath);
+                    paths.add(fullPath);
+                }
+            }
+            if (verifier != null) {
+                List<String> parts = StructuredAppendEncoder.split(input, spec.effectiveErrorCorrection(), maxVersion);
+                for (int i = 0; i < symbols.size(); i++) {
+                    String path = contactSheet ? String.format("%s#%d", paths.get(0), i + 1) : paths.get(i);
+                    verifier.submit(symbols.get(i), parts.get(i), path, spec.getFormat());
+                }
+            }
+        } catch (IOException | WriterException | IllegalArgumentException e) {
+            throw new QRException("Error during generating Structured Append QR Codes: " + e.getMessage(), e);
+        }
+        return paths;
+    }
+
+    /**
+     * Returns the directory output files go to, creating it if needed.
+     *
+     * @param outputPath optional output path; if null/blank, config path is used.
+     * @return the output directory.
+     * @throws ConfigExeption if configuration fails or output directory can't be created.
+     */
+    public String resolveOutputDir(String outputPath) throws ConfigExeption {
+        ConfigEvent event = new ConfigEvent();
+        event.begin();
+        boolean fromConfiguration = outputPath == null || outputPath.isBlank();
+        String outputDir;
+        if (fromConfiguration) {
+            outputDir = checkConfigOutputPath();
+        } else {
+            try {
+                Files.createDirectories(Paths.get(outputPath));
+            } catch (IOException e) {
+                throw new ConfigExeption("Failed to create output directory: " + outputPath, e);
+            }
+            outputDir = outputPath;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.outputDir = outputDir;
+            event.fromConfiguration = fromConfiguration;
+            event.commit();
+        }
+        return outputDir;
+    }
+
+    /**
+     * Returns the file name an input is saved under when UUID names are not used.
+     *
+     * @param input the text or URL to encode.
+     * @return sanitized file name ending with .png.
+     */
+    public String fileNameFor(String input) {
+        return sanitizeFileName(input);
+    }
+
+    /**
+     * Joins an output directory and a file name.
+     *
+     * @param outputDir the output directory.
+     * @param fileName  the file name.
+     * @return the full path of the file.
+     */
+    public String buildFullPath(String outputDir, String fileName) {
+        return outputDir.endsWith(File.separator)
+                ? outputDir + fileName
+                : outputDir + File.separator + fileName;
+    }
+
+    /**
+     * Converts input text into a safe file name by removing unsupported characters.
+     *
+     * @param input the input string to clean.
+     * @return sanitized file name ending with .png.
+     */
+    private String sanitizeFileName(String input) {
+        return input.replaceFirst("https?://", "")
+                .replaceFirst("^www\\.", "").split("[./]")[0].replaceAll("[^a-zA-Z0-9_-]", "").concat(".png");
+    }
+}
@@ -0,0 +1,183 @@
+package gr.omaro.qr_generator.service;
+
+import com.google.zxing.WriterException;
+import com.google.zxing.qrcode.encoder.ByteMatrix;
+import gr.omaro.qr_generator.enums.SheetFormat;
+import gr.omaro.qr_generator.exception.ConfigExeption;
+import gr.omaro.qr_generator.exception.QRException;
+import gr.omaro.qr_generator.model.QRSpec;
+import gr.omaro.qr_generator.model.SheetCell;
+import gr.omaro.qr_generator.model.SheetLayout;
+import gr.omaro.qr_generator.model.SheetReport;
+import gr.omaro.qr_generator.util.QRCodeGenerator;
+import gr.omaro.qr_generator.util.SheetPageWriter;
+import gr.omaro.qr_generator.util.SheetPdfWriter;
+import gr.omaro.qr_generator.util.SheetPngWriter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Lays out many codes with captions on printable pages.
+ * <p>
+ * The input file is read one page at a time. The labels of a page are encoded in parallel
+ * while the previous page is being written, so at most two pages of module matrices are
+ * in memory regardless of the size of the input.
+ */
+@Slf4j
+public class SheetRenderer {
+
+    /**
+     * Service used to resolve the output directory.
+     */
+    private final QRService qrService;
+    /**
+     * Number of worker threads encoding labels in parallel.
+     */
+    private final int workers;
+
+    /**
+     * Creates a renderer.
+     *
+     * @param qrService service used to resolve the output directory.
+     * @param workers   number of worker threads (must be > 0).
+     */
+    public SheetRenderer(QRService qrService, int workers) {
+        if (workers <= 0) {
+            throw new IllegalArgumentException("Workers must be > 0");
+        }
+        this.qrService = qrService;
+        this.workers = workers;
+    }
+
+    /**
+     * Renders every line of an input file as a label.
+     * <p>
+     * A line may give its caption after a tab ({@code payload<TAB>caption}); otherwise the
+     * payload itself is printed. Blank lines and lines starting with {@code #} are ignored.
+     * Payloads that cannot be encoded leave an empty cell and are listed in the report.
+     *
+     * @param inputFile  file with one text or URL per line.
+     * @param spec       error correction and colors; only QR codes are supported.
+     * @param layout     page size and grid.
+     * @param format     PDF document or one PNG per page.
+     * @param outputPath optional output path; if null/blank, config path is used.
+     * @return a report with counts, written files and failures.
+     * @throws QRException    if the input cannot be read, the output cannot be written or the spec is not a QR code.
+     * @throws ConfigExeption if configuration fails or output directory can't be created.
+     */
+    public SheetReport render(Path inputFile, QRSpec spec, SheetLayout layout, SheetFormat format, String outputPath)
+            throws QRException, ConfigExeption {
+        if (!spec.isQRCode()) {
+            throw new QRException("Label sheets only support QR codes, not " + spec.getFormat());
+        }
+        try {
+            layout.validate();
+        } catch (IllegalArgumentException e) {
+            throw new QRException(e.getMessage(), e);
+        }
+        String outputDir = qrService.resolveOutputDir(outputPath);
+        String baseName = baseName(inputFile);
+
+        List<String> failures = Collections.synchronizedList(new ArrayList<>());
+        int labels = 0;
+        int pages = 0;
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        SheetPageWriter writer = null;
+        try (BufferedReader reader = Files.newBufferedReader(inputFile, StandardCharsets.UTF_8)) {
+            writer = format == SheetFormat.PDF
+                    ? new SheetPdfWriter(layout, spec.getStyle(), Paths.get(outputDir, baseName + "." + format.getExtension()))
+                    : new SheetPngWriter(layout, spec.getStyle(), Paths.get(outputDir), baseName);
+
+            List<CompletableFuture<SheetCell>> page = readPage(reader, layout.labelsPerPage(), spec, pool, failures);
+            while (!page.isEmpty()) {
+                // start encoding the next page before writing this one
+                List<CompletableFuture<SheetCell>> next = readPage(reader, layout.labelsPerPage(), spec, pool, failures);
+                List<SheetCell> cells = new ArrayList<>(page.size());
+                for (CompletableFuture<SheetCell> cell : page) {
+                    cells.add(cell.join());
+                }
+                writer.writePage(cells);
+                labels += cells.size();
+                pages++;
+                page = next;
+            }
+            writer.close();
+        } catch (IOException e) {
+            throw new QRException("Failed to write label sheet from: " + inputFile, e);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        SheetReport report = new SheetReport(labels, pages, writer.files(), List.copyOf(failures));
+        log.info("Label sheet finished: {}", report);
+        return report;
+    }
+
+    /**
+     * Reads the labels of one page and submits their encodes.
+     *
+     * @param reader   the input file.
+     * @param count    number of labels per page.
+     * @param spec     rendering options.
+     * @param pool     encode workers.
+     * @param failures collects payloads that could not be encoded.
+     * @return pending cells in page order; empty at the end of the input.
+     * @throws IOException if the input cannot be read.
+     */
+    private List<CompletableFuture<SheetCell>> readPage(BufferedReader reader, int count, QRSpec spec,
+                                                        ExecutorService pool, List<String> failures) throws IOException {
+        List<CompletableFuture<SheetCell>> cells = new ArrayList<>(count);
+        String line;
+        while (cells.size() < count && (line = reader.readLine()) != null) {
+            String[] columns = line.split("\t", 2);
+            String input = columns[0].strip();
+            if (input.isEmpty() || input.startsWith("#")) {
+                continue;
+            }
+            String caption = columns.length > 1 && !columns[1].isBlank() ? columns[1].strip() : input;
+            cells.add(CompletableFuture.supplyAsync(() -> new SheetCell(encode(input, spec, failures), caption), pool));
+        }
+        return cells;
+    }
+
+    /**
+     * Encodes one label.
+     *
+     * @param input    the text or URL to encode.
+     * @param spec     rendering options.
+     * @param failures collects payloads that could not be encoded.
+     * @return the module matrix, or null if encoding failed.
+     */
+    private static ByteMatrix encode(String input, QRSpec spec, List<String> failures) {
+        try {
+            return QRCodeGenerator.encodeModules(input, spec);
+        } catch (WriterException | IllegalArgumentException e) {
+            failures.add(input + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Returns the input file name without its extension.
+     *
+     * @param inputFile the input file.
+     * @return base name used for the output files.
+     */
+    private static String baseName(Path inputFile) {
+        String name = inputFile.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot > 0 ? name.substring(0, dot) : name;
+    }
+}
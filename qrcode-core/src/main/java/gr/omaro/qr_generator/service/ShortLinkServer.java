@@ -0,0 +1,147 @@
+package gr.omaro.qr_generator.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Small HTTP server that answers {@code GET /<id>} with a redirect to the URL stored for the id.
+ * <p>
+ * Only the last path segment is used as the id, so the server works behind a reverse proxy that
+ * maps e.g. {@code https://go.example.com/r/} to it. Lookups go straight to the
+ * {@link ShortLinkStore} in memory; links added by other processes sharing the store file are
+ * picked up on the first request for them.
+ */
+public class ShortLinkServer implements AutoCloseable {
+
+    /**
+     * Body of a 404 response.
+     */
+    private static final byte[] NOT_FOUND = "Unknown short link\n".getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * The store the ids are resolved in.
+     */
+    private final ShortLinkStore store;
+    /**
+     * The HTTP server.
+     */
+    private final HttpServer server;
+    /**
+     * Threads answering requests.
+     */
+    private final ExecutorService executor;
+    /**
+     * Number of redirects sent.
+     */
+    private final LongAdder redirects = new LongAdder();
+    /**
+     * Number of requests for unknown ids.
+     */
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Starts a server.
+     *
+     * @param store   the store the ids are resolved in.
+     * @param address address and port to listen on; port 0 picks a free one.
+     * @param threads number of threads answering requests (must be > 0).
+     * @throws IOException if the address cannot be bound.
+     */
+    public ShortLinkServer(ShortLinkStore store, InetSocketAddress address, int threads) throws IOException {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Threads must be > 0");
+        }
+        this.store = store;
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "shortlink-http-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.server = HttpServer.create(address, 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    /**
+     * Returns the port the server listens on.
+     *
+     * @return the local port.
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Returns the number of redirects sent.
+     *
+     * @return redirects so far.
+     */
+    public long getRedirects() {
+        return redirects.sum();
+    }
+
+    /**
+     * Returns the number of requests for unknown ids.
+     *
+     * @return misses so far.
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Stops the server, letting requests in progress finish for up to a second.
+     */
+    @Override
+    public void close() {
+        server.stop(1);
+        executor.shutdownNow();
+    }
+
+    /**
+     * Answers one request: 302 to the stored URL, 404 for unknown ids, 405 for other methods.
+     *
+     * @param exchange the exchange.
+     * @throws IOException if the exchange fails.
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String method = exchange.getRequestMethod();
+            if (!"GET".equals(method) && !"HEAD".equals(method)) {
+                exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            String path = exchange.getRequestURI().getRawPath();
+            String url = store.resolve(path.substring(path.lastIndexOf('/') + 1));
+            if (url == null) {
+                misses.increment();
+                exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+                if ("HEAD".equals(method)) {
+                    exchange.sendResponseHeaders(404, -1);
+                    return;
+                }
+                exchange.sendResponseHeaders(404, NOT_FOUND.length);
+                try (OutputStream body = exchange.getResponseBody()) {
+                    body.write(NOT_FOUND);
+                }
+                return;
+            }
+            redirects.increment();
+            exchange.getResponseHeaders().set("Location", url);
+            exchange.getResponseHeaders().set("Cache-Control", "private, max-age=86400");
+            exchange.sendResponseHeaders(302, -1);
+        }
+    }
+}
@@ -0,0 +1,308 @@
+package gr.omaro.qr_generator.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Persistent mapping from short ids to the long URLs they stand for.
+ * <p>
+ * The file starts with a 5 byte header ({@code QRSL} and a version) followed by append-only
+ * records: a 2 byte length and the UTF-8 URL. A URL's id is the base-62 number of its record, so
+ * ids are never stored, the same URL always gets the same id, and {@link #resolve(String)} is an
+ * array lookup. The whole file is read into memory on open; a record cut short by a crash is
+ * dropped and truncated away.
+ * <p>
+ * Several processes may share one file: new records are appended under an exclusive file lock
+ * after reading what the others appended, and {@link #resolve(String)} reads new records when it
+ * meets an id it does not know yet. Within one JVM use {@link #shared(Path)}, since file locks
+ * are held per JVM.
+ */
+@Slf4j
+public final class ShortLinkStore implements AutoCloseable {
+
+    /**
+     * File header: magic bytes and format version.
+     */
+    private static final byte[] HEADER = {'Q', 'R', 'S', 'L', 1};
+    /**
+     * Digits of the ids.
+     */
+    private static final String ALPHABET = "0123456789abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ";
+    /**
+     * Stores opened through {@link #shared(Path)}, by absolute path.
+     */
+    private static final Map<Path, ShortLinkStore> SHARED = new ConcurrentHashMap<>();
+
+    /**
+     * Channel of the store file.
+     */
+    private final FileChannel channel;
+    /**
+     * URLs by record number.
+     */
+    private final List<String> urls = new ArrayList<>();
+    /**
+     * Record numbers by URL.
+     */
+    private final Map<String, Integer> ids = new HashMap<>();
+    /**
+     * End of the last complete record read from the file.
+     */
+    private long loaded;
+
+    /**
+     * Wraps an open store file.
+     *
+     * @param channel the open channel.
+     */
+    private ShortLinkStore(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Opens or creates the store at the given path.
+     *
+     * @param path the store file.
+     * @return the open store.
+     * @throws IOException if the file cannot be read or is not a short link store.
+     */
+    public static ShortLinkStore open(Path path) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            ShortLinkStore store = new ShortLinkStore(channel);
+            try (FileLock ignored = channel.lock()) {
+                store.load();
+            }
+            return store;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the store at the given path, opening it on first use and keeping it open for the
+     * rest of the JVM's life.
+     *
+     * @param path the store file.
+     * @return the store shared by all callers with the same path.
+     * @throws IOException if the file cannot be read or is not a short link store.
+     */
+    public static ShortLinkStore shared(Path path) throws IOException {
+        try {
+            return SHARED.computeIfAbsent(path.toAbsolutePath().normalize(), p -> {
+                try {
+                    return open(p);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Returns the id of a URL, appending a new record if the URL is not in the store yet.
+     *
+     * @param url the long URL.
+     * @return its short id.
+     * @throws IOException if the record cannot be written.
+     */
+    public synchronized String shorten(String url) throws IOException {
+        Integer id = ids.get(url);
+        if (id != null) {
+            return encode(id);
+        }
+        byte[] urlBytes = url.getBytes(StandardCharsets.UTF_8);
+        if (urlBytes.length > 0xFFFF) {
+            throw new IllegalArgumentException("URL is too long for a short link");
+        }
+        try (FileLock ignored = channel.lock()) {
+            // another process may have added the same URL since we last looked
+            readNew();
+            id = ids.get(url);
+            if (id != null) {
+                return encode(id);
+            }
+            ByteBuffer record = ByteBuffer.allocate(2 + urlBytes.length);
+            record.putShort((short) urlBytes.length).put(urlBytes).flip();
+            long position = loaded;
+            while (record.hasRemaining()) {
+                position += channel.write(record, position);
+            }
+            channel.force(false);
+            loaded = position;
+            return encode(add(url));
+        }
+    }
+
+    /**
+     * Returns the URL of a short id.
+     *
+     * @param id the short id.
+     * @return the URL, or null if the id is unknown or malformed.
+     * @throws IOException if new records cannot be read.
+     */
+    public synchronized String resolve(String id) throws IOException {
+        int index = decode(id);
+        if (index < 0) {
+            return null;
+        }
+        if (index >= urls.size()) {
+            readNew();
+        }
+        return index < urls.size() ? urls.get(index) : null;
+    }
+
+    /**
+     * Returns the number of stored URLs.
+     *
+     * @return distinct URLs.
+     */
+    public synchronized int size() {
+        return urls.size();
+    }
+
+    /**
+     * Closes the store file.
+     *
+     * @throws IOException if closing fails.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        SHARED.values().remove(this);
+        channel.close();
+    }
+
+    /**
+     * Reads all records, writing the header into a new file and truncating a partial last record.
+     *
+     * @throws IOException if the file cannot be read or has a foreign header.
+     */
+    private void load() throws IOException {
+        long size = channel.size();
+        if (size == 0) {
+            channel.write(ByteBuffer.wrap(HEADER), 0);
+            channel.force(false);
+            loaded = HEADER.length;
+            return;
+        }
+        byte[] header = new byte[HEADER.length];
+        ByteBuffer headerBuffer = ByteBuffer.wrap(header);
+        while (headerBuffer.hasRemaining()) {
+            if (channel.read(headerBuffer, headerBuffer.position()) < 0) {
+                break;
+            }
+        }
+        if (!Arrays.equals(header, HEADER)) {
+            throw new IOException("Not a short link store: unknown header");
+        }
+        loaded = HEADER.length;
+        readNew();
+        if (loaded < channel.size()) {
+            log.warn("Dropping {} bytes of an incomplete short link record", channel.size() - loaded);
+            channel.truncate(loaded);
+        }
+    }
+
+    /**
+     * Reads the complete records appended after {@link #loaded}.
+     *
+     * @throws IOException if the file cannot be read.
+     */
+    private void readNew() throws IOException {
+        long size = channel.size();
+        if (size <= loaded) {
+            return;
+        }
+        ByteBuffer data = ByteBuffer.allocate(Math.toIntExact(size - loaded));
+        while (data.hasRemaining()) {
+            if (channel.read(data, loaded + data.position()) < 0) {
+                break;
+            }
+        }
+        data.flip();
+        while (data.remaining() >= 2) {
+            int length = Short.toUnsignedInt(data.getShort(data.position()));
+            if (data.remaining() < 2 + length) {
+                break;
+            }
+            data.position(data.position() + 2);
+            byte[] url = new byte[length];
+            data.get(url);
+            add(new String(url, StandardCharsets.UTF_8));
+            loaded += 2 + length;
+        }
+    }
+
+    /**
+     * Adds a URL read from or written to the file.
+     *
+     * @param url the URL.
+     * @return its record number.
+     */
+    private int add(String url) {
+        int index = urls.size();
+        urls.add(url);
+        ids.putIfAbsent(url, index);
+        return index;
+    }
+
+    /**
+     * Formats a record number as a base-62 id.
+     *
+     * @param index the record number.
+     * @return the id, e.g. {@code 0}, {@code Z} or {@code 10}.
+     */
+    static String encode(int index) {
+        if (index == 0) {
+            return "0";
+        }
+        StringBuilder id = new StringBuilder();
+        for (int n = index; n > 0; n /= ALPHABET.length()) {
+            id.append(ALPHABET.charAt(n % ALPHABET.length()));
+        }
+        return id.reverse().toString();
+    }
+
+    /**
+     * Parses a base-62 id.
+     *
+     * @param id the id.
+     * @return the record number, or -1 if the id is empty, malformed or too large.
+     */
+    static int decode(String id) {
+        if (id == null || id.isEmpty() || id.length() > 6 || (id.length() > 1 && id.charAt(0) == '0')) {
+            return -1;
+        }
+        long index = 0;
+        for (int i = 0; i < id.length(); i++) {
+            int digit = ALPHABET.indexOf(id.charAt(i));
+            if (digit < 0) {
+                return -1;
+            }
+            index = index * ALPHABET.length() + digit;
+        }
+        return index > Integer.MAX_VALUE ? -1 : (int) index;
+    }
+}
@@ -0,0 +1,183 @@
+package gr.omaro.qr_generator.service;
+
+import gr.omaro.qr_generator.enums.CodeFormat;
+import gr.omaro.qr_generator.exception.QRException;
+import gr.omaro.qr_generator.model.VerificationReport;
+import gr.omaro.qr_generator.model.VerificationResult;
+import gr.omaro.qr_generator.util.QRVerifier;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Service that decodes QR code images on its own worker pool and collects a report.
+ * <p>
+ * Generation hands over the in-memory image and moves on; decoding runs in the
+ * background so it doesn't slow the generator down. Call {@link #awaitReport()} once
+ * all images are submitted.
+ */
+@Slf4j
+public class VerificationService implements AutoCloseable {
+
+    /**
+     * Number of images allowed to wait for a verification worker.
+     * <p>
+     * When the queue is full the submitting thread verifies the image itself,
+     * which keeps memory bounded if verification falls behind.
+     */
+    private static final int QUEUE_CAPACITY = 1024;
+
+    /**
+     * Worker pool running the decoder.
+     */
+    private final ThreadPoolExecutor executor;
+    /**
+     * Tracks verifications that have not finished yet.
+     */
+    private final Phaser pending = new Phaser(1);
+    /**
+     * Report of every verification since creation.
+     */
+    private final VerificationReport report = new VerificationReport();
+
+    /**
+     * Creates a service with the given number of workers.
+     *
+     * @param workers number of verification threads (must be > 0).
+     */
+    public VerificationService(int workers) {
+        if (workers <= 0) {
+            throw new IllegalArgumentException("Workers must be > 0");
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "qr-verify-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Queues an in-memory image for verification.
+     *
+     * @param image    the rendered image.
+     * @param expected text the code should contain, or null to only check readability.
+     * @param path     path the image was written to, used in the report.
+     */
+    public void submit(BufferedImage image, String expected, String path) {
+        submit(image, expected, path, CodeFormat.QR_CODE);
+    }
+
+    /**
+     * Queues an in-memory image of the given format for verification.
+     *
+     * @param image    the rendered image.
+     * @param expected text the code should contain, or null to only check readability.
+     * @param path     path the image was written to, used in the report.
+     * @param format   format the image was written in.
+     */
+    public void submit(BufferedImage image, String expected, String path, CodeFormat format) {
+        pending.register();
+        executor.execute(() -> {
+            try {
+                report.add(verify(image, expected, path, format));
+            } finally {
+                pending.arriveAndDeregister();
+            }
+        });
+    }
+
+    /**
+     * Queues every PNG image of a directory for verification.
+     *
+     * @param directory the directory to scan (not recursive).
+     * @throws QRException if the directory cannot be listed.
+     */
+    public void submitDirectory(Path directory) throws QRException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.{png,PNG}")) {
+            for (Path file : files) {
+                pending.register();
+                executor.execute(() -> {
+                    try {
+                        report.add(verifyFile(file));
+                    } finally {
+                        pending.arriveAndDeregister();
+                    }
+                });
+            }
+        } catch (IOException e) {
+            throw new QRException("Failed to list images in " + directory, e);
+        }
+    }
+
+    /**
+     * Waits for all submitted images and returns the report.
+     *
+     * @return report of every verification so far.
+     */
+    public VerificationReport awaitReport() {
+        pending.arriveAndAwaitAdvance();
+        return report;
+    }
+
+    /**
+     * Stops the worker pool; queued verifications are dropped.
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Reads and verifies an image file.
+     *
+     * @param file the image file.
+     * @return the verification result.
+     */
+    private VerificationResult verifyFile(Path file) {
+        try {
+            BufferedImage image = ImageIO.read(file.toFile());
+            if (image == null) {
+                return new VerificationResult(file.toString(), null, null, "Unsupported image format");
+            }
+            return verify(image, null, file.toString(), null);
+        } catch (IOException e) {
+            return new VerificationResult(file.toString(), null, null, "Failed to read image: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Decodes an image and compares it with the expected text.
+     *
+     * @param image    the image.
+     * @param expected the expected text, or null.
+     * @param path     path of the image.
+     * @param format   format of the image, or null if unknown.
+     * @return the verification result.
+     */
+    private VerificationResult verify(BufferedImage image, String expected, String path, CodeFormat format) {
+        try {
+            String decoded = QRVerifier.decode(image, format);
+            if (expected != null && !expected.equals(decoded)) {
+                return new VerificationResult(path, expected, decoded, "Decoded text does not match the input");
+            }
+            log.debug("Verified {}", path);
+            return new VerificationResult(path, expected, decoded, null);
+        } catch (Exception e) {
+            return new VerificationResult(path, expected, null, "Not readable (" + e.getClass().getSimpleName() + ")");
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package gr.omaro.qr_generator.util;
+
+import gr.omaro.qr_generator.exception.ConfigExeption;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Holds the current configuration as an immutable snapshot.
+ * <p>
+ * Readers get the snapshot with a single volatile read and never block. The snapshot is
+ * replaced as a whole when the configuration is loaded, so a reader never sees a mix of old
+ * and new values. When watching is enabled a daemon thread reloads the external
+ * {@code QR_CONFIG_PATH} file on every change; a file that fails to load keeps the previous
+ * snapshot in place.
+ */
+@Slf4j
+final class ConfigHolder {
+
+    /**
+     * Name of the bundled configuration resource.
+     */
+    private static final String RESOURCE_NAME = "config.properties";
+    /**
+     * Time to wait after a change event so that editors finish writing before the file is read.
+     */
+    private static final long SETTLE_MILLIS = 100;
+
+    /**
+     * Current configuration; null until the first load.
+     */
+    private static volatile Map<String, String> snapshot;
+    /**
+     * Watch service of the running watcher thread, or null when not watching.
+     */
+    private static WatchService watchService;
+
+    /**
+     * Not instantiable.
+     */
+    private ConfigHolder() {
+    }
+
+    /**
+     * Returns the current configuration.
+     *
+     * @return the snapshot, empty if nothing has been loaded yet.
+     */
+    static Map<String, String> current() {
+        Map<String, String> current = snapshot;
+        return current == null ? Map.of() : current;
+    }
+
+    /**
+     * Loads the configuration unless a snapshot is already present.
+     *
+     * @throws ConfigExeption if the configuration cannot be loaded.
+     */
+    static void loadIfAbsent() throws ConfigExeption {
+        if (snapshot == null) {
+            synchronized (ConfigHolder.class) {
+                if (snapshot == null) {
+                    snapshot = load();
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads the configuration again and swaps in the new snapshot.
+     *
+     * @throws ConfigExeption if the configuration cannot be loaded; the old snapshot is kept.
+     */
+    static void reload() throws ConfigExeption {
+        Map<String, String> loaded = load();
+        synchronized (ConfigHolder.class) {
+            snapshot = loaded;
+        }
+    }
+
+    /**
+     * Starts a daemon thread that reloads the external configuration file when it changes.
+     * <p>
+     * Does nothing if no external file is configured or a watcher is already running.
+     *
+     * @throws ConfigExeption if the file's directory cannot be watched.
+     */
+    static synchronized void startWatching() throws ConfigExeption {
+        Path file = externalPath();
+        if (watchService != null || file == null || !Files.isRegularFile(file)) {
+            return;
+        }
+        Path directory = file.toAbsolutePath().getParent();
+        try {
+            WatchService service = directory.getFileSystem().newWatchService();
+            // editors often save by writing a new file and renaming it, which shows up as a create
+            directory.register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            watchService = service;
+        } catch (IOException e) {
+            throw new ConfigExeption("Failed to watch config directory: " + directory, e);
+        }
+        Thread thread = new Thread(() -> watch(watchService, file.getFileName()), "qr-config-watch");
+        thread.setDaemon(true);
+        thread.start();
+        log.info("Watching {} for configuration changes.", file);
+    }
+
+    /**
+     * Stops the watcher thread, if any.
+     */
+    static synchronized void stopWatching() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                log.debug("Failed to close config watch service", e);
+            }
+            watchService = null;
+        }
+    }
+
+    /**
+     * Watcher loop: waits for events on the file, lets writes settle, then reloads once.
+     *
+     * @param service  the watch service.
+     * @param fileName name of the configuration file inside the watched directory.
+     */
+    private static void watch(WatchService service, Path fileName) {
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                boolean changed = isChange(key, fileName);
+                if (!key.reset()) {
+                    log.warn("Config directory is no longer accessible, stopped watching.");
+                    return;
+                }
+                if (!changed) {
+                    continue;
+                }
+                Thread.sleep(SETTLE_MILLIS);
+                // fold the events of the same save into this reload
+                WatchKey pending;
+                while ((pending = service.poll()) != null) {
+                    isChange(pending, fileName);
+                    pending.reset();
+                }
+                try {
+                    reload();
+                    log.info("Configuration reloaded.");
+                } catch (ConfigExeption e) {
+                    log.warn("Keeping previous configuration: {}", e.getMessage());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // stopWatching was called
+        }
+    }
+
+    /**
+     * Consumes the events of a key and tells whether any of them concerns the configuration file.
+     *
+     * @param key      the signalled key.
+     * @param fileName name of the configuration file.
+     * @return true if the file may have changed.
+     */
+    private static boolean isChange(WatchKey key, Path fileName) {
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || fileName.equals(event.context())) {
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Reads the external file, or the bundled resource if there is none, into a new snapshot.
+     *
+     * @return the loaded configuration.
+     * @throws ConfigExeption if neither source can be read.
+     */
+    private static Map<String, String> load() throws ConfigExeption {
+        Path file = externalPath();
+        Properties properties = new Properties();
+        try (InputStream input = file != null && Files.isRegularFile(file)
+                ? Files.newInputStream(file)
+                : ConfigHolder.class.getClassLoader().getResourceAsStream(RESOURCE_NAME)) {
+            if (input == null) {
+                throw new ConfigExeption("Unable to load config from external or internal source.");
+            }
+            // Load all properties from the config file
+            properties.load(input);
+        } catch (IOException e) {
+            throw new ConfigExeption("Failed to load config.properties", e);
+        }
+        Map<String, String> values = new HashMap<>();
+        for (String name : properties.stringPropertyNames()) {
+            values.put(name, properties.getProperty(name));
+        }
+        return Map.copyOf(values);
+    }
+
+    /**
+     * Returns the external configuration file from the system property or environment variable.
+     *
+     * @return the path, or null if none is set.
+     */
+    private static Path externalPath() {
+        String externalPath = System.getProperty("QR_CONFIG_PATH", System.getenv("QR_CONFIG_PATH"));
+        return externalPath == null || externalPath.isBlank() ? null : Paths.get(externalPath);
+    }
+}
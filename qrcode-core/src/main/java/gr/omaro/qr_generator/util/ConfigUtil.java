@@ -0,0 +1,240 @@
+package gr.omaro.qr_generator.util;
+
+import gr.omaro.qr_generator.enums.SupportedFileType;
+import gr.omaro.qr_generator.exception.ConfigExeption;
+import lombok.experimental.UtilityClass;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Utility class to load and read configuration values from a properties file.
+ * <p>
+ * This class loads settings for the application such as output path,
+ * Google Drive config, accepted file types, and more. Values are read from the
+ * snapshot kept by {@link ConfigHolder}, which long-running modes can keep up to date
+ * with {@link #watchForChanges()}.
+ */
+@UtilityClass
+public class ConfigUtil {
+
+    /**
+     * Initializes configuration by trying to load from external path or internal resource.
+     * <p>
+     * The file is read only on the first call; later calls are a cheap no-op, and changes
+     * are picked up by {@link #watchForChanges()} or {@link #reload()}.
+     *
+     * @throws ConfigExeption if config cannot be loaded.
+     */
+    public static void initialize() throws ConfigExeption {
+        ConfigHolder.loadIfAbsent();
+    }
+
+    /**
+     * Reads the configuration again, replacing the current values at once.
+     *
+     * @throws ConfigExeption if config cannot be loaded; the current values are kept.
+     */
+    public static void reload() throws ConfigExeption {
+        ConfigHolder.reload();
+    }
+
+    /**
+     * Loads the configuration and reloads it whenever the external {@code QR_CONFIG_PATH} file changes.
+     * <p>
+     * Meant for long-running modes such as batch jobs, the co-process server and the GUI.
+     * Without an external file only the bundled configuration is loaded.
+     *
+     * @throws ConfigExeption if config cannot be loaded or the file cannot be watched.
+     */
+    public static void watchForChanges() throws ConfigExeption {
+        ConfigHolder.loadIfAbsent();
+        ConfigHolder.startWatching();
+    }
+
+    /**
+     * Stops reloading the configuration on file changes.
+     */
+    public static void stopWatching() {
+        ConfigHolder.stopWatching();
+    }
+
+    /**
+     * Returns a configuration value from the current snapshot.
+     *
+     * @param key          the property name.
+     * @param defaultValue value returned if the property is not set.
+     * @return the value.
+     */
+    private static String property(String key, String defaultValue) {
+        return ConfigHolder.current().getOrDefault(key, defaultValue);
+    }
+
+    /**
+     * Gets the output directory path where files will be saved.
+     *
+     * @return output path as String.
+     * @throws ConfigExeption if the value is missing or empty.
+     */
+    public static String getOutputPath() throws ConfigExeption{
+        String path = property("output.path", null);
+        if (path == null || path.isBlank()) {
+            throw new ConfigExeption("Property 'output.path' is missing or empty in config.properties");
+        }
+        return path;
+    }
+
+    /**
+     * Gets the folder ID used for uploading to Google Drive.
+     *
+     * @return Google Drive folder ID.
+     * @throws ConfigExeption if the value is missing or empty.
+     */
+    public static String getGoogleDriveFolderId() throws ConfigExeption {
+        String folderId = property("google.drive.folder.id", null);
+        if (folderId == null || folderId.isBlank()) {
+            throw new ConfigExeption("Property 'google.drive.folder.id' is missing or empty in config.properties");
+        }
+        return folderId;
+    }
+
+    /**
+     * Gets the path to the Google client secret JSON file.
+     *
+     * @return path to client secret file.
+     * @throws ConfigExeption if the value is missing or empty.
+     */
+    public static String getClientSecretPath() throws ConfigExeption {
+        String path = property("google.drive.client.secret.path", null);
+        if (path == null || path.isBlank()) {
+            throw new ConfigExeption("Property 'google.drive.client.secret.path' is missing or empty in config.properties");
+        }
+        return path;
+    }
+
+    /**
+     * Checks if UUID should be used as the file name.
+     *
+     * @return true if UUID file names are enabled, false otherwise.
+     */
+    public static boolean useUuidFileName() {
+        return Boolean.parseBoolean(property("filename.use.uuid", "false"));
+    }
+
+    /**
+     * Checks if QR symbols are built with the bit-packed encoder.
+     *
+     * @return true unless {@code qr.encoder.packed} is set to false.
+     */
+    public static boolean usePackedEncoder() {
+        return Boolean.parseBoolean(property("qr.encoder.packed", "true"));
+    }
+
+    /**
+     * Gets the base URL of short links; when set, long URLs are encoded as {@code base + id}.
+     *
+     * @return the base URL ending with a slash, or null if short links are off.
+     */
+    public static String getShortLinkBaseUrl() {
+        String base = property("shortlink.base.url", null);
+        if (base == null || base.isBlank()) {
+            return null;
+        }
+        base = base.trim();
+        return base.endsWith("/") ? base : base + "/";
+    }
+
+    /**
+     * Gets the path of the store that maps short link ids to long URLs.
+     *
+     * @return the store file path.
+     */
+    public static String getShortLinkStorePath() {
+        String path = property("shortlink.store.path", null);
+        return path == null || path.isBlank() ? "short-links.dat" : path;
+    }
+
+    /**
+     * Gets the maximum file size allowed for upload, in bytes.
+     *
+     * @return maximum upload file size.
+     * @throws ConfigExeption if the value is not a valid number.
+     */
+    public static long getMaxUploadFileSizeBytes() throws ConfigExeption {
+        String value = property("max.upload.file.size.bytes", "5242880");
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new ConfigExeption("Invalid number for 'max.upload.file.size.bytes'", e);
+        }
+    }
+
+    /**
+     * Gets the path of the index that remembers already uploaded content.
+     *
+     * @return the index file path.
+     */
+    public static String getUploadIndexPath() {
+        String path = property("upload.index.path", null);
+        return path == null || path.isBlank() ? "upload-index.dat" : path;
+    }
+
+    /**
+     * Gets the sustained upload rate, in uploads started per second.
+     *
+     * @return the upload rate.
+     * @throws ConfigExeption if the value is not a positive number.
+     */
+    public static double getUploadRatePerSecond() throws ConfigExeption {
+        String value = property("upload.rate.per.second", "3");
+        try {
+            double rate = Double.parseDouble(value);
+            if (rate <= 0) {
+                throw new ConfigExeption("'upload.rate.per.second' must be positive");
+            }
+            return rate;
+        } catch (NumberFormatException e) {
+            throw new ConfigExeption("Invalid number for 'upload.rate.per.second'", e);
+        }
+    }
+
+    /**
+     * Gets the maximum number of uploads running at once.
+     *
+     * @return the concurrency cap.
+     * @throws ConfigExeption if the value is not a positive integer.
+     */
+    public static int getUploadMaxConcurrency() throws ConfigExeption {
+        String value = property("upload.max.concurrency", "8");
+        try {
+            int max = Integer.parseInt(value);
+            if (max < 1) {
+                throw new ConfigExeption("'upload.max.concurrency' must be at least 1");
+            }
+            return max;
+        } catch (NumberFormatException e) {
+            throw new ConfigExeption("Invalid number for 'upload.max.concurrency'", e);
+        }
+    }
+
+    /**
+     * Gets the set of accepted file types from the config.
+     *
+     * @return Set of supported file types.
+     * @throws ConfigExeption if any listed type is not supported.
+     */
+    public static Set<SupportedFileType> getAcceptedFileTypes() throws ConfigExeption {
+        String types = property("accepted.file.types", "pdf");
+        Set<SupportedFileType> accepted = new HashSet<>();
+
+        for (String typeStr : types.split(",")) {
+            SupportedFileType type = SupportedFileType.fromExtension(typeStr.trim().toLowerCase());
+            if (type == null) {
+                throw new ConfigExeption("Unsupported file type in config: " + typeStr);
+            }
+            accepted.add(type);
+        }
+
+        return accepted;
+    }
+
+}
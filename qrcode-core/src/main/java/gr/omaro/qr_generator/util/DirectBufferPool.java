@@ -0,0 +1,73 @@
+package gr.omaro.qr_generator.util;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool of fixed-size direct buffers shared by all rendering threads.
+ * <p>
+ * Direct buffers live outside the Java heap and are expensive to allocate, so they are reused.
+ * At most {@link #MAX_RETAINED} idle buffers are kept; requests larger than
+ * {@link #BUFFER_SIZE} get a dedicated buffer that is not pooled.
+ */
+final class DirectBufferPool {
+
+    /**
+     * Capacity of pooled buffers.
+     */
+    static final int BUFFER_SIZE = 64 * 1024;
+    /**
+     * Maximum number of idle buffers kept for reuse.
+     */
+    private static final int MAX_RETAINED = Math.max(8, Runtime.getRuntime().availableProcessors() * 4);
+
+    /**
+     * Idle buffers.
+     */
+    private static final ConcurrentLinkedQueue<ByteBuffer> IDLE = new ConcurrentLinkedQueue<>();
+    /**
+     * Number of buffers in {@link #IDLE}; the queue's own size is linear.
+     */
+    private static final AtomicInteger IDLE_COUNT = new AtomicInteger();
+
+    /**
+     * Not instantiable.
+     */
+    private DirectBufferPool() {
+    }
+
+    /**
+     * Takes a cleared direct buffer of at least the given capacity.
+     *
+     * @param minCapacity required capacity in bytes.
+     * @return the buffer, positioned at zero with the limit at its capacity.
+     */
+    static ByteBuffer acquire(int minCapacity) {
+        if (minCapacity > BUFFER_SIZE) {
+            return ByteBuffer.allocateDirect(minCapacity);
+        }
+        ByteBuffer buffer = IDLE.poll();
+        if (buffer == null) {
+            return ByteBuffer.allocateDirect(BUFFER_SIZE);
+        }
+        IDLE_COUNT.decrementAndGet();
+        return buffer.clear();
+    }
+
+    /**
+     * Returns a buffer taken with {@link #acquire(int)}.
+     *
+     * @param buffer the buffer; null is ignored.
+     */
+    static void release(ByteBuffer buffer) {
+        if (buffer == null || buffer.capacity() != BUFFER_SIZE || !buffer.isDirect()) {
+            return;
+        }
+        if (IDLE_COUNT.incrementAndGet() <= MAX_RETAINED) {
+            IDLE.offer(buffer);
+        } else {
+            IDLE_COUNT.decrementAndGet();
+        }
+    }
+}
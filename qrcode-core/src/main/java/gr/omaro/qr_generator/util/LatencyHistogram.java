@@ -0,0 +1,196 @@
+package gr.omaro.qr_generator.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with a fixed relative precision over the whole {@code long} range,
+ * laid out like an HdrHistogram with two significant digits.
+ * <p>
+ * Values below 128 get a bucket each; above that every power of two is split into 64 equal
+ * buckets, so a recorded value is reported at most 1/64 (about 1.6%) above its true value. The
+ * bucket array has a fixed size of a few thousand counters, and {@link #record(long)} is a handful
+ * of atomic increments, so many threads can record into one histogram on a hot path.
+ */
+public class LatencyHistogram {
+
+    /**
+     * Buckets per power of two above the linear range.
+     */
+    private static final int SUB_BUCKETS = 64;
+    /**
+     * Bits of {@link #SUB_BUCKETS}.
+     */
+    private static final int SUB_BUCKET_BITS = 6;
+    /**
+     * Values below this limit are counted exactly.
+     */
+    private static final int LINEAR_LIMIT = SUB_BUCKETS * 2;
+    /**
+     * Number of buckets needed to cover {@link Long#MAX_VALUE}.
+     */
+    private static final int BUCKETS = bucketOf(Long.MAX_VALUE) + 1;
+
+    /**
+     * Number of recorded values per bucket.
+     */
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    /**
+     * Number of recorded values.
+     */
+    private final LongAdder count = new LongAdder();
+    /**
+     * Sum of the recorded values.
+     */
+    private final LongAdder sum = new LongAdder();
+    /**
+     * Smallest recorded value.
+     */
+    private final LongAccumulator min = new LongAccumulator(Math::min, Long.MAX_VALUE);
+    /**
+     * Largest recorded value, kept exactly.
+     */
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+    /**
+     * Time the histogram was created at, from {@link System#nanoTime()}.
+     */
+    private final long startNanos = System.nanoTime();
+
+    /**
+     * Records one value.
+     *
+     * @param value the value, e.g. a latency in nanoseconds; negative values count as 0.
+     */
+    public void record(long value) {
+        long v = Math.max(0, value);
+        counts.incrementAndGet(bucketOf(v));
+        count.increment();
+        sum.add(v);
+        min.accumulate(v);
+        max.accumulate(v);
+    }
+
+    /**
+     * Adds all values of another histogram to this one.
+     *
+     * @param other the histogram to add.
+     */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            long c = other.counts.get(i);
+            if (c != 0) {
+                counts.addAndGet(i, c);
+            }
+        }
+        count.add(other.getCount());
+        sum.add(other.sum.sum());
+        min.accumulate(other.min.get());
+        max.accumulate(other.max.get());
+    }
+
+    /**
+     * Returns the number of recorded values.
+     *
+     * @return the count.
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Returns the smallest recorded value.
+     *
+     * @return the minimum, or 0 if nothing was recorded.
+     */
+    public long getMin() {
+        return getCount() == 0 ? 0 : min.get();
+    }
+
+    /**
+     * Returns the largest recorded value, exactly.
+     *
+     * @return the maximum, or 0 if nothing was recorded.
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Returns the mean of the recorded values.
+     *
+     * @return the mean, or 0 if nothing was recorded.
+     */
+    public double getMean() {
+        long n = getCount();
+        return n == 0 ? 0 : (double) sum.sum() / n;
+    }
+
+    /**
+     * Returns the time since the histogram was created.
+     *
+     * @return elapsed nanoseconds.
+     */
+    public long getElapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    /**
+     * Returns the value at a percentile: the largest value in the bucket holding it, capped by the
+     * exact maximum.
+     *
+     * @param percentile between 0 and 100, e.g. {@code 99.9}.
+     * @return the value, or 0 if nothing was recorded.
+     */
+    public long getValueAtPercentile(double percentile) {
+        long n = 0;
+        long[] snapshot = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            n += snapshot[i];
+        }
+        if (n == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100 * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(highestValueOf(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * Returns the bucket a value is counted in.
+     *
+     * @param value a non-negative value.
+     * @return the bucket index.
+     */
+    private static int bucketOf(long value) {
+        if (value < LINEAR_LIMIT) {
+            return (int) value;
+        }
+        // keep the top SUB_BUCKET_BITS + 1 bits: value >> shift lies in [64, 128)
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+    }
+
+    /**
+     * Returns the largest value counted in a bucket.
+     *
+     * @param bucket the bucket index.
+     * @return the upper bound of the bucket, inclusive.
+     */
+    private static long highestValueOf(int bucket) {
+        if (bucket < LINEAR_LIMIT) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long mantissa = bucket % SUB_BUCKETS + SUB_BUCKETS;
+        long upper = ((mantissa + 1) << shift) - 1;
+        return upper < 0 ? Long.MAX_VALUE : upper;
+    }
+}
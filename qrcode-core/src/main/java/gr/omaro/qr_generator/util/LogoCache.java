@@ -0,0 +1,104 @@
+package gr.omaro.qr_generator.util;
+
+import lombok.experimental.UtilityClass;
+
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Utility class that caches decoded and scaled logo images.
+ * <p>
+ * A batch usually puts the same logo on every code, so each logo file is decoded once
+ * and scaled once per target width. Entries are keyed by the file's modification time,
+ * so an updated logo file is picked up on the next use.
+ */
+@UtilityClass
+public class LogoCache {
+
+    /**
+     * Scaled logos keyed by {@code path|lastModified|width}.
+     */
+    private static final Map<String, BufferedImage> SCALED = new ConcurrentHashMap<>();
+    /**
+     * Decoded logos keyed by {@code path|lastModified}.
+     */
+    private static final Map<String, BufferedImage> DECODED = new ConcurrentHashMap<>();
+
+    /**
+     * Returns a logo scaled to the given width, keeping its aspect ratio.
+     *
+     * @param logoPath path of the logo image.
+     * @param width    target width in pixels (must be > 0).
+     * @return the scaled logo; callers must not modify it.
+     * @throws IOException if the logo cannot be read.
+     */
+    public static BufferedImage getScaled(String logoPath, int width) throws IOException {
+        File file = new File(logoPath);
+        if (!file.isFile()) {
+            throw new IOException("Logo file does not exist: " + logoPath);
+        }
+        String fileKey = file.getAbsolutePath() + "|" + file.lastModified();
+        try {
+            return SCALED.computeIfAbsent(fileKey + "|" + width, key -> scale(decode(fileKey, file), width));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Removes all cached logos.
+     */
+    public static void clear() {
+        SCALED.clear();
+        DECODED.clear();
+    }
+
+    /**
+     * Decodes a logo file once per file version.
+     *
+     * @param fileKey key of the file version.
+     * @param file    the logo file.
+     * @return the decoded image.
+     */
+    private static BufferedImage decode(String fileKey, File file) {
+        return DECODED.computeIfAbsent(fileKey, key -> {
+            try {
+                BufferedImage image = ImageIO.read(file);
+                if (image == null) {
+                    throw new IOException("Unsupported logo image format: " + file);
+                }
+                return image;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Scales an image to the given width with bilinear filtering.
+     *
+     * @param source the image to scale.
+     * @param width  target width in pixels.
+     * @return a new ARGB image.
+     */
+    private static BufferedImage scale(BufferedImage source, int width) {
+        int height = Math.max(1, (int) Math.round((double) source.getHeight() * width / source.getWidth()));
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return scaled;
+    }
+}
@@ -0,0 +1,512 @@
+package gr.omaro.qr_generator.util;
+
+import com.google.zxing.common.BitArray;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import com.google.zxing.qrcode.decoder.Version;
+import com.google.zxing.qrcode.encoder.ByteMatrix;
+import lombok.experimental.UtilityClass;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Builds QR symbols on bit-packed rows and columns.
+ * <p>
+ * Everything that depends only on the version is computed once and cached: function patterns,
+ * the zig-zag order of the data modules and the eight mask patterns. Building a symbol then
+ * places the codeword bits once and derives every masked candidate with a word-wide XOR.
+ * The four penalty rules are evaluated 64 modules at a time with shifts, boolean operations
+ * and {@link Long#bitCount}, which the JIT compiles to the POPCNT instruction.
+ * <p>
+ * Reed-Solomon error correction uses cached GF(256) log/antilog tables and generator
+ * polynomials instead of creating a ZXing encoder per symbol.
+ * <p>
+ * The result is module for module the same as the byte based path of {@link QRSymbolEncoder}.
+ */
+@UtilityClass
+class PackedSymbolBuilder {
+
+    /**
+     * Number of available mask patterns.
+     */
+    private static final int NUM_MASK_PATTERNS = 8;
+    /**
+     * Primitive polynomial of the QR code field, x^8 + x^4 + x^3 + x^2 + 1.
+     */
+    private static final int FIELD_POLY = 0x11D;
+    /**
+     * Antilog table, doubled so that the sum of two logs needs no modulo.
+     */
+    private static final int[] EXP = new int[512];
+    /**
+     * Log table; {@code LOG[0]} is unused.
+     */
+    private static final int[] LOG = new int[256];
+    /**
+     * Logs of the generator polynomial coefficients, indexed by number of error correction codewords.
+     */
+    private static final AtomicReferenceArray<int[]> GENERATOR_LOGS = new AtomicReferenceArray<>(256);
+    /**
+     * Version dependent layout, indexed by version number.
+     */
+    private static final AtomicReferenceArray<Template> TEMPLATES = new AtomicReferenceArray<>(41);
+
+    static {
+        int value = 1;
+        for (int i = 0; i < 255; i++) {
+            EXP[i] = value;
+            EXP[i + 255] = value;
+            LOG[value] = i;
+            value <<= 1;
+            if (value >= 256) {
+                value ^= FIELD_POLY;
+            }
+        }
+        EXP[510] = EXP[0];
+        EXP[511] = EXP[1];
+    }
+
+    /**
+     * Builds a symbol from terminated and padded data bits.
+     *
+     * @param bits    the data codewords as bits.
+     * @param ecLevel the error correction level.
+     * @param version the symbol version.
+     * @return the module matrix (1 = dark, 0 = light).
+     */
+    static ByteMatrix build(BitArray bits, ErrorCorrectionLevel ecLevel, Version version) {
+        Template template = template(version);
+        byte[] codewords = interleaveWithECBytes(bits, version, ecLevel);
+        int size = template.size;
+        int words = template.words;
+        int length = size * words;
+
+        long[] dataRows = new long[length];
+        long[] dataColumns = new long[length];
+        int[] positions = template.dataPositions;
+        int numBits = codewords.length * 8;
+        for (int i = 0; i < numBits && i < positions.length; i++) {
+            if ((codewords[i >> 3] & (0x80 >>> (i & 7))) != 0) {
+                int x = positions[i] % size;
+                int y = positions[i] / size;
+                dataRows[y * words + (x >>> 6)] |= 1L << x;
+                dataColumns[x * words + (y >>> 6)] |= 1L << y;
+            }
+        }
+
+        long[] rows = new long[length];
+        long[] columns = new long[length];
+        long[] bestRows = new long[length];
+        int minPenalty = Integer.MAX_VALUE;
+        for (int mask = 0; mask < NUM_MASK_PATTERNS; mask++) {
+            long[] maskRows = template.maskRows[mask];
+            long[] maskColumns = template.maskColumns[mask];
+            for (int i = 0; i < length; i++) {
+                rows[i] = template.functionRows[i] | (dataRows[i] ^ maskRows[i]);
+                columns[i] = template.functionColumns[i] | (dataColumns[i] ^ maskColumns[i]);
+            }
+            embedTypeInfo(QRSymbolEncoder.typeInfoBits(ecLevel, mask), size, words, rows, columns);
+            int penalty = maskPenalty(rows, columns, size, words);
+            if (penalty < minPenalty) {
+                minPenalty = penalty;
+                System.arraycopy(rows, 0, bestRows, 0, length);
+            }
+        }
+
+        ByteMatrix matrix = new ByteMatrix(size, size);
+        byte[][] array = matrix.getArray();
+        for (int y = 0; y < size; y++) {
+            byte[] row = array[y];
+            int base = y * words;
+            for (int x = 0; x < size; x++) {
+                row[x] = (byte) ((bestRows[base + (x >>> 6)] >>> x) & 1);
+            }
+        }
+        return matrix;
+    }
+
+    /**
+     * Splits the data codewords into blocks, adds error correction and interleaves them.
+     *
+     * @param bits    the padded data bits.
+     * @param version the symbol version.
+     * @param ecLevel the error correction level.
+     * @return the final codeword sequence.
+     */
+    private static byte[] interleaveWithECBytes(BitArray bits, Version version, ErrorCorrectionLevel ecLevel) {
+        Version.ECBlocks ecBlocks = version.getECBlocksForLevel(ecLevel);
+        int numEcBytes = ecBlocks.getECCodewordsPerBlock();
+        int numBlocks = ecBlocks.getNumBlocks();
+        byte[] data = new byte[bits.getSizeInBytes()];
+        bits.toBytes(0, data, 0, data.length);
+        int[] generator = generatorLogs(numEcBytes);
+
+        int[] blockOffsets = new int[numBlocks];
+        int[] blockSizes = new int[numBlocks];
+        int[][] ecBlocksBytes = new int[numBlocks][numEcBytes];
+        int block = 0;
+        int offset = 0;
+        int maxDataBytes = 0;
+        for (Version.ECB ecb : ecBlocks.getECBlocks()) {
+            for (int i = 0; i < ecb.getCount(); i++, block++) {
+                int size = ecb.getDataCodewords();
+                blockOffsets[block] = offset;
+                blockSizes[block] = size;
+                computeEC(data, offset, size, generator, ecBlocksBytes[block]);
+                offset += size;
+                maxDataBytes = Math.max(maxDataBytes, size);
+            }
+        }
+
+        byte[] result = new byte[version.getTotalCodewords()];
+        int index = 0;
+        for (int i = 0; i < maxDataBytes; i++) {
+            for (int b = 0; b < numBlocks; b++) {
+                if (i < blockSizes[b]) {
+                    result[index++] = data[blockOffsets[b] + i];
+                }
+            }
+        }
+        for (int i = 0; i < numEcBytes; i++) {
+            for (int[] ec : ecBlocksBytes) {
+                result[index++] = (byte) ec[i];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Computes the Reed-Solomon remainder of one block by polynomial division.
+     *
+     * @param data      codewords of all blocks.
+     * @param offset    first codeword of the block.
+     * @param size      number of data codewords of the block.
+     * @param generator logs of the generator coefficients, leading coefficient first.
+     * @param ec        receives the error correction codewords.
+     */
+    private static void computeEC(byte[] data, int offset, int size, int[] generator, int[] ec) {
+        int numEc = ec.length;
+        Arrays.fill(ec, 0);
+        for (int i = 0; i < size; i++) {
+            int factor = (data[offset + i] & 0xFF) ^ ec[0];
+            System.arraycopy(ec, 1, ec, 0, numEc - 1);
+            ec[numEc - 1] = 0;
+            if (factor != 0) {
+                int logFactor = LOG[factor];
+                for (int j = 0; j < numEc; j++) {
+                    ec[j] ^= EXP[generator[j + 1] + logFactor];
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the generator polynomial for a number of error correction codewords, building it once.
+     *
+     * @param degree number of error correction codewords.
+     * @return logs of the coefficients, leading coefficient first.
+     */
+    private static int[] generatorLogs(int degree) {
+        int[] cached = GENERATOR_LOGS.get(degree);
+        if (cached != null) {
+            return cached;
+        }
+        // product of (x - a^i) for i = 0 .. degree - 1
+        int[] coefficients = {1};
+        for (int i = 0; i < degree; i++) {
+            int[] next = new int[coefficients.length + 1];
+            for (int j = 0; j < coefficients.length; j++) {
+                next[j] ^= coefficients[j];
+                if (coefficients[j] != 0) {
+                    next[j + 1] ^= EXP[LOG[coefficients[j]] + i];
+                }
+            }
+            coefficients = next;
+        }
+        int[] logs = new int[coefficients.length];
+        for (int j = 0; j < coefficients.length; j++) {
+            logs[j] = LOG[coefficients[j]];
+        }
+        GENERATOR_LOGS.compareAndSet(degree, null, logs);
+        return GENERATOR_LOGS.get(degree);
+    }
+
+    /**
+     * Sets both copies of the format information in packed rows and columns.
+     *
+     * @param typeInfoBits the 15 format bits, least significant first.
+     * @param size         symbol dimension.
+     * @param words        longs per row.
+     * @param rows         packed rows.
+     * @param columns      packed columns.
+     */
+    private static void embedTypeInfo(int typeInfoBits, int size, int words, long[] rows, long[] columns) {
+        for (int i = 0; i < 15; i++) {
+            if (((typeInfoBits >>> i) & 1) == 0) {
+                continue;
+            }
+            int[] first = QRSymbolEncoder.TYPE_INFO_COORDINATES[i];
+            setBit(first[0], first[1], words, rows, columns);
+            if (i < 8) {
+                setBit(size - i - 1, 8, words, rows, columns);
+            } else {
+                setBit(8, size - 7 + (i - 8), words, rows, columns);
+            }
+        }
+    }
+
+    /**
+     * Sets a dark module in packed rows and columns.
+     */
+    private static void setBit(int x, int y, int words, long[] rows, long[] columns) {
+        rows[y * words + (x >>> 6)] |= 1L << x;
+        columns[x * words + (y >>> 6)] |= 1L << y;
+    }
+
+    /**
+     * Scores a masked symbol; lower is better.
+     *
+     * @param rows    packed rows.
+     * @param columns packed columns.
+     * @param size    symbol dimension.
+     * @param words   longs per row.
+     * @return the total penalty of all four rules.
+     */
+    private static int maskPenalty(long[] rows, long[] columns, int size, int words) {
+        int penalty = 0;
+        int finderLike = 0;
+        int block = 0;
+        int dark = 0;
+        for (int line = 0; line < size; line++) {
+            int base = line * words;
+            penalty += runPenalty(rows, base, words, size) + runPenalty(columns, base, words, size);
+            finderLike += finderLikeCount(rows, base, words, size) + finderLikeCount(columns, base, words, size);
+            if (line < size - 1) {
+                block += blockCount(rows, base, base + words, words, size);
+            }
+            for (int w = 0; w < words; w++) {
+                dark += Long.bitCount(rows[base + w]);
+            }
+        }
+        int numTotal = size * size;
+        int fivePercentVariances = Math.abs(dark * 2 - numTotal) * 10 / numTotal;
+        return penalty + 3 * block + 40 * finderLike + 10 * fivePercentVariances;
+    }
+
+    /**
+     * Rule 1 for one line: every run of five or more equal modules costs 3 plus its length beyond 5.
+     * <p>
+     * A run of length n contains n - 4 windows of five equal modules and exactly one such window
+     * whose predecessor is not one; counting both gives n - 4 + 2 = 3 + (n - 5).
+     */
+    private static int runPenalty(long[] line, int base, int words, int size) {
+        int penalty = 0;
+        for (int w = 0; w < words; w++) {
+            long m1 = shifted(line, base, words, w, -1);
+            long s0 = line[base + w];
+            long s1 = shifted(line, base, words, w, 1);
+            long s2 = shifted(line, base, words, w, 2);
+            long s3 = shifted(line, base, words, w, 3);
+            long s4 = shifted(line, base, words, w, 4);
+            long inner = ~(s0 ^ s1) & ~(s1 ^ s2) & ~(s2 ^ s3);
+            long windows = inner & ~(s3 ^ s4) & below(w, size - 4);
+            long previous = ~(m1 ^ s0) & inner & below(w, size - 3) & ~below(w, 1);
+            penalty += Long.bitCount(windows) + 2 * Long.bitCount(windows & ~previous);
+        }
+        return penalty;
+    }
+
+    /**
+     * Rule 2 for two neighbouring rows: number of 2x2 blocks of one color.
+     */
+    private static int blockCount(long[] rows, int top, int bottom, int words, int size) {
+        int count = 0;
+        for (int w = 0; w < words; w++) {
+            long a0 = rows[top + w];
+            long a1 = shifted(rows, top, words, w, 1);
+            long b0 = rows[bottom + w];
+            long b1 = shifted(rows, bottom, words, w, 1);
+            count += Long.bitCount(~(a0 ^ a1) & ~(b0 ^ b1) & ~(a0 ^ b0) & below(w, size - 1));
+        }
+        return count;
+    }
+
+    /**
+     * Rule 3 for one line: number of 1:1:3:1:1 patterns with four light modules before or after them.
+     */
+    private static int finderLikeCount(long[] line, int base, int words, int size) {
+        int count = 0;
+        for (int w = 0; w < words; w++) {
+            long pattern = line[base + w] & ~shifted(line, base, words, w, 1) & shifted(line, base, words, w, 2)
+                    & shifted(line, base, words, w, 3) & shifted(line, base, words, w, 4)
+                    & ~shifted(line, base, words, w, 5) & shifted(line, base, words, w, 6) & below(w, size - 6);
+            if (pattern == 0) {
+                continue;
+            }
+            long lightBefore = ~(shifted(line, base, words, w, -4) | shifted(line, base, words, w, -3)
+                    | shifted(line, base, words, w, -2) | shifted(line, base, words, w, -1)) & ~below(w, 4);
+            long lightAfter = ~(shifted(line, base, words, w, 7) | shifted(line, base, words, w, 8)
+                    | shifted(line, base, words, w, 9) | shifted(line, base, words, w, 10)) & below(w, size - 10);
+            count += Long.bitCount(pattern & (lightBefore | lightAfter));
+        }
+        return count;
+    }
+
+    /**
+     * Returns word {@code w} of a line moved so that bit x holds module x + k; modules outside the line read as 0.
+     *
+     * @param line  packed lines.
+     * @param base  index of the first word of the line.
+     * @param words longs per line.
+     * @param w     word index.
+     * @param k     offset, negative to look back.
+     * @return the shifted word.
+     */
+    private static long shifted(long[] line, int base, int words, int w, int k) {
+        int position = w * 64 + k;
+        int index = Math.floorDiv(position, 64);
+        int offset = Math.floorMod(position, 64);
+        long low = index >= 0 && index < words ? line[base + index] : 0;
+        if (offset == 0) {
+            return low;
+        }
+        long high = index + 1 >= 0 && index + 1 < words ? line[base + index + 1] : 0;
+        return (low >>> offset) | (high << (64 - offset));
+    }
+
+    /**
+     * Returns the bits of word {@code w} whose module index is below a limit.
+     *
+     * @param w     word index.
+     * @param limit first excluded module index.
+     * @return the mask.
+     */
+    private static long below(int w, int limit) {
+        int bits = limit - w * 64;
+        if (bits <= 0) {
+            return 0;
+        }
+        return bits >= 64 ? -1L : (1L << bits) - 1;
+    }
+
+    /**
+     * Returns the cached layout of a version, building it on first use.
+     *
+     * @param version the symbol version.
+     * @return the layout.
+     */
+    private static Template template(Version version) {
+        int number = version.getVersionNumber();
+        Template template = TEMPLATES.get(number);
+        if (template == null) {
+            TEMPLATES.compareAndSet(number, null, new Template(version));
+            template = TEMPLATES.get(number);
+        }
+        return template;
+    }
+
+    /**
+     * Everything about a symbol that depends only on its version.
+     */
+    private static final class Template {
+
+        /**
+         * Symbol dimension in modules.
+         */
+        final int size;
+        /**
+         * Longs per packed row or column.
+         */
+        final int words;
+        /**
+         * Dark function modules (finder, alignment and timing patterns, dark module, version information) by row.
+         */
+        final long[] functionRows;
+        /**
+         * Dark function modules by column.
+         */
+        final long[] functionColumns;
+        /**
+         * Data modules in placement order, as {@code y * size + x}.
+         */
+        final int[] dataPositions;
+        /**
+         * Data modules flipped by each mask pattern, by row.
+         */
+        final long[][] maskRows = new long[NUM_MASK_PATTERNS][];
+        /**
+         * Data modules flipped by each mask pattern, by column.
+         */
+        final long[][] maskColumns = new long[NUM_MASK_PATTERNS][];
+
+        /**
+         * Lays out a version with the byte based pattern code, then packs it.
+         *
+         * @param version the symbol version.
+         */
+        Template(Version version) {
+            size = version.getDimensionForVersion();
+            words = (size + 63) >>> 6;
+            ByteMatrix matrix = new ByteMatrix(size, size);
+            matrix.clear((byte) -1);
+            QRSymbolEncoder.embedBasicPatterns(version, matrix);
+            QRSymbolEncoder.embedVersionInfo(version, matrix);
+
+            functionRows = new long[size * words];
+            functionColumns = new long[size * words];
+            for (int y = 0; y < size; y++) {
+                for (int x = 0; x < size; x++) {
+                    if (matrix.get(x, y) == 1) {
+                        setBit(x, y, words, functionRows, functionColumns);
+                    }
+                }
+            }
+            // format information is set per mask; reserve its modules so data skips them
+            for (int i = 0; i < 15; i++) {
+                int[] first = QRSymbolEncoder.TYPE_INFO_COORDINATES[i];
+                matrix.set(first[0], first[1], 0);
+                if (i < 8) {
+                    matrix.set(size - i - 1, 8, 0);
+                } else {
+                    matrix.set(8, size - 7 + (i - 8), 0);
+                }
+            }
+
+            int[] positions = new int[size * size];
+            int count = 0;
+            int direction = -1;
+            int x = size - 1;
+            int y = size - 1;
+            while (x > 0) {
+                // Skip the vertical timing pattern
+                if (x == 6) {
+                    x--;
+                }
+                while (y >= 0 && y < size) {
+                    for (int i = 0; i < 2; i++) {
+                        if (matrix.get(x - i, y) == -1) {
+                            positions[count++] = y * size + x - i;
+                        }
+                    }
+                    y += direction;
+                }
+                direction = -direction;
+                y += direction;
+                x -= 2;
+            }
+            dataPositions = Arrays.copyOf(positions, count);
+
+            for (int mask = 0; mask < NUM_MASK_PATTERNS; mask++) {
+                maskRows[mask] = new long[size * words];
+                maskColumns[mask] = new long[size * words];
+                for (int position : dataPositions) {
+                    int px = position % size;
+                    int py = position / size;
+                    if (QRSymbolEncoder.isMasked(mask, px, py)) {
+                        setBit(px, py, words, maskRows[mask], maskColumns[mask]);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,459 @@
+package gr.omaro.qr_generator.util;
+
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.Writer;
+import com.google.zxing.WriterException;
+import com.google.zxing.aztec.AztecWriter;
+import com.google.zxing.client.j2se.MatrixToImageConfig;
+import com.google.zxing.client.j2se.MatrixToImageWriter;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.datamatrix.DataMatrixWriter;
+import com.google.zxing.oned.Code128Writer;
+import com.google.zxing.pdf417.PDF417Writer;
+import com.google.zxing.qrcode.QRCodeWriter;
+import com.google.zxing.qrcode.encoder.ByteMatrix;
+import com.google.zxing.qrcode.encoder.Encoder;
+import gr.omaro.qr_generator.enums.CodeFormat;
+import gr.omaro.qr_generator.enums.ImageFormat;
+import gr.omaro.qr_generator.jfr.EncodeEvent;
+import gr.omaro.qr_generator.jfr.RenderEvent;
+import gr.omaro.qr_generator.jfr.WriteEvent;
+import gr.omaro.qr_generator.model.QRSpec;
+import gr.omaro.qr_generator.model.QRStyle;
+import lombok.experimental.UtilityClass;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Utility class for generating QR code images and saving them to disk.
+ */
+@UtilityClass
+public class QRCodeGenerator {
+
+    /**
+     * Quiet zone around a symbol in modules, same as ZXing's default margin.
+     */
+    private static final int QUIET_ZONE_SIZE = 4;
+    /**
+     * Quiet zone around a Data Matrix symbol in modules; the standard asks for one, readers
+     * find the symbol more reliably with two.
+     */
+    private static final int DATA_MATRIX_QUIET_ZONE_SIZE = 2;
+
+    /**
+     * One writer per supported format. ZXing writers keep no state, so they are shared by all threads.
+     */
+    private static final Map<CodeFormat, Writer> WRITERS = new EnumMap<>(CodeFormat.class);
+
+    static {
+        WRITERS.put(CodeFormat.QR_CODE, new QRCodeWriter());
+        WRITERS.put(CodeFormat.DATA_MATRIX, new DataMatrixWriter());
+        WRITERS.put(CodeFormat.AZTEC, new AztecWriter());
+        WRITERS.put(CodeFormat.PDF_417, new PDF417Writer());
+        WRITERS.put(CodeFormat.CODE_128, new Code128Writer());
+    }
+
+    /**
+     * Generates a QR code image from the given text and saves it to a file in PNG format.
+     * <p>
+     * This method checks if the input values are valid before generating the QR code.
+     *
+     * @param text     the content to encode in the QR code
+     * @param width    width of the QR code image (must be > 0)
+     * @param height   height of the QR code image (must be > 0)
+     * @param filePath the file path where the QR code will be saved (must not be blank)
+     * @throws WriterException if the QR code cannot be created
+     * @throws IOException     if the file cannot be written
+     */
+    public static void generateQRCodeImage(String text, int width, int height, String filePath)
+            throws WriterException, IOException {
+        // Guard because is a public accessible method
+        if(text != null && !text.isBlank() && width > 0 && height > 0 && filePath != null && !filePath.isBlank()){
+            QRCodeWriter qrCodeWriter = new QRCodeWriter();
+            BitMatrix bitMatrix = qrCodeWriter.encode(text, BarcodeFormat.QR_CODE, width, height);
+            Path path = FileSystems.getDefault().getPath(filePath);
+            MatrixToImageWriter.writeToPath(bitMatrix, "PNG", path);
+        }
+    }
+
+    /**
+     * Renders a QR code image in memory.
+     * <p>
+     * Content is encoded by {@link SegmentEncoder} (or {@code Encoder} when segment optimization is
+     * off); plain specs are scaled like {@link QRCodeWriter} does and styled specs are drawn by
+     * {@link StyledQRRenderer}. Other formats use the ZXing writer registered for
+     * {@link QRSpec#getFormat()}.
+     *
+     * @param text the content to encode in the QR code
+     * @param spec size, error correction and optional style
+     * @return the rendered image, or null if the text is blank or the size is not positive
+     * @throws WriterException if the QR code cannot be created
+     * @throws IOException     if the logo cannot be read
+     */
+    public static BufferedImage renderQRCodeImage(String text, QRSpec spec) throws WriterException, IOException {
+        if (text == null || text.isBlank() || spec.getWidth() <= 0 || spec.getHeight() <= 0) {
+            return null;
+        }
+        if (!spec.isQRCode()) {
+            return renderBarcodeImage(text, spec);
+        }
+        if (spec.getStyle() == null && !spec.isOptimizeSegments()) {
+            RenderEvent event = new RenderEvent();
+            event.begin();
+            Map<EncodeHintType, Object> hints = new EnumMap<>(EncodeHintType.class);
+            hints.put(EncodeHintType.ERROR_CORRECTION, spec.effectiveErrorCorrection());
+            BitMatrix bitMatrix = WRITERS.get(CodeFormat.QR_CODE)
+                    .encode(text, BarcodeFormat.QR_CODE, spec.getWidth(), spec.getHeight(), hints);
+            BufferedImage image = MatrixToImageWriter.toBufferedImage(bitMatrix);
+            commitRender(event, spec, image, 0);
+            return image;
+        }
+        return renderModules(encodeModules(text, spec), spec);
+    }
+
+    /**
+     * Encodes text into the QR module matrix described by a spec, without rendering it.
+     * <p>
+     * The matrix does not depend on the image size, so one encode can be rendered at any number of sizes.
+     *
+     * @param text the content to encode (must not be blank)
+     * @param spec error correction and segment options
+     * @return the module matrix (1 = dark, 0 = light)
+     * @throws WriterException if the QR code cannot be created
+     */
+    public static ByteMatrix encodeModules(String text, QRSpec spec) throws WriterException {
+        EncodeEvent event = new EncodeEvent();
+        event.begin();
+        ByteMatrix modules;
+        if (spec.isOptimizeSegments()) {
+            modules = SegmentEncoder.encode(text, spec.effectiveErrorCorrection());
+        } else {
+            Map<EncodeHintType, Object> hints = new EnumMap<>(EncodeHintType.class);
+            hints.put(EncodeHintType.ERROR_CORRECTION, spec.effectiveErrorCorrection());
+            modules = Encoder.encode(text, spec.effectiveErrorCorrection(), hints).getMatrix();
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.inputLength = text.length();
+            event.version = (modules.getWidth() - 17) / 4;
+            event.errorCorrection = spec.effectiveErrorCorrection().name();
+            event.segmentsOptimized = spec.isOptimizeSegments();
+            event.commit();
+        }
+        return modules;
+    }
+
+    /**
+     * Renders an encoded QR module matrix at the size and style of a spec.
+     *
+     * @param modules the module matrix from {@link #encodeModules(String, QRSpec)}
+     * @param spec    size and optional style
+     * @return the rendered image
+     * @throws IOException if the logo cannot be read
+     */
+    public static BufferedImage renderModules(ByteMatrix modules, QRSpec spec) throws IOException {
+        RenderEvent event = new RenderEvent();
+        event.begin();
+        BufferedImage image = spec.getStyle() == null
+                ? MatrixToImageWriter.toBufferedImage(renderModules(modules, spec.getWidth(), spec.getHeight()))
+                : StyledQRRenderer.render(modules, spec.getWidth(), spec.getHeight(), spec.getStyle());
+        commitRender(event, spec, image, modules.getWidth());
+        return image;
+    }
+
+    /**
+     * Renders a non-QR format with the ZXing writer registered for it.
+     * <p>
+     * Error correction and module shapes are QR specific and ignored here; the style colors are applied.
+     * ZXing's Data Matrix writer fills the image edge to edge, so Data Matrix symbols are encoded at
+     * one pixel per module and scaled with a quiet zone here.
+     *
+     * @param text the content to encode
+     * @param spec format, size and optional colors
+     * @return the rendered image
+     * @throws WriterException if the content cannot be encoded in the format
+     */
+    private static BufferedImage renderBarcodeImage(String text, QRSpec spec) throws WriterException {
+        RenderEvent event = new RenderEvent();
+        event.begin();
+        BitMatrix bitMatrix;
+        try {
+            if (spec.getFormat() == CodeFormat.DATA_MATRIX) {
+                BitMatrix symbol = WRITERS.get(CodeFormat.DATA_MATRIX).encode(text, BarcodeFormat.DATA_MATRIX, 0, 0);
+                bitMatrix = renderWithQuietZone(symbol, DATA_MATRIX_QUIET_ZONE_SIZE, spec.getWidth(), spec.getHeight());
+            } else {
+                bitMatrix = WRITERS.get(spec.getFormat())
+                        .encode(text, spec.getFormat().getBarcodeFormat(), spec.getWidth(), spec.getHeight());
+            }
+        } catch (IllegalArgumentException e) {
+            // one-dimensional writers reject unsupported content with an unchecked exception
+            throw new WriterException(e.getMessage());
+        }
+        QRStyle style = spec.getStyle();
+        BufferedImage image = style == null
+                ? MatrixToImageWriter.toBufferedImage(bitMatrix)
+                : MatrixToImageWriter.toBufferedImage(bitMatrix,
+                        new MatrixToImageConfig(style.getForeground(), style.getBackground()));
+        commitRender(event, spec, image, 0);
+        return image;
+    }
+
+    /**
+     * Ends and records a render event if the recording wants it.
+     *
+     * @param event   the started event.
+     * @param spec    the rendered spec.
+     * @param image   the rendered image.
+     * @param modules modules per side, or 0 if encoded in the same step.
+     */
+    private static void commitRender(RenderEvent event, QRSpec spec, BufferedImage image, int modules) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.format = spec.getFormat().name();
+            event.width = image.getWidth();
+            event.height = image.getHeight();
+            event.modules = modules;
+            event.styled = spec.getStyle() != null;
+            event.commit();
+        }
+    }
+
+    /**
+     * Encodes text as a Structured Append sequence and renders every symbol.
+     * <p>
+     * Symbols are encoded in parallel on the common fork-join pool, at the spec's effective
+     * error correction level, and rendered with its size and style.
+     *
+     * @param text       the content to encode (must not be blank)
+     * @param spec       size, error correction and optional style of each symbol
+     * @param maxVersion largest symbol version to use (1..40)
+     * @return rendered symbols in sequence order
+     * @throws WriterException if the content can't be split into at most 16 symbols
+     * @throws IOException     if the logo cannot be read
+     */
+    public static List<BufferedImage> generateStructuredAppend(String text, QRSpec spec, int maxVersion)
+            throws WriterException, IOException {
+        if (text == null || text.isBlank() || spec.getWidth() <= 0 || spec.getHeight() <= 0) {
+            throw new IllegalArgumentException("Text must not be blank and dimensions must be > 0");
+        }
+        List<ByteMatrix> symbols = StructuredAppendEncoder.encode(
+                text, spec.effectiveErrorCorrection(), maxVersion, ForkJoinPool.commonPool());
+        List<BufferedImage> images = new ArrayList<>(symbols.size());
+        for (ByteMatrix symbol : symbols) {
+            images.add(renderModules(symbol, spec));
+        }
+        return images;
+    }
+
+    /**
+     * Scales a module matrix to an image-sized bit matrix with a quiet zone.
+     * <p>
+     * Mirrors {@link QRCodeWriter}: modules are scaled by the largest integer factor that
+     * fits and the symbol is centered.
+     *
+     * @param modules module matrix (1 = dark)
+     * @param width   requested width in pixels
+     * @param height  requested height in pixels
+     * @return the rendered bit matrix
+     */
+    public static BitMatrix renderModules(ByteMatrix modules, int width, int height) {
+        int inputWidth = modules.getWidth();
+        int inputHeight = modules.getHeight();
+        int qrWidth = inputWidth + (QUIET_ZONE_SIZE * 2);
+        int qrHeight = inputHeight + (QUIET_ZONE_SIZE * 2);
+        int outputWidth = Math.max(width, qrWidth);
+        int outputHeight = Math.max(height, qrHeight);
+
+        int multiple = Math.min(outputWidth / qrWidth, outputHeight / qrHeight);
+        int leftPadding = (outputWidth - (inputWidth * multiple)) / 2;
+        int topPadding = (outputHeight - (inputHeight * multiple)) / 2;
+
+        BitMatrix output = new BitMatrix(outputWidth, outputHeight);
+        for (int inputY = 0, outputY = topPadding; inputY < inputHeight; inputY++, outputY += multiple) {
+            for (int inputX = 0, outputX = leftPadding; inputX < inputWidth; inputX++, outputX += multiple) {
+                if (modules.get(inputX, inputY) == 1) {
+                    output.setRegion(outputX, outputY, multiple, multiple);
+                }
+            }
+        }
+        return output;
+    }
+
+    /**
+     * Scales a symbol encoded at one pixel per module to an image-sized bit matrix with a quiet zone.
+     * <p>
+     * Like {@link #renderModules(ByteMatrix, int, int)}, modules are scaled by the largest integer
+     * factor that fits and the symbol is centered; symbols may be rectangular.
+     *
+     * @param symbol    the symbol, one pixel per module
+     * @param quietZone quiet zone on every side in modules
+     * @param width     requested width in pixels
+     * @param height    requested height in pixels
+     * @return the rendered bit matrix
+     */
+    static BitMatrix renderWithQuietZone(BitMatrix symbol, int quietZone, int width, int height) {
+        int inputWidth = symbol.getWidth();
+        int inputHeight = symbol.getHeight();
+        int outputWidth = Math.max(width, inputWidth + quietZone * 2);
+        int outputHeight = Math.max(height, inputHeight + quietZone * 2);
+
+        int multiple = Math.min(outputWidth / (inputWidth + quietZone * 2), outputHeight / (inputHeight + quietZone * 2));
+        int leftPadding = (outputWidth - (inputWidth * multiple)) / 2;
+        int topPadding = (outputHeight - (inputHeight * multiple)) / 2;
+
+        BitMatrix output = new BitMatrix(outputWidth, outputHeight);
+        for (int inputY = 0, outputY = topPadding; inputY < inputHeight; inputY++, outputY += multiple) {
+            for (int inputX = 0, outputX = leftPadding; inputX < inputWidth; inputX++, outputX += multiple) {
+                if (symbol.get(inputX, inputY)) {
+                    output.setRegion(outputX, outputY, multiple, multiple);
+                }
+            }
+        }
+        return output;
+    }
+
+    /**
+     * Saves a rendered image as a PNG file.
+     *
+     * @param image    the rendered code
+     * @param filePath the file path where the image will be saved
+     * @throws IOException if the file cannot be written
+     */
+    public static void writeImage(BufferedImage image, String filePath) throws IOException {
+        WriteEvent event = new WriteEvent();
+        event.begin();
+        if (!ImageIO.write(image, "PNG", FileSystems.getDefault().getPath(filePath).toFile())) {
+            throw new IOException("Could not write an image of format PNG to " + filePath);
+        }
+        commitWrite(event, filePath, "png", image.getWidth(), image.getHeight(), -1);
+    }
+
+    /**
+     * Saves a rendered image in the given file format.
+     * <p>
+     * Formats without transparency get the image flattened onto a white background first.
+     *
+     * @param image    the rendered code
+     * @param filePath the file path where the image will be saved
+     * @param format   the image file format
+     * @throws IOException if the file cannot be written
+     */
+    public static void writeImage(BufferedImage image, String filePath, ImageFormat format) throws IOException {
+        WriteEvent event = new WriteEvent();
+        event.begin();
+        BufferedImage output = image;
+        if (!format.isAlpha() && image.getColorModel().hasAlpha()) {
+            output = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = output.createGraphics();
+            try {
+                graphics.drawImage(image, 0, 0, Color.WHITE, null);
+            } finally {
+                graphics.dispose();
+            }
+        }
+        if (!ImageIO.write(output, format.getExtension(), FileSystems.getDefault().getPath(filePath).toFile())) {
+            throw new IOException("Could not write an image of format " + format + " to " + filePath);
+        }
+        commitWrite(event, filePath, format.getExtension(), image.getWidth(), image.getHeight(), -1);
+    }
+
+    /**
+     * Encodes a rendered image as PNG bytes without touching the disk.
+     *
+     * @param image the rendered code
+     * @return the PNG file contents
+     * @throws IOException if the image cannot be encoded
+     */
+    public static byte[] toPng(BufferedImage image) throws IOException {
+        WriteEvent event = new WriteEvent();
+        event.begin();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(8 * 1024);
+        if (!ImageIO.write(image, "PNG", out)) {
+            throw new IOException("Could not encode an image of format PNG");
+        }
+        byte[] png = out.toByteArray();
+        commitWrite(event, null, "png", image.getWidth(), image.getHeight(), png.length);
+        return png;
+    }
+
+    /**
+     * Ends and records a write event if the recording wants it.
+     *
+     * @param event       the started event.
+     * @param filePath    the written file, or null for an in-memory image.
+     * @param imageFormat the image file format.
+     * @param width       image width in pixels.
+     * @param height      image height in pixels.
+     * @param bytes       size of the image, or -1 to read it from the file.
+     */
+    static void commitWrite(WriteEvent event, String filePath, String imageFormat, int width, int height, long bytes) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.path = filePath;
+            event.imageFormat = imageFormat;
+            event.width = width;
+            event.height = height;
+            event.bytesWritten = bytes >= 0 ? bytes : fileSize(filePath);
+            event.commit();
+        }
+    }
+
+    /**
+     * Returns the size of a written file for an event.
+     *
+     * @param filePath the file.
+     * @return its size, or 0 if it cannot be read.
+     */
+    private static long fileSize(String filePath) {
+        try {
+            return Files.size(FileSystems.getDefault().getPath(filePath));
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Lays out several rendered codes on one image, left to right and top to bottom, and saves it as PNG.
+     *
+     * @param codes    the rendered codes, all of the same size
+     * @param filePath the file path where the sheet will be saved
+     * @throws IOException if the file cannot be written
+     */
+    public static void writeContactSheet(List<BufferedImage> codes, String filePath) throws IOException {
+        int columns = (int) Math.ceil(Math.sqrt(codes.size()));
+        int rows = (codes.size() + columns - 1) / columns;
+        int cellWidth = codes.get(0).getWidth();
+        int cellHeight = codes.get(0).getHeight();
+        // styled codes may be colored; plain ones stay grayscale
+        boolean color = codes.stream().anyMatch(code -> code.getType() != BufferedImage.TYPE_BYTE_BINARY);
+
+        BufferedImage sheet = new BufferedImage(columns * cellWidth, rows * cellHeight,
+                color ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_BYTE_GRAY);
+        Graphics2D graphics = sheet.createGraphics();
+        try {
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, sheet.getWidth(), sheet.getHeight());
+            for (int i = 0; i < codes.size(); i++) {
+                graphics.drawImage(codes.get(i), (i % columns) * cellWidth, (i / columns) * cellHeight, null);
+            }
+        } finally {
+            graphics.dispose();
+        }
+        writeImage(sheet, filePath);
+    }
+}
@@ -0,0 +1,586 @@
+package gr.omaro.qr_generator.util;
+
+import com.google.zxing.WriterException;
+import com.google.zxing.common.BitArray;
+import com.google.zxing.common.reedsolomon.GenericGF;
+import com.google.zxing.common.reedsolomon.ReedSolomonEncoder;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import com.google.zxing.qrcode.decoder.Version;
+import com.google.zxing.qrcode.encoder.ByteMatrix;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Utility class that turns a prepared QR data bit stream into a module matrix.
+ * <p>
+ * ZXing's {@code Encoder} only accepts a string and builds the bit stream itself,
+ * so features that need custom segments (like Structured Append headers) use this class.
+ * Padding, Reed-Solomon interleaving, function patterns, data placement and mask
+ * selection follow ZXing's encoder step by step, so the same bit stream gives the
+ * same symbol. {@link PackedSymbolBuilder} builds the same symbol on bit-packed rows.
+ */
+@UtilityClass
+public class QRSymbolEncoder {
+
+    /**
+     * Number of available mask patterns.
+     */
+    private static final int NUM_MASK_PATTERNS = 8;
+    /**
+     * Generator polynomial for the 15-bit format information BCH code.
+     */
+    private static final int TYPE_INFO_POLY = 0x537;
+    /**
+     * Mask applied to the format information bits.
+     */
+    private static final int TYPE_INFO_MASK_PATTERN = 0x5412;
+    /**
+     * Generator polynomial for the 18-bit version information BCH code.
+     */
+    private static final int VERSION_INFO_POLY = 0x1f25;
+    /**
+     * Positions of the format information bits around the top-left finder pattern.
+     */
+    static final int[][] TYPE_INFO_COORDINATES = {
+            {8, 0}, {8, 1}, {8, 2}, {8, 3}, {8, 4}, {8, 5}, {8, 7}, {8, 8},
+            {7, 8}, {5, 8}, {4, 8}, {3, 8}, {2, 8}, {1, 8}, {0, 8},
+    };
+    /**
+     * Penalty weights of the four mask evaluation rules.
+     */
+    private static final int N1 = 3;
+    private static final int N2 = 3;
+    private static final int N3 = 40;
+    private static final int N4 = 10;
+
+    /**
+     * Returns the number of data bits a symbol can hold.
+     *
+     * @param version the symbol version.
+     * @param ecLevel the error correction level.
+     * @return data capacity in bits.
+     */
+    public static int dataCapacityBits(Version version, ErrorCorrectionLevel ecLevel) {
+        return numDataBytes(version, ecLevel) * 8;
+    }
+
+    /**
+     * Builds a complete symbol from header and data bits.
+     * <p>
+     * The bits are terminated and padded, split into Reed-Solomon blocks and placed
+     * in the matrix using the mask with the lowest penalty. The bit-packed builder is
+     * used unless {@code qr.encoder.packed=false} is configured.
+     *
+     * @param headerAndDataBits mode indicators, character counts and data.
+     * @param ecLevel           the error correction level.
+     * @param version           the symbol version.
+     * @return the module matrix (1 = dark, 0 = light).
+     * @throws WriterException if the bits don't fit the version.
+     */
+    public static ByteMatrix buildSymbol(BitArray headerAndDataBits, ErrorCorrectionLevel ecLevel, Version version)
+            throws WriterException {
+        return buildSymbol(headerAndDataBits, ecLevel, version, ConfigUtil.usePackedEncoder());
+    }
+
+    /**
+     * Builds a complete symbol from header and data bits with the chosen implementation.
+     * <p>
+     * Both implementations give the same symbol; the byte based one follows ZXing's encoder
+     * step by step and is kept as the reference.
+     *
+     * @param headerAndDataBits mode indicators, character counts and data.
+     * @param ecLevel           the error correction level.
+     * @param version           the symbol version.
+     * @param packed            true for the bit-packed builder, false for the byte based reference.
+     * @return the module matrix (1 = dark, 0 = light).
+     * @throws WriterException if the bits don't fit the version.
+     */
+    public static ByteMatrix buildSymbol(BitArray headerAndDataBits, ErrorCorrectionLevel ecLevel, Version version,
+                                         boolean packed) throws WriterException {
+        int numDataBytes = numDataBytes(version, ecLevel);
+        BitArray bits = new BitArray();
+        bits.appendBitArray(headerAndDataBits);
+        terminateBits(numDataBytes, bits);
+        if (packed) {
+            return PackedSymbolBuilder.build(bits, ecLevel, version);
+        }
+        BitArray finalBits = interleaveWithECBytes(bits, version, ecLevel);
+
+        int dimension = version.getDimensionForVersion();
+        ByteMatrix matrix = new ByteMatrix(dimension, dimension);
+        int bestMask = 0;
+        int minPenalty = Integer.MAX_VALUE;
+        for (int mask = 0; mask < NUM_MASK_PATTERNS; mask++) {
+            buildMatrix(finalBits, ecLevel, version, mask, matrix);
+            int penalty = maskPenalty(matrix);
+            if (penalty < minPenalty) {
+                minPenalty = penalty;
+                bestMask = mask;
+            }
+        }
+        buildMatrix(finalBits, ecLevel, version, bestMask, matrix);
+        return matrix;
+    }
+
+    /**
+     * Returns the number of data codewords of a symbol.
+     *
+     * @param version the symbol version.
+     * @param ecLevel the error correction level.
+     * @return data codewords.
+     */
+    private static int numDataBytes(Version version, ErrorCorrectionLevel ecLevel) {
+        return version.getTotalCodewords() - version.getECBlocksForLevel(ecLevel).getTotalECCodewords();
+    }
+
+    /**
+     * Appends the terminator, bit padding and pad codewords.
+     *
+     * @param numDataBytes data capacity in bytes.
+     * @param bits         the bits to terminate.
+     * @throws WriterException if the bits exceed the capacity.
+     */
+    private static void terminateBits(int numDataBytes, BitArray bits) throws WriterException {
+        int capacity = numDataBytes * 8;
+        if (bits.getSize() > capacity) {
+            throw new WriterException("Data bits cannot fit in the QR Code: " + bits.getSize() + " > " + capacity);
+        }
+        // Terminator of up to four zero bits
+        for (int i = 0; i < 4 && bits.getSize() < capacity; i++) {
+            bits.appendBit(false);
+        }
+        // Pad to a byte boundary
+        int numBitsInLastByte = bits.getSize() & 0x07;
+        if (numBitsInLastByte > 0) {
+            for (int i = numBitsInLastByte; i < 8; i++) {
+                bits.appendBit(false);
+            }
+        }
+        // Fill the remaining capacity with alternating pad codewords
+        int numPaddingBytes = numDataBytes - bits.getSizeInBytes();
+        for (int i = 0; i < numPaddingBytes; i++) {
+            bits.appendBits((i & 0x01) == 0 ? 0xEC : 0x11, 8);
+        }
+    }
+
+    /**
+     * Splits the data codewords into blocks, adds error correction and interleaves them.
+     *
+     * @param bits    the padded data bits.
+     * @param version the symbol version.
+     * @param ecLevel the error correction level.
+     * @return the final codeword sequence.
+     */
+    private static BitArray interleaveWithECBytes(BitArray bits, Version version, ErrorCorrectionLevel ecLevel) {
+        Version.ECBlocks ecBlocks = version.getECBlocksForLevel(ecLevel);
+        int numEcBytes = ecBlocks.getECCodewordsPerBlock();
+        byte[][] dataBlocks = new byte[ecBlocks.getNumBlocks()][];
+        byte[][] ecBlocksBytes = new byte[ecBlocks.getNumBlocks()][];
+        ReedSolomonEncoder rsEncoder = new ReedSolomonEncoder(GenericGF.QR_CODE_FIELD_256);
+
+        int block = 0;
+        int offset = 0;
+        int maxDataBytes = 0;
+        for (Version.ECB ecb : ecBlocks.getECBlocks()) {
+            for (int i = 0; i < ecb.getCount(); i++, block++) {
+                int size = ecb.getDataCodewords();
+                byte[] data = new byte[size];
+                bits.toBytes(8 * offset, data, 0, size);
+                offset += size;
+
+                int[] toEncode = new int[size + numEcBytes];
+                for (int j = 0; j < size; j++) {
+                    toEncode[j] = data[j] & 0xFF;
+                }
+                rsEncoder.encode(toEncode, numEcBytes);
+                byte[] ec = new byte[numEcBytes];
+                for (int j = 0; j < numEcBytes; j++) {
+                    ec[j] = (byte) toEncode[size + j];
+                }
+                dataBlocks[block] = data;
+                ecBlocksBytes[block] = ec;
+                maxDataBytes = Math.max(maxDataBytes, size);
+            }
+        }
+
+        BitArray result = new BitArray();
+        for (int i = 0; i < maxDataBytes; i++) {
+            for (byte[] data : dataBlocks) {
+                if (i < data.length) {
+                    result.appendBits(data[i], 8);
+                }
+            }
+        }
+        for (int i = 0; i < numEcBytes; i++) {
+            for (byte[] ec : ecBlocksBytes) {
+                result.appendBits(ec[i], 8);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Places function patterns, format/version information and masked data bits.
+     *
+     * @param dataBits the final codeword bits.
+     * @param ecLevel  the error correction level.
+     * @param version  the symbol version.
+     * @param mask     the mask pattern (0..7).
+     * @param matrix   the matrix to fill.
+     */
+    private static void buildMatrix(BitArray dataBits, ErrorCorrectionLevel ecLevel, Version version,
+                                    int mask, ByteMatrix matrix) {
+        matrix.clear((byte) -1);
+        embedBasicPatterns(version, matrix);
+        embedTypeInfo(ecLevel, mask, matrix);
+        embedVersionInfo(version, matrix);
+        embedDataBits(dataBits, mask, matrix);
+    }
+
+    /**
+     * Embeds finder patterns, separators, the dark module, alignment and timing patterns.
+     *
+     * @param version the symbol version.
+     * @param matrix  the matrix to fill.
+     */
+    static void embedBasicPatterns(Version version, ByteMatrix matrix) {
+        int size = matrix.getWidth();
+        embedFinderPattern(0, 0, matrix);
+        embedFinderPattern(size - 7, 0, matrix);
+        embedFinderPattern(0, size - 7, matrix);
+        // Separators around the finder patterns
+        for (int i = 0; i < 8; i++) {
+            matrix.set(i, 7, 0);
+            matrix.set(size - 8 + i, 7, 0);
+            matrix.set(i, size - 8, 0);
+            matrix.set(7, i, 0);
+            matrix.set(size - 8, i, 0);
+            matrix.set(7, size - 8 + i, 0);
+        }
+        // Dark module next to the bottom-left finder pattern
+        matrix.set(8, size - 8, 1);
+
+        int[] centers = version.getAlignmentPatternCenters();
+        for (int y : centers) {
+            for (int x : centers) {
+                if (matrix.get(x, y) == -1) {
+                    embedAlignmentPattern(x - 2, y - 2, matrix);
+                }
+            }
+        }
+
+        for (int i = 8; i < size - 8; i++) {
+            int bit = (i + 1) % 2;
+            if (matrix.get(i, 6) == -1) {
+                matrix.set(i, 6, bit);
+            }
+            if (matrix.get(6, i) == -1) {
+                matrix.set(6, i, bit);
+            }
+        }
+    }
+
+    /**
+     * Embeds a 7x7 finder pattern.
+     *
+     * @param left   left column.
+     * @param top    top row.
+     * @param matrix the matrix to fill.
+     */
+    private static void embedFinderPattern(int left, int top, ByteMatrix matrix) {
+        for (int y = 0; y < 7; y++) {
+            for (int x = 0; x < 7; x++) {
+                int ring = Math.max(Math.abs(x - 3), Math.abs(y - 3));
+                matrix.set(left + x, top + y, ring == 2 ? 0 : 1);
+            }
+        }
+    }
+
+    /**
+     * Embeds a 5x5 alignment pattern.
+     *
+     * @param left   left column.
+     * @param top    top row.
+     * @param matrix the matrix to fill.
+     */
+    private static void embedAlignmentPattern(int left, int top, ByteMatrix matrix) {
+        for (int y = 0; y < 5; y++) {
+            for (int x = 0; x < 5; x++) {
+                int ring = Math.max(Math.abs(x - 2), Math.abs(y - 2));
+                matrix.set(left + x, top + y, ring == 1 ? 0 : 1);
+            }
+        }
+    }
+
+    /**
+     * Embeds both copies of the 15-bit format information.
+     *
+     * @param ecLevel the error correction level.
+     * @param mask    the mask pattern.
+     * @param matrix  the matrix to fill.
+     */
+    private static void embedTypeInfo(ErrorCorrectionLevel ecLevel, int mask, ByteMatrix matrix) {
+        int typeInfoBits = typeInfoBits(ecLevel, mask);
+        int size = matrix.getWidth();
+        for (int i = 0; i < 15; i++) {
+            // Least significant bit first
+            boolean bit = ((typeInfoBits >>> i) & 1) != 0;
+            matrix.set(TYPE_INFO_COORDINATES[i][0], TYPE_INFO_COORDINATES[i][1], bit);
+            if (i < 8) {
+                matrix.set(size - i - 1, 8, bit);
+            } else {
+                matrix.set(8, size - 7 + (i - 8), bit);
+            }
+        }
+    }
+
+    /**
+     * Computes the masked 15-bit format information.
+     *
+     * @param ecLevel the error correction level.
+     * @param mask    the mask pattern.
+     * @return the format bits, least significant bit placed first.
+     */
+    static int typeInfoBits(ErrorCorrectionLevel ecLevel, int mask) {
+        int typeInfo = (ecLevel.getBits() << 3) | mask;
+        return ((typeInfo << 10) | calculateBCHCode(typeInfo, TYPE_INFO_POLY)) ^ TYPE_INFO_MASK_PATTERN;
+    }
+
+    /**
+     * Embeds both copies of the 18-bit version information for versions 7 and above.
+     *
+     * @param version the symbol version.
+     * @param matrix  the matrix to fill.
+     */
+    static void embedVersionInfo(Version version, ByteMatrix matrix) {
+        if (version.getVersionNumber() < 7) {
+            return;
+        }
+        int versionNum = version.getVersionNumber();
+        int versionInfoBits = (versionNum << 12) | calculateBCHCode(versionNum, VERSION_INFO_POLY);
+        int size = matrix.getHeight();
+        int bitIndex = 0;
+        for (int i = 0; i < 6; i++) {
+            for (int j = 0; j < 3; j++) {
+                boolean bit = ((versionInfoBits >>> bitIndex) & 1) != 0;
+                bitIndex++;
+                matrix.set(i, size - 11 + j, bit);
+                matrix.set(size - 11 + j, i, bit);
+            }
+        }
+    }
+
+    /**
+     * Places the codeword bits in the zig-zag order, applying the mask.
+     *
+     * @param dataBits the final codeword bits.
+     * @param mask     the mask pattern.
+     * @param matrix   the matrix to fill.
+     */
+    private static void embedDataBits(BitArray dataBits, int mask, ByteMatrix matrix) {
+        int size = matrix.getWidth();
+        int bitIndex = 0;
+        int direction = -1;
+        int x = size - 1;
+        int y = size - 1;
+        while (x > 0) {
+            // Skip the vertical timing pattern
+            if (x == 6) {
+                x--;
+            }
+            while (y >= 0 && y < size) {
+                for (int i = 0; i < 2; i++) {
+                    int xx = x - i;
+                    if (matrix.get(xx, y) != -1) {
+                        continue;
+                    }
+                    boolean bit = bitIndex < dataBits.getSize() && dataBits.get(bitIndex);
+                    bitIndex++;
+                    if (isMasked(mask, xx, y)) {
+                        bit = !bit;
+                    }
+                    matrix.set(xx, y, bit);
+                }
+                y += direction;
+            }
+            direction = -direction;
+            y += direction;
+            x -= 2;
+        }
+    }
+
+    /**
+     * Returns whether the mask pattern flips the module at (x, y).
+     *
+     * @param mask the mask pattern.
+     * @param x    column.
+     * @param y    row.
+     * @return true if the module is flipped.
+     */
+    static boolean isMasked(int mask, int x, int y) {
+        int product = x * y;
+        int value = switch (mask) {
+            case 0 -> (y + x) & 0x1;
+            case 1 -> y & 0x1;
+            case 2 -> x % 3;
+            case 3 -> (y + x) % 3;
+            case 4 -> ((y / 2) + (x / 3)) & 0x1;
+            case 5 -> (product & 0x1) + (product % 3);
+            case 6 -> ((product & 0x1) + (product % 3)) & 0x1;
+            case 7 -> ((product % 3) + ((y + x) & 0x1)) & 0x1;
+            default -> throw new IllegalArgumentException("Invalid mask pattern: " + mask);
+        };
+        return value == 0;
+    }
+
+    /**
+     * Computes the BCH error correction bits of a value.
+     *
+     * @param value the value to protect.
+     * @param poly  the generator polynomial.
+     * @return the remainder bits.
+     */
+    private static int calculateBCHCode(int value, int poly) {
+        int msbSetInPoly = 32 - Integer.numberOfLeadingZeros(poly);
+        int result = value << (msbSetInPoly - 1);
+        while (32 - Integer.numberOfLeadingZeros(result) >= msbSetInPoly) {
+            result ^= poly << (32 - Integer.numberOfLeadingZeros(result) - msbSetInPoly);
+        }
+        return result;
+    }
+
+    /**
+     * Scores a masked matrix; lower is better.
+     *
+     * @param matrix the matrix to score.
+     * @return the total penalty of all four rules.
+     */
+    private static int maskPenalty(ByteMatrix matrix) {
+        byte[][] array = matrix.getArray();
+        int width = matrix.getWidth();
+        int height = matrix.getHeight();
+        return penaltyRule1(array, width, height, true)
+                + penaltyRule1(array, width, height, false)
+                + penaltyRule2(array, width, height)
+                + penaltyRule3(array, width, height)
+                + penaltyRule4(array, width, height);
+    }
+
+    /**
+     * Rule 1: runs of five or more modules of the same color.
+     */
+    private static int penaltyRule1(byte[][] array, int width, int height, boolean horizontal) {
+        int penalty = 0;
+        int outer = horizontal ? height : width;
+        int inner = horizontal ? width : height;
+        for (int i = 0; i < outer; i++) {
+            int run = 0;
+            int prev = -1;
+            for (int j = 0; j < inner; j++) {
+                int bit = horizontal ? array[i][j] : array[j][i];
+                if (bit == prev) {
+                    run++;
+                } else {
+                    if (run >= 5) {
+                        penalty += N1 + (run - 5);
+                    }
+                    run = 1;
+                    prev = bit;
+                }
+            }
+            if (run >= 5) {
+                penalty += N1 + (run - 5);
+            }
+        }
+        return penalty;
+    }
+
+    /**
+     * Rule 2: 2x2 blocks of the same color.
+     */
+    private static int penaltyRule2(byte[][] array, int width, int height) {
+        int penalty = 0;
+        for (int y = 0; y < height - 1; y++) {
+            byte[] row = array[y];
+            byte[] next = array[y + 1];
+            for (int x = 0; x < width - 1; x++) {
+                int value = row[x];
+                if (value == row[x + 1] && value == next[x] && value == next[x + 1]) {
+                    penalty++;
+                }
+            }
+        }
+        return N2 * penalty;
+    }
+
+    /**
+     * Rule 3: finder-like 1:1:3:1:1 patterns next to four light modules.
+     */
+    private static int penaltyRule3(byte[][] array, int width, int height) {
+        int count = 0;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                byte[] row = array[y];
+                if (x + 6 < width
+                        && row[x] == 1 && row[x + 1] == 0 && row[x + 2] == 1 && row[x + 3] == 1
+                        && row[x + 4] == 1 && row[x + 5] == 0 && row[x + 6] == 1
+                        && (isLightHorizontal(row, x - 4, x) || isLightHorizontal(row, x + 7, x + 11))) {
+                    count++;
+                }
+                if (y + 6 < height
+                        && array[y][x] == 1 && array[y + 1][x] == 0 && array[y + 2][x] == 1 && array[y + 3][x] == 1
+                        && array[y + 4][x] == 1 && array[y + 5][x] == 0 && array[y + 6][x] == 1
+                        && (isLightVertical(array, x, y - 4, y) || isLightVertical(array, x, y + 7, y + 11))) {
+                    count++;
+                }
+            }
+        }
+        return count * N3;
+    }
+
+    /**
+     * Checks that a horizontal range lies inside the row and has no dark modules.
+     */
+    private static boolean isLightHorizontal(byte[] row, int from, int to) {
+        if (from < 0 || row.length < to) {
+            return false;
+        }
+        for (int i = from; i < to; i++) {
+            if (row[i] == 1) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks that a vertical range lies inside the matrix and has no dark modules.
+     */
+    private static boolean isLightVertical(byte[][] array, int col, int from, int to) {
+        if (from < 0 || array.length < to) {
+            return false;
+        }
+        for (int i = from; i < to; i++) {
+            if (array[i][col] == 1) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Rule 4: deviation of the dark module ratio from 50%.
+     */
+    private static int penaltyRule4(byte[][] array, int width, int height) {
+        int numDark = 0;
+        for (byte[] row : array) {
+            for (int x = 0; x < width; x++) {
+                if (row[x] == 1) {
+                    numDark++;
+                }
+            }
+        }
+        int numTotal = width * height;
+        int fivePercentVariances = Math.abs(numDark * 2 - numTotal) * 10 / numTotal;
+        return fivePercentVariances * N4;
+    }
+}
@@ -0,0 +1,74 @@
+package gr.omaro.qr_generator.util;
+
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.ChecksumException;
+import com.google.zxing.DecodeHintType;
+import com.google.zxing.FormatException;
+import com.google.zxing.MultiFormatReader;
+import com.google.zxing.NotFoundException;
+import com.google.zxing.client.j2se.BufferedImageLuminanceSource;
+import com.google.zxing.common.HybridBinarizer;
+import com.google.zxing.qrcode.QRCodeReader;
+import gr.omaro.qr_generator.enums.CodeFormat;
+import lombok.experimental.UtilityClass;
+
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Utility class for decoding rendered QR code images with ZXing's {@link QRCodeReader}
+ * (and its other readers for the remaining {@link CodeFormat}s).
+ * <p>
+ * Used to check that generated images are actually readable.
+ */
+@UtilityClass
+public class QRVerifier {
+
+    /**
+     * Decoder hints: spend extra effort, since a failure here is reported to the user.
+     */
+    private static final Map<DecodeHintType, Object> HINTS = new EnumMap<>(Map.of(DecodeHintType.TRY_HARDER, Boolean.TRUE));
+    /**
+     * Decoder hints for non-QR images: the same effort, limited to the formats the generator writes.
+     */
+    private static final Map<DecodeHintType, Object> ANY_FORMAT_HINTS = new EnumMap<>(Map.of(
+            DecodeHintType.TRY_HARDER, Boolean.TRUE,
+            DecodeHintType.POSSIBLE_FORMATS, Arrays.stream(CodeFormat.values()).map(CodeFormat::getBarcodeFormat).toList()
+    ));
+
+    /**
+     * Decodes the QR code in an image.
+     *
+     * @param image the rendered image.
+     * @return the decoded text.
+     * @throws NotFoundException if no QR code is found.
+     * @throws ChecksumException if error correction fails.
+     * @throws FormatException   if the code is malformed.
+     */
+    public static String decode(BufferedImage image) throws NotFoundException, ChecksumException, FormatException {
+        BinaryBitmap bitmap = new BinaryBitmap(new HybridBinarizer(new BufferedImageLuminanceSource(image)));
+        // A new reader per call, since QRCodeReader is not thread-safe
+        return new QRCodeReader().decode(bitmap, HINTS).getText();
+    }
+
+    /**
+     * Decodes a code of any format the generator writes.
+     *
+     * @param image  the rendered image.
+     * @param format the expected format, or null to accept any of them.
+     * @return the decoded text.
+     * @throws NotFoundException if no code is found or it cannot be decoded.
+     * @throws ChecksumException if error correction fails.
+     * @throws FormatException   if the code is malformed.
+     */
+    public static String decode(BufferedImage image, CodeFormat format)
+            throws NotFoundException, ChecksumException, FormatException {
+        if (format == CodeFormat.QR_CODE) {
+            return decode(image);
+        }
+        BinaryBitmap bitmap = new BinaryBitmap(new HybridBinarizer(new BufferedImageLuminanceSource(image)));
+        return new MultiFormatReader().decode(bitmap, ANY_FORMAT_HINTS).getText();
+    }
+}
@@ -0,0 +1,493 @@
+package gr.omaro.qr_generator.util;
+
+import com.google.zxing.WriterException;
+import com.google.zxing.common.BitArray;
+import com.google.zxing.common.CharacterSetECI;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import com.google.zxing.qrcode.decoder.Mode;
+import com.google.zxing.qrcode.decoder.Version;
+import com.google.zxing.qrcode.encoder.ByteMatrix;
+import lombok.Value;
+import lombok.experimental.UtilityClass;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Utility class that encodes QR content as a sequence of numeric, alphanumeric, byte and Kanji
+ * segments with the smallest total bit length.
+ * <p>
+ * {@code QRCodeWriter} uses a single mode for the whole input, so a URL with a long numeric id
+ * is sent entirely in byte mode. Here every character is assigned a mode by a dynamic-programming
+ * search over the input (costs in sixths of a bit, so that 3 digits = 10 bits and 2 alphanumeric
+ * characters = 11 bits are exact), and a mode switch costs its mode indicator and character count.
+ * The character count width depends on the version range (1-9, 10-26, 27-40), so the search runs
+ * once per range and the smallest fitting version wins.
+ * <p>
+ * Byte segments with non-ASCII characters are sent with an ECI (Latin-1, or UTF-8 if needed), so
+ * decoders do not have to guess their charset. Kanji segments are Shift_JIS by definition and some
+ * decoders keep Shift_JIS for the byte segments that follow, so the ECI is repeated before the
+ * first byte segment after a Kanji segment.
+ */
+@UtilityClass
+public class SegmentEncoder {
+
+    /**
+     * Characters of the alphanumeric mode, in code order.
+     */
+    private static final String ALPHANUMERIC = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ $%*+-./:";
+    /**
+     * Modes considered by the search, indexed by the mode constants below.
+     */
+    private static final Mode[] MODES = {Mode.NUMERIC, Mode.ALPHANUMERIC, Mode.BYTE, Mode.KANJI};
+    private static final int NUMERIC = 0;
+    private static final int ALPHANUMERIC_MODE = 1;
+    private static final int BYTE = 2;
+    private static final int KANJI = 3;
+    /**
+     * Size of an ECI designator with a one byte assignment value.
+     */
+    private static final int ECI_BITS = 4 + 8;
+    /**
+     * Cost marker of a mode that cannot encode a character.
+     */
+    private static final int UNENCODABLE = Integer.MAX_VALUE / 4;
+    /**
+     * First version of each character count width range.
+     */
+    private static final int[] RANGE_FIRST_VERSIONS = {1, 10, 27};
+    /**
+     * Last version of each character count width range.
+     */
+    private static final int[] RANGE_LAST_VERSIONS = {9, 26, 40};
+    /**
+     * Kanji mode encodes the double-byte Shift_JIS characters.
+     */
+    private static final Charset SHIFT_JIS = Charset.forName("Shift_JIS");
+
+    /**
+     * Encodes content in the smallest version that fits at the given error correction level.
+     *
+     * @param content the text to encode (not empty).
+     * @param ecLevel the error correction level.
+     * @return the module matrix.
+     * @throws WriterException if the content does not fit in version 40.
+     */
+    public static ByteMatrix encode(String content, ErrorCorrectionLevel ecLevel) throws WriterException {
+        return encode(content, ecLevel, ConfigUtil.usePackedEncoder());
+    }
+
+    /**
+     * Encodes content in the smallest version that fits with the chosen symbol builder.
+     *
+     * @param content the text to encode (not empty).
+     * @param ecLevel the error correction level.
+     * @param packed  true for the bit-packed builder, false for the byte based reference.
+     * @return the module matrix.
+     * @throws WriterException if the content does not fit in version 40.
+     */
+    static ByteMatrix encode(String content, ErrorCorrectionLevel ecLevel, boolean packed) throws WriterException {
+        int[] codePoints = content.codePoints().toArray();
+        int[] sjis = shiftJisCodes(content, codePoints);
+        boolean latin1 = StandardCharsets.ISO_8859_1.newEncoder().canEncode(content);
+
+        for (int range = 0; range < RANGE_FIRST_VERSIONS.length; range++) {
+            Version first = Version.getVersionForNumber(RANGE_FIRST_VERSIONS[range]);
+            List<Segment> segments = optimize(codePoints, sjis, latin1, first);
+            Charset byteCharset = byteCharset(segments);
+            int bits = bitLength(segments, byteCharset, first);
+            for (int versionNum = RANGE_FIRST_VERSIONS[range]; versionNum <= RANGE_LAST_VERSIONS[range]; versionNum++) {
+                Version version = Version.getVersionForNumber(versionNum);
+                if (bits <= QRSymbolEncoder.dataCapacityBits(version, ecLevel)) {
+                    return QRSymbolEncoder.buildSymbol(toBits(segments, byteCharset, version), ecLevel, version, packed);
+                }
+            }
+        }
+        throw new WriterException("Data too big for any QR version");
+    }
+
+    /**
+     * Returns the exact number of header and data bits {@link #encode} needs, without building a symbol.
+     * <p>
+     * The length depends only on the character count width, so one value per version range is enough.
+     *
+     * @param content the text to encode (not empty).
+     * @return bit lengths for versions 1-9, 10-26 and 27-40.
+     */
+    public static int[] bitLengths(String content) {
+        int[] codePoints = content.codePoints().toArray();
+        int[] sjis = shiftJisCodes(content, codePoints);
+        boolean latin1 = StandardCharsets.ISO_8859_1.newEncoder().canEncode(content);
+        int[] lengths = new int[RANGE_FIRST_VERSIONS.length];
+        for (int range = 0; range < RANGE_FIRST_VERSIONS.length; range++) {
+            Version first = Version.getVersionForNumber(RANGE_FIRST_VERSIONS[range]);
+            List<Segment> segments = optimize(codePoints, sjis, latin1, first);
+            lengths[range] = bitLength(segments, byteCharset(segments), first);
+        }
+        return lengths;
+    }
+
+    /**
+     * Returns the version range of a version, as indexed by {@link #bitLengths(String)}.
+     *
+     * @param versionNumber the version (1..40).
+     * @return 0, 1 or 2.
+     */
+    static int rangeOf(int versionNumber) {
+        return versionNumber <= RANGE_LAST_VERSIONS[0] ? 0 : versionNumber <= RANGE_LAST_VERSIONS[1] ? 1 : 2;
+    }
+
+    /**
+     * Finds the cheapest mode for every character and merges runs into segments.
+     *
+     * @param codePoints the content code points.
+     * @param sjis       Shift_JIS code of every code point, or -1 if it has no Kanji mode code.
+     * @param latin1     whether the whole content is Latin-1, which makes every byte mode character 8 bits.
+     * @param version    any version of the character count width range.
+     * @return the segments in content order.
+     */
+    private static List<Segment> optimize(int[] codePoints, int[] sjis, boolean latin1, Version version) {
+        int n = codePoints.length;
+        int[] headerCosts = new int[MODES.length];
+        for (int m = 0; m < MODES.length; m++) {
+            headerCosts[m] = (4 + MODES[m].getCharacterCountBits(version)) * 6;
+        }
+        // a non-ASCII character that only byte mode carries makes the ECI certain, and with it its
+        // repetition after Kanji; otherwise the search assumes none
+        boolean eci = false;
+        for (int i = 0; i < n && !eci; i++) {
+            eci = codePoints[i] >= 0x80 && sjis[i] < 0;
+        }
+        int kanjiToByteCost = eci ? ECI_BITS * 6 : 0;
+        // previous[i * 4 + m]: mode of character i - 1 on the cheapest path with character i in mode m
+        byte[] previous = new byte[n * MODES.length];
+        int[] costs = headerCosts.clone();
+        int[] next = new int[MODES.length];
+
+        for (int i = 0; i < n; i++) {
+            int c = codePoints[i];
+            int[] charCosts = {
+                    c >= '0' && c <= '9' ? 20 : UNENCODABLE,
+                    c < 128 && ALPHANUMERIC.indexOf(c) >= 0 ? 33 : UNENCODABLE,
+                    (latin1 ? 1 : utf8Length(c)) * 48,
+                    sjis[i] >= 0 ? 78 : UNENCODABLE
+            };
+            for (int m = 0; m < MODES.length; m++) {
+                next[m] = UNENCODABLE;
+                if (charCosts[m] >= UNENCODABLE) {
+                    continue;
+                }
+                for (int p = 0; p < MODES.length; p++) {
+                    if (i == 0 && p != m) {
+                        // the first character pays the header of its own mode, already in costs
+                        continue;
+                    }
+                    int cost = costs[p] + (p == m ? 0 : headerCosts[m]) + (p == KANJI && m == BYTE ? kanjiToByteCost : 0);
+                    if (cost + charCosts[m] < next[m]) {
+                        next[m] = cost + charCosts[m];
+                        previous[i * MODES.length + m] = (byte) p;
+                    }
+                }
+            }
+            System.arraycopy(next, 0, costs, 0, MODES.length);
+        }
+
+        int mode = BYTE;
+        for (int m = 0; m < MODES.length; m++) {
+            if (costs[m] < costs[mode]) {
+                mode = m;
+            }
+        }
+        int[] modes = new int[n];
+        for (int i = n - 1; i >= 0; i--) {
+            modes[i] = mode;
+            mode = previous[i * MODES.length + mode];
+        }
+
+        List<Segment> segments = new ArrayList<>();
+        int start = 0;
+        for (int i = 1; i <= n; i++) {
+            if (i == n || modes[i] != modes[start]) {
+                segments.add(new Segment(modes[start], new String(codePoints, start, i - start)));
+                start = i;
+            }
+        }
+        return segments;
+    }
+
+    /**
+     * Returns the charset of the byte mode segments: Latin-1 if possible, otherwise UTF-8.
+     *
+     * @param segments the segments.
+     * @return the byte mode charset.
+     */
+    private static Charset byteCharset(List<Segment> segments) {
+        CharsetEncoder latin1 = StandardCharsets.ISO_8859_1.newEncoder();
+        for (Segment segment : segments) {
+            if (segment.getMode() == BYTE && !latin1.canEncode(segment.getText())) {
+                return StandardCharsets.UTF_8;
+            }
+        }
+        return StandardCharsets.ISO_8859_1;
+    }
+
+    /**
+     * Returns whether any byte mode segment has a non-ASCII character and so needs an ECI.
+     *
+     * @param segments the segments.
+     * @return true if the byte mode charset is sent as an ECI.
+     */
+    private static boolean needsEci(List<Segment> segments) {
+        for (Segment segment : segments) {
+            if (segment.getMode() == BYTE && !segment.getText().chars().allMatch(c -> c < 0x80)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the exact number of header and data bits of the segments.
+     *
+     * @param segments    the segments.
+     * @param byteCharset the byte mode charset.
+     * @param version     any version of the character count width range.
+     * @return the bit length.
+     */
+    private static int bitLength(List<Segment> segments, Charset byteCharset, Version version) {
+        boolean eci = needsEci(segments);
+        boolean eciPending = eci;
+        int bits = 0;
+        for (Segment segment : segments) {
+            if (segment.getMode() == BYTE && eciPending) {
+                bits += ECI_BITS;
+                eciPending = false;
+            } else if (segment.getMode() == KANJI && eci) {
+                eciPending = true;
+            }
+            int count = segment.count(byteCharset);
+            int maxCount = (1 << MODES[segment.getMode()].getCharacterCountBits(version)) - 1;
+            int headers = (count + maxCount - 1) / maxCount;
+            bits += headers * (4 + MODES[segment.getMode()].getCharacterCountBits(version));
+            bits += switch (segment.getMode()) {
+                case NUMERIC -> count / 3 * 10 + (count % 3 == 0 ? 0 : count % 3 == 1 ? 4 : 7);
+                case ALPHANUMERIC_MODE -> count / 2 * 11 + (count % 2) * 6;
+                case BYTE -> count * 8;
+                default -> count * 13;
+            };
+        }
+        return bits;
+    }
+
+    /**
+     * Writes the segments as mode indicators, character counts and data.
+     *
+     * @param segments    the segments.
+     * @param byteCharset the byte mode charset.
+     * @param version     the symbol version.
+     * @return the header and data bits.
+     * @throws WriterException if a character cannot be encoded in its mode.
+     */
+    private static BitArray toBits(List<Segment> segments, Charset byteCharset, Version version)
+            throws WriterException {
+        BitArray bits = new BitArray();
+        boolean eci = needsEci(segments);
+        boolean eciPending = eci;
+        for (Segment segment : segments) {
+            if (segment.getMode() == BYTE && eciPending) {
+                bits.appendBits(Mode.ECI.getBits(), 4);
+                bits.appendBits(CharacterSetECI.getCharacterSetECI(byteCharset).getValue(), 8);
+                eciPending = false;
+            } else if (segment.getMode() == KANJI && eci) {
+                eciPending = true;
+            }
+            Mode mode = MODES[segment.getMode()];
+            int countBits = mode.getCharacterCountBits(version);
+            int maxCount = (1 << countBits) - 1;
+            switch (segment.getMode()) {
+                case NUMERIC, ALPHANUMERIC_MODE -> {
+                    String text = segment.getText();
+                    for (int from = 0; from < text.length(); from += maxCount) {
+                        String part = text.substring(from, Math.min(text.length(), from + maxCount));
+                        bits.appendBits(mode.getBits(), 4);
+                        bits.appendBits(part.length(), countBits);
+                        if (segment.getMode() == NUMERIC) {
+                            appendNumeric(part, bits);
+                        } else {
+                            appendAlphanumeric(part, bits);
+                        }
+                    }
+                }
+                case BYTE -> {
+                    byte[] data = segment.getText().getBytes(byteCharset);
+                    for (int from = 0; from < data.length; from += maxCount) {
+                        int length = Math.min(data.length - from, maxCount);
+                        bits.appendBits(mode.getBits(), 4);
+                        bits.appendBits(length, countBits);
+                        for (int i = from; i < from + length; i++) {
+                            bits.appendBits(data[i] & 0xFF, 8);
+                        }
+                    }
+                }
+                default -> {
+                    byte[] data = segment.getText().getBytes(SHIFT_JIS);
+                    int chars = data.length / 2;
+                    for (int from = 0; from < chars; from += maxCount) {
+                        int length = Math.min(chars - from, maxCount);
+                        bits.appendBits(mode.getBits(), 4);
+                        bits.appendBits(length, countBits);
+                        appendKanji(data, from * 2, length, bits);
+                    }
+                }
+            }
+        }
+        return bits;
+    }
+
+    /**
+     * Appends digits in groups of three (10 bits), with a 7 or 4 bit remainder.
+     *
+     * @param digits the digits.
+     * @param bits   the target bits.
+     */
+    private static void appendNumeric(String digits, BitArray bits) {
+        int i = 0;
+        for (; i + 3 <= digits.length(); i += 3) {
+            bits.appendBits(Integer.parseInt(digits, i, i + 3, 10), 10);
+        }
+        int rest = digits.length() - i;
+        if (rest > 0) {
+            bits.appendBits(Integer.parseInt(digits, i, digits.length(), 10), rest == 2 ? 7 : 4);
+        }
+    }
+
+    /**
+     * Appends alphanumeric characters in pairs (11 bits), with a 6 bit remainder.
+     *
+     * @param text the characters.
+     * @param bits the target bits.
+     */
+    private static void appendAlphanumeric(String text, BitArray bits) {
+        int i = 0;
+        for (; i + 2 <= text.length(); i += 2) {
+            bits.appendBits(ALPHANUMERIC.indexOf(text.charAt(i)) * 45 + ALPHANUMERIC.indexOf(text.charAt(i + 1)), 11);
+        }
+        if (i < text.length()) {
+            bits.appendBits(ALPHANUMERIC.indexOf(text.charAt(i)), 6);
+        }
+    }
+
+    /**
+     * Appends double-byte Shift_JIS characters as 13 bit values.
+     *
+     * @param data   Shift_JIS bytes.
+     * @param offset first byte to write.
+     * @param chars  number of characters to write.
+     * @param bits   the target bits.
+     * @throws WriterException if a character is outside the Kanji mode ranges.
+     */
+    private static void appendKanji(byte[] data, int offset, int chars, BitArray bits) throws WriterException {
+        for (int i = offset; i < offset + chars * 2; i += 2) {
+            int code = ((data[i] & 0xFF) << 8) | (data[i + 1] & 0xFF);
+            int subtracted = kanjiValue(code);
+            if (subtracted < 0) {
+                throw new WriterException("Invalid Kanji character " + Integer.toHexString(code));
+            }
+            bits.appendBits(subtracted, 13);
+        }
+    }
+
+    /**
+     * Maps a Shift_JIS code to its 13 bit Kanji mode value.
+     *
+     * @param code the double-byte Shift_JIS code.
+     * @return the value, or -1 if the code is outside the Kanji mode ranges.
+     */
+    private static int kanjiValue(int code) {
+        int subtracted;
+        if (code >= 0x8140 && code <= 0x9FFC) {
+            subtracted = code - 0x8140;
+        } else if (code >= 0xE040 && code <= 0xEBBF) {
+            subtracted = code - 0xC140;
+        } else {
+            return -1;
+        }
+        return (subtracted >> 8) * 0xC0 + (subtracted & 0xFF);
+    }
+
+    /**
+     * Returns the Shift_JIS code of every code point that Kanji mode can carry.
+     *
+     * @param content    the text.
+     * @param codePoints the code points of the text.
+     * @return Shift_JIS codes, -1 for code points without one.
+     */
+    private static int[] shiftJisCodes(String content, int[] codePoints) {
+        int[] codes = new int[codePoints.length];
+        CharsetEncoder encoder = SHIFT_JIS.newEncoder();
+        for (int i = 0; i < codePoints.length; i++) {
+            codes[i] = -1;
+            if (codePoints[i] < 0x80 || Character.isSupplementaryCodePoint(codePoints[i])) {
+                continue;
+            }
+            try {
+                ByteBuffer bytes = encoder.encode(CharBuffer.wrap(Character.toChars(codePoints[i])));
+                if (bytes.remaining() == 2) {
+                    int code = ((bytes.get() & 0xFF) << 8) | (bytes.get() & 0xFF);
+                    codes[i] = kanjiValue(code) >= 0 ? code : -1;
+                }
+            } catch (CharacterCodingException e) {
+                // not in Shift_JIS, byte mode only
+            }
+        }
+        return codes;
+    }
+
+    /**
+     * Returns the UTF-8 length of a code point.
+     *
+     * @param codePoint the code point.
+     * @return number of bytes (1..4).
+     */
+    private static int utf8Length(int codePoint) {
+        if (codePoint < 0x80) {
+            return 1;
+        }
+        if (codePoint < 0x800) {
+            return 2;
+        }
+        return codePoint < 0x10000 ? 3 : 4;
+    }
+
+    /**
+     * A run of characters encoded in one mode.
+     */
+    @Value
+    private static class Segment {
+
+        /**
+         * Index into {@link #MODES}.
+         */
+        int mode;
+        /**
+         * The characters of the run.
+         */
+        String text;
+
+        /**
+         * Returns the value of the character count field before splitting.
+         *
+         * @param byteCharset the byte mode charset.
+         * @return characters, bytes for byte mode.
+         */
+        int count(Charset byteCharset) {
+            return mode == BYTE ? text.getBytes(byteCharset).length : text.length();
+        }
+    }
+}
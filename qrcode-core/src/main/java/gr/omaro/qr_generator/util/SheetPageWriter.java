@@ -0,0 +1,37 @@
+package gr.omaro.qr_generator.util;
+
+import gr.omaro.qr_generator.model.SheetCell;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Receives the pages of a label sheet one at a time.
+ * <p>
+ * Implementations keep at most the current page in memory.
+ */
+public interface SheetPageWriter extends AutoCloseable {
+
+    /**
+     * Writes one page.
+     *
+     * @param cells the labels of the page, row by row; fewer than a full page on the last one.
+     * @throws IOException if writing fails.
+     */
+    void writePage(List<SheetCell> cells) throws IOException;
+
+    /**
+     * Finishes the output.
+     *
+     * @throws IOException if writing fails.
+     */
+    @Override
+    void close() throws IOException;
+
+    /**
+     * Returns the files written so far.
+     *
+     * @return file paths.
+     */
+    List<String> files();
+}
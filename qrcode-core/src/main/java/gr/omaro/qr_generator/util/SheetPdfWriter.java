@@ -0,0 +1,374 @@
+package gr.omaro.qr_generator.util;
+
+import com.google.zxing.qrcode.encoder.ByteMatrix;
+import gr.omaro.qr_generator.model.QRStyle;
+import gr.omaro.qr_generator.model.SheetCell;
+import gr.omaro.qr_generator.model.SheetLayout;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Writes a label sheet as a multi-page PDF, streaming page by page.
+ * <p>
+ * Codes are drawn as filled rectangles (one per horizontal run of dark modules), so they stay
+ * sharp at any print resolution; captions use the standard Helvetica font, which every PDF
+ * reader provides. Each page is flushed to disk as soon as it is complete; only the object
+ * offsets are kept for the cross-reference table at the end.
+ */
+public class SheetPdfWriter implements SheetPageWriter {
+
+    /**
+     * Points per millimetre.
+     */
+    private static final double POINTS_PER_MM = 72 / 25.4;
+    /**
+     * Quiet zone around each code in modules.
+     */
+    private static final int QUIET_ZONE_SIZE = 4;
+    /**
+     * Object number of the catalog.
+     */
+    private static final int CATALOG = 1;
+    /**
+     * Object number of the page tree, written last.
+     */
+    private static final int PAGES = 2;
+    /**
+     * Object number of the caption font.
+     */
+    private static final int FONT = 3;
+    /**
+     * Helvetica glyph widths for characters 32..126, in 1/1000 em.
+     */
+    private static final int[] HELVETICA_WIDTHS = {
+            278, 278, 355, 556, 556, 889, 667, 191, 333, 333, 389, 584, 278, 333, 278, 278,
+            556, 556, 556, 556, 556, 556, 556, 556, 556, 556, 278, 278, 584, 584, 584, 556,
+            1015, 667, 667, 722, 722, 667, 611, 778, 722, 278, 500, 667, 556, 833, 722, 778,
+            667, 778, 722, 667, 611, 722, 667, 944, 667, 667, 611, 278, 278, 278, 469, 556,
+            333, 556, 556, 500, 556, 556, 278, 556, 556, 222, 222, 500, 222, 833, 556, 556,
+            556, 556, 333, 500, 278, 556, 500, 722, 500, 500, 500, 334, 260, 334, 584
+    };
+
+    /**
+     * Grid of the sheet.
+     */
+    private final SheetLayout layout;
+    /**
+     * Optional colors.
+     */
+    private final QRStyle style;
+    /**
+     * The PDF file.
+     */
+    private final Path path;
+    /**
+     * Output stream of the file.
+     */
+    private final OutputStream out;
+    /**
+     * Bytes written so far.
+     */
+    private long offset;
+    /**
+     * File offset of every object, indexed by object number - 1.
+     */
+    private final List<Long> offsets = new ArrayList<>();
+    /**
+     * Object numbers of the written pages.
+     */
+    private final List<Integer> pages = new ArrayList<>();
+
+    /**
+     * Starts a PDF file.
+     *
+     * @param layout grid of the sheet.
+     * @param style  optional colors; shapes and logos are not drawn.
+     * @param path   the PDF file.
+     * @throws IOException if the file cannot be created.
+     */
+    public SheetPdfWriter(SheetLayout layout, QRStyle style, Path path) throws IOException {
+        this.layout = layout;
+        this.style = style;
+        this.path = path;
+        this.out = new BufferedOutputStream(Files.newOutputStream(path), 64 * 1024);
+        // binary comment marks the file as binary for transfer tools
+        write("%PDF-1.4\n%âãÏÓ\n");
+        // reserve catalog, page tree and font
+        offsets.add(0L);
+        offsets.add(0L);
+        offsets.add(0L);
+        beginObject(CATALOG);
+        write("<< /Type /Catalog /Pages " + PAGES + " 0 R >>\nendobj\n");
+        beginObject(FONT);
+        write("<< /Type /Font /Subtype /Type1 /BaseFont /Helvetica /Encoding /WinAnsiEncoding >>\nendobj\n");
+    }
+
+    /**
+     * Writes one page with its content stream.
+     *
+     * @param cells the labels of the page.
+     * @throws IOException if writing fails.
+     */
+    @Override
+    public void writePage(List<SheetCell> cells) throws IOException {
+        byte[] content = compress(pageContent(cells));
+        int pageObject = offsets.size() + 1;
+        int contentObject = pageObject + 1;
+        offsets.add(0L);
+        offsets.add(0L);
+
+        beginObject(pageObject);
+        write(String.format(Locale.ROOT,
+                "<< /Type /Page /Parent %d 0 R /MediaBox [0 0 %.2f %.2f] /Resources << /Font << /F1 %d 0 R >> >> /Contents %d 0 R >>\nendobj\n",
+                PAGES, layout.getPageWidth() * POINTS_PER_MM, layout.getPageHeight() * POINTS_PER_MM, FONT, contentObject));
+        beginObject(contentObject);
+        write("<< /Length " + content.length + " /Filter /FlateDecode >>\nstream\n");
+        write(content);
+        write("\nendstream\nendobj\n");
+        pages.add(pageObject);
+        out.flush();
+    }
+
+    /**
+     * Writes the page tree, cross-reference table and trailer, and closes the file.
+     *
+     * @throws IOException if writing fails.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            beginObject(PAGES);
+            StringBuilder kids = new StringBuilder();
+            for (int page : pages) {
+                kids.append(page).append(" 0 R ");
+            }
+            write("<< /Type /Pages /Kids [" + kids + "] /Count " + pages.size() + " >>\nendobj\n");
+
+            long xref = offset;
+            StringBuilder table = new StringBuilder("xref\n0 " + (offsets.size() + 1) + "\n0000000000 65535 f \n");
+            for (long objectOffset : offsets) {
+                table.append(String.format("%010d 00000 n \n", objectOffset));
+            }
+            write(table.toString());
+            write("trailer\n<< /Size " + (offsets.size() + 1) + " /Root " + CATALOG + " 0 R >>\nstartxref\n" + xref + "\n%%EOF\n");
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Returns the PDF file.
+     *
+     * @return a single path.
+     */
+    @Override
+    public List<String> files() {
+        return List.of(path.toString());
+    }
+
+    /**
+     * Builds the drawing operators of one page.
+     *
+     * @param cells the labels of the page.
+     * @return the uncompressed content stream.
+     */
+    private String pageContent(List<SheetCell> cells) {
+        double pageHeight = layout.getPageHeight() * POINTS_PER_MM;
+        double side = layout.codeSide() * POINTS_PER_MM;
+        double cellWidth = layout.cellWidth() * POINTS_PER_MM;
+        StringBuilder content = new StringBuilder(cells.size() * 2048);
+        for (int i = 0; i < cells.size(); i++) {
+            SheetCell cell = cells.get(i);
+            double left = layout.cellX(i) * POINTS_PER_MM;
+            double top = pageHeight - layout.cellY(i) * POINTS_PER_MM;
+            double codeLeft = left + (cellWidth - side) / 2;
+            if (cell.getModules() != null) {
+                drawCode(content, cell.getModules(), codeLeft, top, side);
+            }
+            if (layout.getCaptionSize() > 0 && cell.getCaption() != null && !cell.getCaption().isBlank()) {
+                drawCaption(content, cell.getCaption(), left, top - side, cellWidth);
+            }
+        }
+        return content.toString();
+    }
+
+    /**
+     * Appends the operators drawing one code: its background square, then one rectangle per run of dark modules.
+     *
+     * @param content the content stream.
+     * @param modules module matrix.
+     * @param left    left edge of the code area in points.
+     * @param top     top edge of the code area in points.
+     * @param side    side of the code area, quiet zone included, in points.
+     */
+    private void drawCode(StringBuilder content, ByteMatrix modules, double left, double top, double side) {
+        int background = style == null ? 0xFFFFFFFF : style.getBackground();
+        int foreground = style == null ? 0xFF000000 : style.getForeground();
+        if ((background & 0xFFFFFF) != 0xFFFFFF && (background >>> 24) != 0) {
+            content.append(color(background)).append(" rg\n")
+                    .append(String.format(Locale.ROOT, "%.3f %.3f %.3f %.3f re f\n", left, top - side, side, side));
+        }
+        double module = side / (modules.getWidth() + 2 * QUIET_ZONE_SIZE);
+        content.append(color(foreground)).append(" rg\n");
+        byte[][] rows = modules.getArray();
+        for (int y = 0; y < rows.length; y++) {
+            byte[] row = rows[y];
+            double rowTop = top - (QUIET_ZONE_SIZE + y + 1) * module;
+            int x = 0;
+            while (x < row.length) {
+                if (row[x] != 1) {
+                    x++;
+                    continue;
+                }
+                int start = x;
+                while (x < row.length && row[x] == 1) {
+                    x++;
+                }
+                content.append(String.format(Locale.ROOT, "%.3f %.3f %.3f %.3f re\n",
+                        left + (QUIET_ZONE_SIZE + start) * module, rowTop, (x - start) * module, module));
+            }
+        }
+        content.append("f\n");
+    }
+
+    /**
+     * Appends the operators drawing a caption centered under the code, shortened to fit the cell.
+     *
+     * @param content   the content stream.
+     * @param caption   the caption.
+     * @param left      left edge of the cell in points.
+     * @param top       top edge of the caption line in points.
+     * @param cellWidth cell width in points.
+     */
+    private void drawCaption(StringBuilder content, String caption, double left, double top, double cellWidth) {
+        double size = layout.getCaptionSize();
+        String text = fit(caption, cellWidth / size * 1000);
+        double width = textWidth(text) * size / 1000;
+        content.append("0 g\nBT /F1 ")
+                .append(String.format(Locale.ROOT, "%.2f Tf %.3f %.3f Td (", size, left + (cellWidth - width) / 2, top - size))
+                .append(escape(text))
+                .append(") Tj ET\n");
+    }
+
+    /**
+     * Shortens text with an ellipsis until it fits a width.
+     *
+     * @param text     the text.
+     * @param maxWidth available width in 1/1000 em.
+     * @return the text, shortened if needed.
+     */
+    private static String fit(String text, double maxWidth) {
+        if (textWidth(text) <= maxWidth) {
+            return text;
+        }
+        String shortened = text;
+        while (!shortened.isEmpty() && textWidth(shortened + "...") > maxWidth) {
+            shortened = shortened.substring(0, shortened.length() - 1);
+        }
+        return shortened + "...";
+    }
+
+    /**
+     * Returns the width of text in Helvetica.
+     *
+     * @param text the text.
+     * @return width in 1/1000 em.
+     */
+    private static int textWidth(String text) {
+        int width = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            width += c >= 32 && c <= 126 ? HELVETICA_WIDTHS[c - 32] : 556;
+        }
+        return width;
+    }
+
+    /**
+     * Escapes text for a PDF string in WinAnsi encoding; characters outside Latin-1 become {@code ?}.
+     *
+     * @param text the text.
+     * @return the string body without parentheses.
+     */
+    private static String escape(String text) {
+        StringBuilder escaped = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '(' || c == ')' || c == '\\') {
+                escaped.append('\\').append(c);
+            } else if (c < 32 || c > 255 || (c >= 127 && c < 160)) {
+                escaped.append('?');
+            } else {
+                escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    /**
+     * Formats an ARGB color as PDF RGB components.
+     *
+     * @param argb the color; alpha is ignored.
+     * @return the components separated by spaces.
+     */
+    private static String color(int argb) {
+        return String.format(Locale.ROOT, "%.3f %.3f %.3f",
+                ((argb >> 16) & 0xFF) / 255.0, ((argb >> 8) & 0xFF) / 255.0, (argb & 0xFF) / 255.0);
+    }
+
+    /**
+     * Deflates a content stream.
+     *
+     * @param content the operators; Latin-1 text.
+     * @return the compressed bytes.
+     * @throws IOException never for in-memory streams.
+     */
+    private static byte[] compress(String content) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(content.length() / 4);
+        try (DeflaterOutputStream deflater = new DeflaterOutputStream(bytes)) {
+            deflater.write(content.getBytes(StandardCharsets.ISO_8859_1));
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Records the offset of an object and writes its header.
+     *
+     * @param number the object number.
+     * @throws IOException if writing fails.
+     */
+    private void beginObject(int number) throws IOException {
+        offsets.set(number - 1, offset);
+        write(number + " 0 obj\n");
+    }
+
+    /**
+     * Writes Latin-1 text.
+     *
+     * @param text the text.
+     * @throws IOException if writing fails.
+     */
+    private void write(String text) throws IOException {
+        write(text.getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    /**
+     * Writes bytes and advances the offset.
+     *
+     * @param bytes the bytes.
+     * @throws IOException if writing fails.
+     */
+    private void write(byte[] bytes) throws IOException {
+        out.write(bytes);
+        offset += bytes.length;
+    }
+}
@@ -0,0 +1,196 @@
+package gr.omaro.qr_generator.util;
+
+import com.google.zxing.qrcode.encoder.ByteMatrix;
+import gr.omaro.qr_generator.model.QRStyle;
+import gr.omaro.qr_generator.model.SheetCell;
+import gr.omaro.qr_generator.model.SheetLayout;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes a label sheet as one PNG per page at the layout resolution.
+ * <p>
+ * Modules are drawn with a whole number of pixels each so that codes stay scannable after
+ * printing. Only the current page is held in memory.
+ */
+public class SheetPngWriter implements SheetPageWriter {
+
+    /**
+     * Quiet zone around each code in modules.
+     */
+    private static final int QUIET_ZONE_SIZE = 4;
+
+    /**
+     * Grid of the sheet.
+     */
+    private final SheetLayout layout;
+    /**
+     * Optional colors.
+     */
+    private final QRStyle style;
+    /**
+     * Directory of the page files.
+     */
+    private final Path directory;
+    /**
+     * Base name of the page files; pages are saved as {@code base-001.png}, {@code base-002.png}, ...
+     */
+    private final String baseName;
+    /**
+     * Page files written so far.
+     */
+    private final List<String> files = new ArrayList<>();
+
+    /**
+     * Creates a writer.
+     *
+     * @param layout    grid of the sheet.
+     * @param style     optional colors; shapes and logos are not drawn.
+     * @param directory directory of the page files.
+     * @param baseName  base name of the page files.
+     */
+    public SheetPngWriter(SheetLayout layout, QRStyle style, Path directory, String baseName) {
+        this.layout = layout;
+        this.style = style;
+        this.directory = directory;
+        this.baseName = baseName;
+    }
+
+    /**
+     * Renders one page and writes it to its own file.
+     *
+     * @param cells the labels of the page.
+     * @throws IOException if the file cannot be written.
+     */
+    @Override
+    public void writePage(List<SheetCell> cells) throws IOException {
+        int width = toPixels(layout.getPageWidth());
+        int height = toPixels(layout.getPageHeight());
+        // gray pages are a third the size of RGB ones, enough for black-on-white codes
+        BufferedImage page = new BufferedImage(width, height,
+                style == null ? BufferedImage.TYPE_BYTE_GRAY : BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = page.createGraphics();
+        try {
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            Font font = new Font(Font.SANS_SERIF, Font.PLAIN, Math.max(1, (int) Math.round(layout.getCaptionSize() * layout.getDpi() / 72)));
+            graphics.setFont(font);
+            for (int i = 0; i < cells.size(); i++) {
+                drawCell(graphics, cells.get(i), i);
+            }
+        } finally {
+            graphics.dispose();
+        }
+        Path file = directory.resolve(String.format("%s-%03d.png", baseName, files.size() + 1));
+        QRCodeGenerator.writeImage(page, file.toString());
+        files.add(file.toString());
+    }
+
+    /**
+     * Nothing to finish; every page is a complete file.
+     */
+    @Override
+    public void close() {
+        // pages are written as they come
+    }
+
+    /**
+     * Returns the page files written so far.
+     *
+     * @return file paths in page order.
+     */
+    @Override
+    public List<String> files() {
+        return List.copyOf(files);
+    }
+
+    /**
+     * Draws one label: the code centered in its area and the caption below it.
+     *
+     * @param graphics the page graphics.
+     * @param cell     the label.
+     * @param index    position of the label on the page.
+     */
+    private void drawCell(Graphics2D graphics, SheetCell cell, int index) {
+        int left = toPixels(layout.cellX(index));
+        int top = toPixels(layout.cellY(index));
+        int cellWidth = toPixels(layout.cellWidth());
+        int side = toPixels(layout.codeSide());
+        int codeLeft = left + (cellWidth - side) / 2;
+
+        ByteMatrix modules = cell.getModules();
+        if (modules != null) {
+            int background = style == null ? 0xFFFFFFFF : style.getBackground();
+            graphics.setColor(new Color(background, true));
+            graphics.fillRect(codeLeft, top, side, side);
+
+            int fullSize = modules.getWidth() + 2 * QUIET_ZONE_SIZE;
+            int modulePixels = Math.max(1, side / fullSize);
+            int offset = (side - modulePixels * modules.getWidth()) / 2;
+            graphics.setColor(new Color(style == null ? 0xFF000000 : style.getForeground(), true));
+            byte[][] rows = modules.getArray();
+            for (int y = 0; y < rows.length; y++) {
+                byte[] row = rows[y];
+                int x = 0;
+                while (x < row.length) {
+                    if (row[x] != 1) {
+                        x++;
+                        continue;
+                    }
+                    int start = x;
+                    while (x < row.length && row[x] == 1) {
+                        x++;
+                    }
+                    graphics.fillRect(codeLeft + offset + start * modulePixels, top + offset + y * modulePixels,
+                            (x - start) * modulePixels, modulePixels);
+                }
+            }
+        }
+
+        if (layout.getCaptionSize() > 0 && cell.getCaption() != null && !cell.getCaption().isBlank()) {
+            FontMetrics metrics = graphics.getFontMetrics();
+            String text = fit(cell.getCaption(), metrics, cellWidth);
+            graphics.setColor(Color.BLACK);
+            graphics.drawString(text, left + (cellWidth - metrics.stringWidth(text)) / 2, top + side + metrics.getAscent());
+        }
+    }
+
+    /**
+     * Shortens text with an ellipsis until it fits a width.
+     *
+     * @param text     the text.
+     * @param metrics  metrics of the caption font.
+     * @param maxWidth available width in pixels.
+     * @return the text, shortened if needed.
+     */
+    private static String fit(String text, FontMetrics metrics, int maxWidth) {
+        if (metrics.stringWidth(text) <= maxWidth) {
+            return text;
+        }
+        String shortened = text;
+        while (!shortened.isEmpty() && metrics.stringWidth(shortened + "...") > maxWidth) {
+            shortened = shortened.substring(0, shortened.length() - 1);
+        }
+        return shortened + "...";
+    }
+
+    /**
+     * Converts millimetres to pixels at the layout resolution.
+     *
+     * @param millimetres the length.
+     * @return the length in whole pixels.
+     */
+    private int toPixels(double millimetres) {
+        return (int) Math.round(millimetres * layout.getDpi() / 25.4);
+    }
+}
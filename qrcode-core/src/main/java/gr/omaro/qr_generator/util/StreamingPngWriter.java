@@ -0,0 +1,284 @@
+package gr.omaro.qr_generator.util;
+
+import com.google.zxing.qrcode.encoder.ByteMatrix;
+import gr.omaro.qr_generator.enums.ModuleShape;
+import gr.omaro.qr_generator.jfr.WriteEvent;
+import gr.omaro.qr_generator.model.QRSpec;
+import gr.omaro.qr_generator.model.QRStyle;
+import lombok.experimental.UtilityClass;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Writes a QR module matrix as a 1-bit palette PNG, one scanline at a time.
+ * <p>
+ * Unlike {@link QRCodeGenerator#renderModules(ByteMatrix, QRSpec)} no image-sized bit matrix or
+ * {@code BufferedImage} is built: each scanline is packed into a pooled direct buffer and
+ * deflated straight into another, so heap usage does not grow with the image size. The layout
+ * (scale, centering and quiet zone) is identical to {@link QRCodeGenerator#renderModules(ByteMatrix, int, int)}.
+ * Only square modules without a logo can be streamed, see {@link #supports(QRSpec)}.
+ */
+@UtilityClass
+public class StreamingPngWriter {
+
+    /**
+     * PNG file signature.
+     */
+    private static final byte[] SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    /**
+     * Quiet zone around a symbol in modules, same as {@link QRCodeGenerator}.
+     */
+    private static final int QUIET_ZONE_SIZE = 4;
+    /**
+     * Palette index of dark modules; index 0 is the background.
+     */
+    private static final int DARK = 1;
+
+    /**
+     * Checks whether a spec can be written by this class.
+     *
+     * @param spec the spec.
+     * @return true for QR codes that are plain or only colored.
+     */
+    public static boolean supports(QRSpec spec) {
+        QRStyle style = spec.getStyle();
+        return spec.isQRCode() && (style == null || (style.getShape() == ModuleShape.SQUARE && !style.hasLogo()));
+    }
+
+    /**
+     * Writes a module matrix to a PNG file.
+     *
+     * @param modules  module matrix (1 = dark).
+     * @param spec     size and optional colors.
+     * @param filePath the file to write.
+     * @throws IOException if the file cannot be written.
+     */
+    public static void write(ByteMatrix modules, QRSpec spec, Path filePath) throws IOException {
+        WriteEvent event = new WriteEvent();
+        event.begin();
+        long bytes;
+        try (FileChannel out = FileChannel.open(filePath,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            write(modules, spec, out);
+            bytes = out.position();
+        }
+        int side = modules.getWidth() + QUIET_ZONE_SIZE * 2;
+        QRCodeGenerator.commitWrite(event, filePath.toString(), "png",
+                Math.max(spec.getWidth(), side), Math.max(spec.getHeight(), side), bytes);
+    }
+
+    /**
+     * Writes a module matrix as PNG to a channel.
+     *
+     * @param modules module matrix (1 = dark).
+     * @param spec    size and optional colors.
+     * @param out     the channel; it is not closed.
+     * @throws IOException if writing fails.
+     */
+    public static void write(ByteMatrix modules, QRSpec spec, WritableByteChannel out) throws IOException {
+        int inputWidth = modules.getWidth();
+        int inputHeight = modules.getHeight();
+        int qrWidth = inputWidth + (QUIET_ZONE_SIZE * 2);
+        int qrHeight = inputHeight + (QUIET_ZONE_SIZE * 2);
+        int outputWidth = Math.max(spec.getWidth(), qrWidth);
+        int outputHeight = Math.max(spec.getHeight(), qrHeight);
+        int multiple = Math.min(outputWidth / qrWidth, outputHeight / qrHeight);
+        int leftPadding = (outputWidth - (inputWidth * multiple)) / 2;
+        int topPadding = (outputHeight - (inputHeight * multiple)) / 2;
+
+        writeFully(out, ByteBuffer.wrap(SIGNATURE));
+        writeHeader(out, outputWidth, outputHeight, spec.getStyle());
+
+        // filter byte plus one bit per pixel
+        int lineBytes = 1 + (outputWidth + 7) / 8;
+        ByteBuffer line = DirectBufferPool.acquire(lineBytes);
+        ByteBuffer compressed = DirectBufferPool.acquire(DirectBufferPool.BUFFER_SIZE);
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        try {
+            line.limit(lineBytes);
+            int packedRow = Integer.MIN_VALUE;
+            for (int y = 0; y < outputHeight; y++) {
+                int moduleRow = y >= topPadding && y < topPadding + inputHeight * multiple
+                        ? (y - topPadding) / multiple
+                        : -1;
+                if (moduleRow != packedRow) {
+                    packRow(line, lineBytes, modules, moduleRow, leftPadding, multiple);
+                    packedRow = moduleRow;
+                }
+                deflater.setInput(line.duplicate().position(0));
+                while (!deflater.needsInput()) {
+                    deflate(deflater, compressed, out);
+                }
+            }
+            deflater.finish();
+            while (!deflater.finished()) {
+                deflate(deflater, compressed, out);
+            }
+            if (compressed.position() > 0) {
+                writeIdat(out, compressed);
+            }
+        } finally {
+            deflater.end();
+            DirectBufferPool.release(line);
+            DirectBufferPool.release(compressed);
+        }
+        writeChunk(out, "IEND", ByteBuffer.allocate(0));
+    }
+
+    /**
+     * Fills a scanline buffer for one module row, or with background for rows outside the symbol.
+     *
+     * @param line        the scanline buffer.
+     * @param lineBytes   bytes per scanline including the filter byte.
+     * @param modules     module matrix.
+     * @param moduleRow   module row, or -1 for a background row.
+     * @param leftPadding pixels left of the symbol.
+     * @param multiple    pixels per module.
+     */
+    private static void packRow(ByteBuffer line, int lineBytes, ByteMatrix modules, int moduleRow,
+                                int leftPadding, int multiple) {
+        for (int i = 0; i < lineBytes; i++) {
+            line.put(i, (byte) 0);
+        }
+        if (moduleRow < 0) {
+            return;
+        }
+        byte[] row = modules.getArray()[moduleRow];
+        for (int x = 0; x < row.length; x++) {
+            if (row[x] == 1) {
+                setRun(line, leftPadding + x * multiple, multiple);
+            }
+        }
+    }
+
+    /**
+     * Sets a run of pixels to the dark palette index.
+     *
+     * @param line   the scanline buffer; byte 0 is the filter byte.
+     * @param start  first pixel.
+     * @param length number of pixels.
+     */
+    private static void setRun(ByteBuffer line, int start, int length) {
+        int end = start + length;
+        int x = start;
+        // leading partial byte
+        while (x < end && (x & 7) != 0) {
+            setPixel(line, x++);
+        }
+        // whole bytes
+        while (x + 8 <= end) {
+            line.put(1 + (x >>> 3), (byte) 0xFF);
+            x += 8;
+        }
+        while (x < end) {
+            setPixel(line, x++);
+        }
+    }
+
+    /**
+     * Sets one pixel to the dark palette index; pixels are packed most significant bit first.
+     *
+     * @param line the scanline buffer.
+     * @param x    the pixel.
+     */
+    private static void setPixel(ByteBuffer line, int x) {
+        int index = 1 + (x >>> 3);
+        line.put(index, (byte) (line.get(index) | (DARK << (7 - (x & 7)))));
+    }
+
+    /**
+     * Runs the deflater into the output buffer and flushes it as an IDAT chunk when full.
+     *
+     * @param deflater   the deflater.
+     * @param compressed output buffer.
+     * @param out        the channel.
+     * @throws IOException if writing fails.
+     */
+    private static void deflate(Deflater deflater, ByteBuffer compressed, WritableByteChannel out) throws IOException {
+        deflater.deflate(compressed);
+        if (!compressed.hasRemaining()) {
+            writeIdat(out, compressed);
+        }
+    }
+
+    /**
+     * Writes the buffered compressed data as one IDAT chunk and clears the buffer.
+     *
+     * @param out        the channel.
+     * @param compressed the buffer, filled up to its position.
+     * @throws IOException if writing fails.
+     */
+    private static void writeIdat(WritableByteChannel out, ByteBuffer compressed) throws IOException {
+        compressed.flip();
+        writeChunk(out, "IDAT", compressed);
+        compressed.clear();
+    }
+
+    /**
+     * Writes the IHDR, PLTE and, for translucent colors, tRNS chunks.
+     *
+     * @param out    the channel.
+     * @param width  image width.
+     * @param height image height.
+     * @param style  optional colors.
+     * @throws IOException if writing fails.
+     */
+    private static void writeHeader(WritableByteChannel out, int width, int height, QRStyle style) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(13)
+                .putInt(width).putInt(height)
+                // bit depth 1, color type 3 (palette), deflate, adaptive filtering, no interlace
+                .put((byte) 1).put((byte) 3).put((byte) 0).put((byte) 0).put((byte) 0)
+                .flip();
+        writeChunk(out, "IHDR", header);
+
+        int background = style == null ? 0xFFFFFFFF : style.getBackground();
+        int foreground = style == null ? 0xFF000000 : style.getForeground();
+        ByteBuffer palette = ByteBuffer.allocate(6);
+        for (int color : new int[]{background, foreground}) {
+            palette.put((byte) (color >>> 16)).put((byte) (color >>> 8)).put((byte) color);
+        }
+        writeChunk(out, "PLTE", palette.flip());
+        if ((background >>> 24) != 0xFF || (foreground >>> 24) != 0xFF) {
+            writeChunk(out, "tRNS", ByteBuffer.wrap(new byte[]{(byte) (background >>> 24), (byte) (foreground >>> 24)}));
+        }
+    }
+
+    /**
+     * Writes a chunk: length, type, data and CRC.
+     *
+     * @param out  the channel.
+     * @param type four letter chunk type.
+     * @param data chunk data between position and limit.
+     * @throws IOException if writing fails.
+     */
+    private static void writeChunk(WritableByteChannel out, String type, ByteBuffer data) throws IOException {
+        byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+        CRC32 crc = new CRC32();
+        crc.update(typeBytes);
+        crc.update(data.duplicate());
+        writeFully(out, ByteBuffer.allocate(8).putInt(data.remaining()).put(typeBytes).flip());
+        writeFully(out, data);
+        writeFully(out, ByteBuffer.allocate(4).putInt((int) crc.getValue()).flip());
+    }
+
+    /**
+     * Writes all remaining bytes of a buffer.
+     *
+     * @param out    the channel.
+     * @param buffer the data.
+     * @throws IOException if writing fails.
+     */
+    private static void writeFully(WritableByteChannel out, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package gr.omaro.qr_generator.util;
+
+import com.google.zxing.WriterException;
+import com.google.zxing.common.BitArray;
+import com.google.zxing.common.CharacterSetECI;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import com.google.zxing.qrcode.decoder.Mode;
+import com.google.zxing.qrcode.decoder.Version;
+import com.google.zxing.qrcode.encoder.ByteMatrix;
+import lombok.experimental.UtilityClass;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Utility class that splits large payloads into a Structured Append sequence of QR symbols.
+ * <p>
+ * Every symbol starts with a Structured Append header (position, total count and parity
+ * of the whole message), so scanners that support it rebuild the original payload.
+ * Symbols are split on character boundaries and encoded in parallel.
+ */
+@UtilityClass
+public class StructuredAppendEncoder {
+
+    /**
+     * Maximum number of symbols in one Structured Append sequence.
+     */
+    public static final int MAX_SYMBOLS = 16;
+    /**
+     * Size of the Structured Append header: mode, position, total and parity.
+     */
+    private static final int HEADER_BITS = 4 + 4 + 4 + 8;
+    /**
+     * Size of an ECI designator with a one byte assignment value.
+     */
+    private static final int ECI_BITS = 4 + 8;
+
+    /**
+     * Encodes content as a sequence of QR symbols no larger than {@code maxVersion}.
+     *
+     * @param content    the text to encode.
+     * @param ecLevel    error correction level of every symbol.
+     * @param maxVersion largest symbol version to use (1..40).
+     * @param executor   executor the symbols are encoded on.
+     * @return module matrices in sequence order.
+     * @throws WriterException if the content needs more than {@link #MAX_SYMBOLS} symbols.
+     */
+    public static List<ByteMatrix> encode(String content, ErrorCorrectionLevel ecLevel, int maxVersion,
+                                          Executor executor) throws WriterException {
+        boolean latin1 = StandardCharsets.ISO_8859_1.newEncoder().canEncode(content);
+        Charset charset = latin1 ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8;
+        List<byte[]> chunks = new ArrayList<>();
+        for (String part : split(content, ecLevel, maxVersion)) {
+            chunks.add(part.getBytes(charset));
+        }
+        int parity = 0;
+        for (byte[] chunk : chunks) {
+            for (byte b : chunk) {
+                parity ^= b & 0xFF;
+            }
+        }
+
+        List<CompletableFuture<ByteMatrix>> symbols = new ArrayList<>(chunks.size());
+        for (int i = 0; i < chunks.size(); i++) {
+            int index = i;
+            int total = chunks.size();
+            int sequenceParity = parity;
+            symbols.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return encodeSymbol(chunks.get(index), index, total, sequenceParity, latin1, ecLevel, maxVersion);
+                } catch (WriterException e) {
+                    throw new CompletionException(e);
+                }
+            }, executor));
+        }
+
+        List<ByteMatrix> result = new ArrayList<>(symbols.size());
+        try {
+            for (CompletableFuture<ByteMatrix> symbol : symbols) {
+                result.add(symbol.join());
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof WriterException writerException) {
+                throw writerException;
+            }
+            throw e;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the text each symbol of the sequence carries, which is what a scanner without
+     * Structured Append support decodes from it.
+     *
+     * @param content    the text to encode.
+     * @param ecLevel    error correction level of every symbol.
+     * @param maxVersion largest symbol version to use (1..40).
+     * @return the parts in sequence order.
+     * @throws WriterException if the content needs more than {@link #MAX_SYMBOLS} symbols.
+     */
+    public static List<String> split(String content, ErrorCorrectionLevel ecLevel, int maxVersion) throws WriterException {
+        if (maxVersion < 1 || maxVersion > 40) {
+            throw new WriterException("Max version must be between 1 and 40: " + maxVersion);
+        }
+        // Latin-1 is the default byte mode charset; anything else is sent as UTF-8 with an ECI
+        boolean latin1 = StandardCharsets.ISO_8859_1.newEncoder().canEncode(content);
+        int overheadBits = HEADER_BITS + (latin1 ? 0 : ECI_BITS) + 4
+                + Mode.BYTE.getCharacterCountBits(Version.getVersionForNumber(maxVersion));
+        int maxBytes = (QRSymbolEncoder.dataCapacityBits(Version.getVersionForNumber(maxVersion), ecLevel)
+                - overheadBits) / 8;
+
+        List<String> parts = split(content, latin1 ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8, maxBytes);
+        if (parts.size() > MAX_SYMBOLS) {
+            throw new WriterException("Content needs " + parts.size() + " symbols of version " + maxVersion
+                    + ", but Structured Append supports at most " + MAX_SYMBOLS);
+        }
+        return parts;
+    }
+
+    /**
+     * Splits content into parts of at most {@code maxBytes} when encoded, never inside a character.
+     *
+     * @param content  the text to split.
+     * @param charset  the byte mode charset.
+     * @param maxBytes maximum bytes per part.
+     * @return the parts.
+     */
+    private static List<String> split(String content, Charset charset, int maxBytes) {
+        List<String> chunks = new ArrayList<>();
+        int start = 0;
+        int chunkBytes = 0;
+        int i = 0;
+        while (i < content.length()) {
+            int codePoint = content.codePointAt(i);
+            int bytes = charset == StandardCharsets.UTF_8 ? utf8Length(codePoint) : 1;
+            if (chunkBytes > 0 && chunkBytes + bytes > maxBytes) {
+                chunks.add(content.substring(start, i));
+                start = i;
+                chunkBytes = 0;
+            }
+            chunkBytes += bytes;
+            i += Character.charCount(codePoint);
+        }
+        chunks.add(content.substring(start));
+        return chunks;
+    }
+
+    /**
+     * Returns the UTF-8 length of a code point.
+     *
+     * @param codePoint the code point.
+     * @return number of bytes (1..4).
+     */
+    private static int utf8Length(int codePoint) {
+        if (codePoint < 0x80) {
+            return 1;
+        }
+        if (codePoint < 0x800) {
+            return 2;
+        }
+        return codePoint < 0x10000 ? 3 : 4;
+    }
+
+    /**
+     * Encodes one symbol of the sequence in the smallest version that fits.
+     *
+     * @param data       the chunk bytes.
+     * @param index      zero based position in the sequence.
+     * @param total      number of symbols in the sequence.
+     * @param parity     XOR of all bytes of the whole message.
+     * @param latin1     whether the bytes are Latin-1 (otherwise UTF-8 with an ECI).
+     * @param ecLevel    the error correction level.
+     * @param maxVersion largest symbol version to use.
+     * @return the module matrix.
+     * @throws WriterException if the chunk doesn't fit.
+     */
+    private static ByteMatrix encodeSymbol(byte[] data, int index, int total, int parity, boolean latin1,
+                                           ErrorCorrectionLevel ecLevel, int maxVersion) throws WriterException {
+        for (int versionNum = 1; versionNum <= maxVersion; versionNum++) {
+            Version version = Version.getVersionForNumber(versionNum);
+            int countBits = Mode.BYTE.getCharacterCountBits(version);
+            int numBits = HEADER_BITS + (latin1 ? 0 : ECI_BITS) + 4 + countBits + data.length * 8;
+            if (numBits > QRSymbolEncoder.dataCapacityBits(version, ecLevel)) {
+                continue;
+            }
+
+            BitArray bits = new BitArray();
+            bits.appendBits(Mode.STRUCTURED_APPEND.getBits(), 4);
+            bits.appendBits(index, 4);
+            bits.appendBits(total - 1, 4);
+            bits.appendBits(parity, 8);
+            if (!latin1) {
+                bits.appendBits(Mode.ECI.getBits(), 4);
+                bits.appendBits(CharacterSetECI.UTF8.getValue(), 8);
+            }
+            bits.appendBits(Mode.BYTE.getBits(), 4);
+            bits.appendBits(data.length, countBits);
+            for (byte b : data) {
+                bits.appendBits(b & 0xFF, 8);
+            }
+            return QRSymbolEncoder.buildSymbol(bits, ecLevel, version);
+        }
+        throw new WriterException("Symbol " + (index + 1) + " does not fit in version " + maxVersion);
+    }
+}
@@ -0,0 +1,109 @@
+package gr.omaro.qr_generator.util;
+
+import com.google.zxing.qrcode.encoder.ByteMatrix;
+import gr.omaro.qr_generator.enums.ModuleShape;
+import gr.omaro.qr_generator.model.QRStyle;
+import lombok.experimental.UtilityClass;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Utility class that renders a QR module matrix with colors, module shapes and a logo.
+ * <p>
+ * The image is drawn in a single pass over the module matrix; square modules are written
+ * straight into the pixel buffer, other shapes through anti-aliased {@link Graphics2D}.
+ * Scaling and centering follow {@link QRCodeGenerator#renderModules}.
+ */
+@UtilityClass
+public class StyledQRRenderer {
+
+    /**
+     * Quiet zone around a symbol in modules.
+     */
+    private static final int QUIET_ZONE_SIZE = 4;
+
+    /**
+     * Renders a styled QR code image.
+     *
+     * @param modules module matrix (1 = dark)
+     * @param width   requested width in pixels
+     * @param height  requested height in pixels
+     * @param style   colors, module shape and logo
+     * @return the rendered ARGB image
+     * @throws IOException if the logo cannot be read
+     */
+    public static BufferedImage render(ByteMatrix modules, int width, int height, QRStyle style) throws IOException {
+        int inputWidth = modules.getWidth();
+        int inputHeight = modules.getHeight();
+        int outputWidth = Math.max(width, inputWidth + (QUIET_ZONE_SIZE * 2));
+        int outputHeight = Math.max(height, inputHeight + (QUIET_ZONE_SIZE * 2));
+        int multiple = Math.min(outputWidth / (inputWidth + (QUIET_ZONE_SIZE * 2)),
+                outputHeight / (inputHeight + (QUIET_ZONE_SIZE * 2)));
+        int leftPadding = (outputWidth - (inputWidth * multiple)) / 2;
+        int topPadding = (outputHeight - (inputHeight * multiple)) / 2;
+
+        BufferedImage image = new BufferedImage(outputWidth, outputHeight, BufferedImage.TYPE_INT_ARGB);
+        int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        Arrays.fill(pixels, style.getBackground());
+
+        Graphics2D graphics = image.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            graphics.setColor(new Color(style.getForeground(), true));
+            int arc = multiple / 2 + 1;
+            for (int inputY = 0, outputY = topPadding; inputY < inputHeight; inputY++, outputY += multiple) {
+                for (int inputX = 0, outputX = leftPadding; inputX < inputWidth; inputX++, outputX += multiple) {
+                    if (modules.get(inputX, inputY) != 1) {
+                        continue;
+                    }
+                    // Finder patterns stay square so scanners can still locate the code
+                    if (style.getShape() == ModuleShape.SQUARE || isFinderModule(inputX, inputY, inputWidth, inputHeight)) {
+                        for (int y = outputY; y < outputY + multiple; y++) {
+                            int row = y * outputWidth;
+                            Arrays.fill(pixels, row + outputX, row + outputX + multiple, style.getForeground());
+                        }
+                    } else if (style.getShape() == ModuleShape.ROUNDED) {
+                        graphics.fillRoundRect(outputX, outputY, multiple, multiple, arc, arc);
+                    } else {
+                        graphics.fillOval(outputX, outputY, multiple, multiple);
+                    }
+                }
+            }
+
+            if (style.hasLogo()) {
+                int symbolWidth = inputWidth * multiple;
+                int logoWidth = Math.max(1, (int) (symbolWidth * style.getLogoScale()));
+                BufferedImage logo = LogoCache.getScaled(style.getLogoPath(), logoWidth);
+                int logoX = (outputWidth - logo.getWidth()) / 2;
+                int logoY = (outputHeight - logo.getHeight()) / 2;
+                // Clear the modules behind the logo, with a one module border
+                graphics.setColor(new Color(style.getBackground(), true));
+                graphics.fillRect(logoX - multiple, logoY - multiple,
+                        logo.getWidth() + 2 * multiple, logo.getHeight() + 2 * multiple);
+                graphics.drawImage(logo, logoX, logoY, null);
+            }
+        } finally {
+            graphics.dispose();
+        }
+        return image;
+    }
+
+    /**
+     * Checks whether a module belongs to one of the three 7x7 finder patterns.
+     *
+     * @param x      module column
+     * @param y      module row
+     * @param width  matrix width
+     * @param height matrix height
+     * @return true for finder pattern modules
+     */
+    private static boolean isFinderModule(int x, int y, int width, int height) {
+        return (x < 7 && y < 7) || (x >= width - 7 && y < 7) || (x < 7 && y >= height - 7);
+    }
+}
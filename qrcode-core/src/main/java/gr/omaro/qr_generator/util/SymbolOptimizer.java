@@ -0,0 +1,124 @@
+package gr.omaro.qr_generator.util;
+
+import com.google.zxing.WriterException;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import com.google.zxing.qrcode.decoder.Mode;
+import com.google.zxing.qrcode.decoder.Version;
+import com.google.zxing.qrcode.encoder.Encoder;
+import gr.omaro.qr_generator.model.QRSpec;
+import gr.omaro.qr_generator.model.SymbolPlan;
+import lombok.experimental.UtilityClass;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Utility class that picks the error correction level and module scale of a QR code from
+ * capacity tables, without encoding it.
+ * <p>
+ * The payload's bit length is computed once per character count width range (the same segment
+ * search {@link SegmentEncoder} uses, or ZXing's single mode), and compared against a table of
+ * data capacities per version and level. The highest level whose smallest fitting version is
+ * within the budget wins; the budget is the smaller of the requested maximum version and the
+ * largest version that still gets one pixel per module at the requested image size. The image
+ * side is then snapped to a multiple of the symbol width including its quiet zone, so every
+ * module has the same whole number of pixels and no padding is added around the quiet zone.
+ */
+@UtilityClass
+public class SymbolOptimizer {
+
+    /**
+     * Quiet zone around a symbol in modules.
+     */
+    private static final int QUIET_ZONE_SIZE = 4;
+    /**
+     * Levels from the most to the least redundant.
+     */
+    private static final ErrorCorrectionLevel[] LEVELS_DESCENDING = {
+            ErrorCorrectionLevel.H, ErrorCorrectionLevel.Q, ErrorCorrectionLevel.M, ErrorCorrectionLevel.L
+    };
+    /**
+     * Data capacity in bits by level ordinal and version number; index 0 is unused.
+     */
+    private static final int[][] CAPACITY_BITS = new int[ErrorCorrectionLevel.values().length][41];
+
+    static {
+        for (ErrorCorrectionLevel level : ErrorCorrectionLevel.values()) {
+            for (int v = 1; v <= 40; v++) {
+                CAPACITY_BITS[level.ordinal()][v] = QRSymbolEncoder.dataCapacityBits(Version.getVersionForNumber(v), level);
+            }
+        }
+    }
+
+    /**
+     * Plans the symbol of a payload.
+     *
+     * @param content    the text to encode (not empty).
+     * @param spec       encoding mode, lowest accepted level (a logo requires H) and image size.
+     * @param maxVersion largest version allowed (1..40).
+     * @return the plan.
+     * @throws WriterException if the payload fits no version within the budget at the lowest accepted level.
+     */
+    public static SymbolPlan plan(String content, QRSpec spec, int maxVersion) throws WriterException {
+        int side = Math.min(spec.getWidth(), spec.getHeight());
+        int budget = Math.min(Math.min(maxVersion, 40), largestVersionFor(side));
+        if (budget < 1) {
+            throw new WriterException("Version budget " + maxVersion + " at " + side + " px leaves no usable QR version");
+        }
+        int[] bits = spec.isOptimizeSegments() ? SegmentEncoder.bitLengths(content) : singleModeBitLengths(content);
+        ErrorCorrectionLevel lowest = spec.effectiveErrorCorrection();
+        for (ErrorCorrectionLevel level : LEVELS_DESCENDING) {
+            for (int v = 1; v <= budget; v++) {
+                int needed = bits[SegmentEncoder.rangeOf(v)];
+                if (needed <= CAPACITY_BITS[level.ordinal()][v]) {
+                    int width = 17 + 4 * v + QUIET_ZONE_SIZE * 2;
+                    int scale = side / width;
+                    return new SymbolPlan(v, level, scale, scale * width, needed, CAPACITY_BITS[level.ordinal()][v]);
+                }
+            }
+            if (level == lowest) {
+                break;
+            }
+        }
+        throw new WriterException("Data too big for version " + budget + " at error correction level " + lowest);
+    }
+
+    /**
+     * Returns the largest version that gets at least one pixel per module within an image side.
+     *
+     * @param side image side in pixels.
+     * @return the version, 0 if even version 1 does not fit, at most 40.
+     */
+    public static int largestVersionFor(int side) {
+        return Math.min(40, (side - QUIET_ZONE_SIZE * 2 - 17) / 4);
+    }
+
+    /**
+     * Returns the bit lengths of {@code QRCodeWriter}'s single mode encoding: the mode chosen by
+     * ZXing and one Latin-1 byte per character in byte mode.
+     *
+     * @param content the text to encode.
+     * @return bit lengths for versions 1-9, 10-26 and 27-40.
+     */
+    private static int[] singleModeBitLengths(String content) {
+        Mode mode = Encoder.chooseMode(content);
+        int count;
+        int dataBits;
+        if (mode == Mode.NUMERIC) {
+            count = content.length();
+            dataBits = count / 3 * 10 + (count % 3 == 0 ? 0 : count % 3 == 1 ? 4 : 7);
+        } else if (mode == Mode.ALPHANUMERIC) {
+            count = content.length();
+            dataBits = count / 2 * 11 + (count % 2) * 6;
+        } else {
+            // without a character set hint ZXing sends Latin-1, replacing other characters
+            count = content.getBytes(StandardCharsets.ISO_8859_1).length;
+            dataBits = count * 8;
+        }
+        int[] lengths = new int[3];
+        int[] firstVersions = {1, 10, 27};
+        for (int range = 0; range < lengths.length; range++) {
+            lengths[range] = 4 + mode.getCharacterCountBits(Version.getVersionForNumber(firstVersions[range])) + dataBits;
+        }
+        return lengths;
+    }
+}
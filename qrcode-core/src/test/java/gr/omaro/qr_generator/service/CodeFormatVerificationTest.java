@@ -0,0 +1,57 @@
+package gr.omaro.qr_generator.service;
+
+import gr.omaro.qr_generator.enums.CodeFormat;
+import gr.omaro.qr_generator.model.QRSpec;
+import gr.omaro.qr_generator.model.VerificationReport;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CodeFormatVerificationTest {
+
+    /**
+     * Payloads every format can hold, including short ones that give the smallest symbols.
+     */
+    private static final List<String> PAYLOADS = List.of(
+            "a", "hello", "1234567890", "HELLO WORLD 42", "https://example.com/x",
+            "https://example.com/item/123456789?q=abc");
+    /**
+     * Square and non-square image sizes.
+     */
+    private static final int[][] SIZES = {{300, 300}, {200, 200}, {500, 500}, {400, 150}, {150, 400}};
+
+    @TempDir
+    Path outputDir;
+
+    @ParameterizedTest
+    @EnumSource(CodeFormat.class)
+    void generatedImagesVerifyInMemoryAndFromDisk(CodeFormat format) throws Exception {
+        int count = 0;
+        try (VerificationService inMemory = new VerificationService(2)) {
+            QRService qrService = new QRService(inMemory);
+            for (String payload : PAYLOADS) {
+                for (int[] size : SIZES) {
+                    QRSpec spec = QRSpec.builder().width(size[0]).height(size[1]).format(format).build();
+                    String file = outputDir.resolve(format + "-" + count++ + ".png").toString();
+                    qrService.generateToFile(payload, spec, file);
+                }
+            }
+            VerificationReport report = inMemory.awaitReport();
+            assertEquals(count, report.getChecked());
+            assertEquals(List.of(), report.getFailures());
+        }
+
+        // what `qrgen verify <dir>` does: decode the written files without knowing the format
+        try (VerificationService fromDisk = new VerificationService(2)) {
+            fromDisk.submitDirectory(outputDir);
+            VerificationReport report = fromDisk.awaitReport();
+            assertEquals(count, report.getChecked());
+            assertEquals(List.of(), report.getFailures());
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package gr.omaro.qr_generator.service;
+
+import gr.omaro.qr_generator.model.GenerationRequest;
+import gr.omaro.qr_generator.model.GenerationResult;
+import gr.omaro.qr_generator.model.QRSpec;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QRGenerationProcessorTest {
+
+    @TempDir
+    Path outputDir;
+
+    @Test
+    void pathRequestWithAnInvalidSizeGivesAnErrorResult() throws Exception {
+        Path valid = outputDir.resolve("valid.png");
+        Path invalid = outputDir.resolve("invalid.png");
+        List<GenerationRequest> requests = List.of(
+                GenerationRequest.of("valid", "hello").toBuilder().path(valid.toString()).build(),
+                GenerationRequest.of("invalid", "hello").toBuilder().spec(QRSpec.of(-3, 300)).path(invalid.toString()).build(),
+                GenerationRequest.of("bytes", "hello").toBuilder().spec(QRSpec.of(300, 0)).build());
+
+        Map<String, GenerationResult> results = new ConcurrentHashMap<>();
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        try (SubmissionPublisher<GenerationRequest> publisher = new SubmissionPublisher<>()) {
+            new QRService().generateAll(publisher, 2).subscribe(new Flow.Subscriber<>() {
+                @Override
+                public void onSubscribe(Flow.Subscription subscription) {
+                    subscription.request(Long.MAX_VALUE);
+                }
+
+                @Override
+                public void onNext(GenerationResult result) {
+                    results.put(result.getRequest().getId(), result);
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                    done.completeExceptionally(throwable);
+                }
+
+                @Override
+                public void onComplete() {
+                    done.complete(null);
+                }
+            });
+            requests.forEach(publisher::submit);
+        }
+        done.get(30, TimeUnit.SECONDS);
+
+        assertTrue(results.get("valid").isSuccess());
+        assertTrue(Files.size(valid) > 0);
+        for (String id : List.of("invalid", "bytes")) {
+            GenerationResult result = results.get(id);
+            assertFalse(result.isSuccess(), id);
+            assertNotNull(result.getError(), id);
+            assertEquals(null, result.getPath(), id);
+        }
+        assertFalse(Files.exists(invalid));
+    }
+}
@@ -0,0 +1,51 @@
+package gr.omaro.qr_generator.service;
+
+import gr.omaro.qr_generator.enums.ImageFormat;
+import gr.omaro.qr_generator.exception.QRException;
+import gr.omaro.qr_generator.model.QRSpec;
+import gr.omaro.qr_generator.model.RenderedFile;
+import gr.omaro.qr_generator.model.VerificationReport;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.awt.Dimension;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class QRServiceTest {
+
+    @TempDir
+    Path outputDir;
+
+    @Test
+    void repeatedSizesAreRenderedOnce() throws Exception {
+        List<Dimension> sizes = List.of(new Dimension(200, 200), new Dimension(300, 300),
+                new Dimension(200, 200), new Dimension(300, 300), new Dimension(200, 200));
+        try (VerificationService verifier = new VerificationService(2)) {
+            List<RenderedFile> files = new QRService(verifier).generateSizes("https://example.com",
+                    QRSpec.builder().build(), sizes, EnumSet.of(ImageFormat.PNG, ImageFormat.BMP), outputDir.toString());
+
+            assertEquals(List.of("200x200.png", "200x200.bmp", "300x300.png", "300x300.bmp"),
+                    files.stream().map(f -> f.getWidth() + "x" + f.getHeight() + "." + f.getFormat().getExtension()).toList());
+            VerificationReport report = verifier.awaitReport();
+            assertEquals(2, report.getChecked());
+            assertEquals(List.of(), report.getFailures());
+        }
+    }
+
+    @Test
+    void generateToFileFailsWithoutWritingWhenNothingIsRendered() {
+        QRService qrService = new QRService();
+        Path file = outputDir.resolve("code.png");
+        assertThrows(QRException.class, () -> qrService.generateToFile("hello", QRSpec.of(-3, 300), file.toString()));
+        assertThrows(QRException.class, () -> qrService.generateToFile("hello", QRSpec.of(300, 0), file.toString()));
+        assertThrows(QRException.class, () -> qrService.generateToFile(" ", QRSpec.of(300, 300), file.toString()));
+        assertFalse(Files.exists(file));
+    }
+}
@@ -0,0 +1,131 @@
+package gr.omaro.qr_generator.util;
+
+import com.google.zxing.WriterException;
+import com.google.zxing.common.BitArray;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import com.google.zxing.qrcode.decoder.Version;
+import com.google.zxing.qrcode.encoder.ByteMatrix;
+import com.google.zxing.qrcode.encoder.Encoder;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QRSymbolEncoderTest {
+
+    /**
+     * Random bit streams per version and error correction level.
+     */
+    private static final int SAMPLES = 5;
+
+    @Test
+    void packedBuilderMatchesTheReferenceForEveryVersionAndLevel() throws WriterException {
+        Random random = new Random(41);
+        List<String> mismatches = new ArrayList<>();
+        for (int number = 1; number <= 40; number++) {
+            Version version = Version.getVersionForNumber(number);
+            for (ErrorCorrectionLevel ecLevel : ErrorCorrectionLevel.values()) {
+                for (int i = 0; i < SAMPLES; i++) {
+                    BitArray bits = randomBits(random, version, ecLevel);
+                    if (!sameModules(QRSymbolEncoder.buildSymbol(bits, ecLevel, version, true),
+                            QRSymbolEncoder.buildSymbol(bits, ecLevel, version, false))) {
+                        mismatches.add("version " + number + " " + ecLevel + ": " + bits);
+                    }
+                }
+            }
+        }
+        assertEquals(List.of(), mismatches);
+    }
+
+    @Test
+    void bothBuildersMatchZXingForSingleModeContent() throws WriterException {
+        Random random = new Random(41);
+        List<String> mismatches = new ArrayList<>();
+        int compared = 0;
+        for (String content : singleModeCorpus(random)) {
+            for (ErrorCorrectionLevel ecLevel : ErrorCorrectionLevel.values()) {
+                ByteMatrix expected;
+                try {
+                    expected = Encoder.encode(content, ecLevel).getMatrix();
+                } catch (WriterException e) {
+                    // too long for this level
+                    continue;
+                }
+                for (boolean packed : new boolean[]{true, false}) {
+                    if (!sameModules(SegmentEncoder.encode(content, ecLevel, packed), expected)) {
+                        mismatches.add((packed ? "packed" : "reference") + ", " + ecLevel + ": " + content);
+                    }
+                }
+                compared++;
+            }
+        }
+        assertTrue(compared > 500, "only " + compared + " symbols compared");
+        assertEquals(List.of(), mismatches);
+    }
+
+    /**
+     * Builds a random header and data bit stream that fits a version.
+     *
+     * @param random  the random source.
+     * @param version the symbol version.
+     * @param ecLevel the error correction level.
+     * @return between one bit and the full capacity of random bits.
+     */
+    private static BitArray randomBits(Random random, Version version, ErrorCorrectionLevel ecLevel) {
+        int capacity = QRSymbolEncoder.dataCapacityBits(version, ecLevel);
+        int length = 1 + random.nextInt(capacity);
+        BitArray bits = new BitArray();
+        for (int i = 0; i < length; i++) {
+            bits.appendBit(random.nextBoolean());
+        }
+        return bits;
+    }
+
+    /**
+     * Builds contents that ZXing and the segment optimizer both encode in a single mode.
+     *
+     * @param random the random source.
+     * @return digits only, upper case letters and spaces only, and lower case letters only, of many lengths.
+     */
+    private static List<String> singleModeCorpus(Random random) {
+        List<String> corpus = new ArrayList<>();
+        for (int length = 1; length <= 3000; length = length < 40 ? length + 1 : length * 5 / 4) {
+            corpus.add(randomString(random, "0123456789", length));
+            corpus.add(randomString(random, "ABCDEFGHIJKLMNOPQRSTUVWXYZ ", length));
+            corpus.add(randomString(random, "abcdefghijklmnopqrstuvwxyz", length));
+        }
+        return corpus;
+    }
+
+    /**
+     * Builds a random string from an alphabet.
+     *
+     * @param random   the random source.
+     * @param alphabet allowed characters.
+     * @param length   number of characters.
+     * @return the string.
+     */
+    private static String randomString(Random random, String alphabet, int length) {
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            builder.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Compares two module matrices.
+     *
+     * @param a first matrix.
+     * @param b second matrix.
+     * @return true if both have the same size and modules.
+     */
+    private static boolean sameModules(ByteMatrix a, ByteMatrix b) {
+        return a.getWidth() == b.getWidth() && Arrays.deepEquals(a.getArray(), b.getArray());
+    }
+}
@@ -0,0 +1,57 @@
+package gr.omaro.qr_generator.util;
+
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.decoder.Decoder;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import com.google.zxing.qrcode.encoder.ByteMatrix;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SegmentEncoderTest {
+
+    /**
+     * Pieces of mixed-script payloads: Kanji, Latin, Latin-1 accents, digits, emoji and symbols.
+     */
+    private static final String[] PIECES = {
+            "日本語", "漢字テキスト", "hello ", "ABC123", "Grüße ", "😀", "€", "1234567", "é", "~\\",
+            "http://x.jp/", "中文", "ééé"};
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "hello ééé", "日本語ééé", "日本語 hello 😀", "漢字テキストGrüße 漢字", "😀日本語😀",
+            "ABC123日本語€1234567", "http://x.jp/漢字テキスト?q=é"})
+    void mixedScriptPayloadsDecodeToTheirInput(String content) throws Exception {
+        assertEquals(content, roundTrip(content));
+    }
+
+    @Test
+    void randomMixedScriptPayloadsDecodeToTheirInput() throws Exception {
+        Random random = new Random(33);
+        for (int k = 0; k < 2000; k++) {
+            StringBuilder content = new StringBuilder();
+            int parts = 1 + random.nextInt(6);
+            for (int p = 0; p < parts; p++) {
+                content.append(PIECES[random.nextInt(PIECES.length)]);
+            }
+            assertEquals(content.toString(), roundTrip(content.toString()));
+        }
+    }
+
+    private static String roundTrip(String content) throws Exception {
+        ByteMatrix matrix = SegmentEncoder.encode(content, ErrorCorrectionLevel.L);
+        BitMatrix bits = new BitMatrix(matrix.getWidth(), matrix.getHeight());
+        for (int y = 0; y < matrix.getHeight(); y++) {
+            for (int x = 0; x < matrix.getWidth(); x++) {
+                if (matrix.get(x, y) == 1) {
+                    bits.set(x, y);
+                }
+            }
+        }
+        return new Decoder().decode(bits).getText();
+    }
+}
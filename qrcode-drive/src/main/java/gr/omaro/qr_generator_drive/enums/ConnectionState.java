@@ -0,0 +1,24 @@
+package gr.omaro.qr_generator_drive.enums;
+
+/**
+ * Enum representing the stages of connecting to Google Drive.
+ */
+public enum ConnectionState {
+
+    /**
+     * Not connected yet; authorization starts on the first upload.
+     */
+    DISCONNECTED,
+    /**
+     * Loading credentials or waiting for the user to authorize in the browser.
+     */
+    CONNECTING,
+    /**
+     * Authorized and ready to upload.
+     */
+    READY,
+    /**
+     * Authorization failed; the next upload tries again.
+     */
+    FAILED
+}
@@ -0,0 +1,28 @@
+package gr.omaro.qr_generator_drive.enums;
+
+/**
+ * Enum representing the stages a scheduled upload goes through.
+ */
+public enum UploadState {
+
+    /**
+     * Waiting for a free upload slot.
+     */
+    QUEUED,
+    /**
+     * Being sent to the remote service.
+     */
+    UPLOADING,
+    /**
+     * Rejected with a transient error; waiting to try again.
+     */
+    RETRYING,
+    /**
+     * Uploaded successfully.
+     */
+    DONE,
+    /**
+     * Failed permanently or ran out of attempts.
+     */
+    FAILED
+}
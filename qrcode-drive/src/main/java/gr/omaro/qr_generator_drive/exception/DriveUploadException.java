@@ -1,4 +1,4 @@
-package gr.omaro.qr_generator_gui.exception;
+package gr.omaro.qr_generator_drive.exception;
 
 import lombok.experimental.StandardException;
 
@@ -0,0 +1,47 @@
+package gr.omaro.qr_generator_drive.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for uploading a PDF to Google Drive.
+ */
+@Name("gr.omaro.qr.DriveUpload")
+@Label("Drive Upload")
+@Category({"QR Generator", "Google Drive"})
+@Description("Uploading a PDF to Google Drive, including the HTTP round trips")
+@StackTrace(false)
+public class DriveUploadEvent extends Event {
+
+    /**
+     * Name of the uploaded file.
+     */
+    @Label("File Name")
+    public String fileName;
+    /**
+     * Size of the uploaded file.
+     */
+    @Label("Bytes")
+    @DataAmount
+    public long bytes;
+    /**
+     * Whether the file was sent in small chunks to report progress.
+     */
+    @Label("Chunked")
+    public boolean chunked;
+    /**
+     * Drive file id, or null if the upload failed.
+     */
+    @Label("File Id")
+    public String fileId;
+    /**
+     * Whether the upload succeeded.
+     */
+    @Label("Success")
+    public boolean success;
+}
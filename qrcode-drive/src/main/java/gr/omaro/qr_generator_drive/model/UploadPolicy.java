@@ -0,0 +1,56 @@
+package gr.omaro.qr_generator_drive.model;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Limits and retry settings of the upload scheduler.
+ * <p>
+ * The defaults stay below Drive's per-user write quota, which starts returning
+ * 403 {@code userRateLimitExceeded} or 429 at a few writes per second.
+ */
+@Value
+@Builder(toBuilder = true)
+public class UploadPolicy {
+
+    /**
+     * Sustained upload starts per second.
+     */
+    @Builder.Default
+    double permitsPerSecond = 3.0;
+    /**
+     * Upload starts allowed in a burst after an idle period.
+     */
+    @Builder.Default
+    int burst = 5;
+    /**
+     * Concurrent uploads the scheduler starts with.
+     */
+    @Builder.Default
+    int initialConcurrency = 2;
+    /**
+     * Lower bound of the adaptive concurrency limit.
+     */
+    @Builder.Default
+    int minConcurrency = 1;
+    /**
+     * Upper bound of the adaptive concurrency limit.
+     */
+    @Builder.Default
+    int maxConcurrency = 8;
+    /**
+     * Attempts per file, including the first one.
+     */
+    @Builder.Default
+    int maxAttempts = 6;
+    /**
+     * Backoff before the first retry; doubled for every further attempt.
+     */
+    @Builder.Default
+    long baseBackoffMillis = 500;
+    /**
+     * Upper bound of a single backoff.
+     */
+    @Builder.Default
+    long maxBackoffMillis = 30_000;
+}
@@ -0,0 +1,75 @@
+package gr.omaro.qr_generator_drive.model;
+
+import gr.omaro.qr_generator_drive.enums.UploadState;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+import java.io.File;
+
+/**
+ * Snapshot of the progress of one scheduled upload.
+ */
+@Value
+@AllArgsConstructor
+public class UploadStatus {
+
+    /**
+     * The file being uploaded.
+     */
+    File file;
+    /**
+     * Current stage of the upload.
+     */
+    UploadState state;
+    /**
+     * Number of attempts made so far.
+     */
+    int attempts;
+    /**
+     * Link of the uploaded file once {@link UploadState#DONE}, otherwise null.
+     */
+    String url;
+    /**
+     * Last error message, or null if none occurred.
+     */
+    String error;
+    /**
+     * Bytes sent in the current attempt; reported while {@link UploadState#UPLOADING}.
+     */
+    long bytesSent;
+
+    /**
+     * Creates a status without byte progress.
+     *
+     * @param file     the file being uploaded.
+     * @param state    current stage of the upload.
+     * @param attempts number of attempts made so far.
+     * @param url      link of the uploaded file, or null.
+     * @param error    last error message, or null.
+     */
+    public UploadStatus(File file, UploadState state, int attempts, String url, String error) {
+        this(file, state, attempts, url, error, 0);
+    }
+
+    /**
+     * Checks whether the upload has finished, successfully or not.
+     *
+     * @return true for {@link UploadState#DONE} and {@link UploadState#FAILED}.
+     */
+    public boolean isFinished() {
+        return state == UploadState.DONE || state == UploadState.FAILED;
+    }
+
+    /**
+     * Returns the share of the file sent so far.
+     *
+     * @return 1 when done, the sent share while uploading, otherwise 0.
+     */
+    public double getFractionSent() {
+        if (state == UploadState.DONE) {
+            return 1;
+        }
+        long length = file.length();
+        return length > 0 ? Math.min(1, (double) bytesSent / length) : 0;
+    }
+}
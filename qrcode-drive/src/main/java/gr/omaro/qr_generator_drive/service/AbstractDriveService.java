@@ -1,17 +1,18 @@
-package gr.omaro.qr_generator_gui.service;
+package gr.omaro.qr_generator_drive.service;
 
 import com.google.api.client.extensions.java6.auth.oauth2.AuthorizationCodeInstalledApp;
 import com.google.api.client.extensions.jetty.auth.oauth2.LocalServerReceiver;
 import com.google.api.client.googleapis.auth.oauth2.GoogleAuthorizationCodeFlow;
 import com.google.api.client.googleapis.auth.oauth2.GoogleClientSecrets;
 import com.google.api.client.googleapis.javanet.GoogleNetHttpTransport;
+import com.google.api.client.http.javanet.NetHttpTransport;
 import com.google.api.client.json.JsonFactory;
 import com.google.api.client.json.jackson2.JacksonFactory;
 import com.google.api.client.util.store.FileDataStoreFactory;
 import com.google.api.services.drive.Drive;
 import com.google.api.services.drive.DriveScopes;
 import gr.omaro.qr_generator.util.ConfigUtil;
-import gr.omaro.qr_generator_gui.exception.DriveUploadException;
+import gr.omaro.qr_generator_drive.exception.DriveUploadException;
 import lombok.extern.slf4j.Slf4j;
 import java.io.FileInputStream;
 import java.io.InputStream;
@@ -54,6 +55,15 @@ public abstract class AbstractDriveService {
         }
     }
 
+    /**
+     * Uses an already configured Drive service, e.g. one pointed at a test endpoint.
+     *
+     * @param driveService the Drive service to use.
+     */
+    protected AbstractDriveService(Drive driveService) {
+        this.driveService = driveService;
+    }
+
     /**
      * Initializes and authorizes the Drive service.
      *
@@ -65,9 +75,10 @@ public abstract class AbstractDriveService {
         // Load client secret from configured path
         try (InputStream in = new FileInputStream(ConfigUtil.getClientSecretPath())) {
             GoogleClientSecrets clientSecrets = GoogleClientSecrets.load(JSON_FACTORY, new InputStreamReader(in));
+            NetHttpTransport transport = GoogleNetHttpTransport.newTrustedTransport();
 
             GoogleAuthorizationCodeFlow flow = new GoogleAuthorizationCodeFlow.Builder(
-                    GoogleNetHttpTransport.newTrustedTransport(),
+                    transport,
                     JSON_FACTORY,
                     clientSecrets,
                     Collections.singleton(DriveScopes.DRIVE_FILE)
@@ -76,9 +87,10 @@ public abstract class AbstractDriveService {
                     .setAccessType("offline")
                     .build();
 
+            // a stored token is loaded (and refreshed if needed) without starting the receiver
             log.debug("Authorizing user via local server receiver...");
             return new Drive.Builder(
-                    GoogleNetHttpTransport.newTrustedTransport(),
+                    transport,
                     JSON_FACTORY,
                     new AuthorizationCodeInstalledApp(flow, new LocalServerReceiver()).authorize("user")
             ).setApplicationName("QRCodeUploader").build();
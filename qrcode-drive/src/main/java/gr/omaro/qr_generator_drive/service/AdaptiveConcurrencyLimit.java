@@ -0,0 +1,140 @@
+package gr.omaro.qr_generator_drive.service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrency limit adjusted by additive increase / multiplicative decrease.
+ * <p>
+ * Every success raises the limit by {@code 1 / limit}, so it grows by about one slot per
+ * round of successful uploads. A throttling response halves it, at most once per
+ * {@link #DECREASE_COOLDOWN_NANOS}, because the uploads already in flight during one
+ * throttling burst tend to fail together and should count as a single signal.
+ */
+class AdaptiveConcurrencyLimit {
+
+    /**
+     * Minimum time between two decreases.
+     */
+    private static final long DECREASE_COOLDOWN_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * Guards all fields.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+    /**
+     * Signalled when a slot frees up or the limit grows.
+     */
+    private final Condition slotAvailable = lock.newCondition();
+    /**
+     * Lower bound of the limit.
+     */
+    private final int min;
+    /**
+     * Upper bound of the limit.
+     */
+    private final int max;
+    /**
+     * Current limit; fractional so that additive increase works per success.
+     */
+    private double limit;
+    /**
+     * Slots in use.
+     */
+    private int inFlight;
+    /**
+     * Time of the last decrease in {@link System#nanoTime()} units.
+     */
+    private long lastDecrease;
+
+    /**
+     * Creates a limit.
+     *
+     * @param initial starting limit.
+     * @param min     lower bound.
+     * @param max     upper bound.
+     */
+    AdaptiveConcurrencyLimit(int initial, int min, int max) {
+        this.min = Math.max(1, min);
+        this.max = Math.max(this.min, max);
+        this.limit = Math.max(this.min, Math.min(this.max, initial));
+        this.lastDecrease = System.nanoTime() - DECREASE_COOLDOWN_NANOS;
+    }
+
+    /**
+     * Takes a slot, waiting while the limit is reached.
+     *
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    void acquire() throws InterruptedException {
+        lock.lock();
+        try {
+            while (inFlight >= (int) limit) {
+                slotAvailable.await();
+            }
+            inFlight++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns a slot after a successful call and grows the limit.
+     */
+    void releaseOnSuccess() {
+        lock.lock();
+        try {
+            inFlight--;
+            limit = Math.min(max, limit + 1.0 / limit);
+            slotAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns a slot after a call that was throttled and shrinks the limit.
+     */
+    void releaseOnThrottle() {
+        lock.lock();
+        try {
+            inFlight--;
+            long now = System.nanoTime();
+            if (now - lastDecrease >= DECREASE_COOLDOWN_NANOS) {
+                limit = Math.max(min, limit / 2);
+                lastDecrease = now;
+            }
+            slotAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns a slot without changing the limit, for failures unrelated to load.
+     */
+    void release() {
+        lock.lock();
+        try {
+            inFlight--;
+            slotAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the current limit.
+     *
+     * @return the number of uploads allowed to run at once.
+     */
+    int current() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
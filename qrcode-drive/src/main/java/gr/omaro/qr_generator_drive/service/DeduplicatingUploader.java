@@ -0,0 +1,85 @@
+package gr.omaro.qr_generator_drive.service;
+
+import gr.omaro.qr_generator_drive.exception.DriveUploadException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.function.LongConsumer;
+
+/**
+ * {@link FileUploader} that skips uploads of content it has uploaded before.
+ * <p>
+ * Files are identified by the SHA-256 of their content, so a renamed or copied file is still
+ * recognized. The link of the first upload is returned for every later one. Two identical files
+ * uploaded at the same moment may both be sent; the index then keeps the later link.
+ */
+@Slf4j
+public class DeduplicatingUploader implements FileUploader {
+
+    /**
+     * Uploader used for content not seen before.
+     */
+    private final FileUploader delegate;
+    /**
+     * Index of uploaded content.
+     */
+    private final UploadIndex index;
+
+    /**
+     * Creates a deduplicating uploader.
+     *
+     * @param delegate uploader used for content not seen before.
+     * @param index    index of uploaded content.
+     */
+    public DeduplicatingUploader(FileUploader delegate, UploadIndex index) {
+        this.delegate = delegate;
+        this.index = index;
+    }
+
+    /**
+     * Returns the link of an earlier upload of the same content, or uploads the file.
+     *
+     * @param file the PDF file to upload.
+     * @return the shareable URL of the uploaded file.
+     * @throws DriveUploadException if hashing or the upload fails.
+     */
+    @Override
+    public String uploadPDF(File file) throws DriveUploadException {
+        return uploadPDF(file, bytes -> { });
+    }
+
+    /**
+     * Returns the link of an earlier upload of the same content, or uploads the file with progress.
+     *
+     * @param file     the PDF file to upload.
+     * @param progress receives the number of bytes sent so far; a known file counts as fully sent.
+     * @return the shareable URL of the uploaded file.
+     * @throws DriveUploadException if hashing or the upload fails.
+     */
+    @Override
+    public String uploadPDF(File file, LongConsumer progress) throws DriveUploadException {
+        String hash;
+        try {
+            hash = UploadIndex.hash(file);
+        } catch (IOException e) {
+            throw new DriveUploadException("Failed to read file for upload", e);
+        }
+
+        String known = index.get(hash);
+        if (known != null) {
+            log.info("{} was uploaded before, reusing {}", file.getName(), known);
+            progress.accept(file.length());
+            return known;
+        }
+
+        String url = delegate.uploadPDF(file, progress);
+        try {
+            index.put(hash, url);
+        } catch (IOException e) {
+            // the upload itself succeeded; only the shortcut for next time is lost
+            log.warn("Failed to record upload of {} in the index", file.getName(), e);
+        }
+        return url;
+    }
+}
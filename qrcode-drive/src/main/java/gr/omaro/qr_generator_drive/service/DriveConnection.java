@@ -0,0 +1,167 @@
+package gr.omaro.qr_generator_drive.service;
+
+import com.google.api.client.auth.oauth2.StoredCredential;
+import gr.omaro.qr_generator_drive.enums.ConnectionState;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Creates the {@link UploadService} on demand, off the calling thread.
+ * <p>
+ * Authorizing with Google may open a browser and wait for the user, so it must never run
+ * while a UI is being built. The first call to {@link #connect()} starts authorization on a
+ * background thread and every later call shares its result; after a failure the next call
+ * tries again. Tokens stored in {@code tokens/} by an earlier authorization are reused, which
+ * makes {@link #warmUpIfAuthorized()} safe to call at startup: it connects in the background
+ * only when no browser interaction is needed.
+ */
+@Slf4j
+public class DriveConnection {
+
+    /**
+     * Creates the upload service; may block on authorization.
+     */
+    private final Callable<UploadService> factory;
+    /**
+     * Directory of the stored OAuth tokens.
+     */
+    private final Path tokensDirectory;
+    /**
+     * Receivers of state changes.
+     */
+    private final List<Consumer<ConnectionState>> listeners = new CopyOnWriteArrayList<>();
+    /**
+     * Pending or finished connection, null before the first attempt.
+     */
+    private CompletableFuture<UploadService> connection;
+    /**
+     * Current state.
+     */
+    private volatile ConnectionState state = ConnectionState.DISCONNECTED;
+
+    /**
+     * Creates a connection to the configured Google Drive folder.
+     */
+    public DriveConnection() {
+        this(UploadService::new, Paths.get(AbstractDriveService.TOKENS_DIRECTORY_PATH));
+    }
+
+    /**
+     * Creates a connection with a custom service factory.
+     *
+     * @param factory         creates the upload service; may block on authorization.
+     * @param tokensDirectory directory of the stored OAuth tokens.
+     */
+    public DriveConnection(Callable<UploadService> factory, Path tokensDirectory) {
+        this.factory = factory;
+        this.tokensDirectory = tokensDirectory;
+    }
+
+    /**
+     * Returns the upload service, connecting in the background if needed.
+     *
+     * @return a future completed with the service, or exceptionally if authorization fails.
+     */
+    public synchronized CompletableFuture<UploadService> connect() {
+        if (connection != null && !connection.isCompletedExceptionally()) {
+            return connection;
+        }
+        setState(ConnectionState.CONNECTING);
+        connection = CompletableFuture.supplyAsync(this::createService, DriveConnection::startDaemon);
+        connection.whenComplete((service, error) -> {
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                log.warn("Drive connection failed: {}", cause.getMessage());
+                setState(ConnectionState.FAILED);
+            } else {
+                log.info("Drive connection ready");
+                setState(ConnectionState.READY);
+            }
+        });
+        return connection;
+    }
+
+    /**
+     * Connects in the background if a stored token makes browser authorization unnecessary.
+     *
+     * @return true if connecting was started.
+     */
+    public boolean warmUpIfAuthorized() {
+        if (!hasStoredCredential()) {
+            log.debug("No stored Drive token, connecting on first upload");
+            return false;
+        }
+        connect();
+        return true;
+    }
+
+    /**
+     * Checks whether an earlier authorization left a token in the tokens directory.
+     *
+     * @return true if a stored credential exists.
+     */
+    public boolean hasStoredCredential() {
+        return Files.isRegularFile(tokensDirectory.resolve(StoredCredential.DEFAULT_DATA_STORE_ID));
+    }
+
+    /**
+     * Returns the current state.
+     *
+     * @return the state.
+     */
+    public ConnectionState getState() {
+        return state;
+    }
+
+    /**
+     * Registers a receiver of state changes; it is called on the thread that changes the state.
+     *
+     * @param listener the receiver.
+     */
+    public void addListener(Consumer<ConnectionState> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Runs the factory, wrapping checked exceptions for the future.
+     *
+     * @return the upload service.
+     */
+    private UploadService createService() {
+        try {
+            return factory.call();
+        } catch (Exception e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    /**
+     * Updates the state and notifies the listeners.
+     *
+     * @param newState the new state.
+     */
+    private void setState(ConnectionState newState) {
+        state = newState;
+        listeners.forEach(listener -> listener.accept(newState));
+    }
+
+    /**
+     * Runs a task on a new daemon thread, so that a pending browser authorization never keeps the JVM alive.
+     *
+     * @param task the task.
+     */
+    private static void startDaemon(Runnable task) {
+        Thread thread = new Thread(task, "drive-connect");
+        thread.setDaemon(true);
+        thread.start();
+    }
+}
@@ -0,0 +1,37 @@
+package gr.omaro.qr_generator_drive.service;
+
+import gr.omaro.qr_generator_drive.exception.DriveUploadException;
+
+import java.io.File;
+import java.util.function.LongConsumer;
+
+/**
+ * Interface for uploading files to remote services.
+ */
+public interface FileUploader {
+
+    /**
+     * Uploads a PDF file to a remote service and returns a shareable link.
+     *
+     * @param file the PDF file to upload.
+     * @return the shareable URL of the uploaded file.
+     * @throws DriveUploadException if the upload fails.
+     */
+    String uploadPDF(File file) throws DriveUploadException;
+
+    /**
+     * Uploads a PDF file and reports how many bytes have been sent.
+     * <p>
+     * The default implementation reports the whole file once the upload has finished.
+     *
+     * @param file     the PDF file to upload.
+     * @param progress receives the number of bytes sent so far, called from the uploading thread.
+     * @return the shareable URL of the uploaded file.
+     * @throws DriveUploadException if the upload fails.
+     */
+    default String uploadPDF(File file, LongConsumer progress) throws DriveUploadException {
+        String url = uploadPDF(file);
+        progress.accept(file.length());
+        return url;
+    }
+}
@@ -0,0 +1,125 @@
+package gr.omaro.qr_generator_drive.service;
+
+import com.google.api.client.googleapis.media.MediaHttpUploader;
+import com.google.api.client.http.FileContent;
+import com.google.api.services.drive.Drive;
+import com.google.api.services.drive.model.File;
+
+import gr.omaro.qr_generator.exception.ConfigExeption;
+import gr.omaro.qr_generator.util.ConfigUtil;
+import gr.omaro.qr_generator.enums.SupportedFileType;
+import gr.omaro.qr_generator_drive.exception.DriveUploadException;
+import gr.omaro.qr_generator_drive.jfr.DriveUploadEvent;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.*;
+import java.util.Collections;
+import java.util.Objects;
+import java.util.function.LongConsumer;
+
+/**
+ * Concrete implementation of {@link FileUploader} that uploads files to Google Drive.
+ */
+@Slf4j
+public class GoogleDriveService extends AbstractDriveService implements FileUploader{
+
+    /**
+     * Chunk size of uploads with progress; a multiple of the 256 KB Drive requires.
+     */
+    private static final int PROGRESS_CHUNK_SIZE = 4 * MediaHttpUploader.MINIMUM_CHUNK_SIZE;
+
+    /**
+     * Constructs the service and initializes Google Drive API.
+     *
+     * @throws DriveUploadException if setup fails.
+     */
+    public GoogleDriveService() throws DriveUploadException {
+        super();
+    }
+
+    /**
+     * Constructs the service around an already configured Drive client.
+     *
+     * @param driveService the Drive service to use.
+     */
+    public GoogleDriveService(com.google.api.services.drive.Drive driveService) {
+        super(driveService);
+    }
+
+    /**
+     * Uploads a PDF file to Google Drive and returns a viewable link.
+     *
+     * @param pdfFile the PDF file to upload.
+     * @return public Google Drive link to the uploaded file.
+     * @throws DriveUploadException if the upload fails.
+     */
+    @Override
+    public String uploadPDF(java.io.File pdfFile) throws DriveUploadException {
+        return upload(pdfFile, null);
+    }
+
+    /**
+     * Uploads a PDF file in resumable chunks, reporting the bytes sent after every chunk.
+     *
+     * @param pdfFile  the PDF file to upload.
+     * @param progress receives the number of bytes sent so far.
+     * @return public Google Drive link to the uploaded file.
+     * @throws DriveUploadException if the upload fails.
+     */
+    @Override
+    public String uploadPDF(java.io.File pdfFile, LongConsumer progress) throws DriveUploadException {
+        return upload(pdfFile, Objects.requireNonNull(progress, "Progress listener cannot be null"));
+    }
+
+    /**
+     * Uploads a PDF file, in small chunks with progress if a listener is given.
+     *
+     * @param pdfFile  the PDF file to upload.
+     * @param progress receives the number of bytes sent so far, or null.
+     * @return public Google Drive link to the uploaded file.
+     * @throws DriveUploadException if the upload fails.
+     */
+    private String upload(java.io.File pdfFile, LongConsumer progress) throws DriveUploadException {
+        Objects.requireNonNull(pdfFile, "File cannot be null");
+        log.info("Uploading file: {}", pdfFile.getName());
+
+        DriveUploadEvent event = new DriveUploadEvent();
+        event.begin();
+        String fileId = null;
+        try {
+            // Set metadata like file name and target folder
+            File fileMetadata = new File();
+            fileMetadata.setName(pdfFile.getName());
+            fileMetadata.setParents(Collections.singletonList(ConfigUtil.getGoogleDriveFolderId()));
+            // Define content type and wrap file
+            FileContent mediaContent = new FileContent(SupportedFileType.PDF.getMimeType(), pdfFile);
+            Drive.Files.Create request = driveService.files().create(fileMetadata, mediaContent).setFields("id");
+            if (progress != null) {
+                // the default 10 MB chunk sends a whole PDF at once; smaller chunks give byte progress
+                MediaHttpUploader uploader = request.getMediaHttpUploader();
+                uploader.setChunkSize(PROGRESS_CHUNK_SIZE);
+                uploader.setProgressListener(media -> progress.accept(media.getNumBytesUploaded()));
+            }
+            File uploadedFile = request.execute();
+            fileId = uploadedFile.getId();
+
+            // Construct URL
+            String fileUrl = String.format("https://drive.google.com/file/d/%s/view", fileId);
+            log.info("Upload successful: {}", fileUrl);
+            return fileUrl;
+        } catch (IOException | ConfigExeption e) {
+            log.error("Upload failed", e);
+            throw new DriveUploadException("Failed to upload PDF to Google Drive", e);
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.fileName = pdfFile.getName();
+                event.bytes = pdfFile.length();
+                event.chunked = progress != null;
+                event.fileId = fileId;
+                event.success = fileId != null;
+                event.commit();
+            }
+        }
+    }
+}
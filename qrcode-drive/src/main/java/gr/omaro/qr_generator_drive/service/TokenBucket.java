@@ -0,0 +1,71 @@
+package gr.omaro.qr_generator_drive.service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token-bucket rate limiter.
+ * <p>
+ * Tokens refill continuously at {@code permitsPerSecond} up to {@code burst}. A caller that
+ * finds the bucket empty reserves a future token and sleeps until it is due, outside the lock,
+ * so waiting callers are served in arrival order without holding each other up.
+ */
+class TokenBucket {
+
+    /**
+     * Refill rate in tokens per nanosecond.
+     */
+    private final double tokensPerNano;
+    /**
+     * Bucket capacity.
+     */
+    private final double burst;
+    /**
+     * Tokens available at {@link #lastRefill}; negative when future tokens are reserved.
+     */
+    private double tokens;
+    /**
+     * Time of the last refill in {@link System#nanoTime()} units.
+     */
+    private long lastRefill;
+
+    /**
+     * Creates a full bucket.
+     *
+     * @param permitsPerSecond sustained rate.
+     * @param burst            bucket capacity.
+     */
+    TokenBucket(double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate and burst must be positive");
+        }
+        this.tokensPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.burst = burst;
+        this.tokens = burst;
+        this.lastRefill = System.nanoTime();
+    }
+
+    /**
+     * Takes one token, waiting until one is available.
+     *
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    void acquire() throws InterruptedException {
+        long waitNanos = reserve();
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    /**
+     * Takes one token now or reserves the next free one.
+     *
+     * @return nanoseconds until the token is due, 0 if it is available now.
+     */
+    private synchronized long reserve() {
+        long now = System.nanoTime();
+        tokens = Math.min(burst, tokens + (now - lastRefill) * tokensPerNano);
+        lastRefill = now;
+        tokens -= 1;
+        return tokens >= 0 ? 0 : (long) Math.ceil(-tokens / tokensPerNano);
+    }
+}
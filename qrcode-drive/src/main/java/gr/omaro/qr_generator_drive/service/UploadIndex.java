@@ -0,0 +1,216 @@
+package gr.omaro.qr_generator_drive.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+
+/**
+ * Persistent index from the SHA-256 of a file's content to the link of its uploaded copy.
+ * <p>
+ * The file starts with a 5 byte header ({@code QRUI} and a version) followed by append-only
+ * records: 32 bytes of hash, a 2 byte length and the UTF-8 link. The whole index is read into
+ * memory on open; a later record for the same hash replaces an earlier one, and a record cut
+ * short by a crash is dropped and truncated away.
+ */
+@Slf4j
+public final class UploadIndex implements AutoCloseable {
+
+    /**
+     * File header: magic bytes and format version.
+     */
+    private static final byte[] HEADER = {'Q', 'R', 'U', 'I', 1};
+    /**
+     * Length of a SHA-256 hash in bytes.
+     */
+    private static final int HASH_BYTES = 32;
+    /**
+     * Largest region mapped at once while hashing.
+     */
+    private static final long MAP_CHUNK = 64L * 1024 * 1024;
+
+    /**
+     * Channel of the index file, positioned for appending.
+     */
+    private final FileChannel channel;
+    /**
+     * Links by hex encoded content hash.
+     */
+    private final Map<String, String> links = new HashMap<>();
+
+    /**
+     * Wraps an open index file.
+     *
+     * @param channel the open channel.
+     */
+    private UploadIndex(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Opens or creates the index stored at the given path.
+     *
+     * @param path the index file.
+     * @return the open index.
+     * @throws IOException if the file cannot be read or is not an upload index.
+     */
+    public static UploadIndex open(Path path) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            UploadIndex index = new UploadIndex(channel);
+            index.load();
+            return index;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Computes the SHA-256 of a file by streaming over memory-mapped regions, so the content is
+     * never copied onto the heap.
+     *
+     * @param file the file to hash.
+     * @return the hex encoded hash.
+     * @throws IOException if the file cannot be read.
+     */
+    public static String hash(File file) throws IOException {
+        MessageDigest digest = sha256();
+        try (FileChannel in = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = in.size();
+            for (long position = 0; position < size; position += MAP_CHUNK) {
+                MappedByteBuffer region = in.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAP_CHUNK, size - position));
+                digest.update(region);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Returns the link recorded for a content hash.
+     *
+     * @param hash hex encoded content hash.
+     * @return the link, or null if the content has not been uploaded.
+     */
+    public synchronized String get(String hash) {
+        return links.get(hash);
+    }
+
+    /**
+     * Records the link of uploaded content and appends it to the file.
+     *
+     * @param hash hex encoded content hash.
+     * @param link the link of the uploaded copy.
+     * @throws IOException if the record cannot be written, or the link is longer than 65535 UTF-8 bytes.
+     */
+    public synchronized void put(String hash, String link) throws IOException {
+        byte[] linkBytes = link.getBytes(StandardCharsets.UTF_8);
+        if (linkBytes.length > 0xFFFF) {
+            throw new IOException("Link is too long to index: " + linkBytes.length + " bytes");
+        }
+        ByteBuffer record = ByteBuffer.allocate(HASH_BYTES + 2 + linkBytes.length);
+        record.put(HexFormat.of().parseHex(hash)).putShort((short) linkBytes.length).put(linkBytes).flip();
+        long position = channel.size();
+        while (record.hasRemaining()) {
+            position += channel.write(record, position);
+        }
+        channel.force(false);
+        links.put(hash, link);
+    }
+
+    /**
+     * Returns the number of indexed uploads.
+     *
+     * @return distinct content hashes.
+     */
+    public synchronized int size() {
+        return links.size();
+    }
+
+    /**
+     * Closes the index file.
+     *
+     * @throws IOException if closing fails.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Reads all records, writing the header into a new file and truncating a partial last record.
+     *
+     * @throws IOException if the file cannot be read or has a foreign header.
+     */
+    private void load() throws IOException {
+        long size = channel.size();
+        if (size == 0) {
+            channel.write(ByteBuffer.wrap(HEADER), 0);
+            channel.force(false);
+            return;
+        }
+        // the index is small; read it whole rather than mapping it, so it can be truncated below
+        ByteBuffer data = ByteBuffer.allocate(Math.toIntExact(size));
+        while (data.hasRemaining()) {
+            if (channel.read(data, data.position()) < 0) {
+                break;
+            }
+        }
+        data.flip();
+        byte[] header = new byte[HEADER.length];
+        if (data.remaining() >= HEADER.length) {
+            data.get(header);
+        }
+        if (!Arrays.equals(header, HEADER)) {
+            throw new IOException("Not an upload index: unknown header");
+        }
+        byte[] hash = new byte[HASH_BYTES];
+        int valid = data.position();
+        while (data.remaining() >= HASH_BYTES + 2) {
+            data.get(hash);
+            int length = Short.toUnsignedInt(data.getShort());
+            if (data.remaining() < length) {
+                break;
+            }
+            byte[] link = new byte[length];
+            data.get(link);
+            links.put(HexFormat.of().formatHex(hash), new String(link, StandardCharsets.UTF_8));
+            valid = data.position();
+        }
+        if (valid < size) {
+            log.warn("Dropping {} bytes of an incomplete upload index record", size - valid);
+            channel.truncate(valid);
+        }
+    }
+
+    /**
+     * Creates a SHA-256 digest.
+     *
+     * @return the digest.
+     */
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
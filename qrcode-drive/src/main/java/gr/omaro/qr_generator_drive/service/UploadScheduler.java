@@ -0,0 +1,355 @@
+package gr.omaro.qr_generator_drive.service;
+
+import com.google.api.client.googleapis.json.GoogleJsonError;
+import com.google.api.client.googleapis.json.GoogleJsonResponseException;
+import com.google.api.client.http.HttpResponseException;
+import gr.omaro.qr_generator_drive.enums.UploadState;
+import gr.omaro.qr_generator_drive.exception.DriveUploadException;
+import gr.omaro.qr_generator_drive.model.UploadPolicy;
+import gr.omaro.qr_generator_drive.model.UploadStatus;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Schedules bulk uploads so that they stay within the remote service's rate limits.
+ * <p>
+ * Every attempt first takes a slot from an {@link AdaptiveConcurrencyLimit} and then a token
+ * from a {@link TokenBucket}. Throttling responses (429, or 403 with a rate limit reason) halve
+ * the concurrency limit; successes slowly raise it again. Throttling, 5xx responses and network
+ * errors are retried with exponential backoff and full jitter, honouring {@code Retry-After};
+ * other failures are final. Every state change is reported as an {@link UploadStatus}.
+ */
+@Slf4j
+public class UploadScheduler implements AutoCloseable {
+
+    /**
+     * Drive error reasons that mean "slow down" rather than "forbidden".
+     */
+    private static final Set<String> RATE_LIMIT_REASONS = Set.of("rateLimitExceeded", "userRateLimitExceeded");
+
+    /**
+     * How a failed attempt is handled.
+     */
+    private enum Failure {
+        /**
+         * The service asked to slow down: retry and reduce concurrency.
+         */
+        THROTTLED,
+        /**
+         * Server or network error: retry.
+         */
+        TRANSIENT,
+        /**
+         * Retrying cannot help.
+         */
+        PERMANENT
+    }
+
+    /**
+     * The uploader doing the actual work.
+     */
+    private final FileUploader uploader;
+    /**
+     * Limits and retry settings.
+     */
+    private final UploadPolicy policy;
+    /**
+     * Rate limiter for upload starts.
+     */
+    private final TokenBucket rateLimiter;
+    /**
+     * Adaptive limit of concurrent uploads.
+     */
+    private final AdaptiveConcurrencyLimit concurrency;
+    /**
+     * Worker threads; at most the maximum concurrency, the adaptive limit gates them further.
+     */
+    private final ExecutorService executor;
+    /**
+     * Number of throttling responses received.
+     */
+    private final AtomicInteger throttled = new AtomicInteger();
+    /**
+     * Number of retries made.
+     */
+    private final AtomicInteger retries = new AtomicInteger();
+
+    /**
+     * Creates a scheduler.
+     *
+     * @param uploader the uploader doing the actual work.
+     * @param policy   limits and retry settings.
+     */
+    public UploadScheduler(FileUploader uploader, UploadPolicy policy) {
+        this.uploader = uploader;
+        this.policy = policy;
+        this.rateLimiter = new TokenBucket(policy.getPermitsPerSecond(), policy.getBurst());
+        this.concurrency = new AdaptiveConcurrencyLimit(
+                policy.getInitialConcurrency(), policy.getMinConcurrency(), policy.getMaxConcurrency());
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, policy.getMaxConcurrency()), runnable -> {
+            Thread thread = new Thread(runnable, "drive-upload-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Queues a file for upload.
+     *
+     * @param file     the file to upload.
+     * @param listener receives every state change, called from worker threads; may be null.
+     *                 Exceptions it throws are logged and ignored.
+     * @return future completed with the final status; it never completes exceptionally.
+     */
+    public CompletableFuture<UploadStatus> submit(File file, Consumer<UploadStatus> listener) {
+        Consumer<UploadStatus> notify = listener == null ? status -> { } : status -> {
+            try {
+                listener.accept(status);
+            } catch (RuntimeException e) {
+                log.warn("Upload listener failed on {} ({}): {}", file.getName(), status.getState(), e.toString());
+            }
+        };
+        notify.accept(new UploadStatus(file, UploadState.QUEUED, 0, null, null));
+        return CompletableFuture.supplyAsync(() -> upload(file, notify), executor);
+    }
+
+    /**
+     * Uploads all files and waits until every one has finished.
+     *
+     * @param files    the files to upload.
+     * @param listener receives every state change, called from worker threads; may be null.
+     * @return the final status of every file, in the given order.
+     */
+    public List<UploadStatus> uploadAll(List<File> files, Consumer<UploadStatus> listener) {
+        List<CompletableFuture<UploadStatus>> futures = new ArrayList<>(files.size());
+        for (File file : files) {
+            futures.add(submit(file, listener));
+        }
+        List<UploadStatus> results = new ArrayList<>(files.size());
+        for (CompletableFuture<UploadStatus> future : futures) {
+            results.add(future.join());
+        }
+        return results;
+    }
+
+    /**
+     * Returns the current adaptive concurrency limit.
+     *
+     * @return uploads allowed to run at once.
+     */
+    public int getConcurrencyLimit() {
+        return concurrency.current();
+    }
+
+    /**
+     * Returns the number of throttling responses received so far.
+     *
+     * @return throttled attempts.
+     */
+    public int getThrottledCount() {
+        return throttled.get();
+    }
+
+    /**
+     * Returns the number of retries made so far.
+     *
+     * @return retried attempts.
+     */
+    public int getRetryCount() {
+        return retries.get();
+    }
+
+    /**
+     * Stops the worker threads; queued uploads are dropped.
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Runs all attempts of one upload.
+     *
+     * @param file   the file to upload.
+     * @param notify state change listener.
+     * @return the final status.
+     */
+    private UploadStatus upload(File file, Consumer<UploadStatus> notify) {
+        String lastError = null;
+        for (int attempt = 1; attempt <= policy.getMaxAttempts(); attempt++) {
+            try {
+                concurrency.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return finish(notify, new UploadStatus(file, UploadState.FAILED, attempt - 1, null, "Interrupted"));
+            }
+            Failure failure;
+            DriveUploadException error;
+            try {
+                rateLimiter.acquire();
+                notify.accept(new UploadStatus(file, UploadState.UPLOADING, attempt, null, lastError));
+                int currentAttempt = attempt;
+                String previousError = lastError;
+                String url = uploader.uploadPDF(file, bytes -> notify.accept(
+                        new UploadStatus(file, UploadState.UPLOADING, currentAttempt, null, previousError, bytes)));
+                concurrency.releaseOnSuccess();
+                return finish(notify, new UploadStatus(file, UploadState.DONE, attempt, url, null));
+            } catch (InterruptedException e) {
+                concurrency.release();
+                Thread.currentThread().interrupt();
+                return finish(notify, new UploadStatus(file, UploadState.FAILED, attempt, null, "Interrupted"));
+            } catch (DriveUploadException e) {
+                error = e;
+                failure = classify(e);
+                if (failure == Failure.THROTTLED) {
+                    throttled.incrementAndGet();
+                    concurrency.releaseOnThrottle();
+                } else {
+                    concurrency.release();
+                }
+            } catch (RuntimeException e) {
+                // a bug in the uploader must neither leak the slot nor fail the future
+                concurrency.release();
+                return finish(notify, new UploadStatus(file, UploadState.FAILED, attempt, null, "Unexpected error: " + e));
+            }
+
+            lastError = describe(error);
+            if (failure == Failure.PERMANENT || attempt == policy.getMaxAttempts()) {
+                return finish(notify, new UploadStatus(file, UploadState.FAILED, attempt, null, lastError));
+            }
+            long delay = backoffMillis(attempt, error);
+            log.debug("Retrying {} in {} ms after: {}", file.getName(), delay, lastError);
+            retries.incrementAndGet();
+            notify.accept(new UploadStatus(file, UploadState.RETRYING, attempt, null, lastError));
+            try {
+                TimeUnit.MILLISECONDS.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return finish(notify, new UploadStatus(file, UploadState.FAILED, attempt, null, "Interrupted"));
+            }
+        }
+        // only reached with maxAttempts < 1
+        return finish(notify, new UploadStatus(file, UploadState.FAILED, 0, null, "No attempts allowed"));
+    }
+
+    /**
+     * Reports and returns a final status.
+     *
+     * @param notify state change listener.
+     * @param status the final status.
+     * @return the status.
+     */
+    private UploadStatus finish(Consumer<UploadStatus> notify, UploadStatus status) {
+        if (status.getState() == UploadState.FAILED) {
+            log.warn("Upload of {} failed after {} attempt(s): {}", status.getFile().getName(), status.getAttempts(), status.getError());
+        }
+        notify.accept(status);
+        return status;
+    }
+
+    /**
+     * Returns the delay before the next attempt: full jitter over an exponentially growing
+     * window, but never shorter than a {@code Retry-After} the service sent.
+     *
+     * @param attempt the attempt that just failed, starting at 1.
+     * @param error   the failure.
+     * @return delay in milliseconds.
+     */
+    private long backoffMillis(int attempt, DriveUploadException error) {
+        long window = Math.min(policy.getMaxBackoffMillis(), policy.getBaseBackoffMillis() << Math.min(attempt - 1, 20));
+        long delay = ThreadLocalRandom.current().nextLong(window + 1);
+        HttpResponseException response = findCause(error, HttpResponseException.class);
+        if (response != null && response.getHeaders() != null && response.getHeaders().getRetryAfter() != null) {
+            try {
+                long retryAfter = TimeUnit.SECONDS.toMillis(Long.parseLong(response.getHeaders().getRetryAfter().trim()));
+                delay = Math.max(delay, Math.min(retryAfter, policy.getMaxBackoffMillis()));
+            } catch (NumberFormatException e) {
+                // HTTP-date form, keep the computed delay
+            }
+        }
+        return delay;
+    }
+
+    /**
+     * Classifies a failed attempt by its HTTP status and error reason.
+     *
+     * @param error the failure.
+     * @return how to handle it.
+     */
+    private static Failure classify(DriveUploadException error) {
+        HttpResponseException response = findCause(error, HttpResponseException.class);
+        if (response == null) {
+            // no HTTP response: a network error is worth retrying, a validation error is not
+            return findCause(error, IOException.class) != null ? Failure.TRANSIENT : Failure.PERMANENT;
+        }
+        int status = response.getStatusCode();
+        if (status == 429 || (status == 403 && isRateLimitReason(response))) {
+            return Failure.THROTTLED;
+        }
+        return status >= 500 || status == 408 ? Failure.TRANSIENT : Failure.PERMANENT;
+    }
+
+    /**
+     * Checks whether a 403 response is Drive's rate limit error.
+     *
+     * @param response the response error.
+     * @return true for {@code rateLimitExceeded} and {@code userRateLimitExceeded}.
+     */
+    private static boolean isRateLimitReason(HttpResponseException response) {
+        if (!(response instanceof GoogleJsonResponseException json) || json.getDetails() == null
+                || json.getDetails().getErrors() == null) {
+            return false;
+        }
+        for (GoogleJsonError.ErrorInfo info : json.getDetails().getErrors()) {
+            if (RATE_LIMIT_REASONS.contains(info.getReason())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Describes a failure for the status report, including the HTTP status if there is one.
+     *
+     * @param error the failure.
+     * @return the description.
+     */
+    private static String describe(DriveUploadException error) {
+        HttpResponseException response = findCause(error, HttpResponseException.class);
+        if (response == null) {
+            Throwable cause = error.getCause();
+            return cause == null ? error.getMessage() : error.getMessage() + ": " + cause.getMessage();
+        }
+        return "HTTP " + response.getStatusCode() + " " + response.getStatusMessage();
+    }
+
+    /**
+     * Finds the first cause of the given type.
+     *
+     * @param error the error.
+     * @param type  the cause type.
+     * @param <T>   the cause type.
+     * @return the cause, or null if there is none.
+     */
+    private static <T extends Throwable> T findCause(Throwable error, Class<T> type) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (type.isInstance(cause)) {
+                return type.cast(cause);
+            }
+        }
+        return null;
+    }
+}
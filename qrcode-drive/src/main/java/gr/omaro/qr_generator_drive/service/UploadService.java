@@ -0,0 +1,203 @@
+package gr.omaro.qr_generator_drive.service;
+
+import gr.omaro.qr_generator.exception.ConfigExeption;
+import gr.omaro.qr_generator.util.ConfigUtil;
+import gr.omaro.qr_generator.enums.SupportedFileType;
+import gr.omaro.qr_generator_drive.enums.UploadState;
+import gr.omaro.qr_generator_drive.exception.DriveUploadException;
+import gr.omaro.qr_generator_drive.model.UploadPolicy;
+import gr.omaro.qr_generator_drive.model.UploadStatus;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.*;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Upload service responsible for file validation and upload, shared by the GUI and the CLI.
+ */
+@Slf4j
+public class UploadService {
+
+    /**
+     * Uploader instance used to send files to Google Drive.
+     */
+    private final FileUploader uploader;
+
+    /**
+     * Initializes the service with a {@link GoogleDriveService} that skips content uploaded before.
+     * <p>
+     * If the upload index cannot be opened, uploads still work but are not deduplicated.
+     *
+     * @throws DriveUploadException if the service fails to initialize.
+     */
+    public UploadService() throws DriveUploadException {
+        FileUploader drive = new GoogleDriveService();
+        FileUploader selected;
+        try {
+            selected = new DeduplicatingUploader(drive, UploadIndex.open(Paths.get(ConfigUtil.getUploadIndexPath())));
+        } catch (IOException e) {
+            log.warn("Upload index unavailable, uploads will not be deduplicated", e);
+            selected = drive;
+        }
+        this.uploader = selected;
+    }
+
+    /**
+     * Initializes the service with the given uploader.
+     *
+     * @param uploader uploader used to send validated files.
+     */
+    public UploadService(FileUploader uploader) {
+        this.uploader = uploader;
+    }
+
+    /**
+     * Returns the upload policy configured by {@code upload.rate.per.second} and
+     * {@code upload.max.concurrency}.
+     *
+     * @return the configured policy.
+     * @throws DriveUploadException if the upload settings cannot be read.
+     */
+    public static UploadPolicy configuredPolicy() throws DriveUploadException {
+        try {
+            return UploadPolicy.builder()
+                    .permitsPerSecond(ConfigUtil.getUploadRatePerSecond())
+                    .maxConcurrency(ConfigUtil.getUploadMaxConcurrency())
+                    .build();
+        } catch (ConfigExeption e) {
+            throw new DriveUploadException("Failed to load upload config.", e);
+        }
+    }
+
+    /**
+     * Uploads a validated PDF file to Google Drive.
+     *
+     * @param pdfFile the PDF file to upload.
+     * @return URL of the uploaded file.
+     * @throws DriveUploadException if upload fails or file is invalid.
+     */
+    public String uploadPDF(File pdfFile) throws DriveUploadException {
+        validateFileFromConfig(pdfFile);
+        return uploader.uploadPDF(pdfFile);
+    }
+
+    /**
+     * Uploads several PDF files, keeping within the configured upload rate and backing off
+     * when Google Drive throttles.
+     * <p>
+     * Files that fail validation are reported as {@link UploadState#FAILED} without being sent.
+     *
+     * @param pdfFiles the PDF files to upload.
+     * @param listener receives every state change, called from background threads; may be null.
+     * @return the final status of every file, in the given order.
+     * @throws DriveUploadException if the upload settings cannot be read.
+     */
+    public List<UploadStatus> uploadAll(List<File> pdfFiles, Consumer<UploadStatus> listener) throws DriveUploadException {
+        return uploadAll(pdfFiles, configuredPolicy(), listener);
+    }
+
+    /**
+     * Uploads several PDF files under the given rate and concurrency limits.
+     * <p>
+     * Files that fail validation are reported as {@link UploadState#FAILED} without being sent.
+     *
+     * @param pdfFiles the PDF files to upload.
+     * @param policy   limits and retry settings.
+     * @param listener receives every state change, called from background threads; may be null.
+     * @return the final status of every file, in the given order.
+     */
+    public List<UploadStatus> uploadAll(List<File> pdfFiles, UploadPolicy policy, Consumer<UploadStatus> listener) {
+        List<File> valid = new ArrayList<>();
+        List<UploadStatus> rejected = new ArrayList<>();
+        for (File file : pdfFiles) {
+            try {
+                validateFileFromConfig(file);
+                valid.add(file);
+            } catch (DriveUploadException e) {
+                UploadStatus status = new UploadStatus(file, UploadState.FAILED, 0, null, e.getMessage());
+                rejected.add(status);
+                if (listener != null) {
+                    listener.accept(status);
+                }
+            }
+        }
+
+        List<UploadStatus> uploaded;
+        try (UploadScheduler scheduler = new UploadScheduler(uploader, policy)) {
+            uploaded = scheduler.uploadAll(valid, listener);
+        }
+        // restore the caller's order
+        List<UploadStatus> results = new ArrayList<>(pdfFiles.size());
+        int u = 0, r = 0;
+        for (File file : pdfFiles) {
+            boolean wasUploaded = u < valid.size() && valid.get(u) == file;
+            results.add(wasUploaded ? uploaded.get(u++) : rejected.get(r++));
+        }
+        return results;
+    }
+
+    /**
+     * Opens a scheduler for uploads submitted one by one, e.g. from a queue in a UI.
+     *
+     * @param policy limits and retry settings.
+     * @return a new scheduler; the caller closes it.
+     */
+    public UploadScheduler openScheduler(UploadPolicy policy) {
+        return new UploadScheduler(uploader, policy);
+    }
+
+    /**
+     * Validates a PDF file and queues it on a scheduler from {@link #openScheduler(UploadPolicy)}.
+     * <p>
+     * A file that fails validation is reported as {@link UploadState#FAILED} without being sent.
+     *
+     * @param pdfFile   the PDF file to upload.
+     * @param scheduler the scheduler to queue on.
+     * @param listener  receives every state change, called from background threads; may be null.
+     * @return future completed with the final status; it never completes exceptionally.
+     */
+    public CompletableFuture<UploadStatus> submit(File pdfFile, UploadScheduler scheduler, Consumer<UploadStatus> listener) {
+        try {
+            validateFileFromConfig(pdfFile);
+        } catch (DriveUploadException e) {
+            UploadStatus status = new UploadStatus(pdfFile, UploadState.FAILED, 0, null, e.getMessage());
+            if (listener != null) {
+                listener.accept(status);
+            }
+            return CompletableFuture.completedFuture(status);
+        }
+        return scheduler.submit(pdfFile, listener);
+    }
+
+    /**
+     * Validates file type and size based on configuration.
+     *
+     * @param file the file to validate.
+     * @throws DriveUploadException if the file is not valid.
+     */
+    private void validateFileFromConfig(File file) throws DriveUploadException {
+        if (file == null || !file.exists()) {
+            throw new DriveUploadException("The file does not exist.");
+        }
+
+        try {
+            // Check file extension
+            SupportedFileType actualType = SupportedFileType.fromFileName(file.getName());
+            if (actualType == null || !ConfigUtil.getAcceptedFileTypes().contains(actualType)) {
+                throw new DriveUploadException("File type is not accepted.");
+            }
+            // Check file size
+            long maxSize = ConfigUtil.getMaxUploadFileSizeBytes();
+            if (file.length() > maxSize) {
+                throw new DriveUploadException("File exceeds max size (" + maxSize + " bytes).");
+            }
+
+        } catch (ConfigExeption e) {
+            throw new DriveUploadException("Failed to load validation config.", e);
+        }
+    }
+}
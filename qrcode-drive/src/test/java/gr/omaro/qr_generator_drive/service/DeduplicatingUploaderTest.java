@@ -0,0 +1,67 @@
+package gr.omaro.qr_generator_drive.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DeduplicatingUploaderTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void sameContentIsUploadedOnce() throws Exception {
+        File first = pdf("a.pdf", "same");
+        File copy = pdf("b.pdf", "same");
+        AtomicInteger uploads = new AtomicInteger();
+        try (UploadIndex index = UploadIndex.open(dir.resolve("index.dat"))) {
+            FileUploader uploader = new DeduplicatingUploader(
+                    file -> "https://example.com/" + uploads.incrementAndGet(), index);
+
+            assertEquals("https://example.com/1", uploader.uploadPDF(first));
+            assertEquals("https://example.com/1", uploader.uploadPDF(copy));
+            assertEquals(1, uploads.get());
+        }
+    }
+
+    @Test
+    void linkTooLongToIndexIsStillReturned() throws Exception {
+        File pdf = pdf("long.pdf", "long");
+        String link = "https://example.com/" + "x".repeat(0x10000);
+        AtomicInteger uploads = new AtomicInteger();
+        try (UploadIndex index = UploadIndex.open(dir.resolve("index.dat"))) {
+            FileUploader uploader = new DeduplicatingUploader(file -> {
+                uploads.incrementAndGet();
+                return link;
+            }, index);
+
+            assertEquals(link, uploader.uploadPDF(pdf));
+            assertEquals(0, index.size());
+            // not recorded, so the next upload of the content goes to the delegate again
+            assertEquals(link, uploader.uploadPDF(pdf));
+            assertEquals(2, uploads.get());
+        }
+    }
+
+    /**
+     * Writes a small PDF file.
+     *
+     * @param name file name.
+     * @param text distinguishing content.
+     * @return the file.
+     * @throws IOException if the file cannot be written.
+     */
+    private File pdf(String name, String text) throws IOException {
+        Path pdf = dir.resolve(name);
+        Files.write(pdf, ("%PDF-1.4\n% " + text + "\n%%EOF\n").getBytes(StandardCharsets.US_ASCII));
+        return pdf.toFile();
+    }
+}
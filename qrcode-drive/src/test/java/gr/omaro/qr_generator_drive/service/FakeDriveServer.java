@@ -0,0 +1,196 @@
+package gr.omaro.qr_generator_drive.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Minimal stand-in for the Drive resumable upload endpoint that throttles like the real one.
+ * <p>
+ * Upload sessions started faster than {@code ratePerSecond} (over a sliding one second window)
+ * are refused with either 403 {@code userRateLimitExceeded} or 429 with {@code Retry-After};
+ * a small share of the remaining requests fails with 503.
+ */
+class FakeDriveServer implements AutoCloseable {
+
+    /**
+     * Body of a Drive rate limit error.
+     */
+    private static final String RATE_LIMIT_ERROR = "{\"error\":{\"errors\":[{\"domain\":\"usageLimits\","
+            + "\"reason\":\"userRateLimitExceeded\",\"message\":\"User rate limit exceeded.\"}],"
+            + "\"code\":403,\"message\":\"User rate limit exceeded.\"}}";
+
+    /**
+     * The HTTP server.
+     */
+    private final HttpServer server;
+    /**
+     * Sessions allowed per second.
+     */
+    private final int ratePerSecond;
+    /**
+     * Share of requests failing with 503.
+     */
+    private final double serverErrorRate;
+    /**
+     * Start times of the sessions accepted within the last second.
+     */
+    private final Deque<Long> recent = new ArrayDeque<>();
+    /**
+     * Sequence for file ids.
+     */
+    private final AtomicInteger ids = new AtomicInteger();
+    /**
+     * Number of throttled requests.
+     */
+    private final AtomicInteger throttled = new AtomicInteger();
+    /**
+     * Number of 503 responses.
+     */
+    private final AtomicInteger serverErrors = new AtomicInteger();
+
+    /**
+     * Starts the server on a free local port.
+     *
+     * @param ratePerSecond   sessions allowed per second.
+     * @param serverErrorRate share of requests failing with 503.
+     * @throws IOException if the server cannot be started.
+     */
+    FakeDriveServer(int ratePerSecond, double serverErrorRate) throws IOException {
+        this.ratePerSecond = ratePerSecond;
+        this.serverErrorRate = serverErrorRate;
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/upload/drive/v3/files", this::handle);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+    }
+
+    /**
+     * Returns the root URL to configure the Drive client with.
+     *
+     * @return the root URL, ending with a slash.
+     */
+    String rootUrl() {
+        return "http://localhost:" + server.getAddress().getPort() + "/";
+    }
+
+    /**
+     * Returns the number of throttled requests.
+     *
+     * @return throttled requests.
+     */
+    int throttledCount() {
+        return throttled.get();
+    }
+
+    /**
+     * Returns the number of 503 responses.
+     *
+     * @return server errors.
+     */
+    int serverErrorCount() {
+        return serverErrors.get();
+    }
+
+    /**
+     * Stops the server.
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        ((java.util.concurrent.ExecutorService) server.getExecutor()).shutdownNow();
+    }
+
+    /**
+     * Handles session starts (POST) and content uploads (PUT), answering 308 to all but the last chunk.
+     *
+     * @param exchange the exchange.
+     * @throws IOException if the exchange fails.
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange; InputStream body = exchange.getRequestBody()) {
+            body.readAllBytes();
+            if (ThreadLocalRandom.current().nextDouble() < serverErrorRate) {
+                serverErrors.incrementAndGet();
+                send(exchange, 503, "{\"error\":{\"code\":503,\"message\":\"Backend Error\"}}");
+                return;
+            }
+            if ("POST".equals(exchange.getRequestMethod())) {
+                if (!admit()) {
+                    throttled.incrementAndGet();
+                    if (ThreadLocalRandom.current().nextBoolean()) {
+                        send(exchange, 403, RATE_LIMIT_ERROR);
+                    } else {
+                        exchange.getResponseHeaders().set("Retry-After", "1");
+                        send(exchange, 429, "{\"error\":{\"code\":429,\"message\":\"Too Many Requests\"}}");
+                    }
+                    return;
+                }
+                String session = exchange.getRequestURI().getPath() + "?upload_id=" + ids.incrementAndGet();
+                exchange.getResponseHeaders().set("Location", rootUrl() + session.substring(1));
+                send(exchange, 200, "");
+            } else {
+                TimeUnit.MILLISECONDS.sleep(30);
+                // "bytes first-last/total": ask for the next chunk until the last byte arrived
+                String range = exchange.getRequestHeaders().getFirst("Content-Range");
+                if (range != null && range.matches("bytes \\d+-\\d+/\\d+")) {
+                    String[] parts = range.substring(6).split("[-/]");
+                    if (Long.parseLong(parts[1]) + 1 < Long.parseLong(parts[2])) {
+                        exchange.getResponseHeaders().set("Range", "bytes=0-" + parts[1]);
+                        send(exchange, 308, "");
+                        return;
+                    }
+                }
+                String id = exchange.getRequestURI().getQuery();
+                send(exchange, 200, "{\"id\":\"fake-" + id.substring(id.indexOf('=') + 1) + "\"}");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Checks the sliding window rate limit and records an accepted session.
+     *
+     * @return true if the session is within the limit.
+     */
+    private synchronized boolean admit() {
+        long now = System.nanoTime();
+        while (!recent.isEmpty() && now - recent.peekFirst() > TimeUnit.SECONDS.toNanos(1)) {
+            recent.pollFirst();
+        }
+        if (recent.size() >= ratePerSecond) {
+            return false;
+        }
+        recent.addLast(now);
+        return true;
+    }
+
+    /**
+     * Sends a JSON response.
+     *
+     * @param exchange the exchange.
+     * @param status   HTTP status.
+     * @param json     response body.
+     * @throws IOException if writing fails.
+     */
+    private static void send(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package gr.omaro.qr_generator_drive.service;
+
+import com.google.api.client.http.javanet.NetHttpTransport;
+import com.google.api.services.drive.Drive;
+import gr.omaro.qr_generator.util.ConfigUtil;
+import gr.omaro.qr_generator_drive.enums.UploadState;
+import gr.omaro.qr_generator_drive.model.UploadPolicy;
+import gr.omaro.qr_generator_drive.model.UploadStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UploadSchedulerTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @Timeout(120)
+    void throttledBulkUploadIsRetriedWithASmallerLimitUntilEveryFileIsDone() throws Exception {
+        // the uploader reads the target folder from the config
+        ConfigUtil.initialize();
+        int serverRate = 10;
+        List<File> files = pdfs(40);
+        // client deliberately configured above the server limit so that throttling kicks in
+        UploadPolicy policy = UploadPolicy.builder()
+                .permitsPerSecond(serverRate * 2.0)
+                .burst(serverRate * 2)
+                .initialConcurrency(8)
+                .baseBackoffMillis(200)
+                .maxBackoffMillis(2000)
+                .maxAttempts(12)
+                .build();
+
+        try (FakeDriveServer server = new FakeDriveServer(serverRate, 0.03)) {
+            Drive drive = new Drive.Builder(new NetHttpTransport(), AbstractDriveService.JSON_FACTORY, null)
+                    .setRootUrl(server.rootUrl())
+                    .setApplicationName("UploadSchedulerTest")
+                    .build();
+            AtomicInteger lowestLimit = new AtomicInteger(Integer.MAX_VALUE);
+            try (UploadScheduler scheduler = new UploadScheduler(new GoogleDriveService(drive), policy)) {
+                List<UploadStatus> results = scheduler.uploadAll(files,
+                        status -> lowestLimit.accumulateAndGet(scheduler.getConcurrencyLimit(), Math::min));
+
+                for (UploadStatus status : results) {
+                    assertEquals(UploadState.DONE, status.getState(), status.getFile().getName() + ": " + status.getError());
+                    assertNotNull(status.getUrl());
+                }
+                assertTrue(server.throttledCount() > 0, "the server never throttled");
+                assertTrue(scheduler.getThrottledCount() > 0, "no throttling response was recognised");
+                assertTrue(scheduler.getRetryCount() >= scheduler.getThrottledCount(), "throttled uploads were not retried");
+                assertTrue(lowestLimit.get() < policy.getInitialConcurrency(),
+                        "the concurrency limit never shrank below " + policy.getInitialConcurrency());
+            }
+        }
+    }
+
+    @Test
+    @Timeout(30)
+    void unexpectedUploaderErrorsFailTheFileAndFreeTheSlot() throws Exception {
+        List<File> files = pdfs(6);
+        UploadPolicy policy = UploadPolicy.builder().initialConcurrency(1).minConcurrency(1).maxConcurrency(1).build();
+        FileUploader uploader = file -> {
+            if (file.getName().endsWith("-1.pdf") || file.getName().endsWith("-4.pdf")) {
+                throw new IllegalStateException("boom");
+            }
+            return "https://example.com/" + file.getName();
+        };
+        try (UploadScheduler scheduler = new UploadScheduler(uploader, policy)) {
+            UploadStatus failed = scheduler.submit(files.get(1), status -> {
+                throw new IllegalArgumentException("listener bug");
+            }).get(10, TimeUnit.SECONDS);
+            assertEquals(UploadState.FAILED, failed.getState());
+            assertTrue(failed.getError().contains("boom"), failed.getError());
+
+            // with a single slot, a leaked one would block every later upload
+            List<UploadStatus> results = scheduler.uploadAll(files, null);
+            for (int i = 0; i < files.size(); i++) {
+                assertEquals(i == 1 || i == 4 ? UploadState.FAILED : UploadState.DONE, results.get(i).getState());
+            }
+            assertEquals(1, scheduler.getConcurrencyLimit());
+        }
+    }
+
+    /**
+     * Writes small PDF files.
+     *
+     * @param count number of files.
+     * @return the files.
+     * @throws IOException if a file cannot be written.
+     */
+    private List<File> pdfs(int count) throws IOException {
+        List<File> files = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Path pdf = dir.resolve("doc-" + i + ".pdf");
+            Files.write(pdf, ("%PDF-1.4\n% " + i + "\n%%EOF\n").getBytes(StandardCharsets.US_ASCII));
+            files.add(pdf.toFile());
+        }
+        return files;
+    }
+}
@@ -1,12 +1,16 @@
 package gr.omaro.qr_generator_gui;
 
+import gr.omaro.qr_generator.exception.ConfigExeption;
+import gr.omaro.qr_generator.util.ConfigUtil;
 import gr.omaro.qr_generator_gui.ui.QRAppUI;
 import javafx.application.Application;
 import javafx.stage.Stage;
+import lombok.extern.slf4j.Slf4j;
 
 /**
  * Entry point for the QR Code Generator JavaFX GUI.
  */
+@Slf4j
 public class GUIMain extends Application {
 
     /**
@@ -16,6 +20,12 @@ public class GUIMain extends Application {
      */
     @Override
     public void start(Stage stage) {
+        try {
+            // the window stays open for long, so follow edits of the external config file
+            ConfigUtil.watchForChanges();
+        } catch (ConfigExeption e) {
+            log.warn("Configuration is not reloaded automatically: {}", e.getMessage());
+        }
         new QRAppUI().start(stage);
     }
 
@@ -2,19 +2,21 @@ package gr.omaro.qr_generator_gui.ui;
 
 import gr.omaro.qr_generator.exception.ConfigExeption;
 import gr.omaro.qr_generator.exception.QRException;
-import gr.omaro.qr_generator_gui.exception.DriveUploadException;
-import gr.omaro.qr_generator_gui.service.QRService;
+import gr.omaro.qr_generator_drive.enums.ConnectionState;
+import gr.omaro.qr_generator_drive.exception.DriveUploadException;
+import gr.omaro.qr_generator_drive.model.UploadPolicy;
+import gr.omaro.qr_generator_drive.service.DriveConnection;
+import gr.omaro.qr_generator_drive.service.UploadService;
 import javafx.animation.FadeTransition;
 import javafx.animation.PauseTransition;
 import javafx.application.Platform;
-import javafx.concurrent.Task;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
-import javafx.scene.control.ProgressIndicator;
 import javafx.scene.control.TextField;
+import javafx.scene.control.Tooltip;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.StackPane;
 import javafx.scene.layout.VBox;
@@ -49,6 +51,14 @@ public class QRAppUI {
      * Label to display status messages to the user.
      */
     private Label statusLabel;
+    /**
+     * Google Drive connection, authorized on first upload or warmed up from a stored token.
+     */
+    private final DriveConnection driveConnection = new DriveConnection();
+    /**
+     * Queue of uploads shown below the generator.
+     */
+    private UploadQueuePanel uploadQueue;
 
     /**
      * Default dimension value used if none is provided.
@@ -70,6 +80,8 @@ public class QRAppUI {
         stage.setMaximized(true);
         stage.setResizable(true);
         stage.show();
+        // with a stored token this needs no browser, so connect while the user is still typing
+        driveConnection.warmUpIfAuthorized();
     }
 
     /**
@@ -90,18 +102,20 @@ public class QRAppUI {
         heightField.setPrefWidth(80);
 
         statusLabel = createStatusLabel();
+        uploadQueue = new UploadQueuePanel(driveConnection, configuredParallelism());
         Button generateButton = createGenerateButton();
         Button uploadButton = createUploadButton();
 
         HBox inputRow = new HBox(10, inputField, widthField, heightField, generateButton, uploadButton);
         inputRow.setAlignment(Pos.CENTER);
 
-        VBox content = new VBox(20, header, inputRow, statusLabel);
+        VBox content = new VBox(20, header, inputRow, statusLabel, uploadQueue.getNode());
         content.setPadding(new Insets(30));
         content.setAlignment(Pos.CENTER);
 
         StackPane root = new StackPane(content);
         root.getStyleClass().add("root");
+        uploadQueue.installDropTarget(root);
         return root;
     }
 
@@ -166,91 +180,69 @@ public class QRAppUI {
     }
 
     /**
-     * Creates an Upload button and binds it to file chooser and upload logic.
+     * Creates an Upload button that adds the chosen PDFs to the upload queue.
+     * <p>
+     * The button shows the state of the Drive connection; Drive is only contacted on the first
+     * upload unless a stored token allowed connecting at startup.
      *
      * @return the configured upload button.
      */
     private Button createUploadButton() {
         Button uploadButton = new Button("Upload");
         uploadButton.getStyleClass().add("button");
-
-        QRService qrService = createQrServiceSafely();
-        if (qrService == null) return uploadButton;
+        showConnectionState(uploadButton, driveConnection.getState());
+        driveConnection.addListener(state -> Platform.runLater(() -> showConnectionState(uploadButton, state)));
 
         uploadButton.setOnAction(event -> {
             Stage stage = (Stage) inputField.getScene().getWindow();
             FileChooser fileChooser = new FileChooser();
-            fileChooser.setTitle("Select PDF to Upload");
+            fileChooser.setTitle("Select PDFs to Upload");
             fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("PDF Files", "*.pdf"));
-            File selectedFile = fileChooser.showOpenDialog(stage);
-
-            handleUploadAction(stage, selectedFile, qrService);
+            uploadQueue.addFiles(fileChooser.showOpenMultipleDialog(stage));
         });
 
         return uploadButton;
     }
 
     /**
-     * Handles the file upload process with visual overlay and background task.
+     * Updates the upload button to reflect the Drive connection.
+     *
+     * @param button the upload button.
+     * @param state  the connection state.
      */
-    private void handleUploadAction(Stage stage, File selectedFile, QRService qrService) {
-        if (selectedFile == null) return;
-
-        StackPane root = (StackPane) stage.getScene().getRoot();
-
-        StackPane overlay = new StackPane();
-        overlay.setStyle("-fx-background-color: rgba(0, 0, 0, 0.3);");
-        overlay.setPickOnBounds(true);
-        overlay.setMaxSize(Double.MAX_VALUE, Double.MAX_VALUE);
-        overlay.prefWidthProperty().bind(root.widthProperty());
-        overlay.prefHeightProperty().bind(root.heightProperty());
-
-        ProgressIndicator spinner = new ProgressIndicator();
-        spinner.setMaxSize(60, 60);
-        overlay.getChildren().add(spinner);
-        StackPane.setAlignment(spinner, Pos.CENTER);
-
-        Platform.runLater(() -> root.getChildren().add(overlay));
-
-        // Background upload task
-        Task<Void> uploadTask = new Task<>() {
-            @Override
-            protected Void call() {
-                try {
-                    String uploadedUrl = qrService.uploadPDF(selectedFile);
-                    Platform.runLater(() -> {
-                        root.getChildren().remove(overlay);
-                        showToast(stage, "Uploaded successfully:\n" + uploadedUrl);
-                    });
-                } catch (DriveUploadException e) {
-                    Platform.runLater(() -> {
-                        root.getChildren().remove(overlay);
-                        showToast(stage, "Upload failed: " + e.getMessage());
-                    });
-                } catch (Exception e) {
-                    Platform.runLater(() -> {
-                        root.getChildren().remove(overlay);
-                        showToast(stage, "An error has occurred: " + e.getMessage());
-                    });
-                }
-                return null;
+    private void showConnectionState(Button button, ConnectionState state) {
+        button.getStyleClass().remove("connecting");
+        switch (state) {
+            case CONNECTING -> {
+                button.setText("Connecting...");
+                button.getStyleClass().add("connecting");
+                button.setTooltip(new Tooltip("Connecting to Google Drive"));
             }
-        };
-
-        new Thread(uploadTask).start();
+            case READY -> {
+                button.setText("Upload");
+                button.setTooltip(new Tooltip("Connected to Google Drive"));
+            }
+            case FAILED -> {
+                button.setText("Upload");
+                button.setTooltip(new Tooltip("Google Drive connection failed, uploading will try again"));
+            }
+            default -> {
+                button.setText("Upload");
+                button.setTooltip(new Tooltip("Connects to Google Drive on first upload"));
+            }
+        }
     }
 
     /**
-     * Initializes QRService with error handling.
+     * Returns the configured upload concurrency, used as the initial queue parallelism.
      *
-     * @return an instance or null if failed.
+     * @return uploads allowed at once.
      */
-    private QRService createQrServiceSafely() {
+    private int configuredParallelism() {
         try {
-            return new QRService();
-        } catch (Exception e) {
-            showToast(null, "Failed to initialize QRService: " + e.getMessage());
-            return null;
+            return UploadService.configuredPolicy().getMaxConcurrency();
+        } catch (DriveUploadException e) {
+            return UploadPolicy.builder().build().getMaxConcurrency();
         }
     }
 
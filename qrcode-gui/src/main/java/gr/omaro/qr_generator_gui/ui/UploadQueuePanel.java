@@ -0,0 +1,378 @@
+package gr.omaro.qr_generator_gui.ui;
+
+import gr.omaro.qr_generator_drive.enums.UploadState;
+import gr.omaro.qr_generator_drive.exception.DriveUploadException;
+import gr.omaro.qr_generator_drive.model.UploadPolicy;
+import gr.omaro.qr_generator_drive.model.UploadStatus;
+import gr.omaro.qr_generator_drive.service.DriveConnection;
+import gr.omaro.qr_generator_drive.service.UploadScheduler;
+import gr.omaro.qr_generator_drive.service.UploadService;
+import javafx.application.Platform;
+import javafx.geometry.Pos;
+import javafx.scene.Node;
+import javafx.scene.control.Button;
+import javafx.scene.control.Hyperlink;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
+import javafx.scene.control.ScrollPane;
+import javafx.scene.control.Spinner;
+import javafx.scene.control.Tooltip;
+import javafx.scene.input.Clipboard;
+import javafx.scene.input.ClipboardContent;
+import javafx.scene.input.DragEvent;
+import javafx.scene.input.TransferMode;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.Region;
+import javafx.scene.layout.VBox;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Queue of PDF uploads shown below the generator.
+ * <p>
+ * Files are added with the Upload button or by dropping them on the window. They upload in
+ * the background, up to the chosen number at once, with a progress bar per file; the rest of
+ * the window stays usable.
+ */
+public class UploadQueuePanel {
+
+    /**
+     * Largest parallelism selectable in the spinner.
+     */
+    private static final int MAX_PARALLEL_UPLOADS = 16;
+
+    /**
+     * Google Drive connection, shared with the Upload button.
+     */
+    private final DriveConnection driveConnection;
+    /**
+     * Rows of the queued files.
+     */
+    private final VBox rows = new VBox(6);
+    /**
+     * The panel.
+     */
+    private final VBox panel;
+    /**
+     * Number of uploads allowed at once.
+     */
+    private final Spinner<Integer> parallelism;
+    /**
+     * Counts of queued, running and finished files.
+     */
+    private final Label summary = new Label("Drop PDF files here or use Upload");
+    /**
+     * Rows in the order they were added.
+     */
+    private final List<QueueRow> queue = new ArrayList<>();
+    /**
+     * Scheduler for new uploads, created on the first upload and replaced when the parallelism changes.
+     */
+    private UploadScheduler scheduler;
+    /**
+     * Parallelism the current scheduler was opened with.
+     */
+    private int schedulerParallelism;
+    /**
+     * Uploads queued on the current scheduler, so it can be closed once they finish.
+     */
+    private List<CompletableFuture<UploadStatus>> schedulerUploads = new ArrayList<>();
+
+    /**
+     * Builds the panel.
+     *
+     * @param driveConnection the Google Drive connection.
+     * @param initialParallelism uploads allowed at once until the user changes it.
+     */
+    public UploadQueuePanel(DriveConnection driveConnection, int initialParallelism) {
+        this.driveConnection = driveConnection;
+        this.parallelism = new Spinner<>(1, MAX_PARALLEL_UPLOADS, Math.max(1, Math.min(MAX_PARALLEL_UPLOADS, initialParallelism)));
+        parallelism.setPrefWidth(80);
+        parallelism.setTooltip(new Tooltip("Uploads running at once; applies to files added afterwards"));
+
+        Label title = new Label("Uploads");
+        title.getStyleClass().add("queue-title");
+        Button clearButton = new Button("Clear finished");
+        clearButton.getStyleClass().add("queue-button");
+        clearButton.setOnAction(event -> clearFinished());
+        Region spacer = new Region();
+        HBox.setHgrow(spacer, Priority.ALWAYS);
+        HBox header = new HBox(10, title, summary, spacer, new Label("Parallel:"), parallelism, clearButton);
+        header.setAlignment(Pos.CENTER_LEFT);
+
+        ScrollPane scroll = new ScrollPane(rows);
+        scroll.setFitToWidth(true);
+        scroll.setPrefViewportHeight(220);
+        scroll.getStyleClass().add("queue-list");
+
+        panel = new VBox(8, header, scroll);
+        panel.getStyleClass().add("upload-queue");
+        panel.setMaxWidth(900);
+    }
+
+    /**
+     * Returns the panel node.
+     *
+     * @return the node to add to the layout.
+     */
+    public Node getNode() {
+        return panel;
+    }
+
+    /**
+     * Lets files be dropped on a node to queue them.
+     *
+     * @param target the drop target, usually the window root.
+     */
+    public void installDropTarget(Node target) {
+        target.addEventHandler(DragEvent.DRAG_OVER, event -> {
+            if (event.getDragboard().hasFiles()) {
+                event.acceptTransferModes(TransferMode.COPY);
+            }
+            event.consume();
+        });
+        target.addEventHandler(DragEvent.DRAG_DROPPED, event -> {
+            boolean accepted = event.getDragboard().hasFiles();
+            if (accepted) {
+                addFiles(event.getDragboard().getFiles());
+            }
+            event.setDropCompleted(accepted);
+            event.consume();
+        });
+    }
+
+    /**
+     * Queues files for upload; must be called on the JavaFX thread.
+     * <p>
+     * Drive is connected first if needed. Invalid files are shown as failed.
+     *
+     * @param files the files to upload.
+     */
+    public void addFiles(List<File> files) {
+        if (files == null || files.isEmpty()) {
+            return;
+        }
+        List<QueueRow> added = new ArrayList<>(files.size());
+        for (File file : files) {
+            QueueRow row = new QueueRow(file);
+            queue.add(row);
+            rows.getChildren().add(row.box);
+            added.add(row);
+        }
+        int requested = parallelism.getValue();
+        updateSummary();
+
+        driveConnection.connect().whenComplete((service, error) -> {
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                Platform.runLater(() -> failAll(added, "Drive connection failed: " + cause.getMessage()));
+                return;
+            }
+            UploadScheduler target;
+            try {
+                target = schedulerFor(service, requested);
+            } catch (DriveUploadException e) {
+                Platform.runLater(() -> failAll(added, e.getMessage()));
+                return;
+            }
+            for (QueueRow row : added) {
+                CompletableFuture<UploadStatus> upload = service.submit(row.file, target,
+                        status -> Platform.runLater(() -> {
+                            row.show(status);
+                            updateSummary();
+                        }));
+                track(target, upload);
+            }
+        });
+    }
+
+    /**
+     * Returns the scheduler for new uploads, replacing it if the parallelism changed.
+     * <p>
+     * A replaced scheduler keeps running until its uploads have finished.
+     *
+     * @param service   the upload service.
+     * @param requested uploads allowed at once.
+     * @return the scheduler.
+     * @throws DriveUploadException if the upload settings cannot be read.
+     */
+    private synchronized UploadScheduler schedulerFor(UploadService service, int requested) throws DriveUploadException {
+        if (scheduler != null && schedulerParallelism == requested) {
+            return scheduler;
+        }
+        UploadPolicy policy = UploadService.configuredPolicy().toBuilder()
+                .initialConcurrency(requested)
+                .minConcurrency(1)
+                .maxConcurrency(requested)
+                .build();
+        if (scheduler != null) {
+            UploadScheduler retired = scheduler;
+            CompletableFuture.allOf(schedulerUploads.toArray(CompletableFuture[]::new))
+                    .whenComplete((ignored, error) -> retired.close());
+        }
+        scheduler = service.openScheduler(policy);
+        schedulerParallelism = requested;
+        schedulerUploads = new ArrayList<>();
+        return scheduler;
+    }
+
+    /**
+     * Remembers an upload of the current scheduler, dropping finished ones.
+     *
+     * @param owner  the scheduler the upload was queued on.
+     * @param upload the upload.
+     */
+    private synchronized void track(UploadScheduler owner, CompletableFuture<UploadStatus> upload) {
+        if (owner == scheduler) {
+            schedulerUploads.removeIf(CompletableFuture::isDone);
+            schedulerUploads.add(upload);
+        }
+    }
+
+    /**
+     * Marks rows as failed before their upload could start.
+     *
+     * @param failed  the rows.
+     * @param message the reason.
+     */
+    private void failAll(List<QueueRow> failed, String message) {
+        failed.forEach(row -> row.fail(message));
+        updateSummary();
+    }
+
+    /**
+     * Removes finished rows.
+     */
+    private void clearFinished() {
+        queue.removeIf(row -> {
+            if (row.finished) {
+                rows.getChildren().remove(row.box);
+            }
+            return row.finished;
+        });
+        updateSummary();
+    }
+
+    /**
+     * Shows how many files are waiting, running and done.
+     */
+    private void updateSummary() {
+        if (queue.isEmpty()) {
+            summary.setText("Drop PDF files here or use Upload");
+            return;
+        }
+        long done = queue.stream().filter(row -> row.state == UploadState.DONE).count();
+        long failed = queue.stream().filter(row -> row.state == UploadState.FAILED).count();
+        long running = queue.stream().filter(row -> row.state == UploadState.UPLOADING || row.state == UploadState.RETRYING).count();
+        summary.setText(String.format("%d uploading, %d waiting, %d done, %d failed",
+                running, queue.size() - done - failed - running, done, failed));
+    }
+
+    /**
+     * One file in the queue.
+     */
+    private static final class QueueRow {
+
+        /**
+         * The file.
+         */
+        final File file;
+        /**
+         * Row layout.
+         */
+        final HBox box;
+        /**
+         * Byte progress of the current attempt.
+         */
+        final ProgressBar progress = new ProgressBar(0);
+        /**
+         * State text.
+         */
+        final Label stateLabel = new Label("Waiting for Google Drive...");
+        /**
+         * Copies the link of the uploaded file.
+         */
+        final Hyperlink link = new Hyperlink("Copy link");
+        /**
+         * Last reported state; null until the scheduler reports one.
+         */
+        UploadState state;
+        /**
+         * Whether the upload has finished.
+         */
+        boolean finished;
+
+        /**
+         * Builds the row.
+         *
+         * @param file the file.
+         */
+        QueueRow(File file) {
+            this.file = file;
+            Label name = new Label(file.getName());
+            name.setPrefWidth(320);
+            name.setTooltip(new Tooltip(file.getAbsolutePath()));
+            progress.setPrefWidth(220);
+            link.setVisible(false);
+            link.setManaged(false);
+            box = new HBox(12, name, progress, stateLabel, link);
+            box.setAlignment(Pos.CENTER_LEFT);
+            box.getStyleClass().add("queue-row");
+        }
+
+        /**
+         * Shows a status reported by the scheduler.
+         *
+         * @param status the status.
+         */
+        void show(UploadStatus status) {
+            if (finished) {
+                return;
+            }
+            state = status.getState();
+            switch (state) {
+                case QUEUED -> stateLabel.setText("Queued");
+                case UPLOADING -> {
+                    progress.setProgress(status.getFractionSent());
+                    stateLabel.setText(String.format("Uploading %.0f%%", status.getFractionSent() * 100));
+                }
+                case RETRYING -> {
+                    progress.setProgress(0);
+                    stateLabel.setText("Retrying: " + status.getError());
+                }
+                case DONE -> {
+                    finished = true;
+                    progress.setProgress(1);
+                    stateLabel.setText("Done");
+                    link.setTooltip(new Tooltip(status.getUrl()));
+                    link.setOnAction(event -> {
+                        ClipboardContent content = new ClipboardContent();
+                        content.putString(status.getUrl());
+                        Clipboard.getSystemClipboard().setContent(content);
+                    });
+                    link.setManaged(true);
+                    link.setVisible(true);
+                }
+                case FAILED -> fail(status.getError());
+            }
+        }
+
+        /**
+         * Marks the upload as failed.
+         *
+         * @param message the reason.
+         */
+        void fail(String message) {
+            state = UploadState.FAILED;
+            finished = true;
+            progress.setProgress(0);
+            stateLabel.setText("Failed: " + message);
+            stateLabel.getStyleClass().add("queue-error");
+        }
+    }
+}